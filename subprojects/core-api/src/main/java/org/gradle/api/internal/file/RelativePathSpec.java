@@ -19,7 +19,7 @@ import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.specs.Spec;
 
-public class RelativePathSpec implements Spec<FileTreeElement> {
+public class RelativePathSpec implements Spec<FileTreeElement>, SubtreeSpec {
     private final Spec<? super RelativePath> pathSpec;
 
     public RelativePathSpec(Spec<? super RelativePath> pathSpec) {
@@ -29,4 +29,14 @@ public class RelativePathSpec implements Spec<FileTreeElement> {
     public boolean isSatisfiedBy(FileTreeElement element) {
         return pathSpec.isSatisfiedBy(element.getRelativePath());
     }
+
+    @Override
+    public boolean mayBeSatisfiedBelow(RelativePath directory) {
+        return SubtreeSpecs.mayBeSatisfiedBelow(pathSpec, directory);
+    }
+
+    @Override
+    public boolean isSatisfiedByAllBelow(RelativePath directory) {
+        return SubtreeSpecs.isSatisfiedByAllBelow(pathSpec, directory);
+    }
 }
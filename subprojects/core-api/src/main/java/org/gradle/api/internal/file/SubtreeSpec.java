@@ -0,0 +1,38 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file;
+
+import org.gradle.api.file.RelativePath;
+
+/**
+ * Implemented by specs that can tell how the elements below a directory are matched without visiting them, so that file tree walkers
+ * can skip whole subtrees. The answers are conservative: returning true from {@link #mayBeSatisfiedBelow(RelativePath)} or false from
+ * {@link #isSatisfiedByAllBelow(RelativePath)} is always correct.
+ *
+ * @see SubtreeSpecs
+ */
+public interface SubtreeSpec {
+    /**
+     * Returns false when none of the files and directories below the directory with the given path can satisfy this spec.
+     */
+    boolean mayBeSatisfiedBelow(RelativePath directory);
+
+    /**
+     * Returns true when all of the files and directories below the directory with the given path satisfy this spec.
+     */
+    boolean isSatisfiedByAllBelow(RelativePath directory);
+}
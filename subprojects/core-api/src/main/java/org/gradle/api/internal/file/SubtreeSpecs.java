@@ -0,0 +1,94 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file;
+
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.specs.AndSpec;
+import org.gradle.api.specs.OrSpec;
+import org.gradle.api.specs.Spec;
+import org.gradle.api.specs.Specs;
+
+/**
+ * Answers the questions of {@link SubtreeSpec} for arbitrary specs, looking through intersections and unions of specs.
+ * Any other spec may be satisfied by any element.
+ */
+public class SubtreeSpecs {
+    private SubtreeSpecs() {
+    }
+
+    /**
+     * Returns false when none of the elements below the directory with the given path can satisfy the given spec, so that the
+     * contents of the directory do not need to be visited.
+     */
+    public static boolean mayBeSatisfiedBelow(Spec<?> spec, RelativePath directory) {
+        if (spec == Specs.SATISFIES_NONE) {
+            return false;
+        }
+        if (spec instanceof SubtreeSpec) {
+            return ((SubtreeSpec) spec).mayBeSatisfiedBelow(directory);
+        }
+        if (spec.getClass() == AndSpec.class) {
+            for (Spec<?> element : ((AndSpec<?>) spec).getSpecs()) {
+                if (!mayBeSatisfiedBelow(element, directory)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (spec.getClass() == OrSpec.class && !((OrSpec<?>) spec).isEmpty()) {
+            for (Spec<?> element : ((OrSpec<?>) spec).getSpecs()) {
+                if (mayBeSatisfiedBelow(element, directory)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns true when all of the elements below the directory with the given path satisfy the given spec.
+     */
+    public static boolean isSatisfiedByAllBelow(Spec<?> spec, RelativePath directory) {
+        if (spec == Specs.SATISFIES_ALL) {
+            return true;
+        }
+        if (spec instanceof SubtreeSpec) {
+            return ((SubtreeSpec) spec).isSatisfiedByAllBelow(directory);
+        }
+        if (spec.getClass() == AndSpec.class) {
+            for (Spec<?> element : ((AndSpec<?>) spec).getSpecs()) {
+                if (!isSatisfiedByAllBelow(element, directory)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (spec.getClass() == OrSpec.class) {
+            if (((OrSpec<?>) spec).isEmpty()) {
+                return true;
+            }
+            for (Spec<?> element : ((OrSpec<?>) spec).getSpecs()) {
+                if (isSatisfiedByAllBelow(element, directory)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return false;
+    }
+}
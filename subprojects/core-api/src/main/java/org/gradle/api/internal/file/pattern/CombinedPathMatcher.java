@@ -0,0 +1,302 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Matches paths against a set of Ant-style patterns at once. The patterns are compiled into a trie over path segments, which is
+ * run as a non-deterministic automaton: each segment of a path is checked once against the transitions of the states reached so
+ * far, rather than once per pattern. Fixed segments are looked up by name.
+ *
+ * <p>Matches the same paths as the union of the {@link PathMatcher}s created by {@link PatternMatcherFactory#compile(boolean, String)}
+ * for each pattern. In addition, it can tell whether any path below a given directory may match, or whether all of them match.</p>
+ */
+public class CombinedPathMatcher implements PathMatcher {
+    private static final String PATH_SEPARATORS = "\\/";
+
+    private final boolean caseSensitive;
+    private final Node root = new Node(false);
+    private final String description;
+    private int minSegments = Integer.MAX_VALUE;
+    private int maxSegments;
+
+    public CombinedPathMatcher(boolean caseSensitive, Collection<String> patterns) {
+        this.caseSensitive = caseSensitive;
+        for (String pattern : patterns) {
+            add(pattern);
+        }
+        if (patterns.isEmpty()) {
+            minSegments = 0;
+        }
+        this.description = patterns.toString();
+    }
+
+    private void add(String pattern) {
+        Node node = root;
+        int fixedSegments = 0;
+        boolean unbounded = false;
+        if (pattern.length() > 0) {
+            // trailing / or \ assumes **
+            if (pattern.endsWith("/") || pattern.endsWith("\\")) {
+                pattern = pattern + "**";
+            }
+            for (String part : StringUtils.split(pattern, PATH_SEPARATORS)) {
+                if (part.equals("**")) {
+                    unbounded = true;
+                    if (!node.anyDepth) {
+                        node = node.anyDepthChild();
+                    }
+                } else {
+                    fixedSegments++;
+                    node = node.child(part, caseSensitive);
+                }
+            }
+        }
+        node.end = true;
+        minSegments = Math.min(minSegments, fixedSegments);
+        maxSegments = Math.max(maxSegments, unbounded ? Integer.MAX_VALUE : fixedSegments);
+    }
+
+    @Override
+    public String toString() {
+        return "{combined: " + description + "}";
+    }
+
+    @Override
+    public int getMinSegments() {
+        return minSegments;
+    }
+
+    @Override
+    public int getMaxSegments() {
+        return maxSegments;
+    }
+
+    @Override
+    public boolean matches(String[] segments, int startIndex) {
+        List<Node> states = run(segments, startIndex);
+        for (Node state : states) {
+            if (state.end) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Has the same semantics as the union of {@link PathMatcher#isPrefix(String[], int)} of each pattern: only the fixed segments
+     * up to the first {@code **} of each pattern are checked.
+     */
+    @Override
+    public boolean isPrefix(String[] segments, int startIndex) {
+        if (startIndex == segments.length) {
+            // Empty path, might match when more elements added, unless the only pattern is the empty one
+            return root.hasTransitions();
+        }
+        List<Node> states = new ArrayList<Node>(1);
+        states.add(root);
+        for (int i = startIndex; i < segments.length; i++) {
+            for (Node state : states) {
+                if (state.anyDepthChild != null) {
+                    return true;
+                }
+            }
+            List<Node> next = new ArrayList<Node>(2);
+            String segment = segments[i];
+            String key = keyFor(segment);
+            for (Node state : states) {
+                state.addTargets(segment, key, next);
+            }
+            if (next.isEmpty()) {
+                // Does not match element, will never match when more elements added
+                return false;
+            }
+            if (i + 1 == segments.length) {
+                // End of path, might match when more elements added
+                return true;
+            }
+            states = next;
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if some path below the directory with the given path may match, that is, if the directory path followed by
+     * one or more additional segments may match.
+     */
+    public boolean mayMatchBelow(String[] directorySegments) {
+        for (Node state : run(directorySegments, 0)) {
+            if (state.anyDepth || state.hasTransitions()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true if all paths below the directory with the given path match, that is, if the directory path followed by any
+     * additional segments matches.
+     */
+    public boolean matchesAllBelow(String[] directorySegments) {
+        for (Node state : run(directorySegments, 0)) {
+            if (state.anyDepth && state.end) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the states reached after consuming the given segments.
+     */
+    private List<Node> run(String[] segments, int startIndex) {
+        List<Node> states = new ArrayList<Node>(2);
+        addWithAnyDepthChild(root, states);
+        for (int i = startIndex; i < segments.length && !states.isEmpty(); i++) {
+            List<Node> next = new ArrayList<Node>(states.size() + 1);
+            String segment = segments[i];
+            String key = keyFor(segment);
+            for (Node state : states) {
+                if (state.anyDepth) {
+                    add(state, next);
+                }
+                state.addTargets(segment, key, next);
+            }
+            for (int j = 0; j < next.size(); j++) {
+                Node anyDepthChild = next.get(j).anyDepthChild;
+                if (anyDepthChild != null) {
+                    add(anyDepthChild, next);
+                }
+            }
+            states = next;
+        }
+        return states;
+    }
+
+    private static void addWithAnyDepthChild(Node state, List<Node> states) {
+        states.add(state);
+        if (state.anyDepthChild != null) {
+            states.add(state.anyDepthChild);
+        }
+    }
+
+    private static void add(Node state, List<Node> states) {
+        if (!states.contains(state)) {
+            states.add(state);
+        }
+    }
+
+    private String keyFor(String segment) {
+        return caseSensitive ? segment : normalizeCase(segment);
+    }
+
+    /**
+     * Maps each character in the same way as {@link String#equalsIgnoreCase(String)} compares them, so that two strings are equal after
+     * normalization when they are equal ignoring case.
+     */
+    private static String normalizeCase(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static class Node {
+        /**
+         * Whether this node is reached through {@code **}, and so consumes any number of segments.
+         */
+        final boolean anyDepth;
+        /**
+         * Whether some pattern ends at this node.
+         */
+        boolean end;
+        Node anyDepthChild;
+        Map<String, Node> fixedChildren;
+        List<String> wildcardSources;
+        List<PatternStep> wildcardSteps;
+        List<Node> wildcardChildren;
+
+        Node(boolean anyDepth) {
+            this.anyDepth = anyDepth;
+        }
+
+        Node anyDepthChild() {
+            if (anyDepthChild == null) {
+                anyDepthChild = new Node(true);
+            }
+            return anyDepthChild;
+        }
+
+        Node child(String part, boolean caseSensitive) {
+            PatternStep step = PatternStepFactory.getStep(part, caseSensitive);
+            if (step instanceof FixedPatternStep) {
+                if (fixedChildren == null) {
+                    fixedChildren = new HashMap<String, Node>();
+                }
+                String key = caseSensitive ? part : normalizeCase(part);
+                Node child = fixedChildren.get(key);
+                if (child == null) {
+                    child = new Node(false);
+                    fixedChildren.put(key, child);
+                }
+                return child;
+            }
+            if (wildcardSources == null) {
+                wildcardSources = new ArrayList<String>();
+                wildcardSteps = new ArrayList<PatternStep>();
+                wildcardChildren = new ArrayList<Node>();
+            }
+            int index = wildcardSources.indexOf(part);
+            if (index >= 0) {
+                return wildcardChildren.get(index);
+            }
+            Node child = new Node(false);
+            wildcardSources.add(part);
+            wildcardSteps.add(step);
+            wildcardChildren.add(child);
+            return child;
+        }
+
+        boolean hasTransitions() {
+            return anyDepthChild != null || fixedChildren != null || wildcardSteps != null;
+        }
+
+        void addTargets(String segment, String key, List<Node> targets) {
+            if (fixedChildren != null) {
+                Node child = fixedChildren.get(key);
+                if (child != null) {
+                    add(child, targets);
+                }
+            }
+            if (wildcardSteps != null) {
+                for (int i = 0; i < wildcardSteps.size(); i++) {
+                    if (wildcardSteps.get(i).matches(segment)) {
+                        add(wildcardChildren.get(i), targets);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -17,8 +17,11 @@ package org.gradle.api.internal.file.pattern;
 
 import org.apache.commons.lang.StringUtils;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.SubtreeSpec;
 import org.gradle.api.specs.Spec;
 
+import java.util.Collection;
+
 public class PatternMatcherFactory {
 
     private static final EndOfPathMatcher END_OF_PATH_MATCHER = new EndOfPathMatcher();
@@ -29,6 +32,14 @@ public class PatternMatcherFactory {
         return new PathMatcherBackedSpec(partialMatchDirs, pathMatcher);
     }
 
+    /**
+     * Returns a spec that matches a path when it matches any of the given patterns, with the same semantics as the union of
+     * the specs returned by {@link #getPatternMatcher(boolean, boolean, String)} for each pattern.
+     */
+    public static Spec<RelativePath> getPatternsMatcher(boolean partialMatchDirs, boolean caseSensitive, Collection<String> patterns) {
+        return new PathMatcherBackedSpec(partialMatchDirs, new CombinedPathMatcher(caseSensitive, patterns));
+    }
+
     public static PathMatcher compile(boolean caseSensitive, String pattern) {
         if (pattern.length() == 0) {
             return END_OF_PATH_MATCHER;
@@ -59,7 +70,7 @@ public class PatternMatcherFactory {
         return new FixedStepPathMatcher(PatternStepFactory.getStep(parts[pos], caseSensitive), compile(parts, pos + 1, caseSensitive));
     }
 
-    static class PathMatcherBackedSpec implements Spec<RelativePath> {
+    static class PathMatcherBackedSpec implements Spec<RelativePath>, SubtreeSpec {
         private final boolean partialMatchDirs;
         private final PathMatcher pathMatcher;
 
@@ -79,5 +90,21 @@ public class PatternMatcherFactory {
                 return pathMatcher.isPrefix(element.getSegments(), 0);
             }
         }
+
+        @Override
+        public boolean mayBeSatisfiedBelow(RelativePath directory) {
+            if (pathMatcher instanceof CombinedPathMatcher) {
+                return ((CombinedPathMatcher) pathMatcher).mayMatchBelow(directory.getSegments());
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isSatisfiedByAllBelow(RelativePath directory) {
+            if (pathMatcher instanceof CombinedPathMatcher) {
+                return ((CombinedPathMatcher) pathMatcher).matchesAllBelow(directory.getSegments());
+            }
+            return false;
+        }
     }
 }
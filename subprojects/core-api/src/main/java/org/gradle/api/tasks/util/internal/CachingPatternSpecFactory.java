@@ -23,6 +23,8 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.SubtreeSpec;
+import org.gradle.api.internal.file.SubtreeSpecs;
 import org.gradle.api.specs.Spec;
 import org.gradle.cache.internal.HeapProportionalCacheSizer;
 import org.gradle.internal.UncheckedException;
@@ -58,7 +60,7 @@ public class CachingPatternSpecFactory extends PatternSpecFactory {
         }
     }
 
-    private class CachingSpec implements Spec<FileTreeElement> {
+    private class CachingSpec implements Spec<FileTreeElement>, SubtreeSpec {
         private final Spec<FileTreeElement> spec;
         private final Cache<RelativePath, Boolean> resultCache = CacheBuilder.newBuilder().maximumSize(cacheSizer.scaleCacheSize(RESULTS_CACHE_MAX_SIZE)).build();
 
@@ -80,6 +82,16 @@ public class CachingPatternSpecFactory extends PatternSpecFactory {
             }
         }
 
+        @Override
+        public boolean mayBeSatisfiedBelow(RelativePath directory) {
+            return SubtreeSpecs.mayBeSatisfiedBelow(spec, directory);
+        }
+
+        @Override
+        public boolean isSatisfiedByAllBelow(RelativePath directory) {
+            return SubtreeSpecs.isSatisfiedByAllBelow(spec, directory);
+        }
+
         @Override
         public String toString() {
             return MoreObjects.toStringHelper(this)
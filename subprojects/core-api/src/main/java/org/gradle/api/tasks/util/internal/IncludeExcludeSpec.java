@@ -0,0 +1,64 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.tasks.util.internal;
+
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.file.RelativePath;
+import org.gradle.api.internal.file.SubtreeSpec;
+import org.gradle.api.internal.file.SubtreeSpecs;
+import org.gradle.api.specs.Spec;
+
+/**
+ * Selects the elements that satisfy the include spec and do not satisfy the exclude spec of a pattern set.
+ */
+class IncludeExcludeSpec implements Spec<FileTreeElement>, SubtreeSpec {
+    private final Spec<FileTreeElement> includeSpec;
+    private final Spec<FileTreeElement> excludeSpec;
+
+    IncludeExcludeSpec(Spec<FileTreeElement> includeSpec, Spec<FileTreeElement> excludeSpec) {
+        this.includeSpec = includeSpec;
+        this.excludeSpec = excludeSpec;
+    }
+
+    Spec<FileTreeElement> getIncludeSpec() {
+        return includeSpec;
+    }
+
+    Spec<FileTreeElement> getExcludeSpec() {
+        return excludeSpec;
+    }
+
+    @Override
+    public boolean isSatisfiedBy(FileTreeElement element) {
+        return includeSpec.isSatisfiedBy(element) && !excludeSpec.isSatisfiedBy(element);
+    }
+
+    @Override
+    public boolean mayBeSatisfiedBelow(RelativePath directory) {
+        return SubtreeSpecs.mayBeSatisfiedBelow(includeSpec, directory) && !SubtreeSpecs.isSatisfiedByAllBelow(excludeSpec, directory);
+    }
+
+    @Override
+    public boolean isSatisfiedByAllBelow(RelativePath directory) {
+        return SubtreeSpecs.isSatisfiedByAllBelow(includeSpec, directory) && !SubtreeSpecs.mayBeSatisfiedBelow(excludeSpec, directory);
+    }
+
+    @Override
+    public String toString() {
+        return "{include: " + includeSpec + ", exclude: " + excludeSpec + "}";
+    }
+}
@@ -19,7 +19,6 @@ package org.gradle.api.tasks.util.internal;
 import com.google.common.collect.Lists;
 import org.apache.tools.ant.DirectoryScanner;
 import org.gradle.api.file.FileTreeElement;
-import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.RelativePathSpec;
 import org.gradle.api.internal.file.pattern.PatternMatcherFactory;
 import org.gradle.api.specs.Spec;
@@ -45,7 +44,7 @@ public class PatternSpecFactory {
     private final Map<Boolean, Spec<FileTreeElement>> defaultExcludeSpecs = new HashMap<Boolean, Spec<FileTreeElement>>(2);
 
     public Spec<FileTreeElement> createSpec(PatternSet patternSet) {
-        return Specs.intersect(createIncludeSpec(patternSet), Specs.negate(createExcludeSpec(patternSet)));
+        return new IncludeExcludeSpec(createIncludeSpec(patternSet), createExcludeSpec(patternSet));
     }
 
     public Spec<FileTreeElement> createIncludeSpec(PatternSet patternSet) {
@@ -104,12 +103,6 @@ public class PatternSpecFactory {
             return include ? Specs.<FileTreeElement>satisfyAll() : Specs.<FileTreeElement>satisfyNone();
         }
 
-        List<Spec<RelativePath>> matchers = new ArrayList<Spec<RelativePath>>(patterns.size());
-        for (String pattern : patterns) {
-            Spec<RelativePath> patternMatcher = PatternMatcherFactory.getPatternMatcher(include, caseSensitive, pattern);
-            matchers.add(patternMatcher);
-        }
-
-        return new RelativePathSpec(Specs.union(matchers));
+        return new RelativePathSpec(PatternMatcherFactory.getPatternsMatcher(include, caseSensitive, patterns));
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.pattern
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+class CombinedPathMatcherTest extends Specification {
+    static final List<String> PATTERNS = ["", "**", "a/", "a/b", "**/a", "a/**/b", "*.java", "a/*/c*", "**/b/**", "?b/**/*.java", "A/B"]
+
+    @Unroll
+    def "matches the same paths as the union of the matchers for each of #patterns"() {
+        def matchers = patterns.collect { PatternMatcherFactory.compile(caseSensitive, it) }
+        def combined = new CombinedPathMatcher(caseSensitive, patterns)
+
+        expect:
+        paths().each { String[] path ->
+            assert combined.matches(path, 0) == matchers.any { it.matches(path, 0) }
+            assert combined.isPrefix(path, 0) == matchers.any { it.isPrefix(path, 0) }
+        }
+
+        where:
+        patterns              | caseSensitive
+        PATTERNS              | true
+        PATTERNS              | false
+        ["a/b", "a/c"]        | true
+        ["**/a/**", "b/*"]    | true
+        ["a\\b", "/a/c/"]     | false
+    }
+
+    def "knows when paths below a directory may match"() {
+        def matcher = new CombinedPathMatcher(true, ["src/main/*.java", "*", "lib/**"])
+
+        expect:
+        matcher.mayMatchBelow([] as String[])
+        matcher.mayMatchBelow(["src"] as String[])
+        matcher.mayMatchBelow(["src", "main"] as String[])
+        !matcher.mayMatchBelow(["src", "main", "a"] as String[])
+        !matcher.mayMatchBelow(["src", "test"] as String[])
+        !matcher.mayMatchBelow(["build"] as String[])
+        matcher.mayMatchBelow(["lib", "a", "b"] as String[])
+    }
+
+    def "knows when all paths below a directory match"() {
+        def matcher = new CombinedPathMatcher(false, ["**/build/**", "a/*"])
+
+        expect:
+        !matcher.matchesAllBelow([] as String[])
+        !matcher.matchesAllBelow(["a"] as String[])
+        !matcher.matchesAllBelow(["a", "b"] as String[])
+        matcher.matchesAllBelow(["BUILD"] as String[])
+        matcher.matchesAllBelow(["a", "b", "build", "c"] as String[])
+    }
+
+    private static List<String[]> paths() {
+        def segments = ["a", "A", "b", "ab", "c", "cd", "x.java"]
+        def paths = [[] as String[]]
+        def previous = [[]]
+        3.times {
+            previous = previous.collectMany { List<String> path -> segments.collect { path + it } }
+            paths.addAll(previous.collect { it as String[] })
+        }
+        return paths
+    }
+}
@@ -18,6 +18,8 @@ package org.gradle.api.tasks.util.internal
 
 import org.gradle.api.file.FileTreeElement
 import org.gradle.api.file.RelativePath
+import org.gradle.api.internal.file.SubtreeSpecs
+import org.gradle.api.specs.Spec
 import org.gradle.api.tasks.util.PatternSet
 import spock.lang.Specification
 
@@ -71,6 +73,36 @@ class PatternSpecFactoryTest extends Specification {
         !spec.isSatisfiedBy(element("/.git/refs"))
     }
 
+    def "knows which directories may contain selected elements"() {
+        def source = new PatternSet()
+        source.include("src/*/java/**", "*.txt")
+        source.exclude("src/test/**")
+
+        expect:
+        def spec = factory.createSpec(source)
+        SubtreeSpecs.mayBeSatisfiedBelow(spec, directory("src"))
+        SubtreeSpecs.mayBeSatisfiedBelow(spec, directory("src/main"))
+        SubtreeSpecs.mayBeSatisfiedBelow(spec, directory("src/main/java/org"))
+        !SubtreeSpecs.mayBeSatisfiedBelow(spec, directory("src/main/resources"))
+        !SubtreeSpecs.mayBeSatisfiedBelow(spec, directory("src/test"))
+        !SubtreeSpecs.mayBeSatisfiedBelow(spec, directory("build"))
+    }
+
+    def "may select elements below any directory when custom specs are used"() {
+        def source = new PatternSet()
+        source.include("src/**")
+        source.include({ false } as Spec)
+
+        expect:
+        def spec = factory.createSpec(source)
+        SubtreeSpecs.mayBeSatisfiedBelow(spec, directory("build"))
+        !SubtreeSpecs.mayBeSatisfiedBelow(spec, directory(".git"))
+    }
+
+    RelativePath directory(String path) {
+        return new RelativePath(false, path.split("/"))
+    }
+
     FileTreeElement element(String path) {
         return Stub(FileTreeElement) {
             getRelativePath() >> new RelativePath(true, path.split("/"))
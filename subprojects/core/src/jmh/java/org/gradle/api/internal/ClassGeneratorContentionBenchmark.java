@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import org.gradle.internal.reflect.DirectInstantiator;
+import org.gradle.internal.reflect.Instantiator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Instantiates decorated types from many threads, where the decorated classes have already been generated.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ClassGeneratorContentionBenchmark {
+    private static final Class<?>[] TYPES = new Class<?>[]{TaskLike.class, ExtensionLike.class, DomainObjectLike.class, SourceSetLike.class};
+
+    private final AsmBackedClassGenerator classGenerator = new AsmBackedClassGenerator();
+    private final Instantiator instantiator = new ClassGeneratorBackedInstantiator(classGenerator, DirectInstantiator.INSTANCE);
+
+    @Benchmark
+    @Threads(1)
+    public Object instantiateSingleThreaded() {
+        return instantiator.newInstance(randomType());
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Object instantiateFromManyThreads() {
+        return instantiator.newInstance(randomType());
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Class<?> generateFromManyThreads() {
+        return classGenerator.generate(randomType());
+    }
+
+    private static Class<?> randomType() {
+        return TYPES[ThreadLocalRandom.current().nextInt(TYPES.length)];
+    }
+
+    public static class TaskLike {
+        private String description;
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+    }
+
+    public static class ExtensionLike {
+        private boolean enabled;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class DomainObjectLike {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class SourceSetLike {
+        private String outputDir;
+
+        public String getOutputDir() {
+            return outputDir;
+        }
+
+        public void setOutputDir(String outputDir) {
+            this.outputDir = outputDir;
+        }
+    }
+}
@@ -16,12 +16,14 @@
 
 package org.gradle.api.internal;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import groovy.lang.Closure;
 import groovy.lang.GroovyObject;
-import org.apache.commons.collections.map.AbstractReferenceMap;
-import org.apache.commons.collections.map.ReferenceMap;
 import org.gradle.api.Action;
 import org.gradle.api.GradleException;
 import org.gradle.api.NonExtensible;
@@ -29,11 +31,18 @@ import org.gradle.api.plugins.ExtensionAware;
 import org.gradle.api.provider.HasMultipleValues;
 import org.gradle.api.provider.MapProperty;
 import org.gradle.api.provider.Property;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
 import org.gradle.internal.reflect.ClassDetails;
 import org.gradle.internal.reflect.ClassInspector;
 import org.gradle.internal.reflect.JavaReflectionUtil;
 import org.gradle.internal.reflect.PropertyDetails;
 import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.util.GradleVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -43,15 +52,17 @@ import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Generates a subclass of the target class to mix-in some DSL behaviour.
@@ -66,33 +77,68 @@ import java.util.concurrent.locks.ReentrantLock;
  * </ul>
  */
 public abstract class AbstractClassGenerator implements ClassGenerator {
-    private static final Map<Class<?>, Map<Class<?>, Class<?>>> GENERATED_CLASSES = new HashMap<Class<?>, Map<Class<?>, Class<?>>>();
-    private static final Lock CACHE_LOCK = new ReentrantLock();
+    private static final Logger LOGGER = LoggerFactory.getLogger(AbstractClassGenerator.class);
+    private static final ConcurrentMap<Class<?>, Cache<Class<?>, Class<?>>> GENERATED_CLASSES = new ConcurrentHashMap<Class<?>, Cache<Class<?>, Class<?>>>();
     private static final Collection<String> SKIP_PROPERTIES = Arrays.asList("class", "metaClass", "conventionMapping", "convention", "asDynamicObject", "extensions");
 
-    public <T> Class<? extends T> generate(Class<T> type) {
-        try {
-            CACHE_LOCK.lock();
-            return generateUnderLock(type);
-        } finally {
-            CACHE_LOCK.unlock();
+    private final AtomicReference<GeneratedBytecodeCache> bytecodeCache = new AtomicReference<GeneratedBytecodeCache>();
+    private final DecoratedTypeHasher typeHasher = new DecoratedTypeHasher();
+
+    /**
+     * Reuses the bytecode of classes generated by an earlier process, and stores the bytecode of classes generated by this generator, in the given cache.
+     */
+    public void useBytecodeCache(GeneratedBytecodeCache cache) {
+        bytecodeCache.set(cache);
+    }
+
+    /**
+     * Stops using the given cache, if it is in use.
+     */
+    public void stopUsingBytecodeCache(GeneratedBytecodeCache cache) {
+        bytecodeCache.compareAndSet(cache, null);
+    }
+
+    public <T> Class<? extends T> generate(final Class<T> type) {
+        final Cache<Class<?>, Class<?>> cache = getCache();
+        // Lookups of generated classes do not lock. A class is generated by a single thread, while other threads that request the same type wait for it
+        Class<?> generatedClass = cache.getIfPresent(type);
+        if (generatedClass == null) {
+            try {
+                generatedClass = cache.get(type, new Callable<Class<?>>() {
+                    @Override
+                    public Class<?> call() {
+                        Class<? extends T> subclass = generateSubclass(type);
+                        cache.put(subclass, subclass);
+                        return subclass;
+                    }
+                });
+            } catch (ExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (UncheckedExecutionException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (ExecutionError e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            }
         }
+        return generatedClass.asSubclass(type);
     }
 
-    private <T> Class<? extends T> generateUnderLock(Class<T> type) {
-        Map<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
+    private Cache<Class<?>, Class<?>> getCache() {
+        Cache<Class<?>, Class<?>> cache = GENERATED_CLASSES.get(getClass());
         if (cache == null) {
-            // WeakHashMap won't work here. It keeps a strong reference to the mapping value, which is the generated class in this case
-            // However, the generated class has a strong reference to the source class (by extending it), so the keys will always be
-            // strongly reachable while this Class is strongly reachable. Use weak references for both key and value of the mapping instead.
-            cache = new ReferenceMap(AbstractReferenceMap.WEAK, AbstractReferenceMap.WEAK);
-            GENERATED_CLASSES.put(getClass(), cache);
-        }
-        Class<?> generatedClass = cache.get(type);
-        if (generatedClass != null) {
-            return generatedClass.asSubclass(type);
+            // Weak keys won't be enough here. The generated class has a strong reference to the source class (by extending it), so the keys
+            // would always be strongly reachable while the generated class is strongly reachable. Use weak references for both key and value of
+            // the mapping instead.
+            cache = CacheBuilder.newBuilder().weakKeys().weakValues().build();
+            Cache<Class<?>, Class<?>> existing = GENERATED_CLASSES.putIfAbsent(getClass(), cache);
+            if (existing != null) {
+                cache = existing;
+            }
         }
+        return cache;
+    }
 
+    private <T> Class<? extends T> generateSubclass(Class<T> type) {
         int modifiers = type.getModifiers();
         if (Modifier.isPrivate(modifiers)) {
             throw new GradleException(String.format("Cannot create a proxy class for private class '%s'.",
@@ -108,6 +154,19 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
         }
         Class<? extends T> subclass;
         try {
+            GeneratedBytecodeCache cache = bytecodeCache.get();
+            HashCode cacheKey = cache == null ? null : cacheKey(type);
+            if (cacheKey != null) {
+                byte[] cachedBytecode = cache.get(cacheKey);
+                if (cachedBytecode != null) {
+                    Class<? extends T> cachedClass = defineFromCache(type, cachedBytecode);
+                    if (cachedClass != null) {
+                        return cachedClass;
+                    }
+                    // Else, generate the class again and replace the cache entry
+                }
+            }
+
             ClassMetaData classMetaData = inspectType(type);
 
             ClassBuilder<T> builder = start(type, classMetaData);
@@ -219,16 +278,59 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
                 }
             }
 
-            subclass = builder.generate();
+            byte[] bytecode = builder.generate();
+            subclass = define(type, bytecode);
+            if (cache != null && cacheKey != null) {
+                cache.put(cacheKey, bytecode);
+            }
         } catch (Throwable e) {
             throw new GradleException(String.format("Could not generate a proxy class for class %s.", type.getName()), e);
         }
-
-        cache.put(type, subclass);
-        cache.put(subclass, subclass);
         return subclass;
     }
 
+    /**
+     * Defines the class from bytecode stored in the bytecode cache, or returns null when the bytecode cannot be used, for example because the cache entry is corrupt.
+     */
+    @Nullable
+    private <T> Class<? extends T> defineFromCache(Class<T> type, byte[] bytecode) {
+        try {
+            return define(type, bytecode);
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not define class generated for {} from cached bytecode.", type.getName(), e);
+        } catch (LinkageError e) {
+            LOGGER.debug("Could not define class generated for {} from cached bytecode.", type.getName(), e);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the key of the bytecode generated for the given type in the bytecode cache, or null when the generated class cannot be cached.
+     */
+    @Nullable
+    private HashCode cacheKey(Class<?> type) {
+        HashCode typeHash = typeHasher.hash(type);
+        if (typeHash == null) {
+            return null;
+        }
+        GradleVersion gradleVersion = GradleVersion.current();
+        Hasher hasher = Hashing.newHasher();
+        hasher.putString(getClass().getName());
+        hasher.putString(gradleVersion.getVersion());
+        putNullableString(hasher, gradleVersion.getBuildTime());
+        putNullableString(hasher, gradleVersion.getRevision());
+        hasher.putHash(typeHash);
+        return hasher.hash();
+    }
+
+    private static void putNullableString(Hasher hasher, @Nullable String value) {
+        if (value == null) {
+            hasher.putNull();
+        } else {
+            hasher.putString(value);
+        }
+    }
+
     private boolean isModelProperty(PropertyMetaData property) {
         return Property.class.isAssignableFrom(property.getType()) ||
             HasMultipleValues.class.isAssignableFrom(property.getType()) ||
@@ -237,6 +339,11 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
 
     protected abstract <T> ClassBuilder<T> start(Class<T> type, ClassMetaData classMetaData);
 
+    /**
+     * Defines the class with the given bytecode, as previously returned by {@link ClassBuilder#generate()} for the given type.
+     */
+    protected abstract <T> Class<? extends T> define(Class<T> type, byte[] bytecode);
+
     private ClassMetaData inspectType(Class<?> type) {
         boolean isConventionAware = type.getAnnotation(NoConventionMapping.class) == null;
         boolean extensible = JavaReflectionUtil.getAnnotation(type, NonExtensible.class) == null;
@@ -478,6 +585,6 @@ public abstract class AbstractClassGenerator implements ClassGenerator {
 
         void generateServiceRegistrySupportMethods() throws Exception;
 
-        Class<? extends T> generate() throws Exception;
+        byte[] generate() throws Exception;
     }
 }
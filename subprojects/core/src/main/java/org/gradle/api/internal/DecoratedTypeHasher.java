@@ -0,0 +1,125 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.ByteStreams;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Calculates a hash of what a class generator uses from a type, so that a class generated for the type can be reused in later processes.
+ *
+ * <p>The hash includes the bytecode of the type and of its supertypes, along with the supertypes of the types used by their methods and constructors.
+ * Types loaded by the bootstrap class loader are identified by their name. No hash is calculated for a type when the bytecode of the type or one
+ * of its supertypes is not available, for example when the type was generated at runtime.</p>
+ */
+class DecoratedTypeHasher {
+    private final Cache<Class<?>, Optional<HashCode>> hashes = CacheBuilder.newBuilder().weakKeys().build();
+
+    @Nullable
+    public HashCode hash(Class<?> type) {
+        return hashOf(type).orNull();
+    }
+
+    private Optional<HashCode> hashOf(final Class<?> type) {
+        try {
+            return hashes.get(type, new Callable<Optional<HashCode>>() {
+                @Override
+                public Optional<HashCode> call() throws IOException {
+                    return calculateHash(type);
+                }
+            });
+        } catch (ExecutionException e) {
+            throw UncheckedException.throwAsUncheckedException(e.getCause());
+        }
+    }
+
+    private Optional<HashCode> calculateHash(Class<?> type) throws IOException {
+        Hasher hasher = Hashing.newHasher();
+        hasher.putString(type.getName());
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            return Optional.of(hasher.hash());
+        }
+
+        InputStream bytecode = classLoader.getResourceAsStream(type.getName().replace('.', '/') + ".class");
+        if (bytecode == null) {
+            return Optional.absent();
+        }
+        try {
+            hasher.putBytes(ByteStreams.toByteArray(bytecode));
+        } finally {
+            bytecode.close();
+        }
+
+        if (type.getSuperclass() != null && !putHash(type.getSuperclass(), hasher)) {
+            return Optional.absent();
+        }
+        for (Class<?> superInterface : type.getInterfaces()) {
+            if (!putHash(superInterface, hasher)) {
+                return Optional.absent();
+            }
+        }
+
+        // Whether a class generator treats a method specially can depend on the supertypes of its parameter and return types
+        for (Method method : type.getDeclaredMethods()) {
+            putSupertypes(method.getReturnType(), hasher);
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                putSupertypes(parameterType, hasher);
+            }
+        }
+        for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+            for (Class<?> parameterType : constructor.getParameterTypes()) {
+                putSupertypes(parameterType, hasher);
+            }
+        }
+        return Optional.of(hasher.hash());
+    }
+
+    private boolean putHash(Class<?> type, Hasher hasher) {
+        Optional<HashCode> hash = hashOf(type);
+        if (!hash.isPresent()) {
+            return false;
+        }
+        hasher.putHash(hash.get());
+        return true;
+    }
+
+    private static void putSupertypes(Class<?> type, Hasher hasher) {
+        hasher.putString(type.getName());
+        if (type.getSuperclass() != null) {
+            putSupertypes(type.getSuperclass(), hasher);
+        }
+        for (Class<?> superInterface : type.getInterfaces()) {
+            putSupertypes(superInterface, hasher);
+        }
+        hasher.putNull();
+    }
+}
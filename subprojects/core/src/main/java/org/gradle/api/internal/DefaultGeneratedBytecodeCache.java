@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.PersistentCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+import javax.annotation.Nullable;
+import java.io.Closeable;
+
+import static org.gradle.cache.internal.filelock.LockOptionsBuilder.mode;
+
+/**
+ * Stores the bytecode of generated classes in the Gradle user home, and makes the given class generator use it while open.
+ */
+public class DefaultGeneratedBytecodeCache implements GeneratedBytecodeCache, Closeable {
+    private static final String GENERATED_CLASSES_CACHE_KEY = "generated-classes";
+
+    private final AbstractClassGenerator classGenerator;
+    private final PersistentCache cache;
+    private final PersistentIndexedCache<HashCode, byte[]> bytecode;
+
+    public DefaultGeneratedBytecodeCache(AbstractClassGenerator classGenerator, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        this.classGenerator = classGenerator;
+        cache = cacheRepository
+            .cache(GENERATED_CLASSES_CACHE_KEY)
+            .withDisplayName("generated classes cache")
+            .withLockOptions(mode(FileLockManager.LockMode.None)) // Lock on demand
+            .open();
+        bytecode = cache.createCache(PersistentIndexedCacheParameters.of("bytecode", new HashCodeSerializer(), BaseSerializerFactory.BYTE_ARRAY_SERIALIZER)
+            .withCacheDecorator(inMemoryCacheDecoratorFactory.decorator(100, false)));
+        classGenerator.useBytecodeCache(this);
+    }
+
+    @Nullable
+    @Override
+    public byte[] get(HashCode key) {
+        return bytecode.get(key);
+    }
+
+    @Override
+    public void put(HashCode key, byte[] bytecode) {
+        this.bytecode.put(key, bytecode);
+    }
+
+    @Override
+    public void close() {
+        classGenerator.stopUsingBytecodeCache(this);
+        cache.close();
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal;
+
+import org.gradle.cache.CacheRepository;
+import org.gradle.cache.internal.InMemoryCacheDecoratorFactory;
+import org.gradle.internal.service.ServiceRegistration;
+
+public class GeneratedBytecodeCacheServices {
+
+    public void configure(ServiceRegistration registration, ClassGenerator classGenerator, CacheRepository cacheRepository, InMemoryCacheDecoratorFactory inMemoryCacheDecoratorFactory) {
+        if (classGenerator instanceof AbstractClassGenerator) {
+            // register eagerly so that the cache is used from the start, and close() is triggered when services are being stopped
+            registration.add(DefaultGeneratedBytecodeCache.class, new DefaultGeneratedBytecodeCache((AbstractClassGenerator) classGenerator, cacheRepository, inMemoryCacheDecoratorFactory));
+        }
+    }
+
+}
@@ -16,59 +16,64 @@
 package org.gradle.api.internal.changedetection.state;
 
 import com.google.common.io.ByteStreams;
-import org.gradle.api.internal.tasks.compile.ApiClassExtractor;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFileAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFileAnalysisIndex;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.logging.Logging;
-import org.gradle.internal.IoActions;
+import org.gradle.internal.Factory;
 import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.hash.Hasher;
-import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.hash.StreamHasher;
 import org.gradle.internal.snapshot.RegularFileSnapshot;
-import org.objectweb.asm.ClassReader;
 
 import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collections;
 import java.util.zip.ZipEntry;
 
+/**
+ * Hashes class files on a compile classpath by their ABI, using the shared {@link ClassFileAnalysisIndex} so that the ABI of each class file is only extracted once.
+ */
 public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
     private static final Logger LOGGER = Logging.getLogger(AbiExtractingClasspathResourceHasher.class);
 
-    private HashCode hashClassBytes(InputStream inputStream) throws IOException {
-        // Use the ABI as the hash
-        byte[] classBytes = ByteStreams.toByteArray(inputStream);
-        ApiClassExtractor extractor = new ApiClassExtractor(Collections.<String>emptySet());
-        ClassReader reader = new ClassReader(classBytes);
-        if (extractor.shouldExtractApiClassFrom(reader)) {
-            byte[] signature = extractor.extractApiClassFrom(reader);
-            if (signature != null) {
-                return Hashing.hashBytes(signature);
-            }
-        }
-        return null;
+    private final ClassFileAnalysisIndex classFileAnalysisIndex;
+    private final StreamHasher streamHasher;
+
+    public AbiExtractingClasspathResourceHasher(ClassFileAnalysisIndex classFileAnalysisIndex, StreamHasher streamHasher) {
+        this.classFileAnalysisIndex = classFileAnalysisIndex;
+        this.streamHasher = streamHasher;
     }
 
     @Nullable
     @Override
-    public HashCode hash(RegularFileSnapshot fileSnapshot) {
+    public HashCode hash(final RegularFileSnapshot fileSnapshot) {
         if (!isClassFile(fileSnapshot.getName())) {
             return null;
         }
-        Path path = Paths.get(fileSnapshot.getAbsolutePath());
-        InputStream inputStream = null;
         try {
-            inputStream = Files.newInputStream(path);
-            return hashClassBytes(inputStream);
+            ClassFileAnalysis analysis = classFileAnalysisIndex.get(fileSnapshot.getHash(), new Factory<byte[]>() {
+                @Override
+                public byte[] create() {
+                    try {
+                        return Files.readAllBytes(Paths.get(fileSnapshot.getAbsolutePath()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+            if (!analysis.isAbiExtractionFailed()) {
+                return analysis.getAbiHash();
+            }
+            LOGGER.debug("Malformed class file '{}' found on compile classpath. Falling back to full file hash instead of ABI hashing.", fileSnapshot.getName());
         } catch (Exception e) {
             LOGGER.debug("Malformed class file '{}' found on compile classpath. Falling back to full file hash instead of ABI hashing.", fileSnapshot.getName(), e);
-            return fileSnapshot.getHash();
-        } finally {
-            IoActions.closeQuietly(inputStream);
         }
+        return fileSnapshot.getHash();
     }
 
     @Override
@@ -76,7 +81,18 @@ public class AbiExtractingClasspathResourceHasher implements ResourceHasher {
         if (!isClassFile(zipEntry.getName())) {
             return null;
         }
-        return hashClassBytes(zipInput);
+        final byte[] classBytes = ByteStreams.toByteArray(zipInput);
+        HashCode classFileHash = streamHasher.hash(new ByteArrayInputStream(classBytes));
+        ClassFileAnalysis analysis = classFileAnalysisIndex.get(classFileHash, new Factory<byte[]>() {
+            @Override
+            public byte[] create() {
+                return classBytes;
+            }
+        });
+        if (analysis.isAbiExtractionFailed()) {
+            throw new IOException(String.format("Could not extract the ABI of class file '%s'.", zipEntry.getName()));
+        }
+        return analysis.getAbiHash();
     }
 
     private boolean isClassFile(String name) {
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.internal.Factory;
+
+import java.io.File;
+
+/**
+ * The directory an archive is expanded into, calculated on first use.
+ *
+ * Calculating the directory requires hashing the archive, which visitors that only stream entry contents never need.
+ * An instance is shared by all entries of a single visit and is not thread-safe.
+ */
+class LazyExpandedDir {
+    private final Factory<File> factory;
+    private File dir;
+
+    LazyExpandedDir(Factory<File> factory) {
+        this.factory = factory;
+    }
+
+    File getDir() {
+        if (dir == null) {
+            dir = factory.create();
+        }
+        return dir;
+    }
+
+    File getFile(String entryName) {
+        return new File(getDir(), entryName);
+    }
+}
@@ -32,6 +32,7 @@ import org.gradle.api.internal.file.collections.MinimalFileTree;
 import org.gradle.api.internal.file.collections.DefaultSingletonFileTree;
 import org.gradle.api.resources.ResourceException;
 import org.gradle.api.resources.internal.ReadableResourceInternal;
+import org.gradle.internal.Factory;
 import org.gradle.internal.IoActions;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.hash.HashCode;
@@ -103,7 +104,12 @@ public class TarFileTree implements MinimalFileTree, ArchiveFileTree {
         AtomicBoolean stopFlag = new AtomicBoolean();
         NoCloseTarInputStream tar = new NoCloseTarInputStream(inputStream);
         TarEntry entry;
-        File expandedDir = getExpandedDir();
+        LazyExpandedDir expandedDir = new LazyExpandedDir(new Factory<File>() {
+            @Override
+            public File create() {
+                return getExpandedDir();
+            }
+        });
         while (!stopFlag.get() && (entry = tar.getNextEntry()) != null) {
             if (entry.isDirectory()) {
                 visitor.visitDir(new DetailsImpl(resource, expandedDir, entry, tar, stopFlag, chmod));
@@ -189,11 +195,11 @@ public class TarFileTree implements MinimalFileTree, ArchiveFileTree {
         private final NoCloseTarInputStream tar;
         private final AtomicBoolean stopFlag;
         private final ReadableResourceInternal resource;
-        private final File expandedDir;
+        private final LazyExpandedDir expandedDir;
         private File file;
         private boolean read;
 
-        public DetailsImpl(ReadableResourceInternal resource, File expandedDir, TarEntry entry, NoCloseTarInputStream tar, AtomicBoolean stopFlag, Chmod chmod) {
+        public DetailsImpl(ReadableResourceInternal resource, LazyExpandedDir expandedDir, TarEntry entry, NoCloseTarInputStream tar, AtomicBoolean stopFlag, Chmod chmod) {
             super(chmod);
             this.resource = resource;
             this.expandedDir = expandedDir;
@@ -212,7 +218,7 @@ public class TarFileTree implements MinimalFileTree, ArchiveFileTree {
 
         public File getFile() {
             if (file == null) {
-                file = new File(expandedDir, entry.getName());
+                file = expandedDir.getFile(entry.getName());
                 if (!file.exists()) {
                     copyTo(file);
                 }
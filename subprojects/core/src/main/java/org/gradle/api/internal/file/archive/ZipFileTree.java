@@ -30,6 +30,7 @@ import org.gradle.api.internal.file.collections.DirectoryFileTree;
 import org.gradle.api.internal.file.collections.DirectoryFileTreeFactory;
 import org.gradle.api.internal.file.collections.MinimalFileTree;
 import org.gradle.api.internal.file.collections.DefaultSingletonFileTree;
+import org.gradle.internal.Factory;
 import org.gradle.internal.hash.FileHasher;
 import org.gradle.internal.nativeintegration.filesystem.Chmod;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
@@ -78,7 +79,7 @@ public class ZipFileTree implements MinimalFileTree, ArchiveFileTree {
 
         try {
             ZipFile zip = new ZipFile(zipFile);
-            File expandedDir = getExpandedDir();
+            LazyExpandedDir expandedDir = newLazyExpandedDir();
             try {
                 // The iteration order of zip.getEntries() is based on the hash of the zip entry. This isn't much use
                 // to us. So, collect the entries in a map and iterate over them in alphabetical order.
@@ -114,15 +115,24 @@ public class ZipFileTree implements MinimalFileTree, ArchiveFileTree {
         return new File(tmpDir, expandedDirName);
     }
 
+    private LazyExpandedDir newLazyExpandedDir() {
+        return new LazyExpandedDir(new Factory<File>() {
+            @Override
+            public File create() {
+                return getExpandedDir();
+            }
+        });
+    }
+
     private static class DetailsImpl extends AbstractFileTreeElement implements FileVisitDetails {
         private final File originalFile;
-        private final File expandedDir;
+        private final LazyExpandedDir expandedDir;
         private final ZipEntry entry;
         private final ZipFile zip;
         private final AtomicBoolean stopFlag;
         private File file;
 
-        public DetailsImpl(File originalFile, File expandedDir, ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
+        public DetailsImpl(File originalFile, LazyExpandedDir expandedDir, ZipEntry entry, ZipFile zip, AtomicBoolean stopFlag, Chmod chmod) {
             super(chmod);
             this.originalFile = originalFile;
             this.expandedDir = expandedDir;
@@ -141,7 +151,7 @@ public class ZipFileTree implements MinimalFileTree, ArchiveFileTree {
 
         public File getFile() {
             if (file == null) {
-                file = new File(expandedDir, entry.getName());
+                file = expandedDir.getFile(entry.getName());
                 if (!file.exists()) {
                     copyTo(file);
                 }
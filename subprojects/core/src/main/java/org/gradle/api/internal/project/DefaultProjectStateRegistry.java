@@ -135,6 +135,17 @@ public class DefaultProjectStateRegistry implements ProjectStateRegistry {
         }
     }
 
+    @Override
+    public void withStrictState(Runnable runnable) {
+        Boolean originalState = LENIENT_MUTATION_STATE.get();
+        LENIENT_MUTATION_STATE.set(false);
+        try {
+            runnable.run();
+        } finally {
+            LENIENT_MUTATION_STATE.set(originalState);
+        }
+    }
+
     @Override
     public SafeExclusiveLock newExclusiveOperationLock() {
         return new SafeExclusiveLockImpl();
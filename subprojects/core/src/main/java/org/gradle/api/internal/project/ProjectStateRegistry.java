@@ -72,6 +72,12 @@ public interface ProjectStateRegistry {
      */
     <T> T withLenientState(Factory<T> factory);
 
+    /**
+     * Allows a section of code to be run with state locking enabled, even when called from code that is run with state locking disabled.
+     * This should be used when the section of code runs other work concurrently.
+     */
+    void withStrictState(Runnable runnable);
+
     /**
      * Returns a {@link SafeExclusiveLock}.
      */
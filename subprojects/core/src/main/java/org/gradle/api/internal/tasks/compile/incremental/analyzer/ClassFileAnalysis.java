@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import org.gradle.internal.hash.HashCode;
+
+import javax.annotation.Nullable;
+
+/**
+ * The ABI details extracted from a single class file, used by compile avoidance.
+ */
+public class ClassFileAnalysis {
+    private final HashCode abiHash;
+    private final boolean abiExtractionFailed;
+
+    public ClassFileAnalysis(@Nullable HashCode abiHash, boolean abiExtractionFailed) {
+        this.abiHash = abiHash;
+        this.abiExtractionFailed = abiExtractionFailed;
+    }
+
+    /**
+     * Returns the hash of the ABI of the class, or null when the class is not part of the ABI or its ABI could not be extracted.
+     */
+    @Nullable
+    public HashCode getAbiHash() {
+        return abiHash;
+    }
+
+    public boolean isAbiExtractionFailed() {
+        return abiExtractionFailed;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashCode;
+
+/**
+ * An index of class file details keyed by the hash of the class file content, shared by all builds that use the same Gradle user home.
+ *
+ * <p>The ABI of a class file and its dependencies are extracted separately, so that only incremental compilation pays for the dependency analysis.
+ * Each is extracted once, no matter how many projects have the class file on their compile classpath.</p>
+ */
+public interface ClassFileAnalysisIndex {
+    /**
+     * Returns the ABI details of the class file with the given content hash, reading the content of the class file only when the details are not known yet.
+     */
+    ClassFileAnalysis get(HashCode classFileHash, Factory<byte[]> classFileContent);
+
+    /**
+     * Returns the dependency analysis of the class file with the given content hash, reading the content of the class file only when the analysis is not known yet.
+     * When the content is read and the ABI details are not known either, they are extracted from the same content.
+     */
+    ClassAnalysis getClassAnalysis(HashCode classFileHash, Factory<byte[]> classFileContent);
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+
+public class ClassFileAnalysisSerializer extends AbstractSerializer<ClassFileAnalysis> {
+
+    private final HashCodeSerializer hashCodeSerializer = new HashCodeSerializer();
+
+    @Override
+    public ClassFileAnalysis read(Decoder decoder) throws Exception {
+        HashCode abiHash = decoder.readBoolean() ? hashCodeSerializer.read(decoder) : null;
+        boolean abiExtractionFailed = decoder.readBoolean();
+        return new ClassFileAnalysis(abiHash, abiExtractionFailed);
+    }
+
+    @Override
+    public void write(Encoder encoder, ClassFileAnalysis value) throws Exception {
+        HashCode abiHash = value.getAbiHash();
+        encoder.writeBoolean(abiHash != null);
+        if (abiHash != null) {
+            hashCodeSerializer.write(encoder, abiHash);
+        }
+        encoder.writeBoolean(value.isAbiExtractionFailed());
+    }
+
+}
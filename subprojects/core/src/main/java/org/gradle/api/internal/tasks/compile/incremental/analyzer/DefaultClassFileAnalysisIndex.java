@@ -0,0 +1,103 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import org.gradle.api.Transformer;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.tasks.compile.ApiClassExtractor;
+import org.gradle.api.internal.tasks.compile.incremental.asm.ClassDependenciesVisitor;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.objectweb.asm.ClassReader;
+
+import java.util.Collections;
+
+/**
+ * Extracts the ABI and the dependencies of class files, and caches the results by content hash. The dependencies are only extracted when requested.
+ * When they are, the ABI is extracted from the same parsed class file if it is not known yet, so that the class file is only read once.
+ *
+ * <p>Failures to parse the class file when extracting the ABI are part of the result, as they only depend on the content of the class file. Failures to
+ * read the class file are not.</p>
+ */
+public class DefaultClassFileAnalysisIndex implements ClassFileAnalysisIndex {
+    private static final Logger LOGGER = Logging.getLogger(DefaultClassFileAnalysisIndex.class);
+
+    private final PersistentIndexedCache<HashCode, ClassFileAnalysis> abiCache;
+    private final PersistentIndexedCache<HashCode, ClassAnalysis> classAnalysisCache;
+    private final StringInterner interner;
+
+    public DefaultClassFileAnalysisIndex(PersistentIndexedCache<HashCode, ClassFileAnalysis> abiCache, PersistentIndexedCache<HashCode, ClassAnalysis> classAnalysisCache, StringInterner interner) {
+        this.abiCache = abiCache;
+        this.classAnalysisCache = classAnalysisCache;
+        this.interner = interner;
+    }
+
+    @Override
+    public ClassFileAnalysis get(HashCode classFileHash, final Factory<byte[]> classFileContent) {
+        return abiCache.get(classFileHash, new Transformer<ClassFileAnalysis, HashCode>() {
+            @Override
+            public ClassFileAnalysis transform(HashCode classFileHash) {
+                ClassReader reader;
+                try {
+                    reader = new ClassReader(classFileContent.create());
+                } catch (Exception e) {
+                    LOGGER.debug("Could not extract the ABI of class file with hash {}.", classFileHash, e);
+                    return new ClassFileAnalysis(null, true);
+                }
+                return extractAbi(classFileHash, reader);
+            }
+        });
+    }
+
+    @Override
+    public ClassAnalysis getClassAnalysis(HashCode classFileHash, final Factory<byte[]> classFileContent) {
+        return classAnalysisCache.get(classFileHash, new Transformer<ClassAnalysis, HashCode>() {
+            @Override
+            public ClassAnalysis transform(HashCode classFileHash) {
+                final ClassReader reader = new ClassReader(classFileContent.create());
+                abiCache.get(classFileHash, new Transformer<ClassFileAnalysis, HashCode>() {
+                    @Override
+                    public ClassFileAnalysis transform(HashCode classFileHash) {
+                        return extractAbi(classFileHash, reader);
+                    }
+                });
+                String className = reader.getClassName().replace("/", ".");
+                return ClassDependenciesVisitor.analyze(className, reader, interner);
+            }
+        });
+    }
+
+    private static ClassFileAnalysis extractAbi(HashCode classFileHash, ClassReader reader) {
+        try {
+            ApiClassExtractor extractor = new ApiClassExtractor(Collections.<String>emptySet());
+            if (!extractor.shouldExtractApiClassFrom(reader)) {
+                return new ClassFileAnalysis(null, false);
+            }
+            byte[] signature = extractor.extractApiClassFrom(reader);
+            return new ClassFileAnalysis(signature == null ? null : Hashing.hashBytes(signature), false);
+        } catch (Exception e) {
+            LOGGER.debug("Could not extract the ABI of class file with hash {}.", classFileHash, e);
+            return new ClassFileAnalysis(null, true);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import org.apache.tools.ant.DirectoryScanner;
 import org.gradle.api.internal.ClassPathRegistry;
 import org.gradle.api.internal.DefaultClassPathProvider;
 import org.gradle.api.internal.DefaultClassPathRegistry;
+import org.gradle.api.internal.GeneratedBytecodeCacheServices;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.api.internal.changedetection.state.CachingFileHasher;
 import org.gradle.api.internal.changedetection.state.CrossBuildFileHashCache;
@@ -35,6 +36,12 @@ import org.gradle.api.internal.initialization.loadercache.ClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.DefaultClassLoaderCache;
 import org.gradle.api.internal.initialization.loadercache.DefaultClasspathHasher;
 import org.gradle.api.internal.model.NamedObjectInstantiator;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisSerializer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFileAnalysis;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFileAnalysisIndex;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFileAnalysisSerializer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassFileAnalysisIndex;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
 import org.gradle.cache.CacheRepository;
 import org.gradle.cache.PersistentIndexedCache;
 import org.gradle.cache.PersistentIndexedCacheParameters;
@@ -115,6 +122,7 @@ public class GradleUserHomeScopeServices {
         File userHomeDir = userHomeDirProvider.getGradleUserHomeDirectory();
         registration.addProvider(new CacheRepositoryServices(userHomeDir, null));
         registration.addProvider(new GradleUserHomeCleanupServices());
+        registration.addProvider(new GeneratedBytecodeCacheServices());
         for (PluginServiceRegistry plugin : globalServices.getAll(PluginServiceRegistry.class)) {
             plugin.registerGradleUserHomeServices(registration);
         }
@@ -198,6 +206,19 @@ public class GradleUserHomeScopeServices {
         return new DefaultResourceSnapshotterCacheService(resourceHashesCache);
     }
 
+    ClassFileAnalysisIndex createClassFileAnalysisIndex(CrossBuildFileHashCache store, StringInterner stringInterner) {
+        PersistentIndexedCache<HashCode, ClassFileAnalysis> classFileAnalysisCache = store.createCache(
+            PersistentIndexedCacheParameters.of("classFileAnalysis", new HashCodeSerializer(), new ClassFileAnalysisSerializer()),
+            400000,
+            true);
+        // The dependencies of a class file are much larger than its ABI hash, and are only used by incremental Java compilation, so keep fewer of them in memory
+        PersistentIndexedCache<HashCode, ClassAnalysis> classAnalysisCache = store.createCache(
+            PersistentIndexedCacheParameters.of("classAnalysis", new HashCodeSerializer(), new ClassAnalysisSerializer(stringInterner)),
+            20000,
+            true);
+        return new DefaultClassFileAnalysisIndex(classFileAnalysisCache, classAnalysisCache, stringInterner);
+    }
+
     ClasspathFingerprinter createClasspathFingerprinter(ResourceSnapshotterCacheService resourceSnapshotterCacheService, FileSystemSnapshotter fileSystemSnapshotter, StringInterner stringInterner) {
         return new DefaultClasspathFingerprinter(resourceSnapshotterCacheService, fileSystemSnapshotter, ResourceFilter.FILTER_NOTHING, stringInterner);
     }
@@ -96,7 +96,7 @@ public class SystemApplicationClassLoaderWorker implements Callable<Void> {
         // Read server address and start connecting
         MultiChoiceAddress serverAddress = new MultiChoiceAddressSerializer().read(decoder);
         MessagingServices messagingServices = new MessagingServices();
-        final WorkerServices workerServices = new WorkerServices(messagingServices, gradleUserHomeDir);
+        final WorkerServices workerServices = new WorkerServices(messagingServices, gradleUserHomeDir, loggingManager);
 
         ObjectConnection connection = null;
         WorkerLogEventListener workerLogEventListener = null;
@@ -210,8 +210,9 @@ public class SystemApplicationClassLoaderWorker implements Callable<Void> {
     }
 
     private static class WorkerServices extends DefaultServiceRegistry {
-        public WorkerServices(ServiceRegistry parent, final File gradleUserHomeDir) {
+        public WorkerServices(ServiceRegistry parent, final File gradleUserHomeDir, LoggingManagerInternal loggingManager) {
             super(parent);
+            add(LoggingManagerInternal.class, loggingManager);
             addProvider(new Object() {
                 GradleUserHomeDirProvider createGradleUserHomeDirProvider() {
                     return new GradleUserHomeDirProvider() {
@@ -21,6 +21,7 @@ import org.gradle.api.Action
 import org.gradle.api.NonExtensible
 import org.gradle.api.plugins.ExtensionAware
 import org.gradle.internal.BiAction
+import org.gradle.internal.hash.HashCode
 import org.gradle.internal.reflect.DirectInstantiator
 import org.gradle.internal.service.ServiceRegistry
 import org.gradle.internal.util.BiFunction
@@ -29,6 +30,9 @@ import spock.lang.Issue
 import spock.lang.Specification
 
 import javax.inject.Inject
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.CountDownLatch
 
 class AsmBackedClassGeneratorGroovyTest extends Specification {
 
@@ -369,6 +373,151 @@ class AsmBackedClassGeneratorGroovyTest extends Specification {
         then:
         values == ["bar"]
     }
+
+    def "generates class once when requested by multiple threads"() {
+        def start = new CountDownLatch(1)
+        def generated = new CopyOnWriteArrayList()
+        def threads = (1..8).collect {
+            new Thread({
+                start.await()
+                generated << generator.generate(GeneratedConcurrently)
+            })
+        }
+
+        when:
+        threads*.start()
+        start.countDown()
+        threads*.join()
+
+        then:
+        generated.size() == 8
+        generated.every { it.is(generated[0]) }
+        generator.generate(generated[0]).is(generated[0])
+    }
+
+    def "reuses bytecode of class generated for the same type in another class loader"() {
+        def cache = new InMemoryBytecodeCache()
+        def type1 = loadIsolated(CachedBean)
+        def type2 = loadIsolated(CachedBean)
+        def generator1 = new AsmBackedClassGenerator()
+        def generator2 = new AsmBackedClassGenerator()
+        generator1.useBytecodeCache(cache)
+        generator2.useBytecodeCache(cache)
+
+        when:
+        def generated1 = generator1.generate(type1)
+
+        then:
+        cache.hits == 0
+        cache.entries.size() == 1
+
+        when:
+        def generated2 = generator2.generate(type2)
+        def bean = generated2.newInstance()
+        bean.prop = "value"
+
+        then:
+        cache.hits == 1
+        cache.entries.size() == 1
+        !generated2.is(generated1)
+        generated2.superclass.is(type2)
+        generated2.classLoader.is(type2.classLoader)
+        bean.prop == "value"
+        bean instanceof DynamicObjectAware
+    }
+
+    def "generates class again and replaces cache entry when cached bytecode cannot be used"() {
+        def cache = new InMemoryBytecodeCache()
+        def generator1 = new AsmBackedClassGenerator()
+        def generator2 = new AsmBackedClassGenerator()
+        generator1.useBytecodeCache(cache)
+        generator2.useBytecodeCache(cache)
+        generator1.generate(loadIsolated(CachedBean))
+        def key = cache.entries.keySet().first()
+        def validBytecode = cache.entries[key]
+        cache.entries[key] = "not bytecode".bytes
+
+        when:
+        def generated = generator2.generate(loadIsolated(CachedBean))
+        def bean = generated.newInstance()
+        bean.prop = "value"
+
+        then:
+        cache.hits == 1
+        bean.prop == "value"
+        bean instanceof DynamicObjectAware
+        cache.entries.size() == 1
+        cache.entries[key] == validBytecode
+    }
+
+    def "does not use bytecode cache once stopped"() {
+        def cache = new InMemoryBytecodeCache()
+        def generator = new AsmBackedClassGenerator()
+        generator.useBytecodeCache(cache)
+        generator.stopUsingBytecodeCache(cache)
+
+        when:
+        generator.generate(loadIsolated(CachedBean))
+
+        then:
+        cache.entries.isEmpty()
+    }
+
+    private static Class<?> loadIsolated(Class<?> type) {
+        return new IsolatingClassLoader(type.classLoader, type.name).loadClass(type.name)
+    }
+
+    private static class InMemoryBytecodeCache implements GeneratedBytecodeCache {
+        final Map<HashCode, byte[]> entries = new ConcurrentHashMap<HashCode, byte[]>()
+        int hits
+
+        @Override
+        byte[] get(HashCode key) {
+            def bytecode = entries.get(key)
+            if (bytecode != null) {
+                hits++
+            }
+            return bytecode
+        }
+
+        @Override
+        void put(HashCode key, byte[] bytecode) {
+            entries.put(key, bytecode)
+        }
+    }
+
+    /**
+     * Defines a single class from the bytecode of its parent, and delegates everything else to the parent.
+     */
+    private static class IsolatingClassLoader extends ClassLoader {
+        private final String className
+
+        IsolatingClassLoader(ClassLoader parent, String className) {
+            super(parent)
+            this.className = className
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name != className) {
+                return super.loadClass(name, resolve)
+            }
+            def loaded = findLoadedClass(name)
+            if (loaded == null) {
+                def bytecode = parent.getResourceAsStream(name.replace('.', '/') + ".class").withStream { it.bytes }
+                loaded = defineClass(name, bytecode, 0, bytecode.length)
+            }
+            return loaded
+        }
+    }
+}
+
+class GeneratedConcurrently {
+    String prop
+}
+
+class CachedBean {
+    String prop
 }
 
 enum TestEnum {
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.file.archive;
+
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.internal.file.FileMetadataSnapshot;
+import org.gradle.internal.hash.FileHasher;
+import org.gradle.internal.hash.HashCode;
+
+import java.io.File;
+
+class CountingFileHasher implements FileHasher {
+    private final FileHasher delegate;
+    private int count;
+
+    CountingFileHasher(FileHasher delegate) {
+        this.delegate = delegate;
+    }
+
+    int getCount() {
+        return count;
+    }
+
+    @Override
+    public HashCode hash(File file) {
+        count++;
+        return delegate.hash(file);
+    }
+
+    @Override
+    public HashCode hash(FileTreeElement fileDetails) {
+        count++;
+        return delegate.hash(fileDetails);
+    }
+
+    @Override
+    public HashCode hash(File file, FileMetadataSnapshot fileDetails) {
+        count++;
+        return delegate.hash(file, fileDetails);
+    }
+}
@@ -17,12 +17,16 @@ package org.gradle.api.internal.file.archive;
 
 import org.gradle.api.GradleException;
 import org.gradle.api.InvalidUserDataException;
+import org.gradle.api.file.FileVisitDetails;
+import org.gradle.api.file.FileVisitor;
 import org.gradle.test.fixtures.file.TestFile;
 import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider;
 import org.gradle.util.Resources;
 import org.junit.Rule;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
@@ -135,4 +139,45 @@ public class ZipFileTreeTest {
         assertVisits(tree, toList("file1.txt"), new ArrayList<String>());
         content.assertHasNotChangedSince(snapshot);
     }
+
+    @Test
+    public void doesNotExpandArchiveWhenOnlyContentIsRead() {
+        rootDir.file("subdir/file1.txt").write("content");
+        rootDir.zipTo(zipFile);
+        CountingFileHasher hasher = new CountingFileHasher(fileHasher());
+        ZipFileTree countingTree = new ZipFileTree(zipFile, expandDir, fileSystem(), directoryFileTreeFactory(), hasher);
+
+        final Map<String, String> content = new HashMap<String, String>();
+        countingTree.visit(new FileVisitor() {
+            @Override
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                fileDetails.copyTo(outputStream);
+                content.put(fileDetails.getPath(), outputStream.toString());
+            }
+        });
+
+        assertThat(content.get("subdir/file1.txt"), equalTo("content"));
+        assertThat(hasher.getCount(), equalTo(0));
+        expandDir.assertDoesNotExist();
+
+        final Map<String, File> files = new HashMap<String, File>();
+        countingTree.visit(new FileVisitor() {
+            @Override
+            public void visitDir(FileVisitDetails dirDetails) {
+            }
+
+            @Override
+            public void visitFile(FileVisitDetails fileDetails) {
+                files.put(fileDetails.getPath(), fileDetails.getFile());
+            }
+        });
+
+        assertThat(hasher.getCount(), equalTo(1));
+        assertThat(files.get("subdir/file1.txt").getParentFile().getParentFile().getParentFile(), equalTo((File) expandDir));
+    }
 }
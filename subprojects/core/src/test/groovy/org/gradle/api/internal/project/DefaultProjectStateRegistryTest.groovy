@@ -149,6 +149,21 @@ class DefaultProjectStateRegistryTest extends ConcurrentSpec {
         !registry.stateFor(project("p1")).hasMutableState()
     }
 
+    def "can enable state locking while running with lenient state"() {
+        given:
+        def build = build("p1", "p2")
+        registry.registerProjects(build)
+
+        expect:
+        registry.withLenientState({
+            registry.withStrictState({ assert !registry.stateFor(project("p1")).hasMutableState() })
+            assert registry.stateFor(project("p1")).hasMutableState()
+        })
+
+        and:
+        !registry.stateFor(project("p1")).hasMutableState()
+    }
+
     ProjectInternal project(String name) {
         def project = Stub(ProjectInternal)
         project.identityPath >> (name == ':' ? Path.ROOT : Path.ROOT.child(name))
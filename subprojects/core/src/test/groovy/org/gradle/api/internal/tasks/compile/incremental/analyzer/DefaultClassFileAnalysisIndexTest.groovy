@@ -0,0 +1,146 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer
+
+import org.gradle.api.Transformer
+import org.gradle.api.internal.cache.StringInterner
+import org.gradle.cache.PersistentIndexedCache
+import org.gradle.internal.Factory
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.serialize.InputStreamBackedDecoder
+import org.gradle.internal.serialize.OutputStreamBackedEncoder
+import spock.lang.Specification
+import spock.lang.Subject
+
+class DefaultClassFileAnalysisIndexTest extends Specification {
+
+    def abiEntries = [:]
+    def classAnalysisEntries = [:]
+    @Subject index = new DefaultClassFileAnalysisIndex(cacheOf(abiEntries), cacheOf(classAnalysisEntries), new StringInterner())
+
+    def "extracts the ABI of a class without analyzing its dependencies"() {
+        def content = Mock(Factory)
+
+        when:
+        def analysis = index.get(HashCode.fromInt(1), content)
+
+        then:
+        1 * content.create() >> classBytes(DefaultClassFileAnalysisIndex)
+        0 * _
+
+        and:
+        analysis.abiHash != null
+        !analysis.abiExtractionFailed
+        classAnalysisEntries.isEmpty()
+    }
+
+    def "analyzes the dependencies of a class and extracts its ABI from the same content when requested"() {
+        def content = Mock(Factory)
+
+        when:
+        def analysis = index.getClassAnalysis(HashCode.fromInt(1), content)
+
+        then:
+        1 * content.create() >> classBytes(DefaultClassFileAnalysisIndex)
+        0 * _
+
+        and:
+        analysis.className == DefaultClassFileAnalysisIndex.name
+        analysis.classDependencies.contains(ClassFileAnalysisIndex.name)
+        analysis.superTypes.contains(ClassFileAnalysisIndex.name)
+
+        when:
+        def abi = index.get(HashCode.fromInt(1), content)
+
+        then:
+        0 * content.create()
+        abi.is(abiEntries[HashCode.fromInt(1)])
+        abi.abiHash == index.get(HashCode.fromInt(2), { classBytes(DefaultClassFileAnalysisIndex) } as Factory).abiHash
+    }
+
+    def "does not read the content of a class that has already been analyzed"() {
+        def content = Mock(Factory)
+        def abi = index.get(HashCode.fromInt(1), { classBytes(DefaultClassFileAnalysisIndex) } as Factory)
+        def classAnalysis = index.getClassAnalysis(HashCode.fromInt(1), { classBytes(DefaultClassFileAnalysisIndex) } as Factory)
+
+        when:
+        def secondAbi = index.get(HashCode.fromInt(1), content)
+        def secondClassAnalysis = index.getClassAnalysis(HashCode.fromInt(1), content)
+
+        then:
+        0 * content.create()
+        secondAbi.is(abi)
+        secondClassAnalysis.is(classAnalysis)
+    }
+
+    def "records a malformed class file as a failure to extract the ABI"() {
+        when:
+        def analysis = index.get(HashCode.fromInt(1), { [1, 2, 3] as byte[] } as Factory)
+
+        then:
+        analysis.abiHash == null
+        analysis.abiExtractionFailed
+    }
+
+    def "does not record a failure to analyze the dependencies of a malformed class file"() {
+        when:
+        index.getClassAnalysis(HashCode.fromInt(1), { [1, 2, 3] as byte[] } as Factory)
+
+        then:
+        thrown(RuntimeException)
+        classAnalysisEntries.isEmpty()
+        abiEntries.isEmpty()
+    }
+
+    def "does not record a failure to read the content of a class file"() {
+        def failure = new RuntimeException()
+
+        when:
+        index.get(HashCode.fromInt(1), { throw failure } as Factory)
+
+        then:
+        def e = thrown(RuntimeException)
+        e.is(failure)
+        abiEntries.isEmpty()
+    }
+
+    def "serializes the ABI details of a class"() {
+        def serializer = new ClassFileAnalysisSerializer()
+        def analysis = index.get(HashCode.fromInt(1), { classBytes(DefaultClassFileAnalysisIndex) } as Factory)
+        def os = new ByteArrayOutputStream()
+
+        when:
+        serializer.write(new OutputStreamBackedEncoder(os), analysis)
+        def read = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(os.toByteArray())))
+
+        then:
+        read.abiHash == analysis.abiHash
+        !read.abiExtractionFailed
+    }
+
+    private PersistentIndexedCache cacheOf(Map entries) {
+        return Stub(PersistentIndexedCache) {
+            get(_, _) >> { HashCode key, Transformer producer ->
+                entries.containsKey(key) ? entries[key] : (entries[key] = producer.transform(key))
+            }
+        }
+    }
+
+    byte[] classBytes(Class aClass) {
+        aClass.classLoader.getResourceAsStream(aClass.getName().replace(".", "/") + ".class").bytes
+    }
+}
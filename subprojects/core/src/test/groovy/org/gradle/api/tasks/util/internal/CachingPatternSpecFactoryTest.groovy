@@ -17,8 +17,6 @@
 package org.gradle.api.tasks.util.internal
 
 import org.gradle.api.file.FileTreeElement
-import org.gradle.api.specs.AndSpec
-import org.gradle.api.specs.NotSpec
 import org.gradle.api.specs.Spec
 import org.gradle.api.tasks.util.PatternSet
 import spock.lang.Specification
@@ -55,8 +53,8 @@ class CachingPatternSpecFactoryTest extends Specification {
         then:
         !spec.isSatisfiedBy(fileTreeElement)
         expect:
-        spec.specs[0].is(includeSpecClosure)
-        spec.specs[1].sourceSpec.specs[1].is(excludeSpecClosure)
+        spec.includeSpec.is(includeSpecClosure)
+        spec.excludeSpec.specs[1].is(excludeSpecClosure)
     }
 
     def "check that patterns are cached"() {
@@ -65,10 +63,8 @@ class CachingPatternSpecFactoryTest extends Specification {
         patternSet.include("pattern")
         def spec = patternSet.getAsSpec()
         expect:
-        spec instanceof AndSpec
-        spec.specs.size() == 2
-        spec.specs[0] instanceof CachingPatternSpecFactory.CachingSpec
-        spec.specs[1] instanceof NotSpec
-        spec.specs[1].sourceSpec instanceof CachingPatternSpecFactory.CachingSpec
+        spec instanceof IncludeExcludeSpec
+        spec.includeSpec instanceof CachingPatternSpecFactory.CachingSpec
+        spec.excludeSpec instanceof CachingPatternSpecFactory.CachingSpec
     }
 }
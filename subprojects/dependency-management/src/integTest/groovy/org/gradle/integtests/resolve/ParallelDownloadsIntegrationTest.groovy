@@ -86,6 +86,61 @@ class ParallelDownloadsIntegrationTest extends AbstractHttpDependencyResolutionT
         "configurations.compile.resolvedConfiguration.getFiles { true }" | _
     }
 
+    def "downloads artifacts of the configurations used by the tasks of different projects in parallel before executing the tasks when prefetching is enabled"() {
+        def m1 = mavenRepo.module('test', 'test1', '1.0').publish()
+        def m2 = mavenRepo.module('test', 'test2', '1.0').publish()
+        def m3 = mavenRepo.module('test', 'test3', '1.0').publish()
+        def m4 = mavenRepo.module('test', 'test4', '1.0').publish()
+
+        settingsFile << """
+            include 'a', 'b'
+"""
+        buildFile << """
+            subprojects {
+                repositories {
+                    maven { url = uri('$server.uri') }
+                }
+                configurations {
+                    conf
+                }
+                task resolve {
+                    inputs.files configurations.conf
+                    doLast {
+                        println configurations.conf.files
+                    }
+                }
+            }
+            project(':a') {
+                dependencies {
+                    conf 'test:test1:1.0'
+                    conf 'test:test2:1.0'
+                }
+            }
+            project(':b') {
+                dependencies {
+                    conf 'test:test3:1.0'
+                    conf 'test:test4:1.0'
+                }
+            }
+"""
+
+        given:
+        server.expectConcurrent(
+            server.get(m1.pom.path).sendFile(m1.pom.file),
+            server.get(m2.pom.path).sendFile(m2.pom.file),
+            server.get(m3.pom.path).sendFile(m3.pom.file),
+            server.get(m4.pom.path).sendFile(m4.pom.file))
+        server.expectConcurrent(
+            server.get(m1.artifact.path).sendFile(m1.artifact.file),
+            server.get(m2.artifact.path).sendFile(m2.artifact.file),
+            server.get(m3.artifact.path).sendFile(m3.artifact.file),
+            server.get(m4.artifact.path).sendFile(m4.artifact.file))
+
+        expect:
+        executer.withArguments('--max-workers', '4', '-Dorg.gradle.resolution.prefetchArtifacts=true')
+        succeeds("resolve")
+    }
+
     def "downloads artifacts in parallel from an Ivy repo"() {
         def m1 = ivyRepo.module('test', 'test1', '1.0').publish()
         def m2 = ivyRepo.module('test', 'test2', '1.0').publish()
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.InputSource;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Parses a large BOM, comparing the streaming parser used by {@link PomReader} with building a DOM, as was done previously.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class PomParserBenchmark {
+    private static final int MANAGED_DEPENDENCIES = 500;
+    private static final String SYSTEM_ID = "file:/bom.pom";
+
+    private final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+    private byte[] entities;
+    private byte[] pom;
+
+    @Setup
+    public void setup() throws Exception {
+        entities = IOUtils.toByteArray(org.apache.ivy.plugins.parser.m2.PomReader.class.getResourceAsStream("m2-entities.ent"));
+
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        builder.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        builder.append("  <modelVersion>4.0.0</modelVersion>\n");
+        builder.append("  <groupId>org.example</groupId>\n  <artifactId>example-bom</artifactId>\n  <version>1.0</version>\n  <packaging>pom</packaging>\n");
+        builder.append("  <description>A BOM &ndash; with entities</description>\n");
+        builder.append("  <properties>\n");
+        for (int i = 0; i < MANAGED_DEPENDENCIES; i++) {
+            builder.append("    <module").append(i).append(".version>").append(i).append(".0</module").append(i).append(".version>\n");
+        }
+        builder.append("  </properties>\n  <dependencyManagement>\n    <dependencies>\n");
+        for (int i = 0; i < MANAGED_DEPENDENCIES; i++) {
+            builder.append("      <dependency>\n");
+            builder.append("        <groupId>org.example.group").append(i % 20).append("</groupId>\n");
+            builder.append("        <artifactId>module").append(i).append("</artifactId>\n");
+            builder.append("        <version>${module").append(i).append(".version}</version>\n");
+            builder.append("        <exclusions><exclusion><groupId>commons-logging</groupId><artifactId>commons-logging</artifactId></exclusion></exclusions>\n");
+            builder.append("      </dependency>\n");
+        }
+        builder.append("    </dependencies>\n  </dependencyManagement>\n  <build>\n    <plugins>\n");
+        for (int i = 0; i < 50; i++) {
+            builder.append("      <plugin><artifactId>plugin").append(i).append("</artifactId><configuration><option>value</option></configuration></plugin>\n");
+        }
+        builder.append("    </plugins>\n  </build>\n</project>\n");
+        pom = builder.toString().getBytes(Charset.forName("UTF-8"));
+    }
+
+    @Benchmark
+    public Object dom() throws Exception {
+        DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+        documentBuilder.setEntityResolver(new EntityResolver() {
+            @Override
+            public InputSource resolveEntity(String publicId, String systemId) {
+                if ((systemId != null) && systemId.endsWith("m2-entities.ent")) {
+                    return new InputSource(new ByteArrayInputStream(entities));
+                }
+                return null;
+            }
+        });
+        return documentBuilder.parse(new PomStaxParser.AddDTDFilterInputStream(new ByteArrayInputStream(pom)), SYSTEM_ID);
+    }
+
+    @Benchmark
+    public Object stax() throws Exception {
+        return PomStaxParser.parse(new ByteArrayInputStream(pom), SYSTEM_ID);
+    }
+}
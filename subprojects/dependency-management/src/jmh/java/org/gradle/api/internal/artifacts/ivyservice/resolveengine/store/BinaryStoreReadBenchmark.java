@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.cache.internal.BinaryStore;
+import org.gradle.cache.internal.Store;
+import org.gradle.internal.Factory;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Repeatedly reads a large resolution result from a binary store, as done by IDE model builders and dependency reports, either
+ * decoding it every time or through the cache of decoded results.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class BinaryStoreReadBenchmark {
+    private static final int COMPONENTS = 5000;
+    private static final int DEPENDENCIES_PER_COMPONENT = 10;
+
+    private final BinaryStore.ReadAction<List<String>> readAction = new BinaryStore.ReadAction<List<String>>() {
+        @Override
+        public List<String> read(Decoder decoder) throws IOException {
+            List<String> components = new ArrayList<String>(COMPONENTS);
+            for (int i = 0; i < COMPONENTS; i++) {
+                decoder.readSmallLong();
+                components.add(decoder.readString() + ":" + decoder.readString() + ":" + decoder.readString());
+                int dependencies = decoder.readSmallInt();
+                for (int j = 0; j < dependencies; j++) {
+                    decoder.readSmallLong();
+                }
+            }
+            return components;
+        }
+    };
+
+    private File file;
+    private DefaultBinaryStore binaryStore;
+    private BinaryStore.BinaryData data;
+    private CachedStoreFactory<List<String>> cachedStoreFactory;
+
+    @Setup
+    public void setup() throws IOException {
+        file = File.createTempFile("resolution-result", ".bin");
+        binaryStore = new DefaultBinaryStore(file);
+        binaryStore.write(new BinaryStore.WriteAction() {
+            @Override
+            public void write(Encoder encoder) throws IOException {
+                for (int i = 0; i < COMPONENTS; i++) {
+                    encoder.writeSmallLong(i);
+                    encoder.writeString("org.example.group" + (i % 50));
+                    encoder.writeString("module" + i);
+                    encoder.writeString("1." + (i % 10));
+                    encoder.writeSmallInt(DEPENDENCIES_PER_COMPONENT);
+                    for (int j = 0; j < DEPENDENCIES_PER_COMPONENT; j++) {
+                        encoder.writeSmallLong((i + j * 31) % COMPONENTS);
+                    }
+                }
+            }
+        });
+        data = binaryStore.done();
+        cachedStoreFactory = new CachedStoreFactory<List<String>>("benchmark");
+    }
+
+    @TearDown
+    public void tearDown() {
+        cachedStoreFactory.close();
+        binaryStore.close();
+    }
+
+    @Benchmark
+    public List<String> readFromBinaryStore() throws IOException {
+        try {
+            return data.read(readAction);
+        } finally {
+            data.close();
+        }
+    }
+
+    @Benchmark
+    public List<String> readThroughCache() {
+        Store<List<String>> store = cachedStoreFactory.createCachedStore("configuration");
+        return store.load(new Factory<List<String>>() {
+            @Override
+            public List<String> create() {
+                try {
+                    return readFromBinaryStore();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        });
+    }
+}
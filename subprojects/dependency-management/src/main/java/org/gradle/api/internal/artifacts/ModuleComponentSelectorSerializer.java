@@ -23,6 +23,7 @@ import org.gradle.api.internal.artifacts.dependencies.DefaultImmutableVersionCon
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer;
 import org.gradle.api.internal.attributes.AttributeContainerInternal;
 import org.gradle.api.internal.attributes.ImmutableAttributes;
+import org.gradle.internal.component.external.model.ModuleMetadataInterner;
 import org.gradle.internal.serialize.Decoder;
 import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.Serializer;
@@ -44,7 +45,7 @@ public class ModuleComponentSelectorSerializer implements Serializer<ModuleCompo
         String name = decoder.readString();
         VersionConstraint versionConstraint = readVersionConstraint(decoder);
         ImmutableAttributes attributes = readAttributes(decoder);
-        return newSelector(DefaultModuleIdentifier.newId(group, name), versionConstraint, attributes);
+        return ModuleMetadataInterner.intern(newSelector(DefaultModuleIdentifier.newId(group, name), versionConstraint, attributes));
     }
 
     public VersionConstraint readVersionConstraint(Decoder decoder) throws IOException {
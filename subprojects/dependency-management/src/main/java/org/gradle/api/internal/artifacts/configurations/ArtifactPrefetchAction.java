@@ -0,0 +1,39 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.configurations;
+
+import org.gradle.api.internal.artifacts.dsl.dependencies.ProjectFinder;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectStateRegistry;
+import org.gradle.configuration.project.ProjectConfigureAction;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.work.WorkerLeaseService;
+
+/**
+ * Registers an {@link ArtifactPrefetcher} with the task graph of each build, when enabled.
+ */
+public class ArtifactPrefetchAction implements ProjectConfigureAction {
+    @Override
+    public void execute(ProjectInternal project) {
+        if (project.getParent() != null || !Boolean.getBoolean(ArtifactPrefetcher.PREFETCH_ARTIFACTS)) {
+            return;
+        }
+        ArtifactPrefetcher prefetcher = new ArtifactPrefetcher(project.getServices().get(BuildOperationExecutor.class), project.getServices().get(ProjectStateRegistry.class),
+            project.getGradle().getServices().get(ProjectFinder.class), project.getServices().get(WorkerLeaseService.class));
+        project.getGradle().getTaskGraph().addTaskExecutionGraphListener(prefetcher);
+    }
+}
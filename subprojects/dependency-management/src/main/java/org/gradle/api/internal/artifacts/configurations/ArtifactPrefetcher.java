@@ -0,0 +1,195 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.configurations;
+
+import com.google.common.collect.Sets;
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.artifacts.ArtifactView;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.execution.TaskExecutionGraph;
+import org.gradle.api.execution.TaskExecutionGraphListener;
+import org.gradle.api.file.FileCollection;
+import org.gradle.api.internal.artifacts.dsl.dependencies.ProjectFinder;
+import org.gradle.api.internal.file.FileCollectionInternal;
+import org.gradle.api.internal.file.FileCollectionLeafVisitor;
+import org.gradle.api.internal.file.FileTreeInternal;
+import org.gradle.api.internal.file.collections.DirectoryFileTree;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectStateRegistry;
+import org.gradle.api.specs.Spec;
+import org.gradle.internal.InternalListener;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.work.WorkerLeaseService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Set;
+
+/**
+ * Downloads the artifacts of external modules required by the input files of the tasks in the task graph, once the task graph has been
+ * calculated. Otherwise, the artifacts of each configuration are downloaded when a task first uses the configuration, which is often one
+ * configuration at a time.
+ *
+ * <p>Each configuration is resolved while holding the lock of its owning project, so the graph is resolved only once and the tasks
+ * reuse the result. This means that the configurations can no longer be changed once the task graph has been calculated. Configurations
+ * are resolved as build operations, so their concurrency is bounded by the maximum number of build workers. Configurations of the same
+ * project are resolved one at a time. Failures are ignored, and are reported when a task uses the configuration.</p>
+ */
+public class ArtifactPrefetcher implements TaskExecutionGraphListener, InternalListener {
+    /**
+     * When set, the artifacts of the configurations used by the tasks in the task graph are downloaded before the tasks are executed.
+     *
+     * <p>The prefetcher is registered before any build script runs, so it is notified before the {@code whenReady} hooks and task graph
+     * listeners added by build scripts and plugins. The configurations it resolves can no longer be changed by those hooks, and attempts to
+     * change them fail as they would for any other resolved configuration. Builds that change configurations from such hooks should not
+     * enable this property.</p>
+     */
+    public static final String PREFETCH_ARTIFACTS = "org.gradle.resolution.prefetchArtifacts";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactPrefetcher.class);
+    private static final Spec<ComponentIdentifier> EXTERNAL_COMPONENTS = new Spec<ComponentIdentifier>() {
+        @Override
+        public boolean isSatisfiedBy(ComponentIdentifier id) {
+            return id instanceof ModuleComponentIdentifier;
+        }
+    };
+
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final ProjectStateRegistry projectStateRegistry;
+    private final ProjectFinder projectFinder;
+    private final WorkerLeaseService workerLeaseService;
+
+    public ArtifactPrefetcher(BuildOperationExecutor buildOperationExecutor, ProjectStateRegistry projectStateRegistry, ProjectFinder projectFinder, WorkerLeaseService workerLeaseService) {
+        this.buildOperationExecutor = buildOperationExecutor;
+        this.projectStateRegistry = projectStateRegistry;
+        this.projectFinder = projectFinder;
+        this.workerLeaseService = workerLeaseService;
+    }
+
+    @Override
+    public void graphPopulated(TaskExecutionGraph graph) {
+        final Set<ConfigurationInternal> configurations = Sets.newLinkedHashSet();
+        for (Task task : graph.getAllTasks()) {
+            try {
+                FileCollection inputFiles = task.getInputs().getFiles();
+                if (inputFiles instanceof FileCollectionInternal) {
+                    collectConfigurations((FileCollectionInternal) inputFiles, configurations);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not determine the configurations used by {}.", task, e);
+            }
+        }
+        if (configurations.isEmpty()) {
+            return;
+        }
+        // The operations lock the projects that own the configurations. Enable state locking, as the calling thread also runs some of the operations
+        workerLeaseService.withoutProjectLock(new Runnable() {
+            @Override
+            public void run() {
+                projectStateRegistry.withStrictState(new Runnable() {
+                    @Override
+                    public void run() {
+                        buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                            @Override
+                            public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                                for (ConfigurationInternal configuration : configurations) {
+                                    queue.add(new PrefetchArtifactsOperation(configuration));
+                                }
+                            }
+                        });
+                    }
+                });
+            }
+        });
+    }
+
+    private static void collectConfigurations(FileCollectionInternal files, final Set<ConfigurationInternal> configurations) {
+        files.visitLeafCollections(new FileCollectionLeafVisitor() {
+            @Override
+            public void visitCollection(FileCollectionInternal fileCollection) {
+                if (fileCollection instanceof ConfigurationInternal) {
+                    ConfigurationInternal configuration = (ConfigurationInternal) fileCollection;
+                    if (configuration.isCanBeResolved()) {
+                        configurations.add(configuration);
+                    }
+                }
+            }
+
+            @Override
+            public void visitGenericFileTree(FileTreeInternal fileTree) {
+            }
+
+            @Override
+            public void visitDirectoryTree(DirectoryFileTree directoryTree) {
+            }
+        });
+    }
+
+    private class PrefetchArtifactsOperation implements RunnableBuildOperation {
+        private final ConfigurationInternal configuration;
+
+        PrefetchArtifactsOperation(ConfigurationInternal configuration) {
+            this.configuration = configuration;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            projectStateRegistry.withStrictState(new Runnable() {
+                @Override
+                public void run() {
+                    String projectPath = configuration.getModule().getProjectPath();
+                    ProjectInternal project = projectPath == null ? null : projectFinder.findProject(projectPath);
+                    if (project == null) {
+                        prefetch();
+                    } else {
+                        projectStateRegistry.stateFor(project).withMutableState(new Runnable() {
+                            @Override
+                            public void run() {
+                                prefetch();
+                            }
+                        });
+                    }
+                }
+            });
+        }
+
+        private void prefetch() {
+            try {
+                configuration.getIncoming().artifactView(new Action<ArtifactView.ViewConfiguration>() {
+                    @Override
+                    public void execute(ArtifactView.ViewConfiguration view) {
+                        view.lenient(true);
+                        view.componentFilter(EXTERNAL_COMPONENTS);
+                    }
+                }).getArtifacts().getArtifacts();
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not prefetch artifacts of {}.", configuration, e);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Prefetch artifacts of " + configuration);
+        }
+    }
+}
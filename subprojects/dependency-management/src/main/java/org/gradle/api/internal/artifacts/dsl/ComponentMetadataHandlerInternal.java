@@ -19,4 +19,9 @@ import org.gradle.internal.component.external.model.VariantDerivationStrategy;
 
 public interface ComponentMetadataHandlerInternal {
     void setVariantDerivationStrategy(VariantDerivationStrategy strategy);
+
+    /**
+     * Returns true if any component metadata rule has been registered.
+     */
+    boolean hasRules();
 }
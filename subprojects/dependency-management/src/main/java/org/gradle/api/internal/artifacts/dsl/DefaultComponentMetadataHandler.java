@@ -204,6 +204,11 @@ public class DefaultComponentMetadataHandler implements ComponentMetadataHandler
         metadataRuleContainer.setVariantDerivationStrategy(strategy);
     }
 
+    @Override
+    public boolean hasRules() {
+        return !metadataRuleContainer.isEmpty();
+    }
+
     static class ComponentMetadataDetailsMatchingSpec implements Spec<ComponentMetadataDetails> {
         private ModuleIdentifier target;
 
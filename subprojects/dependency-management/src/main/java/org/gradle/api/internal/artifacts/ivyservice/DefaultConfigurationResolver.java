@@ -17,6 +17,7 @@
 package org.gradle.api.internal.artifacts.ivyservice;
 
 import com.google.common.collect.ImmutableList;
+import org.gradle.api.artifacts.ModuleIdentifier;
 import org.gradle.api.artifacts.ProjectDependency;
 import org.gradle.api.artifacts.UnresolvedDependency;
 import org.gradle.api.artifacts.component.BuildIdentifier;
@@ -31,6 +32,8 @@ import org.gradle.api.internal.artifacts.ResolverResults;
 import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
 import org.gradle.api.internal.artifacts.configurations.ConflictResolution;
 import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.BuildDependenciesOnlyVisitedArtifactSet;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DefaultResolvedArtifactsBuilder;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.artifact.DependencyArtifactsVisitor;
@@ -51,7 +54,9 @@ import org.gradle.api.internal.artifacts.ivyservice.resolveengine.projectresult.
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.FileDependencyCollectingGraphVisitor;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.InMemoryBinaryStore;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsStoreFactory;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.StoreSet;
 import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
 import org.gradle.api.internal.artifacts.transform.ArtifactTransforms;
@@ -62,12 +67,16 @@ import org.gradle.api.specs.Specs;
 import org.gradle.cache.internal.BinaryStore;
 import org.gradle.cache.internal.Store;
 import org.gradle.internal.Transformers;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
 import org.gradle.internal.component.local.model.DslOriginDependencyMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.hash.HashCode;
 import org.gradle.internal.locking.DependencyLockingArtifactVisitor;
 import org.gradle.internal.operations.BuildOperationExecutor;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -92,6 +101,9 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
     private final ComponentSelectorConverter componentSelectorConverter;
     private final AttributeContainerSerializer attributeContainerSerializer;
     private final BuildIdentifier currentBuild;
+    private final ResolvedGraphCache graphCache;
+    private final ResolvedGraphFingerprinter graphFingerprinter;
+    private final VersionSelectorScheme versionSelectorScheme;
 
     public DefaultConfigurationResolver(ArtifactDependencyResolver resolver, RepositoryHandler repositories,
                                         GlobalDependencyResolutionRules metadataHandler,
@@ -104,7 +116,10 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
                                         ArtifactTypeRegistry artifactTypeRegistry,
                                         ComponentSelectorConverter componentSelectorConverter,
                                         AttributeContainerSerializer attributeContainerSerializer,
-                                        BuildIdentifier currentBuild) {
+                                        BuildIdentifier currentBuild,
+                                        ResolvedGraphCache graphCache,
+                                        VersionSelectorScheme versionSelectorScheme,
+                                        ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
         this.resolver = resolver;
         this.repositories = repositories;
         this.metadataHandler = metadataHandler;
@@ -118,6 +133,9 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
         this.componentSelectorConverter = componentSelectorConverter;
         this.attributeContainerSerializer = attributeContainerSerializer;
         this.currentBuild = currentBuild;
+        this.graphCache = graphCache;
+        this.graphFingerprinter = new ResolvedGraphFingerprinter(metadataHandler, attributesSchema, versionSelectorScheme, classLoaderHierarchyHasher);
+        this.versionSelectorScheme = versionSelectorScheme;
     }
 
     @Override
@@ -133,6 +151,41 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
 
     public void resolveGraph(ConfigurationInternal configuration, ResolverResults results) {
         List<ResolutionAwareRepository> resolutionAwareRepositories = getRepositories();
+        HashCode graphKey = graphCache.isEnabled() ? graphFingerprinter.fingerprint(configuration, resolutionAwareRepositories) : null;
+        if (graphKey != null && reuseCachedGraph(configuration, graphKey, results)) {
+            return;
+        }
+        doResolveGraph(configuration, resolutionAwareRepositories, graphKey, null, results);
+    }
+
+    /**
+     * Uses the resolution result of a previous build, when available. A reused graph only contains external module components, so it has no build
+     * dependencies. Its artifacts are resolved by traversing the graph in {@link #resolveArtifacts(ConfigurationInternal, ResolverResults)}.
+     */
+    private boolean reuseCachedGraph(ConfigurationInternal configuration, HashCode graphKey, ResolverResults results) {
+        ResolutionStrategyInternal resolutionStrategy = configuration.getResolutionStrategy();
+        ResolvedGraphCache.CachedGraph cachedGraph = graphCache.get(graphKey, resolutionStrategy.getCachePolicy());
+        if (cachedGraph == null) {
+            return false;
+        }
+        ModuleReplacementsData moduleReplacements = metadataHandler.getModuleMetadataProcessor().getModuleReplacements();
+        for (ModuleIdentifier module : cachedGraph.getModules()) {
+            if (moduleReplacements.participatesInReplacements(module)) {
+                return false;
+            }
+        }
+        StreamingResolutionResultBuilder newModelBuilder = new StreamingResolutionResultBuilder(new InMemoryBinaryStore(cachedGraph.getResolutionResult()), storeFactory.createStoreSet().newModelCache(), moduleIdentifierFactory, attributeContainerSerializer);
+        VisitedArtifactsResults noArtifacts = new DefaultResolvedArtifactsBuilder(currentBuild, buildProjectDependencies, resolutionStrategy.getSortOrder()).complete();
+        results.graphResolved(newModelBuilder.complete(Collections.<UnresolvedDependency>emptySet()), new ResolvedLocalComponentsResultGraphVisitor(currentBuild), new BuildDependenciesOnlyVisitedArtifactSet(Collections.<UnresolvedDependency>emptySet(), noArtifacts, artifactTransforms, configuration.getIncoming(), configuration.getDependenciesResolver()));
+        results.retainState(new ReusedGraph(graphKey, cachedGraph.getResolutionResult()));
+        return true;
+    }
+
+    /**
+     * Traverses the graph of the given configuration. When the resolution result of the configuration has been reused from a previous build, the graph
+     * is only traversed to calculate its artifacts, and must match the reused resolution result.
+     */
+    private void doResolveGraph(ConfigurationInternal configuration, List<ResolutionAwareRepository> resolutionAwareRepositories, @Nullable HashCode graphKey, @Nullable ReusedGraph reusedGraph, ResolverResults results) {
         StoreSet stores = storeFactory.createStoreSet();
 
         BinaryStore oldModelStore = stores.nextBinaryStore();
@@ -151,7 +204,17 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
         DefaultResolvedArtifactsBuilder artifactsBuilder = new DefaultResolvedArtifactsBuilder(currentBuild, buildProjectDependencies, resolutionStrategy.getSortOrder());
         FileDependencyCollectingGraphVisitor fileDependencyVisitor = new FileDependencyCollectingGraphVisitor();
         ResolutionFailureCollector failureCollector = new ResolutionFailureCollector(componentSelectorConverter);
-        DependencyGraphVisitor graphVisitor = new CompositeDependencyGraphVisitor(newModelBuilder, localComponentsVisitor, failureCollector);
+        ResolvedGraphRecorder graphRecorder = null;
+        DependencyGraphVisitor graphVisitor;
+        if (reusedGraph != null) {
+            graphRecorder = new ResolvedGraphRecorder(moduleIdentifierFactory, attributeContainerSerializer, versionSelectorScheme, metadataHandler.getModuleMetadataProcessor().getModuleReplacements());
+            graphVisitor = new CompositeDependencyGraphVisitor(localComponentsVisitor, failureCollector, graphRecorder);
+        } else if (graphKey != null) {
+            graphRecorder = new ResolvedGraphRecorder(moduleIdentifierFactory, attributeContainerSerializer, versionSelectorScheme, metadataHandler.getModuleMetadataProcessor().getModuleReplacements());
+            graphVisitor = new CompositeDependencyGraphVisitor(newModelBuilder, localComponentsVisitor, failureCollector, graphRecorder);
+        } else {
+            graphVisitor = new CompositeDependencyGraphVisitor(newModelBuilder, localComponentsVisitor, failureCollector);
+        }
 
         ImmutableList.Builder<DependencyArtifactsVisitor> visitors = new ImmutableList.Builder<DependencyArtifactsVisitor>();
         visitors.add(oldModelVisitor);
@@ -179,11 +242,23 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
             ? Collections.<UnresolvedDependency>emptySet()
             : lockingVisitor.collectLockingFailures();
         Set<UnresolvedDependency> failures = failureCollector.complete(extraFailures);
-        results.graphResolved(newModelBuilder.complete(extraFailures), localComponentsVisitor, new BuildDependenciesOnlyVisitedArtifactSet(failures, artifactsResults, artifactTransforms, configuration.getIncoming(), configuration.getDependenciesResolver()));
+        if (reusedGraph == null) {
+            results.graphResolved(newModelBuilder.complete(extraFailures), localComponentsVisitor, new BuildDependenciesOnlyVisitedArtifactSet(failures, artifactsResults, artifactTransforms, configuration.getIncoming(), configuration.getDependenciesResolver()));
+        }
 
         results.retainState(new ArtifactResolveState(graphResults, artifactsResults, fileDependencyResults, failures, oldTransientModelBuilder));
+        byte[] recordedResult = null;
         if (!results.hasError() && failures.isEmpty()) {
             artifactsVisitor.complete();
+            if (graphRecorder != null) {
+                recordedResult = graphRecorder.complete();
+                if (recordedResult != null && (reusedGraph == null || !Arrays.equals(recordedResult, reusedGraph.resolutionResult))) {
+                    graphCache.put(graphKey, recordedResult, graphRecorder.getComponents());
+                }
+            }
+        }
+        if (reusedGraph != null && !Arrays.equals(recordedResult, reusedGraph.resolutionResult)) {
+            throw new IllegalStateException(String.format("The dependency graph of %s does not match the resolution result reused from a previous build.", configuration.getDisplayName()));
         }
     }
 
@@ -192,7 +267,12 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
     }
 
     public void resolveArtifacts(ConfigurationInternal configuration, ResolverResults results) {
-        ArtifactResolveState resolveState = (ArtifactResolveState) results.getArtifactResolveState();
+        Object artifactResolveState = results.getArtifactResolveState();
+        if (artifactResolveState instanceof ReusedGraph) {
+            doResolveGraph(configuration, getRepositories(), ((ReusedGraph) artifactResolveState).graphKey, (ReusedGraph) artifactResolveState, results);
+            artifactResolveState = results.getArtifactResolveState();
+        }
+        ArtifactResolveState resolveState = (ArtifactResolveState) artifactResolveState;
         ResolvedGraphResults graphResults = resolveState.graphResults;
         VisitedArtifactsResults artifactResults = resolveState.artifactsResults;
         TransientConfigurationResultsBuilder transientConfigurationResultsBuilder = resolveState.transientConfigurationResultsBuilder;
@@ -203,6 +283,19 @@ public class DefaultConfigurationResolver implements ConfigurationResolver {
         results.artifactsResolved(new DefaultResolvedConfiguration(result), result);
     }
 
+    /**
+     * The state of a configuration whose resolution result has been reused from the {@link ResolvedGraphCache}.
+     */
+    private static class ReusedGraph {
+        final HashCode graphKey;
+        final byte[] resolutionResult;
+
+        ReusedGraph(HashCode graphKey, byte[] resolutionResult) {
+            this.graphKey = graphKey;
+            this.resolutionResult = resolutionResult;
+        }
+    }
+
     private static class ArtifactResolveState {
         final ResolvedGraphResults graphResults;
         final VisitedArtifactsResults artifactsResults;
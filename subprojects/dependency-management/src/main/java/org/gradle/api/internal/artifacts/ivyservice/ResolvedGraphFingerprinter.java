@@ -0,0 +1,288 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import com.google.common.collect.Ordering;
+import org.gradle.api.Action;
+import org.gradle.api.artifacts.ClientModule;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.DependencyArtifact;
+import org.gradle.api.artifacts.DependencyConstraint;
+import org.gradle.api.artifacts.DependencySubstitution;
+import org.gradle.api.artifacts.ExcludeRule;
+import org.gradle.api.artifacts.ExternalModuleDependency;
+import org.gradle.api.artifacts.ModuleVersionSelector;
+import org.gradle.api.artifacts.VersionConstraint;
+import org.gradle.api.attributes.Attribute;
+import org.gradle.api.attributes.AttributeContainer;
+import org.gradle.api.attributes.AttributeMatchingStrategy;
+import org.gradle.api.attributes.CompatibilityRuleChain;
+import org.gradle.api.attributes.DisambiguationRuleChain;
+import org.gradle.api.capabilities.Capability;
+import org.gradle.api.internal.artifacts.ComponentMetadataProcessorFactory;
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules;
+import org.gradle.api.internal.artifacts.Module;
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal;
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal;
+import org.gradle.api.internal.artifacts.dsl.ComponentMetadataHandlerInternal;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.repositories.AbstractArtifactRepository;
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository;
+import org.gradle.api.internal.artifacts.repositories.descriptor.RepositoryDescriptor;
+import org.gradle.api.internal.attributes.AttributesSchemaInternal;
+import org.gradle.api.internal.attributes.DefaultCompatibilityRuleChain;
+import org.gradle.api.internal.attributes.DefaultDisambiguationRuleChain;
+import org.gradle.internal.Actions;
+import org.gradle.internal.action.ConfigurableRule;
+import org.gradle.internal.action.InstantiatingAction;
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hasher;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.util.GradleVersion;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calculates a fingerprint of the declared inputs of the resolution of a configuration, for use as the key of the
+ * {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache}.
+ *
+ * <p>Only configurations whose inputs can be fingerprinted are considered: every dependency must be an external module dependency on a fixed,
+ * non changing version, and the graph must not be affected by any rule defined in the build logic, such as dependency substitution, component
+ * selection or component metadata rules, repository content filters or component metadata suppliers and listers. Dependency locking is not
+ * supported either, and neither are local repositories, whose contents can change without any change to the build. Attribute compatibility and
+ * disambiguation rules are fingerprinted by the name of their class, the hash of the class loader it was loaded from, and their parameters.</p>
+ *
+ * <p>The metadata that the graph was resolved from is not part of the fingerprint: it is checked against the cache policy of the resolution when
+ * an entry is looked up instead.</p>
+ */
+class ResolvedGraphFingerprinter {
+    private static final Comparator<Attribute<?>> BY_NAME = new Comparator<Attribute<?>>() {
+        @Override
+        public int compare(Attribute<?> left, Attribute<?> right) {
+            return left.getName().compareTo(right.getName());
+        }
+    };
+
+    private final GlobalDependencyResolutionRules metadataHandler;
+    private final AttributesSchemaInternal attributesSchema;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final ClassLoaderHierarchyHasher classLoaderHierarchyHasher;
+
+    ResolvedGraphFingerprinter(GlobalDependencyResolutionRules metadataHandler, AttributesSchemaInternal attributesSchema, VersionSelectorScheme versionSelectorScheme, ClassLoaderHierarchyHasher classLoaderHierarchyHasher) {
+        this.metadataHandler = metadataHandler;
+        this.attributesSchema = attributesSchema;
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.classLoaderHierarchyHasher = classLoaderHierarchyHasher;
+    }
+
+    /**
+     * Returns the fingerprint of the inputs of the resolution of the given configuration, or null when the graph may depend on other inputs.
+     */
+    @Nullable
+    HashCode fingerprint(ConfigurationInternal configuration, List<ResolutionAwareRepository> repositories) {
+        if (hasRules(configuration.getResolutionStrategy())) {
+            return null;
+        }
+        Hasher hasher = Hashing.newHasher();
+        hasher.putString(GradleVersion.current().getVersion());
+
+        Module module = configuration.getModule();
+        hasher.putString(String.valueOf(module.getProjectPath()));
+        hasher.putString(module.getGroup());
+        hasher.putString(module.getName());
+        hasher.putString(module.getVersion());
+        hasher.putString(module.getStatus());
+        hasher.putString(configuration.getName());
+        hasher.putBoolean(configuration.isTransitive());
+        appendAttributes(hasher, configuration.getAttributes());
+        for (Capability capability : configuration.getOutgoing().getCapabilities()) {
+            hasher.putString(capability.getGroup());
+            hasher.putString(capability.getName());
+            hasher.putString(String.valueOf(capability.getVersion()));
+        }
+        appendExcludes(hasher, configuration.getAllExcludeRules());
+
+        hasher.putInt(configuration.getAllDependencies().size());
+        for (Dependency dependency : configuration.getAllDependencies()) {
+            appendDependency(hasher, dependency);
+        }
+        hasher.putInt(configuration.getAllDependencyConstraints().size());
+        for (DependencyConstraint constraint : configuration.getAllDependencyConstraints()) {
+            appendModule(hasher, constraint.getGroup(), constraint.getName(), constraint.getVersionConstraint());
+            hasher.putString(String.valueOf(constraint.getReason()));
+            appendAttributes(hasher, constraint.getAttributes());
+        }
+
+        ResolutionStrategyInternal resolutionStrategy = configuration.getResolutionStrategy();
+        hasher.putString(resolutionStrategy.getConflictResolution().name());
+        for (ModuleVersionSelector forcedModule : resolutionStrategy.getForcedModules()) {
+            hasher.putString(forcedModule.getGroup());
+            hasher.putString(forcedModule.getName());
+            hasher.putString(String.valueOf(forcedModule.getVersion()));
+        }
+
+        for (ResolutionAwareRepository repository : repositories) {
+            if (repository instanceof AbstractArtifactRepository) {
+                AbstractArtifactRepository artifactRepository = (AbstractArtifactRepository) repository;
+                if (artifactRepository.getContentFilter() != null) {
+                    hasher.markAsInvalid("repository content filter");
+                }
+                if (artifactRepository.hasComponentMetadataRules()) {
+                    hasher.markAsInvalid("component metadata supplier or lister");
+                }
+            }
+            if (repository.createResolver().isLocal()) {
+                // The contents of local repositories, such as mavenLocal() or flatDir(), can change at any time
+                hasher.markAsInvalid("local repository");
+            }
+            RepositoryDescriptor descriptor = repository.getDescriptor();
+            hasher.putString(descriptor.getType().name());
+            hasher.putString(descriptor.name);
+            for (Map.Entry<String, ?> property : descriptor.getProperties().entrySet()) {
+                hasher.putString(property.getKey());
+                hasher.putString(String.valueOf(property.getValue()));
+            }
+        }
+
+        for (Attribute<?> attribute : Ordering.from(BY_NAME).sortedCopy(attributesSchema.getAttributes())) {
+            hasher.putString(attribute.getName());
+            hasher.putString(attribute.getType().getName());
+            AttributeMatchingStrategy<?> matchingStrategy = attributesSchema.getMatchingStrategy(attribute);
+            CompatibilityRuleChain<?> compatibilityRules = matchingStrategy.getCompatibilityRules();
+            if (compatibilityRules instanceof DefaultCompatibilityRuleChain) {
+                appendRules(hasher, ((DefaultCompatibilityRuleChain<?>) compatibilityRules).getRules());
+            } else {
+                hasher.markAsInvalid("unknown compatibility rules");
+            }
+            DisambiguationRuleChain<?> disambiguationRules = matchingStrategy.getDisambiguationRules();
+            if (disambiguationRules instanceof DefaultDisambiguationRuleChain) {
+                appendRules(hasher, ((DefaultDisambiguationRuleChain<?>) disambiguationRules).getRules());
+            } else {
+                hasher.markAsInvalid("unknown disambiguation rules");
+            }
+        }
+        return hasher.isValid() ? hasher.hash() : null;
+    }
+
+    /**
+     * Appends the implementation and parameters of the given attribute matching rules. Rules backed by a comparator, or loaded by a class loader
+     * whose contents are unknown, cannot be fingerprinted.
+     */
+    private void appendRules(Hasher hasher, List<? extends Action<?>> rules) {
+        hasher.putInt(rules.size());
+        for (Action<?> rule : rules) {
+            if (!(rule instanceof InstantiatingAction)) {
+                hasher.markAsInvalid("attribute matching rule that is not a rule class");
+                return;
+            }
+            for (ConfigurableRule<?> configurableRule : ((InstantiatingAction<?>) rule).getRules().getConfigurableRules()) {
+                Class<?> ruleClass = configurableRule.getRuleClass();
+                HashCode classLoaderHash = classLoaderHierarchyHasher.getClassLoaderHash(ruleClass.getClassLoader());
+                if (classLoaderHash == null) {
+                    hasher.markAsInvalid("attribute matching rule loaded by an unknown class loader");
+                    return;
+                }
+                hasher.putString(ruleClass.getName());
+                hasher.putHash(classLoaderHash);
+                configurableRule.getRuleParams().appendToHasher(hasher);
+            }
+        }
+    }
+
+    private boolean hasRules(ResolutionStrategyInternal resolutionStrategy) {
+        if (resolutionStrategy.isDependencyLockingEnabled()
+            || resolutionStrategy.getDependencySubstitutionRule() != Actions.<DependencySubstitution>doNothing()
+            || !resolutionStrategy.getComponentSelection().getRules().isEmpty()
+            || metadataHandler.getDependencySubstitutionRules().hasRules()) {
+            return true;
+        }
+        ComponentMetadataProcessorFactory metadataProcessorFactory = metadataHandler.getComponentMetadataProcessorFactory();
+        if (metadataProcessorFactory instanceof ComponentMetadataHandlerInternal) {
+            return ((ComponentMetadataHandlerInternal) metadataProcessorFactory).hasRules();
+        }
+        return metadataProcessorFactory != GlobalDependencyResolutionRules.NO_OP_FACTORY;
+    }
+
+    private void appendDependency(Hasher hasher, Dependency dependency) {
+        if (!(dependency instanceof ExternalModuleDependency) || dependency instanceof ClientModule) {
+            hasher.markAsInvalid("dependency that is not an external module");
+            return;
+        }
+        ExternalModuleDependency moduleDependency = (ExternalModuleDependency) dependency;
+        if (moduleDependency.isChanging()) {
+            hasher.markAsInvalid("changing module");
+            return;
+        }
+        appendModule(hasher, moduleDependency.getGroup(), moduleDependency.getName(), moduleDependency.getVersionConstraint());
+        hasher.putString(String.valueOf(moduleDependency.getReason()));
+        hasher.putString(String.valueOf(moduleDependency.getTargetConfiguration()));
+        hasher.putBoolean(moduleDependency.isForce());
+        hasher.putBoolean(moduleDependency.isTransitive());
+        appendExcludes(hasher, moduleDependency.getExcludeRules());
+        hasher.putInt(moduleDependency.getArtifacts().size());
+        for (DependencyArtifact artifact : moduleDependency.getArtifacts()) {
+            hasher.putString(artifact.getName());
+            hasher.putString(String.valueOf(artifact.getType()));
+            hasher.putString(String.valueOf(artifact.getExtension()));
+            hasher.putString(String.valueOf(artifact.getClassifier()));
+            hasher.putString(String.valueOf(artifact.getUrl()));
+        }
+        appendAttributes(hasher, moduleDependency.getAttributes());
+    }
+
+    private void appendModule(Hasher hasher, String group, String name, VersionConstraint versionConstraint) {
+        hasher.putString(String.valueOf(group));
+        hasher.putString(name);
+        appendVersion(hasher, versionConstraint.getRequiredVersion());
+        appendVersion(hasher, versionConstraint.getPreferredVersion());
+        appendVersion(hasher, versionConstraint.getStrictVersion());
+        hasher.putString(String.valueOf(versionConstraint.getBranch()));
+        hasher.putInt(versionConstraint.getRejectedVersions().size());
+        for (String rejectedVersion : versionConstraint.getRejectedVersions()) {
+            hasher.putString(rejectedVersion);
+        }
+    }
+
+    private void appendVersion(Hasher hasher, String version) {
+        if (!version.isEmpty() && versionSelectorScheme.parseSelector(version).isDynamic()) {
+            hasher.markAsInvalid("dynamic version");
+        }
+        hasher.putString(version);
+    }
+
+    private static void appendExcludes(Hasher hasher, Collection<ExcludeRule> excludeRules) {
+        hasher.putInt(excludeRules.size());
+        for (ExcludeRule excludeRule : excludeRules) {
+            hasher.putString(String.valueOf(excludeRule.getGroup()));
+            hasher.putString(String.valueOf(excludeRule.getModule()));
+        }
+    }
+
+    private static void appendAttributes(Hasher hasher, AttributeContainer attributes) {
+        hasher.putInt(attributes.keySet().size());
+        for (Attribute<?> attribute : Ordering.from(BY_NAME).sortedCopy(attributes.keySet())) {
+            hasher.putString(attribute.getName());
+            hasher.putString(attribute.getType().getName());
+            hasher.putString(String.valueOf(attributes.getAttribute(attribute)));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.artifacts.VersionConstraint;
+import org.gradle.api.artifacts.component.ComponentIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.artifacts.result.ResolvedComponentResult;
+import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphComponent;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphEdge;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphSelector;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.RootGraphNode;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.InMemoryBinaryStore;
+import org.gradle.cache.internal.Store;
+import org.gradle.internal.Factory;
+import org.gradle.internal.component.model.ComponentResolveMetadata;
+
+import javax.annotation.Nullable;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Records the resolution result of a dependency graph so that it can be stored in the {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache}, and verifies that the graph
+ * only depends on its declared inputs: every component other than the root must be a module component with a fixed, non changing version,
+ * that does not take part in module replacements, and every dependency must have been resolved successfully.
+ */
+class ResolvedGraphRecorder implements DependencyGraphVisitor {
+    private static final Store<ResolvedComponentResult> NO_CACHE = new Store<ResolvedComponentResult>() {
+        @Override
+        public ResolvedComponentResult load(Factory<ResolvedComponentResult> createIfNotPresent) {
+            return createIfNotPresent.create();
+        }
+    };
+
+    private final InMemoryBinaryStore store = new InMemoryBinaryStore();
+    private final StreamingResolutionResultBuilder resultBuilder;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final ModuleReplacementsData moduleReplacements;
+    private final Set<ModuleComponentIdentifier> components = new LinkedHashSet<ModuleComponentIdentifier>();
+    private ComponentIdentifier rootId;
+    private boolean cacheable = true;
+
+    ResolvedGraphRecorder(ImmutableModuleIdentifierFactory moduleIdentifierFactory, AttributeContainerSerializer attributeContainerSerializer, VersionSelectorScheme versionSelectorScheme, ModuleReplacementsData moduleReplacements) {
+        this.resultBuilder = new StreamingResolutionResultBuilder(store, NO_CACHE, moduleIdentifierFactory, attributeContainerSerializer);
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.moduleReplacements = moduleReplacements;
+    }
+
+    @Override
+    public void start(RootGraphNode root) {
+        rootId = root.getOwner().getComponentId();
+        resultBuilder.start(root);
+    }
+
+    @Override
+    public void visitNode(DependencyGraphNode node) {
+        if (cacheable) {
+            DependencyGraphComponent component = node.getOwner();
+            if (!rootId.equals(component.getComponentId())) {
+                cacheable = isCacheable(component);
+            }
+        }
+        if (cacheable) {
+            resultBuilder.visitNode(node);
+        }
+    }
+
+    private boolean isCacheable(DependencyGraphComponent component) {
+        if (!(component.getComponentId() instanceof ModuleComponentIdentifier)) {
+            return false;
+        }
+        ComponentResolveMetadata metadata = component.getMetadata();
+        if (metadata == null || metadata.isChanging()) {
+            return false;
+        }
+        ModuleComponentIdentifier componentId = (ModuleComponentIdentifier) component.getComponentId();
+        if (moduleReplacements.participatesInReplacements(componentId.getModuleIdentifier())) {
+            return false;
+        }
+        components.add(componentId);
+        return true;
+    }
+
+    @Override
+    public void visitSelector(DependencyGraphSelector selector) {
+        if (cacheable) {
+            resultBuilder.visitSelector(selector);
+        }
+    }
+
+    @Override
+    public void visitEdges(DependencyGraphNode node) {
+        if (cacheable) {
+            for (DependencyGraphEdge edge : node.getOutgoingEdges()) {
+                if (edge.getFailure() != null || !isFixedVersion(edge.getRequested())) {
+                    cacheable = false;
+                    return;
+                }
+            }
+            resultBuilder.visitEdges(node);
+        }
+    }
+
+    private boolean isFixedVersion(ComponentSelector requested) {
+        if (!(requested instanceof ModuleComponentSelector)) {
+            return false;
+        }
+        VersionConstraint constraint = ((ModuleComponentSelector) requested).getVersionConstraint();
+        return !isDynamic(constraint.getRequiredVersion()) && !isDynamic(constraint.getPreferredVersion()) && !isDynamic(constraint.getStrictVersion());
+    }
+
+    private boolean isDynamic(String version) {
+        return !version.isEmpty() && versionSelectorScheme.parseSelector(version).isDynamic();
+    }
+
+    @Override
+    public void finish(DependencyGraphNode root) {
+        if (cacheable) {
+            resultBuilder.finish(root);
+        }
+    }
+
+    /**
+     * Returns the recorded resolution result, or null when the graph cannot be cached.
+     */
+    @Nullable
+    byte[] complete() {
+        if (!cacheable) {
+            return null;
+        }
+        store.done();
+        return store.getBytes();
+    }
+
+    /**
+     * Returns the components of the recorded graph, excluding the root component.
+     */
+    List<ModuleComponentIdentifier> getComponents() {
+        return ImmutableList.copyOf(components);
+    }
+}
@@ -41,6 +41,11 @@ import org.gradle.internal.component.external.model.ModuleComponentResolveMetada
 import org.gradle.internal.component.external.model.ModuleDependencyMetadata;
 import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.resolve.ModuleVersionNotFoundException;
 import org.gradle.internal.resolve.ModuleVersionResolveException;
 import org.gradle.internal.resolve.RejectedByAttributesVersion;
@@ -82,8 +87,9 @@ public class DynamicVersionResolver {
     private final ComponentMetadataProcessorFactory componentMetadataProcessor;
     private final ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor;
     private final CachePolicy cachePolicy;
+    private final BuildOperationExecutor buildOperationExecutor;
 
-    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, VersionParser versionParser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessorFactory componentMetadataProcessor, ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor, CachePolicy cachePolicy) {
+    public DynamicVersionResolver(VersionedComponentChooser versionedComponentChooser, VersionParser versionParser, Transformer<ModuleComponentResolveMetadata, RepositoryChainModuleResolution> metaDataFactory, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessorFactory componentMetadataProcessor, ComponentMetadataSupplierRuleExecutor componentMetadataSupplierRuleExecutor, CachePolicy cachePolicy, BuildOperationExecutor buildOperationExecutor) {
         this.versionedComponentChooser = versionedComponentChooser;
         this.versionParser = versionParser;
         this.metaDataFactory = metaDataFactory;
@@ -91,6 +97,7 @@ public class DynamicVersionResolver {
         this.componentMetadataProcessor = componentMetadataProcessor;
         this.componentMetadataSupplierRuleExecutor = componentMetadataSupplierRuleExecutor;
         this.cachePolicy = cachePolicy;
+        this.buildOperationExecutor = buildOperationExecutor;
     }
 
     public void add(ModuleComponentRepository repository) {
@@ -162,9 +169,29 @@ public class DynamicVersionResolver {
         // Nothing found - do a second pass
         queue.addAll(missing);
         missing.clear();
+        resolveConcurrently(queue);
         return findLatestModule(queue, failures, missing);
     }
 
+    /**
+     * Lists the versions of the module, and fetches the metadata of the matching candidates, from each of the given repositories concurrently.
+     * The results are kept by each resolve state and are then processed in repository order, so the outcome is the same as when
+     * the repositories are queried one after the other.
+     */
+    private void resolveConcurrently(final List<RepositoryResolveState> resolveStates) {
+        if (resolveStates.size() < 2) {
+            return;
+        }
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<RunnableBuildOperation> buildOperationQueue) {
+                for (RepositoryResolveState resolveState : resolveStates) {
+                    buildOperationQueue.add(new ResolveVersionOperation(resolveState));
+                }
+            }
+        });
+    }
+
     private RepositoryChainModuleResolution findLatestModule(LinkedList<RepositoryResolveState> queue, Collection<Throwable> failures, Collection<RepositoryResolveState> missing) {
         RepositoryChainModuleResolution best = null;
         while (!queue.isEmpty()) {
@@ -254,6 +281,8 @@ public class DynamicVersionResolver {
         private final ComponentMetadataSupplierRuleExecutor metadataSupplierRuleExecutor;
         private final CachePolicy cachePolicy;
         private ModuleComponentIdentifier firstRejected = null;
+        private boolean resolvedConcurrently;
+        private RuntimeException concurrentFailure;
 
 
         public RepositoryResolveState(VersionedComponentChooser versionedComponentChooser, ModuleDependencyMetadata dependency, ModuleComponentRepository repository, VersionSelector versionSelector, VersionSelector rejectedVersionSelector, VersionParser versionParser, AttributeContainer consumerAttributes, ImmutableAttributesFactory attributesFactory, ComponentMetadataProcessorFactory componentMetadataProcessorFactory, ComponentMetadataSupplierRuleExecutor metadataSupplierRuleExecutor, CachePolicy cachePolicy) {
@@ -283,6 +312,31 @@ public class DynamicVersionResolver {
         }
 
         void resolve() {
+            if (resolvedConcurrently) {
+                resolvedConcurrently = false;
+                RuntimeException failure = concurrentFailure;
+                concurrentFailure = null;
+                if (failure != null) {
+                    throw failure;
+                }
+                return;
+            }
+            doResolve();
+        }
+
+        /**
+         * Resolves from a build operation, keeping any failure to be reported when the result is processed by {@link #resolve()}.
+         */
+        void resolveConcurrently() {
+            try {
+                doResolve();
+            } catch (RuntimeException e) {
+                concurrentFailure = e;
+            }
+            resolvedConcurrently = true;
+        }
+
+        private void doResolve() {
             versionListingResult.resolve();
             switch (versionListingResult.result.getState()) {
                 case Failed:
@@ -393,6 +447,24 @@ public class DynamicVersionResolver {
         }
     }
 
+    private static class ResolveVersionOperation implements RunnableBuildOperation {
+        private final RepositoryResolveState resolveState;
+
+        ResolveVersionOperation(RepositoryResolveState resolveState) {
+            this.resolveState = resolveState;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            resolveState.resolveConcurrently();
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Resolve " + resolveState.dependency.getSelector() + " from " + resolveState.repository.getName());
+        }
+    }
+
     private static class CandidateResult implements ModuleComponentResolveState {
         private final ModuleComponentIdentifier identifier;
         private final ModuleComponentRepository repository;
@@ -33,6 +33,7 @@ import org.gradle.internal.component.external.descriptor.DefaultExclude;
 import org.gradle.internal.component.external.descriptor.MavenScope;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.external.model.DefaultModuleComponentSelector;
+import org.gradle.internal.component.external.model.ModuleMetadataInterner;
 import org.gradle.internal.component.external.model.maven.MavenDependencyDescriptor;
 import org.gradle.internal.component.external.model.maven.MavenDependencyType;
 import org.gradle.internal.component.model.DefaultIvyArtifactName;
@@ -130,7 +131,7 @@ public class GradlePomModuleDescriptorBuilder {
 
         String version = determineVersion(dep);
         String mappedVersion = convertVersionFromMavenSyntax(version);
-        ModuleComponentSelector selector = DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId(dep.getGroupId(), dep.getArtifactId()), new DefaultImmutableVersionConstraint(mappedVersion));
+        ModuleComponentSelector selector = ModuleMetadataInterner.intern(DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId(dep.getGroupId(), dep.getArtifactId()), new DefaultImmutableVersionConstraint(mappedVersion)));
 
         // Some POMs depend on themselves, don't add this dependency: Ivy doesn't allow this!
         // Example: http://repo2.maven.org/maven2/net/jini/jsk-platform/2.1/jsk-platform-2.1.pom
@@ -149,7 +150,7 @@ public class GradlePomModuleDescriptorBuilder {
             String ext = determineExtension(type);
             String classifier = hasClassifier ? dep.getClassifier() : getClassifierForType(type);
 
-            dependencyArtifact = new DefaultIvyArtifactName(selector.getModule(), type, ext, classifier);
+            dependencyArtifact = ModuleMetadataInterner.intern(new DefaultIvyArtifactName(selector.getModule(), type, ext, classifier));
         }
 
         // experimentation shows the following, excluded modules are
@@ -162,11 +163,10 @@ public class GradlePomModuleDescriptorBuilder {
             excluded = getDependencyMgtExclusions(dep);
         }
         for (ModuleIdentifier excludedModule : excluded) {
-            DefaultExclude rule = new DefaultExclude(excludedModule);
-            excludes.add(rule);
+            excludes.add(ModuleMetadataInterner.intern(new DefaultExclude(excludedModule)));
         }
 
-        dependencies.add(new MavenDependencyDescriptor(scope, dependencyType, selector, dependencyArtifact, excludes));
+        dependencies.add(ModuleMetadataInterner.intern(new MavenDependencyDescriptor(scope, dependencyType, selector, dependencyArtifact, excludes)));
     }
 
     private String convertVersionFromMavenSyntax(String version) {
@@ -253,7 +253,7 @@ public class GradlePomModuleDescriptorBuilder {
             return;
         }
 
-        dependencies.add(new MavenDependencyDescriptor(MavenScope.Compile, MavenDependencyType.RELOCATION, selector, null, ImmutableList.<ExcludeMetadata>of()));
+        dependencies.add(ModuleMetadataInterner.intern(new MavenDependencyDescriptor(MavenScope.Compile, MavenDependencyType.RELOCATION, selector, null, ImmutableList.<ExcludeMetadata>of())));
     }
 
     private String getDefaultVersion(PomDependencyMgt dep) {
@@ -24,7 +24,6 @@ import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
 import org.gradle.api.artifacts.component.ModuleComponentSelector;
 import org.gradle.api.attributes.AttributeContainer;
 import org.gradle.api.capabilities.Capability;
-import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
 import org.gradle.api.internal.artifacts.ImmutableModuleIdentifierFactory;
 import org.gradle.api.internal.artifacts.ModuleComponentSelectorSerializer;
 import org.gradle.api.internal.artifacts.ivyservice.NamespaceId;
@@ -42,6 +41,7 @@ import org.gradle.internal.component.external.descriptor.MavenScope;
 import org.gradle.internal.component.external.model.ComponentVariant;
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
+import org.gradle.internal.component.external.model.ModuleMetadataInterner;
 import org.gradle.internal.component.external.model.MutableComponentVariant;
 import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata;
 import org.gradle.internal.component.external.model.ivy.IvyDependencyDescriptor;
@@ -509,7 +509,7 @@ public class ModuleMetadataSerializer {
         }
 
         private ModuleComponentIdentifier readId() throws IOException {
-            return DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId(readString(), readString()), readString());
+            return ModuleMetadataInterner.intern(DefaultModuleComponentIdentifier.newId(moduleIdentifierFactory.module(readString(), readString()), readString()));
         }
 
         private Map<NamespaceId, String> readExtraInfo() throws IOException {
@@ -545,7 +545,7 @@ public class ModuleMetadataSerializer {
             int size = readCount();
             List<Artifact> result = Lists.newArrayListWithCapacity(size);
             for (int i = 0; i < size; i++) {
-                IvyArtifactName ivyArtifactName = new DefaultIvyArtifactName(readString(), readString(), readNullableString(), readNullableString());
+                IvyArtifactName ivyArtifactName = ModuleMetadataInterner.intern(new DefaultIvyArtifactName(readString(), readString(), readNullableString(), readNullableString()));
                 result.add(new Artifact(ivyArtifactName, readStringSet()));
             }
             return result;
@@ -587,7 +587,7 @@ public class ModuleMetadataSerializer {
             int size = readCount();
             List<Artifact> result = Lists.newArrayListWithCapacity(size);
             for (int i = 0; i < size; i++) {
-                IvyArtifactName ivyArtifactName = new DefaultIvyArtifactName(readString(), readString(), readNullableString(), readNullableString());
+                IvyArtifactName ivyArtifactName = ModuleMetadataInterner.intern(new DefaultIvyArtifactName(readString(), readString(), readNullableString(), readNullableString()));
                 result.add(new Artifact(ivyArtifactName, readStringSet()));
             }
             return result;
@@ -629,7 +629,7 @@ public class ModuleMetadataSerializer {
                 String type = readString();
                 String ext = readNullableString();
                 String classifier = readNullableString();
-                artifactName = new DefaultIvyArtifactName(artifact, type, ext, classifier);
+                artifactName = ModuleMetadataInterner.intern(new DefaultIvyArtifactName(artifact, type, ext, classifier));
             }
             return artifactName;
         }
@@ -649,7 +649,7 @@ public class ModuleMetadataSerializer {
             List<ExcludeMetadata> mavenExcludes = readMavenDependencyExcludes();
             MavenScope scope = MavenScope.values()[decoder.readSmallInt()];
             MavenDependencyType type = MavenDependencyType.values()[decoder.readSmallInt()];
-            return new MavenDependencyDescriptor(scope, type, requested, artifactName, mavenExcludes);
+            return ModuleMetadataInterner.intern(new MavenDependencyDescriptor(scope, type, requested, artifactName, mavenExcludes));
         }
 
         private List<ExcludeMetadata> readMavenDependencyExcludes() throws IOException {
@@ -658,8 +658,7 @@ public class ModuleMetadataSerializer {
             for (int i = 0; i < len; i++) {
                 String moduleOrg = readString();
                 String moduleName = readString();
-                DefaultExclude rule = new DefaultExclude(moduleIdentifierFactory.module(moduleOrg, moduleName));
-                result.add(rule);
+                result.add(ModuleMetadataInterner.intern(new DefaultExclude(moduleIdentifierFactory.module(moduleOrg, moduleName))));
             }
             return result;
         }
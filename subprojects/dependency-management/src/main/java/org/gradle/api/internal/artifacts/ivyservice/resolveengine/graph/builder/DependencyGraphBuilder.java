@@ -33,6 +33,7 @@ import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.Depen
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.Version;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser;
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusion;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphSelector;
 import org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.DependencyGraphVisitor;
@@ -58,6 +59,7 @@ import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -66,6 +68,11 @@ import java.util.Map;
 import java.util.Set;
 
 public class DependencyGraphBuilder {
+    /**
+     * When set, the metadata of the dependencies of each downloaded component is fetched speculatively, before the traversal reaches them.
+     */
+    public static final String PREFETCH_METADATA = "org.gradle.resolution.prefetchMetadata";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(DependencyGraphBuilder.class);
     private final ModuleConflictHandler moduleConflictHandler;
     private final Spec<? super DependencyMetadata> edgeFilter;
@@ -127,8 +134,19 @@ public class DependencyGraphBuilder {
         int graphSize = estimateSize(resolveContext);
         final ResolveState resolveState = new ResolveState(idGenerator, rootModule, resolveContext.getName(), idResolver, metaDataResolver, edgeFilter, attributesSchema, moduleExclusions, moduleReplacementsData, componentSelectorConverter, attributesFactory, dependencySubstitutionApplicator, versionSelectorScheme, versionComparator, versionParser, moduleConflictHandler.getResolver(), graphSize);
 
-        Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache = Maps.newHashMapWithExpectedSize(graphSize/2);
-        traverseGraph(resolveState, componentIdentifierCache);
+        final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache = Maps.newHashMapWithExpectedSize(graphSize/2);
+        // Substitution rules are only ever run by the traversal, so the prefetcher cannot tell which modules would be substituted
+        if (Boolean.getBoolean(PREFETCH_METADATA) && dependencySubstitutionApplicator == DependencySubstitutionApplicator.NO_OP) {
+            final MetadataPrefetcher prefetcher = new MetadataPrefetcher(metaDataResolver, versionSelectorScheme, moduleExclusions, moduleReplacementsData, buildOperationExecutor);
+            prefetcher.prefetchWhile(new Runnable() {
+                @Override
+                public void run() {
+                    traverseGraph(resolveState, componentIdentifierCache, prefetcher);
+                }
+            });
+        } else {
+            traverseGraph(resolveState, componentIdentifierCache, null);
+        }
 
         validateGraph(resolveState);
 
@@ -152,7 +170,7 @@ public class DependencyGraphBuilder {
     /**
      * Traverses the dependency graph, resolving conflicts and building the paths from the root configuration.
      */
-    private void traverseGraph(final ResolveState resolveState, final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache) {
+    private void traverseGraph(final ResolveState resolveState, final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache, @Nullable MetadataPrefetcher prefetcher) {
         resolveState.onMoreSelected(resolveState.getRoot());
         final List<EdgeState> dependencies = Lists.newArrayList();
 
@@ -167,7 +185,7 @@ public class DependencyGraphBuilder {
                 // Initialize and collect any new outgoing edges of this node
                 dependencies.clear();
                 node.visitOutgoingDependencies(dependencies);
-                resolveEdges(node, dependencies, resolveState, componentIdentifierCache);
+                resolveEdges(node, dependencies, resolveState, componentIdentifierCache, prefetcher);
             } else {
                 // We have some batched up conflicts. Resolve the first, and continue traversing the graph
                 if (moduleConflictHandler.hasConflicts()) {
@@ -208,12 +226,13 @@ public class DependencyGraphBuilder {
     private void resolveEdges(final NodeState node,
                               final List<EdgeState> dependencies,
                               final ResolveState resolveState,
-                              final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache) {
+                              final Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache,
+                              @Nullable MetadataPrefetcher prefetcher) {
         if (dependencies.isEmpty()) {
             return;
         }
         performSelectionSerially(dependencies, resolveState);
-        maybeDownloadMetadataInParallel(node, componentIdentifierCache, dependencies);
+        maybeDownloadMetadataInParallel(node, componentIdentifierCache, dependencies, prefetcher);
         attachToTargetRevisionsSerially(dependencies);
 
     }
@@ -271,9 +290,11 @@ public class DependencyGraphBuilder {
     /**
      * Prepares the resolution of edges, either serially or concurrently.
      * It uses a simple heuristic to determine if we should perform concurrent resolution, based on the the number of edges, and whether they have unresolved metadata.
+     * When metadata prefetching is enabled, the dependencies of the downloaded components are also prefetched, ahead of the traversal.
      */
-    private void maybeDownloadMetadataInParallel(NodeState node, Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache, List<EdgeState> dependencies) {
+    private void maybeDownloadMetadataInParallel(NodeState node, Map<ModuleVersionIdentifier, ComponentIdentifier> componentIdentifierCache, List<EdgeState> dependencies, @Nullable final MetadataPrefetcher prefetcher) {
         List<ComponentState> requiringDownload = null;
+        Map<ComponentState, ModuleExclusion> prefetchExclusions = null;
         for (EdgeState dependency : dependencies) {
             ComponentState targetComponent = dependency.getTargetComponent();
             if (targetComponent != null && targetComponent.isSelected() && !targetComponent.alreadyResolved()) {
@@ -281,20 +302,31 @@ public class DependencyGraphBuilder {
                     // Avoid initializing the list if there are no components requiring download (a common case)
                     if (requiringDownload == null) {
                         requiringDownload = Lists.newArrayList();
+                        prefetchExclusions = prefetcher == null ? null : Maps.<ComponentState, ModuleExclusion>newHashMap();
+                    }
+                    if (prefetcher != null) {
+                        // A module is only excluded from the graph when all the paths to it exclude it
+                        ModuleExclusion exclusions = prefetchExclusions.get(targetComponent);
+                        prefetchExclusions.put(targetComponent, exclusions == null ? dependency.getExclusions() : moduleExclusions.union(exclusions, dependency.getExclusions()));
+                        if (exclusions != null) {
+                            continue;
+                        }
+                        prefetcher.downloadedByTraversal(targetComponent.getId().getModule());
                     }
                     requiringDownload.add(targetComponent);
                 }
             }
         }
-        // Only download in parallel if there is more than 1 component to download
-        if (requiringDownload != null && requiringDownload.size() > 1) {
+        // Only download in parallel if there is more than 1 component to download, or if the dependencies of a component can be prefetched at the same time
+        if (requiringDownload != null && (requiringDownload.size() > 1 || prefetcher != null)) {
             final ImmutableList<ComponentState> toDownloadInParallel = ImmutableList.copyOf(requiringDownload);
+            final Map<ComponentState, ModuleExclusion> exclusions = prefetchExclusions;
             LOGGER.debug("Submitting {} metadata files to resolve in parallel for {}", toDownloadInParallel.size(), node);
             buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
                 @Override
                 public void execute(BuildOperationQueue<RunnableBuildOperation> buildOperationQueue) {
                     for (final ComponentState componentState : toDownloadInParallel) {
-                        buildOperationQueue.add(new DownloadMetadataOperation(componentState));
+                        buildOperationQueue.add(new DownloadMetadataOperation(componentState, prefetcher, exclusions == null ? null : exclusions.get(componentState)));
                     }
                 }
             });
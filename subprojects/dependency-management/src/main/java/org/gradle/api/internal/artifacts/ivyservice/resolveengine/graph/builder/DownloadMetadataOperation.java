@@ -15,20 +15,34 @@
  */
 package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder;
 
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusion;
+import org.gradle.internal.component.model.ComponentResolveMetadata;
 import org.gradle.internal.operations.BuildOperationContext;
 import org.gradle.internal.operations.RunnableBuildOperation;
 import org.gradle.internal.operations.BuildOperationDescriptor;
 
+import javax.annotation.Nullable;
+
 class DownloadMetadataOperation implements RunnableBuildOperation {
     private final ComponentState state;
+    private final MetadataPrefetcher prefetcher;
+    private final ModuleExclusion exclusions;
 
-    DownloadMetadataOperation(ComponentState state) {
+    /**
+     * @param exclusions the exclusions of the edges to the component, used to prefetch its dependencies. Only required when a prefetcher is given.
+     */
+    DownloadMetadataOperation(ComponentState state, @Nullable MetadataPrefetcher prefetcher, @Nullable ModuleExclusion exclusions) {
         this.state = state;
+        this.prefetcher = prefetcher;
+        this.exclusions = exclusions;
     }
 
     @Override
     public void run(BuildOperationContext context) {
-        state.getMetadata();
+        ComponentResolveMetadata metadata = state.getMetadata();
+        if (prefetcher != null && metadata != null) {
+            prefetcher.prefetchDependenciesOf(metadata, exclusions);
+        }
     }
 
     @Override
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.graph.builder;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import org.gradle.api.Action;
+import org.gradle.api.artifacts.Dependency;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.component.ComponentSelector;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData;
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelectorScheme;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusion;
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.excludes.ModuleExclusions;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.component.model.ComponentOverrideMetadata;
+import org.gradle.internal.component.model.ComponentResolveMetadata;
+import org.gradle.internal.component.model.ConfigurationMetadata;
+import org.gradle.internal.component.model.DefaultComponentOverrideMetadata;
+import org.gradle.internal.component.model.DependencyMetadata;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+import org.gradle.internal.resolve.resolver.ComponentMetaDataResolver;
+import org.gradle.internal.resolve.result.DefaultBuildableComponentResolveResult;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Speculatively fetches the metadata of the components that the graph is likely to contain, ahead of the traversal. This way, the metadata
+ * is already in the repository caches when the traversal reaches a component, instead of requiring another round trip per level of the graph.
+ *
+ * <p>Prefetching starts from the components that the traversal downloads, and continues with the dependencies of each prefetched component,
+ * as far as the graph goes. Prefetches run in a queue that stays open while the graph is traversed, so neither the traversal nor a download
+ * waits for them. Their concurrency is bounded by the maximum number of build workers. Prefetches that have not started when the traversal
+ * completes are discarded.</p>
+ *
+ * <p>Only dependencies that the traversal would follow are prefetched: constraints, dependencies excluded along the path from the downloaded
+ * component, and dependencies of non-transitive dependencies or configurations are skipped. So are dynamic versions and modules that take part
+ * in module replacements, as their selected version depends on the rest of the graph. At most one version of each module is prefetched, and
+ * modules that the traversal downloads itself are not prefetched.</p>
+ *
+ * <p>Dependency substitution rules are user code that only ever runs on the thread that traverses the graph, so a prefetcher must not be used
+ * for a resolution that has substitution rules.</p>
+ */
+class MetadataPrefetcher {
+    private final ComponentMetaDataResolver metaDataResolver;
+    private final VersionSelectorScheme versionSelectorScheme;
+    private final ModuleExclusions moduleExclusions;
+    private final ModuleReplacementsData moduleReplacementsData;
+    private final BuildOperationExecutor buildOperationExecutor;
+    private final Set<ModuleIdentifier> modules = Sets.newConcurrentHashSet();
+    private final Object lock = new Object();
+    private BuildOperationQueue<RunnableBuildOperation> queue;
+
+    MetadataPrefetcher(ComponentMetaDataResolver metaDataResolver, VersionSelectorScheme versionSelectorScheme, ModuleExclusions moduleExclusions, ModuleReplacementsData moduleReplacementsData, BuildOperationExecutor buildOperationExecutor) {
+        this.metaDataResolver = metaDataResolver;
+        this.versionSelectorScheme = versionSelectorScheme;
+        this.moduleExclusions = moduleExclusions;
+        this.moduleReplacementsData = moduleReplacementsData;
+        this.buildOperationExecutor = buildOperationExecutor;
+    }
+
+    /**
+     * Runs the given traversal of the graph, prefetching metadata while it runs.
+     */
+    void prefetchWhile(final Runnable traversal) {
+        final RuntimeException[] failure = new RuntimeException[1];
+        buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+            @Override
+            public void execute(BuildOperationQueue<RunnableBuildOperation> buildOperationQueue) {
+                synchronized (lock) {
+                    queue = buildOperationQueue;
+                }
+                try {
+                    traversal.run();
+                } catch (RuntimeException e) {
+                    // Rethrown as is below, rather than as a failure to populate the queue
+                    failure[0] = e;
+                } finally {
+                    synchronized (lock) {
+                        queue = null;
+                    }
+                    buildOperationQueue.cancel();
+                }
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+    }
+
+    /**
+     * Notifies this prefetcher that the traversal downloads the metadata of the given module itself. Must be called from the thread that traverses the graph,
+     * before the download starts.
+     */
+    void downloadedByTraversal(ModuleIdentifier module) {
+        modules.add(module);
+    }
+
+    /**
+     * Prefetches the metadata for the dependencies of the given component, which the traversal has reached through edges with the given exclusions.
+     */
+    void prefetchDependenciesOf(ComponentResolveMetadata metadata, ModuleExclusion exclusions) {
+        for (ConfigurationMetadata configuration : configurationsOf(metadata)) {
+            ModuleExclusion configurationExclusions = moduleExclusions.intersect(exclusions, moduleExclusions.excludeAny(configuration.getExcludes()));
+            for (DependencyMetadata dependency : configuration.getDependencies()) {
+                if (shouldPrefetch(dependency, configurationExclusions)) {
+                    ModuleExclusion dependencyExclusions = configuration.isTransitive() && dependency.isTransitive()
+                        ? moduleExclusions.intersect(configurationExclusions, moduleExclusions.excludeAny(ImmutableList.copyOf(dependency.getExcludes())))
+                        : null;
+                    ModuleComponentSelector selector = (ModuleComponentSelector) dependency.getSelector();
+                    if (!add(new PrefetchMetadataOperation(toComponentId(selector), DefaultComponentOverrideMetadata.forDependency(dependency), dependencyExclusions))) {
+                        return;
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean add(PrefetchMetadataOperation operation) {
+        synchronized (lock) {
+            if (queue == null) {
+                // The traversal has completed
+                return false;
+            }
+            queue.add(operation);
+            return true;
+        }
+    }
+
+    private static List<? extends ConfigurationMetadata> configurationsOf(ComponentResolveMetadata metadata) {
+        Optional<ImmutableList<? extends ConfigurationMetadata>> variants = metadata.getVariantsForGraphTraversal();
+        if (variants.isPresent() && !variants.get().isEmpty()) {
+            return variants.get();
+        }
+        ConfigurationMetadata defaultConfiguration = metadata.getConfiguration(Dependency.DEFAULT_CONFIGURATION);
+        return defaultConfiguration == null ? Collections.<ConfigurationMetadata>emptyList() : Collections.singletonList(defaultConfiguration);
+    }
+
+    private boolean shouldPrefetch(DependencyMetadata dependency, ModuleExclusion exclusions) {
+        if (dependency.isConstraint()) {
+            return false;
+        }
+        ComponentSelector selector = dependency.getSelector();
+        if (!(selector instanceof ModuleComponentSelector)) {
+            return false;
+        }
+        ModuleComponentSelector moduleSelector = (ModuleComponentSelector) selector;
+        ModuleIdentifier module = moduleSelector.getModuleIdentifier();
+        if (exclusions.excludeModule(module) || moduleReplacementsData.participatesInReplacements(module)) {
+            return false;
+        }
+        String version = moduleSelector.getVersion();
+        if (version.isEmpty() || versionSelectorScheme.parseSelector(version).isDynamic()) {
+            return false;
+        }
+        return !modules.contains(module) && !metaDataResolver.isFetchingMetadataCheap(toComponentId(moduleSelector)) && modules.add(module);
+    }
+
+    private static ModuleComponentIdentifier toComponentId(ModuleComponentSelector selector) {
+        return DefaultModuleComponentIdentifier.newId(selector.getModuleIdentifier(), selector.getVersion());
+    }
+
+    private class PrefetchMetadataOperation implements RunnableBuildOperation {
+        private final ModuleComponentIdentifier id;
+        private final ComponentOverrideMetadata overrideMetadata;
+        private final ModuleExclusion exclusions;
+
+        /**
+         * @param exclusions the exclusions that apply to the dependencies of the component, or null when its dependencies are not followed.
+         */
+        PrefetchMetadataOperation(ModuleComponentIdentifier id, ComponentOverrideMetadata overrideMetadata, @Nullable ModuleExclusion exclusions) {
+            this.id = id;
+            this.overrideMetadata = overrideMetadata;
+            this.exclusions = exclusions;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            DefaultBuildableComponentResolveResult result = new DefaultBuildableComponentResolveResult();
+            // Failures are ignored: they are reported when the traversal reaches this component, if it does
+            try {
+                metaDataResolver.resolve(id, overrideMetadata, result);
+            } catch (RuntimeException e) {
+                return;
+            }
+            if (exclusions != null && result.hasResult() && result.getFailure() == null) {
+                prefetchDependenciesOf(result.getMetadata(), exclusions);
+            }
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Prefetch metadata of " + id);
+        }
+    }
+}
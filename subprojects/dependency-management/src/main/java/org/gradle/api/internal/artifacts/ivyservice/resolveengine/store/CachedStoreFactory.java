@@ -34,7 +34,7 @@ public class CachedStoreFactory<T> implements Closeable {
 
     private static final Logger LOG = Logging.getLogger(CachedStoreFactory.class);
     private static final int CACHE_SIZE = Integer.getInteger("org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.cacheSize", 100);
-    private static final int CACHE_EXPIRY = Integer.getInteger("org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.cacheExpiryMs", 10000);
+    private static final int CACHE_EXPIRY = Integer.getInteger("org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.cacheExpiryMs", 60000);
 
     private final Cache<Object, T> cache;
     private final Stats stats;
@@ -42,7 +42,8 @@ public class CachedStoreFactory<T> implements Closeable {
 
     public CachedStoreFactory(String displayName) {
         this.displayName = displayName;
-        cache = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).expireAfterAccess(CACHE_EXPIRY, TimeUnit.MILLISECONDS).build();
+        // Results are read again from the binary store when evicted, so let the garbage collector reclaim them when memory is low
+        cache = CacheBuilder.newBuilder().maximumSize(CACHE_SIZE).expireAfterAccess(CACHE_EXPIRY, TimeUnit.MILLISECONDS).softValues().build();
         stats = new Stats();
     }
 
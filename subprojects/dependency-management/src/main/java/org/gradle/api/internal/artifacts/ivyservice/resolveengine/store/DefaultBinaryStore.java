@@ -31,6 +31,9 @@ import java.io.RandomAccessFile;
 import static org.gradle.internal.UncheckedException.throwAsUncheckedException;
 
 class DefaultBinaryStore implements BinaryStore, Closeable {
+    private static final int MIN_READ_BUFFER_SIZE = 4096;
+    private static final int MAX_READ_BUFFER_SIZE = 256 * 1024;
+
     private File file;
     private StringDeduplicatingKryoBackedEncoder encoder;
     private long offset = -1;
@@ -71,11 +74,15 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
 
     public BinaryData done() {
         try {
+            long length = 0;
             if (encoder != null) {
                 encoder.done();
                 encoder.flush();
+                if (offset != -1) {
+                    length = encoder.getWritePosition() - offset;
+                }
             }
-            return new SimpleBinaryData(file, offset, diagnose());
+            return new SimpleBinaryData(file, offset, length, diagnose());
         } finally {
             offset = -1;
         }
@@ -105,15 +112,17 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
 
     private static class SimpleBinaryData implements BinaryStore.BinaryData {
         private final long offset;
+        private final long length;
         private final File inputFile;
         private final String sourceDescription;
 
         private Decoder decoder;
         private CompositeStoppable resources;
 
-        public SimpleBinaryData(File inputFile, long offset, String sourceDescription) {
+        public SimpleBinaryData(File inputFile, long offset, long length, String sourceDescription) {
             this.inputFile = inputFile;
             this.offset = offset;
+            this.length = length;
             this.sourceDescription = sourceDescription;
         }
 
@@ -122,7 +131,7 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
                 if (decoder == null) {
                     RandomAccessFile randomAccess = new RandomAccessFile(inputFile, "r");
                     randomAccess.seek(offset);
-                    decoder = new StringDeduplicatingKryoBackedDecoder(new RandomAccessFileInputStream(randomAccess));
+                    decoder = new StringDeduplicatingKryoBackedDecoder(new RandomAccessFileInputStream(randomAccess), readBufferSize());
                     resources = new CompositeStoppable().add(randomAccess, decoder);
                 }
                 return readAction.read(decoder);
@@ -131,6 +140,13 @@ class DefaultBinaryStore implements BinaryStore, Closeable {
             }
         }
 
+        /**
+         * Reads small data in a single chunk, and larger data in chunks that are larger than the default, to reduce the number of reads from the file.
+         */
+        private int readBufferSize() {
+            return (int) Math.max(MIN_READ_BUFFER_SIZE, Math.min(length, MAX_READ_BUFFER_SIZE));
+        }
+
         public void close() {
             try {
                 if (resources != null) {
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import org.gradle.cache.internal.BinaryStore;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.StringDeduplicatingKryoBackedEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * A {@link BinaryStore} that keeps its data in memory, so that the data can be copied somewhere else, or that is created from such a copy.
+ * Uses the same encoding as {@link DefaultBinaryStore}.
+ */
+public class InMemoryBinaryStore implements BinaryStore {
+    private ByteArrayOutputStream output;
+    private StringDeduplicatingKryoBackedEncoder encoder;
+    private byte[] bytes;
+
+    public InMemoryBinaryStore() {
+    }
+
+    /**
+     * Creates a store containing the given data, as previously returned by {@link #getBytes()}.
+     */
+    public InMemoryBinaryStore(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    @Override
+    public void write(WriteAction write) {
+        if (bytes != null) {
+            throw new IllegalStateException("Cannot write to " + this + " after it has been completed.");
+        }
+        if (encoder == null) {
+            output = new ByteArrayOutputStream();
+            encoder = new StringDeduplicatingKryoBackedEncoder(output);
+        }
+        try {
+            write.write(encoder);
+        } catch (Exception e) {
+            throw new RuntimeException("Problems writing to " + this, e);
+        }
+    }
+
+    @Override
+    public BinaryData done() {
+        if (bytes == null) {
+            if (encoder != null) {
+                encoder.done();
+                encoder.flush();
+                bytes = output.toByteArray();
+                encoder = null;
+                output = null;
+            } else {
+                bytes = new byte[0];
+            }
+        }
+        return new ByteArrayBinaryData(bytes, toString());
+    }
+
+    /**
+     * Returns the data written to this store. Must be called after {@link #done()}.
+     */
+    public byte[] getBytes() {
+        if (bytes == null) {
+            throw new IllegalStateException("Cannot query the data of " + this + " before it has been completed.");
+        }
+        return bytes;
+    }
+
+    public String toString() {
+        return "In-memory binary store";
+    }
+
+    private static class ByteArrayBinaryData implements BinaryStore.BinaryData {
+        private final byte[] bytes;
+        private final String sourceDescription;
+        private Decoder decoder;
+
+        ByteArrayBinaryData(byte[] bytes, String sourceDescription) {
+            this.bytes = bytes;
+            this.sourceDescription = sourceDescription;
+        }
+
+        @Override
+        public <T> T read(BinaryStore.ReadAction<T> readAction) {
+            try {
+                if (decoder == null) {
+                    decoder = new StringDeduplicatingKryoBackedDecoder(new ByteArrayInputStream(bytes));
+                }
+                return readAction.read(decoder);
+            } catch (Exception e) {
+                throw new RuntimeException("Problems reading data from " + sourceDescription, e);
+            }
+        }
+
+        @Override
+        public void close() {
+            decoder = null;
+        }
+
+        public String toString() {
+            return sourceDescription;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.resolveengine.store;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.api.artifacts.ModuleIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier;
+import org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier;
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy;
+import org.gradle.api.internal.artifacts.ivyservice.ArtifactCacheLockingManager;
+import org.gradle.api.internal.artifacts.ivyservice.modulecache.dynamicversions.DefaultResolvedModuleVersion;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.serialize.AbstractSerializer;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.HashCodeSerializer;
+import org.gradle.util.BuildCommencedTimeProvider;
+
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * A persistent cache of the dependency graphs resolved by previous builds, keyed by a fingerprint of the inputs of the resolution.
+ * Entries hold the resolution result, in the format written by {@link org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.StreamingResolutionResultBuilder},
+ * along with the components that are part of the graph.
+ *
+ * <p>The cache is opt-in, using the {@value #CACHE_RESOLVED_GRAPHS} system property. It lives in the artifact cache, so that entries are discarded along
+ * with the module metadata they were calculated from. An entry is only used while the cache policy of the resolution would use the cached metadata of
+ * every component of the graph.</p>
+ */
+public class ResolvedGraphCache {
+    public static final String CACHE_RESOLVED_GRAPHS = "org.gradle.resolution.cacheResolvedGraphs";
+
+    private final ArtifactCacheLockingManager artifactCacheLockingManager;
+    private final BuildCommencedTimeProvider timeProvider;
+    private final boolean refreshDependencies;
+    private PersistentIndexedCache<HashCode, CachedGraph> cache;
+
+    public ResolvedGraphCache(ArtifactCacheLockingManager artifactCacheLockingManager, BuildCommencedTimeProvider timeProvider, boolean refreshDependencies) {
+        this.artifactCacheLockingManager = artifactCacheLockingManager;
+        this.timeProvider = timeProvider;
+        this.refreshDependencies = refreshDependencies;
+    }
+
+    public boolean isEnabled() {
+        return Boolean.getBoolean(CACHE_RESOLVED_GRAPHS);
+    }
+
+    private synchronized PersistentIndexedCache<HashCode, CachedGraph> getCache() {
+        if (cache == null) {
+            cache = artifactCacheLockingManager.createCache("resolved-graphs", new HashCodeSerializer(), new CachedGraphSerializer());
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the graph resolved for the given inputs by a previous build, or null when there is none, when dependencies are being refreshed, or when
+     * the given cache policy requires the metadata of any of the components of the graph to be checked again.
+     */
+    @Nullable
+    public CachedGraph get(HashCode inputs, CachePolicy cachePolicy) {
+        if (refreshDependencies) {
+            return null;
+        }
+        CachedGraph graph = getCache().get(inputs);
+        if (graph == null) {
+            return null;
+        }
+        long ageMillis = timeProvider.getCurrentTime() - graph.timestamp;
+        for (ModuleComponentIdentifier component : graph.components) {
+            if (cachePolicy.mustRefreshMissingModule(component, ageMillis)
+                || cachePolicy.mustRefreshModule(component, new DefaultResolvedModuleVersion(DefaultModuleVersionIdentifier.newId(component)), ageMillis)) {
+                return null;
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Stores the resolution result of the graph resolved for the given inputs, along with the components of the graph, excluding the root component.
+     */
+    public void put(HashCode inputs, byte[] resolutionResult, List<ModuleComponentIdentifier> components) {
+        getCache().put(inputs, new CachedGraph(resolutionResult, components, timeProvider.getCurrentTime()));
+    }
+
+    public static class CachedGraph {
+        private final byte[] resolutionResult;
+        private final List<ModuleComponentIdentifier> components;
+        private final long timestamp;
+
+        public CachedGraph(byte[] resolutionResult, List<ModuleComponentIdentifier> components, long timestamp) {
+            this.resolutionResult = resolutionResult;
+            this.components = components;
+            this.timestamp = timestamp;
+        }
+
+        /**
+         * The resolution result, as written to a {@link InMemoryBinaryStore}.
+         */
+        public byte[] getResolutionResult() {
+            return resolutionResult;
+        }
+
+        /**
+         * The modules of the components of the graph, excluding the root component.
+         */
+        public List<ModuleIdentifier> getModules() {
+            ImmutableList.Builder<ModuleIdentifier> modules = ImmutableList.builder();
+            for (ModuleComponentIdentifier component : components) {
+                modules.add(component.getModuleIdentifier());
+            }
+            return modules.build();
+        }
+    }
+
+    private static class CachedGraphSerializer extends AbstractSerializer<CachedGraph> {
+        @Override
+        public void write(Encoder encoder, CachedGraph value) throws Exception {
+            encoder.writeLong(value.timestamp);
+            encoder.writeSmallInt(value.components.size());
+            for (ModuleComponentIdentifier component : value.components) {
+                encoder.writeString(component.getGroup());
+                encoder.writeString(component.getModule());
+                encoder.writeString(component.getVersion());
+            }
+            encoder.writeBinary(value.resolutionResult);
+        }
+
+        @Override
+        public CachedGraph read(Decoder decoder) throws Exception {
+            long timestamp = decoder.readLong();
+            int count = decoder.readSmallInt();
+            ImmutableList.Builder<ModuleComponentIdentifier> components = ImmutableList.builder();
+            for (int i = 0; i < count; i++) {
+                components.add(DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId(decoder.readString(), decoder.readString()), decoder.readString()));
+            }
+            return new CachedGraph(decoder.readBinary(), components.build(), timestamp);
+        }
+    }
+}
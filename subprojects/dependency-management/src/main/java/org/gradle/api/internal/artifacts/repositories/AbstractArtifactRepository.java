@@ -103,6 +103,13 @@ public abstract class AbstractArtifactRepository implements ArtifactRepositoryIn
         this.componentMetadataListerRuleConfiguration = configureAction;
     }
 
+    /**
+     * Returns true when a component metadata supplier or a component versions lister has been registered for this repository.
+     */
+    public boolean hasComponentMetadataRules() {
+        return componentMetadataSupplierRuleClass != null || componentMetadataListerRuleClass != null;
+    }
+
     protected RepositoryContentDescriptorInternal createRepositoryDescriptor() {
         return new DefaultRepositoryContentDescriptor();
     }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.component.external.model;
+
+import com.google.common.collect.Interner;
+import org.gradle.api.artifacts.component.ModuleComponentIdentifier;
+import org.gradle.api.artifacts.component.ModuleComponentSelector;
+import org.gradle.internal.component.external.model.maven.MavenDependencyDescriptor;
+import org.gradle.internal.component.model.ExcludeMetadata;
+import org.gradle.internal.component.model.IvyArtifactName;
+
+import javax.annotation.Nullable;
+
+import static com.google.common.collect.Interners.newWeakInterner;
+
+/**
+ * Shares the identifiers, selectors and dependency descriptors of module components between all the module metadata loaded by this process.
+ *
+ * <p>The same modules are depended on by many other modules, and module metadata is kept in memory by the module metadata caches, so the metadata
+ * of a large dependency graph holds many equal copies of these otherwise. The interners hold weak references, so that an instance can be
+ * garbage collected as soon as no metadata references it anymore.</p>
+ *
+ * <p>Attribute containers are not handled here, as they are already shared by the {@link org.gradle.api.internal.attributes.ImmutableAttributesFactory}.
+ * Strings are interned while decoding cached metadata, see {@link org.gradle.api.internal.artifacts.ivyservice.modulecache.ModuleMetadataStore}.</p>
+ */
+public final class ModuleMetadataInterner {
+    private static final Interner<ModuleComponentIdentifier> COMPONENT_IDENTIFIERS = newWeakInterner();
+    private static final Interner<ModuleComponentSelector> SELECTORS = newWeakInterner();
+    private static final Interner<MavenDependencyDescriptor> MAVEN_DEPENDENCIES = newWeakInterner();
+    private static final Interner<ExcludeMetadata> EXCLUDES = newWeakInterner();
+    private static final Interner<IvyArtifactName> ARTIFACT_NAMES = newWeakInterner();
+
+    private ModuleMetadataInterner() {
+    }
+
+    public static ModuleComponentIdentifier intern(ModuleComponentIdentifier identifier) {
+        return COMPONENT_IDENTIFIERS.intern(identifier);
+    }
+
+    public static ModuleComponentSelector intern(ModuleComponentSelector selector) {
+        return SELECTORS.intern(selector);
+    }
+
+    public static MavenDependencyDescriptor intern(MavenDependencyDescriptor dependency) {
+        return MAVEN_DEPENDENCIES.intern(dependency);
+    }
+
+    public static ExcludeMetadata intern(ExcludeMetadata exclude) {
+        return EXCLUDES.intern(exclude);
+    }
+
+    @Nullable
+    public static IvyArtifactName intern(@Nullable IvyArtifactName artifactName) {
+        if (artifactName == null) {
+            return null;
+        }
+        return ARTIFACT_NAMES.intern(artifactName);
+    }
+}
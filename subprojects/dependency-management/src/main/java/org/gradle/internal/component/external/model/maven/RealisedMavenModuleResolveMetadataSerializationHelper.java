@@ -38,6 +38,7 @@ import org.gradle.internal.component.external.model.LazyToRealisedModuleComponen
 import org.gradle.internal.component.external.model.ModuleComponentArtifactMetadata;
 import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata;
 import org.gradle.internal.component.external.model.ModuleDependencyMetadata;
+import org.gradle.internal.component.external.model.ModuleMetadataInterner;
 import org.gradle.internal.component.external.model.RealisedConfigurationMetadata;
 import org.gradle.internal.component.model.ConfigurationMetadata;
 import org.gradle.internal.component.model.DependencyMetadata;
@@ -226,7 +227,7 @@ public class RealisedMavenModuleResolveMetadataSerializationHelper extends Abstr
         List<ExcludeMetadata> mavenExcludes = readMavenExcludes(decoder);
         MavenScope scope = MavenScope.values()[decoder.readSmallInt()];
         MavenDependencyType type = MavenDependencyType.values()[decoder.readSmallInt()];
-        return new MavenDependencyDescriptor(scope, type, requested, artifactName, mavenExcludes);
+        return ModuleMetadataInterner.intern(new MavenDependencyDescriptor(scope, type, requested, artifactName, mavenExcludes));
     }
 
     private void writeMavenDependency(Encoder encoder, MavenDependencyDescriptor mavenDependency) throws IOException {
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.artifacts.ConfigurationPublications
+import org.gradle.api.artifacts.DependencyConstraintSet
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.artifacts.ResolutionStrategy
+import org.gradle.api.artifacts.ResolvableDependencies
+import org.gradle.api.artifacts.component.BuildIdentifier
+import org.gradle.api.artifacts.dsl.RepositoryHandler
+import org.gradle.api.attributes.Attribute
+import org.gradle.api.attributes.AttributeCompatibilityRule
+import org.gradle.api.attributes.CompatibilityCheckDetails
+import org.gradle.api.internal.artifacts.ArtifactDependencyResolver
+import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal
+import org.gradle.api.internal.artifacts.ComponentSelectorConverter
+import org.gradle.api.internal.artifacts.DefaultImmutableModuleIdentifierFactory
+import org.gradle.api.internal.artifacts.DefaultResolverResults
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
+import org.gradle.api.internal.artifacts.Module
+import org.gradle.api.internal.artifacts.ResolverResults
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.configurations.ConflictResolution
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy
+import org.gradle.api.internal.artifacts.dependencies.DefaultExternalModuleDependency
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConfiguredModuleComponentRepository
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.result.AttributeContainerSerializer
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolutionResultsStoreFactory
+import org.gradle.api.internal.artifacts.ivyservice.resolveengine.store.ResolvedGraphCache
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository
+import org.gradle.api.internal.artifacts.repositories.descriptor.FlatDirRepositoryDescriptor
+import org.gradle.api.internal.artifacts.transform.ArtifactTransforms
+import org.gradle.api.internal.artifacts.type.ArtifactTypeRegistry
+import org.gradle.api.internal.attributes.DefaultAttributesSchema
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.api.internal.file.TmpDirTemporaryFileProvider
+import org.gradle.internal.Actions
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher
+import org.gradle.internal.component.model.ComponentAttributeMatcher
+import org.gradle.internal.hash.HashCode
+import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.util.SnapshotTestUtil
+import org.gradle.util.TestUtil
+import spock.lang.Specification
+
+class DefaultConfigurationResolverTest extends Specification {
+    def dependencyResolver = Mock(ArtifactDependencyResolver)
+    def repositories = []
+    def repositoryHandler = Stub(RepositoryHandler) {
+        iterator() >> { repositories.iterator() }
+    }
+    def storeFactory = new ResolutionResultsStoreFactory(new TmpDirTemporaryFileProvider())
+    def attributesSchema = new DefaultAttributesSchema(new ComponentAttributeMatcher(), TestUtil.instantiatorFactory(), SnapshotTestUtil.valueSnapshotter())
+    def graphCache = Mock(ResolvedGraphCache) {
+        isEnabled() >> true
+    }
+    def results = Mock(ResolverResults)
+    def resolver = new DefaultConfigurationResolver(dependencyResolver, repositoryHandler, GlobalDependencyResolutionRules.NO_OP, storeFactory, true,
+        attributesSchema, Stub(ArtifactTransforms), new DefaultImmutableModuleIdentifierFactory(), Stub(BuildOperationExecutor), Stub(ArtifactTypeRegistry),
+        Stub(ComponentSelectorConverter), Stub(AttributeContainerSerializer), Stub(BuildIdentifier), graphCache,
+        new DefaultVersionSelectorScheme(new DefaultVersionComparator(), new VersionParser()), Stub(ClassLoaderHierarchyHasher))
+
+    def cleanup() {
+        storeFactory.close()
+    }
+
+    def "reuses graph resolved by previous build until its inputs change"() {
+        def configuration = configuration()
+        repositories << repository(false)
+        HashCode previousKey = null
+
+        when:
+        resolver.resolveGraph(configuration, results)
+
+        then:
+        1 * graphCache.get(_, _) >> { HashCode key, CachePolicy cachePolicy ->
+            previousKey = key
+            new ResolvedGraphCache.CachedGraph(new byte[0], [], 0)
+        }
+        0 * dependencyResolver._
+        1 * results.graphResolved(_, _, _)
+        0 * graphCache.put(_, _, _)
+
+        when:
+        attributesSchema.attribute(Attribute.of("flavor", String)).compatibilityRules.add(FlavorCompatibilityRule)
+        resolver.resolveGraph(configuration, results)
+
+        then:
+        1 * graphCache.get({ it != previousKey }, _) >> null
+        1 * dependencyResolver.resolve(configuration, repositories, _, _, _, _, attributesSchema, _)
+        1 * results.graphResolved(_, _, _)
+        1 * graphCache.put({ it != previousKey }, _, _)
+
+        when:
+        repositories << repository(true)
+        resolver.resolveGraph(configuration, results)
+
+        then:
+        0 * graphCache.get(_, _)
+        1 * dependencyResolver.resolve(configuration, repositories, _, _, _, _, attributesSchema, _)
+        1 * results.graphResolved(_, _, _)
+        0 * graphCache.put(_, _, _)
+    }
+
+    def "traverses reused graph once when its artifacts are resolved"() {
+        def configuration = configuration()
+        repositories << repository(false)
+        def results = new DefaultResolverResults()
+
+        when:
+        resolver.resolveGraph(configuration, results)
+
+        then:
+        1 * graphCache.get(_, _) >> new ResolvedGraphCache.CachedGraph(new byte[0], [], 0)
+        0 * dependencyResolver._
+
+        when:
+        def resolutionResult = results.resolutionResult
+        resolver.resolveArtifacts(configuration, results)
+
+        then:
+        1 * dependencyResolver.resolve(configuration, repositories, _, _, _, _, attributesSchema, _)
+        0 * graphCache.put(_, _, _)
+        results.resolutionResult.is(resolutionResult)
+        results.resolvedConfiguration != null
+    }
+
+    def "fails to resolve artifacts of reused graph when the graph does not match the reused resolution result"() {
+        def configuration = configuration()
+        repositories << repository(false)
+        def results = new DefaultResolverResults()
+        HashCode key = null
+
+        given:
+        graphCache.get(_, _) >> { HashCode graphKey, CachePolicy cachePolicy ->
+            key = graphKey
+            new ResolvedGraphCache.CachedGraph([1, 2, 3] as byte[], [], 0)
+        }
+        resolver.resolveGraph(configuration, results)
+
+        when:
+        resolver.resolveArtifacts(configuration, results)
+
+        then:
+        1 * dependencyResolver.resolve(configuration, repositories, _, _, _, _, attributesSchema, _)
+        1 * graphCache.put({ it == key }, new byte[0], [])
+        def e = thrown(IllegalStateException)
+        e.message.contains("does not match the resolution result reused from a previous build")
+    }
+
+    static class FlavorCompatibilityRule implements AttributeCompatibilityRule<String> {
+        @Override
+        void execute(CompatibilityCheckDetails<String> details) {
+        }
+    }
+
+    private ResolutionAwareRepository repository(boolean local) {
+        return Stub(ResolutionAwareRepository) {
+            getDescriptor() >> new FlatDirRepositoryDescriptor(local ? "local" : "remote", [])
+            createResolver() >> Stub(ConfiguredModuleComponentRepository) {
+                isLocal() >> local
+            }
+        }
+    }
+
+    private ConfigurationInternal configuration() {
+        def dependencies = [new DefaultExternalModuleDependency("org", "foo", "1.0")]
+        def dependencySet = Stub(DependencySet) {
+            size() >> dependencies.size()
+            iterator() >> { dependencies.iterator() }
+        }
+        def constraintSet = Stub(DependencyConstraintSet) {
+            size() >> 0
+            iterator() >> { [].iterator() }
+        }
+        def resolutionStrategy = Stub(ResolutionStrategyInternal) {
+            getDependencySubstitutionRule() >> Actions.doNothing()
+            getComponentSelection() >> Stub(ComponentSelectionRulesInternal) {
+                getRules() >> []
+            }
+            getConflictResolution() >> ConflictResolution.latest
+            getForcedModules() >> ([] as Set)
+            getSortOrder() >> ResolutionStrategy.SortOrder.DEFAULT
+            getCachePolicy() >> Stub(CachePolicy)
+        }
+        return Stub(ConfigurationInternal) {
+            getModule() >> Stub(Module) {
+                getProjectPath() >> ":"
+                getGroup() >> "org"
+                getName() >> "root"
+                getVersion() >> "1.0"
+                getStatus() >> "integration"
+            }
+            getName() >> "compile"
+            isTransitive() >> true
+            getAttributes() >> ImmutableAttributes.EMPTY
+            getOutgoing() >> Stub(ConfigurationPublications) {
+                getCapabilities() >> []
+            }
+            getAllExcludeRules() >> ([] as Set)
+            getAllDependencies() >> dependencySet
+            getAllDependencyConstraints() >> constraintSet
+            getResolutionStrategy() >> resolutionStrategy
+            getIncoming() >> Stub(ResolvableDependencies)
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice
+
+import org.gradle.api.artifacts.ConfigurationPublications
+import org.gradle.api.artifacts.Dependency
+import org.gradle.api.artifacts.DependencyConstraintSet
+import org.gradle.api.artifacts.DependencySet
+import org.gradle.api.attributes.Attribute
+import org.gradle.api.attributes.AttributeCompatibilityRule
+import org.gradle.api.attributes.AttributeDisambiguationRule
+import org.gradle.api.attributes.CompatibilityCheckDetails
+import org.gradle.api.attributes.MultipleCandidatesDetails
+import org.gradle.api.internal.artifacts.ComponentSelectionRulesInternal
+import org.gradle.api.internal.artifacts.GlobalDependencyResolutionRules
+import org.gradle.api.internal.artifacts.Module
+import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
+import org.gradle.api.internal.artifacts.configurations.ConflictResolution
+import org.gradle.api.internal.artifacts.configurations.ResolutionStrategyInternal
+import org.gradle.api.internal.artifacts.dependencies.DefaultExternalModuleDependency
+import org.gradle.api.internal.artifacts.dependencies.DefaultSelfResolvingDependency
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionRules
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.ConfiguredModuleComponentRepository
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.repositories.ResolutionAwareRepository
+import org.gradle.api.internal.artifacts.repositories.descriptor.FlatDirRepositoryDescriptor
+import org.gradle.api.internal.attributes.DefaultAttributesSchema
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.api.internal.file.FileCollectionInternal
+import org.gradle.internal.Actions
+import org.gradle.internal.classloader.ClassLoaderHierarchyHasher
+import org.gradle.internal.component.model.ComponentAttributeMatcher
+import org.gradle.internal.hash.HashCode
+import org.gradle.util.SnapshotTestUtil
+import org.gradle.util.TestUtil
+import spock.lang.Specification
+
+import javax.inject.Inject
+
+class ResolvedGraphFingerprinterTest extends Specification {
+    def substitutionRules = Stub(DependencySubstitutionRules)
+    def globalRules = Stub(GlobalDependencyResolutionRules) {
+        getDependencySubstitutionRules() >> substitutionRules
+        getComponentMetadataProcessorFactory() >> GlobalDependencyResolutionRules.NO_OP_FACTORY
+    }
+    def selectionRules = Stub(ComponentSelectionRulesInternal) {
+        getRules() >> []
+    }
+    def resolutionStrategy = Stub(ResolutionStrategyInternal) {
+        getDependencySubstitutionRule() >> Actions.doNothing()
+        getComponentSelection() >> selectionRules
+        getConflictResolution() >> ConflictResolution.latest
+        getForcedModules() >> ([] as Set)
+    }
+    def attributesSchema = new DefaultAttributesSchema(new ComponentAttributeMatcher(), TestUtil.instantiatorFactory(), SnapshotTestUtil.valueSnapshotter())
+    def classLoaderHash = HashCode.fromInt(123)
+    def classLoaderHasher = Stub(ClassLoaderHierarchyHasher) {
+        getClassLoaderHash(_) >> { classLoaderHash }
+    }
+    def fingerprinter = new ResolvedGraphFingerprinter(globalRules, attributesSchema, new DefaultVersionSelectorScheme(new DefaultVersionComparator(), new VersionParser()), classLoaderHasher)
+
+    def "calculates same fingerprint for same inputs"() {
+        expect:
+        def fingerprint = fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.0")), [])
+        fingerprint != null
+        fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.0")), []) == fingerprint
+    }
+
+    def "calculates different fingerprint when dependencies change"() {
+        expect:
+        fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.0")), []) != fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.1")), [])
+        fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.0")), []) != fingerprinter.fingerprint(configuration(dependency("org", "bar", "1.0")), [])
+    }
+
+    def "does not fingerprint configuration with dynamic version"() {
+        expect:
+        fingerprinter.fingerprint(configuration(dependency("org", "foo", version)), []) == null
+
+        where:
+        version << ["1.+", "[1.0,2.0)", "latest.release"]
+    }
+
+    def "does not fingerprint configuration with changing dependency"() {
+        def dependency = dependency("org", "foo", "1.0")
+        dependency.changing = true
+
+        expect:
+        fingerprinter.fingerprint(configuration(dependency), []) == null
+    }
+
+    def "does not fingerprint configuration with file dependency"() {
+        expect:
+        fingerprinter.fingerprint(configuration(new DefaultSelfResolvingDependency(Stub(FileCollectionInternal))), []) == null
+    }
+
+    def "does not fingerprint configuration when resolution is affected by rules"() {
+        given:
+        substitutionRules.hasRules() >> true
+
+        expect:
+        fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.0")), []) == null
+    }
+
+    def "does not fingerprint configuration when dependency locking is enabled"() {
+        given:
+        resolutionStrategy.isDependencyLockingEnabled() >> true
+
+        expect:
+        fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.0")), []) == null
+    }
+
+    def "does not fingerprint configuration when a local repository is used"() {
+        def remote = repository(false)
+        def local = repository(true)
+
+        expect:
+        fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.0")), [remote]) != null
+        fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.0")), [remote, local]) == null
+    }
+
+    def "calculates different fingerprint when attribute matching rules change"() {
+        def attribute = Attribute.of("flavor", String)
+        def configuration = configuration(dependency("org", "foo", "1.0"))
+        attributesSchema.attribute(attribute)
+
+        when:
+        def noRules = fingerprinter.fingerprint(configuration, [])
+        attributesSchema.attribute(attribute).compatibilityRules.add(FlavorCompatibilityRule)
+        def compatibilityRule = fingerprinter.fingerprint(configuration, [])
+        attributesSchema.attribute(attribute).disambiguationRules.add(FlavorDisambiguationRule) { it.params("a") }
+        def disambiguationRule = fingerprinter.fingerprint(configuration, [])
+
+        then:
+        noRules != null
+        compatibilityRule != null
+        disambiguationRule != null
+        [noRules, compatibilityRule, disambiguationRule].unique().size() == 3
+        fingerprinter.fingerprint(configuration, []) == disambiguationRule
+    }
+
+    def "calculates different fingerprint when attribute matching rule parameters change"() {
+        def attribute = Attribute.of("flavor", String)
+        def configuration = configuration(dependency("org", "foo", "1.0"))
+        def otherSchema = new DefaultAttributesSchema(new ComponentAttributeMatcher(), TestUtil.instantiatorFactory(), SnapshotTestUtil.valueSnapshotter())
+        def otherFingerprinter = new ResolvedGraphFingerprinter(globalRules, otherSchema, new DefaultVersionSelectorScheme(new DefaultVersionComparator(), new VersionParser()), classLoaderHasher)
+
+        when:
+        attributesSchema.attribute(attribute).disambiguationRules.add(FlavorDisambiguationRule) { it.params("a") }
+        otherSchema.attribute(attribute).disambiguationRules.add(FlavorDisambiguationRule) { it.params("b") }
+
+        then:
+        fingerprinter.fingerprint(configuration, []) != otherFingerprinter.fingerprint(configuration, [])
+    }
+
+    def "calculates different fingerprint when implementation of attribute matching rule changes"() {
+        def configuration = configuration(dependency("org", "foo", "1.0"))
+        attributesSchema.attribute(Attribute.of("flavor", String)).compatibilityRules.add(FlavorCompatibilityRule)
+
+        when:
+        def before = fingerprinter.fingerprint(configuration, [])
+        classLoaderHash = HashCode.fromInt(456)
+        def after = fingerprinter.fingerprint(configuration, [])
+
+        then:
+        before != null
+        after != null
+        before != after
+    }
+
+    def "does not fingerprint configuration when attribute matching rule is loaded by a class loader that cannot be hashed"() {
+        given:
+        classLoaderHash = null
+        attributesSchema.attribute(Attribute.of("flavor", String)).compatibilityRules.add(FlavorCompatibilityRule)
+
+        expect:
+        fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.0")), []) == null
+    }
+
+    def "does not fingerprint configuration when attribute matching uses a comparator"() {
+        given:
+        attributesSchema.attribute(Attribute.of("flavor", String)).ordered({ a, b -> a <=> b } as Comparator)
+
+        expect:
+        fingerprinter.fingerprint(configuration(dependency("org", "foo", "1.0")), []) == null
+    }
+
+    static class FlavorCompatibilityRule implements AttributeCompatibilityRule<String> {
+        @Override
+        void execute(CompatibilityCheckDetails<String> details) {
+        }
+    }
+
+    static class FlavorDisambiguationRule implements AttributeDisambiguationRule<String> {
+        final String preferred
+
+        @Inject
+        FlavorDisambiguationRule(String preferred) {
+            this.preferred = preferred
+        }
+
+        @Override
+        void execute(MultipleCandidatesDetails<String> details) {
+        }
+    }
+
+    private ResolutionAwareRepository repository(boolean local) {
+        return Stub(ResolutionAwareRepository) {
+            getDescriptor() >> new FlatDirRepositoryDescriptor(local ? "local" : "remote", [])
+            createResolver() >> Stub(ConfiguredModuleComponentRepository) {
+                isLocal() >> local
+            }
+        }
+    }
+
+    private static DefaultExternalModuleDependency dependency(String group, String name, String version) {
+        new DefaultExternalModuleDependency(group, name, version)
+    }
+
+    private ConfigurationInternal configuration(Dependency... dependencies) {
+        def dependencySet = Stub(DependencySet) {
+            size() >> dependencies.length
+            iterator() >> { (dependencies as List).iterator() }
+        }
+        def constraintSet = Stub(DependencyConstraintSet) {
+            size() >> 0
+            iterator() >> { [].iterator() }
+        }
+        return Stub(ConfigurationInternal) {
+            getModule() >> Stub(Module) {
+                getProjectPath() >> ":"
+                getGroup() >> "org"
+                getName() >> "root"
+                getVersion() >> "1.0"
+                getStatus() >> "integration"
+            }
+            getName() >> "compile"
+            isTransitive() >> true
+            getAttributes() >> ImmutableAttributes.EMPTY
+            getOutgoing() >> Stub(ConfigurationPublications) {
+                getCapabilities() >> []
+            }
+            getAllExcludeRules() >> ([] as Set)
+            getAllDependencies() >> dependencySet
+            getAllDependencyConstraints() >> constraintSet
+            getResolutionStrategy() >> resolutionStrategy
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve
+
+import org.gradle.api.Action
+import org.gradle.api.Transformer
+import org.gradle.api.internal.artifacts.ComponentMetadataProcessorFactory
+import org.gradle.api.internal.artifacts.DefaultModuleIdentifier
+import org.gradle.api.internal.artifacts.configurations.dynamicversion.CachePolicy
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionSelector
+import org.gradle.api.internal.attributes.ImmutableAttributes
+import org.gradle.api.internal.attributes.ImmutableAttributesFactory
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
+import org.gradle.internal.component.external.model.ModuleComponentResolveMetadata
+import org.gradle.internal.component.external.model.ModuleDependencyMetadata
+import org.gradle.internal.operations.BuildOperationExecutor
+import org.gradle.internal.operations.BuildOperationQueue
+import org.gradle.internal.operations.RunnableBuildOperation
+import org.gradle.internal.resolve.ModuleVersionResolveException
+import org.gradle.internal.resolve.caching.ComponentMetadataSupplierRuleExecutor
+import org.gradle.internal.resolve.result.BuildableModuleComponentMetaDataResolveResult
+import org.gradle.internal.resolve.result.BuildableModuleVersionListingResolveResult
+import org.gradle.internal.resolve.result.ComponentSelectionContext
+import org.gradle.internal.resolve.result.DefaultBuildableComponentIdResolveResult
+import spock.lang.Specification
+
+class DynamicVersionResolverTest extends Specification {
+    def selector = DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId("group", "module"), "latest.integration")
+    def dependency = Stub(ModuleDependencyMetadata) {
+        getSelector() >> selector
+        withRequestedVersion(_) >> { dependency }
+    }
+    def chooser = Stub(VersionedComponentChooser) {
+        // Selects the first listed version, and prefers the module found in the earliest repository
+        selectNewestMatchingComponent(_, _, _, _, _) >> { Collection<ModuleComponentResolveState> versions, ComponentSelectionContext context, VersionSelector versionSelector, VersionSelector rejectedSelector, ImmutableAttributes attributes ->
+            if (versions.empty) {
+                context.noMatchFound()
+            } else {
+                context.matches(versions.first().id)
+            }
+        }
+        selectNewestComponent(_, _) >> { one, two -> one }
+    }
+    def metaDataFactory = Stub(Transformer) {
+        transform(_) >> { RepositoryChainModuleResolution resolution -> resolution.module }
+    }
+    def attributesFactory = Stub(ImmutableAttributesFactory) {
+        concat(_, _) >> ImmutableAttributes.EMPTY
+    }
+    def executedOperations = []
+    def buildOperationExecutor = Stub(BuildOperationExecutor) {
+        // Runs the operations in reverse order, so that later repositories answer first
+        runAll(_) >> { Action<BuildOperationQueue<RunnableBuildOperation>> action ->
+            def operations = []
+            action.execute(Stub(BuildOperationQueue) {
+                add(_) >> { RunnableBuildOperation operation -> operations << operation }
+            })
+            operations.reverse().each { RunnableBuildOperation operation ->
+                executedOperations << operation.description().build().displayName
+                operation.run(null)
+            }
+        }
+    }
+    def resolver = new DynamicVersionResolver(chooser, new VersionParser(), metaDataFactory, attributesFactory, Stub(ComponentMetadataProcessorFactory), Stub(ComponentMetadataSupplierRuleExecutor), Stub(CachePolicy), buildOperationExecutor)
+    def result = new DefaultBuildableComponentIdResolveResult()
+
+    def "prefers the module from the earlier repository when a later repository answers first"() {
+        def metadata1 = Stub(ModuleComponentResolveMetadata)
+        def metadata2 = Stub(ModuleComponentResolveMetadata)
+        resolver.add(repository("repo1", listing(["1.0"]), metadata1))
+        resolver.add(repository("repo2", listing(["1.0"]), metadata2))
+
+        when:
+        resolve()
+
+        then:
+        executedOperations == ["Resolve group:module:latest.integration from repo2", "Resolve group:module:latest.integration from repo1"]
+        result.metadata.is(metadata1)
+        result.failure == null
+    }
+
+    def "reports failure to list versions from a repository queried concurrently"() {
+        def failure = new RuntimeException("broken")
+        resolver.add(repository("repo1", listing([]), null))
+        resolver.add(repository("repo2", { throw failure }, null))
+
+        when:
+        resolve()
+
+        then:
+        result.failure instanceof ModuleVersionResolveException
+        result.failure.causes == [failure]
+    }
+
+    def "critical failure from an earlier repository fails resolution even when a later repository answered"() {
+        def failure = new RuntimeException(new SocketTimeoutException("timeout"))
+        resolver.add(repository("repo1", { throw failure }, null))
+        resolver.add(repository("repo2", listing(["1.0"]), Stub(ModuleComponentResolveMetadata)))
+
+        when:
+        resolve()
+
+        then:
+        result.failure.causes == [failure]
+    }
+
+    def resolve() {
+        resolver.resolve(dependency, Stub(VersionSelector), null, ImmutableAttributes.EMPTY, result)
+    }
+
+    static Closure listing(List<String> versions) {
+        return { BuildableModuleVersionListingResolveResult listingResult -> listingResult.listed(versions) }
+    }
+
+    def repository(String name, Closure listVersions, ModuleComponentResolveMetadata metadata) {
+        def remoteAccess = Stub(ModuleComponentRepositoryAccess) {
+            listModuleVersions(_, _) >> { ModuleDependencyMetadata dependency, BuildableModuleVersionListingResolveResult listingResult -> listVersions.call(listingResult) }
+            resolveComponentMetaData(_, _, _) >> { id, overrides, BuildableModuleComponentMetaDataResolveResult metadataResult -> metadataResult.resolved(metadata) }
+        }
+        return Stub(ModuleComponentRepository) {
+            getName() >> name
+            getLocalAccess() >> Stub(ModuleComponentRepositoryAccess)
+            getRemoteAccess() >> remoteAccess
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser
+
+import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.parser.PomStaxParser.PomElement
+import org.w3c.dom.Element
+import org.w3c.dom.Node
+import org.xml.sax.EntityResolver
+import org.xml.sax.InputSource
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import javax.xml.parsers.DocumentBuilderFactory
+import javax.xml.stream.XMLStreamException
+
+class PomStaxParserTest extends Specification {
+
+    @Unroll
+    def "produces same elements as a DOM parser for #pom"() {
+        given:
+        def systemId = PomStaxParserTest.getResource("PomStaxParserTest/$pom").toURI().toASCIIString()
+        def dom = parseToDom(systemId)
+
+        when:
+        def element = PomStaxParserTest.getResourceAsStream("PomStaxParserTest/$pom").withStream { PomStaxParser.parse(it, systemId) }
+
+        then:
+        assertSameElement(dom, element, 0)
+
+        where:
+        pom << ["ant-parent-1.10.13.pom", "junit-4.12.pom", "bom-with-profiles.pom"]
+    }
+
+    def "keeps text content of leaf elements"() {
+        when:
+        def project = parse("""<?xml version="1.0" encoding="UTF-8"?>
+<project>
+    <groupId> org.example </groupId>
+    <artifactId>caf&eacute;</artifactId>
+    <version><![CDATA[1.0]]>-x<!-- comment -->y</version>
+    <properties>
+        <empty/>
+    </properties>
+</project>""")
+
+        then:
+        project.textContent == ""
+        PomStaxParser.getFirstChildText(project, "groupId") == " org.example "
+        PomStaxParser.getFirstChildText(project, "artifactId") == "café"
+        PomStaxParser.getFirstChildText(project, "version") == "1.0-xy"
+        PomStaxParser.getAllChilds(PomStaxParser.getFirstChildElement(project, "properties"))*.name == ["empty"]
+        PomStaxParser.getFirstChildText(PomStaxParser.getFirstChildElement(project, "properties"), "empty") == ""
+    }
+
+    def "skips elements that are not used"() {
+        when:
+        def project = parse("""
+<project>
+    <modelVersion>4.0.0</modelVersion>
+    <artifactId>a</artifactId>
+    <build><plugins><plugin><artifactId>p</artifactId></plugin></plugins></build>
+    <profiles>
+        <profile>
+            <id>p</id>
+            <build><finalName>f</finalName></build>
+            <modules><module>m</module></modules>
+            <properties><a>b</a></properties>
+        </profile>
+    </profiles>
+</project>""")
+
+        then:
+        project.children*.name == ["artifactId", "profiles"]
+        PomStaxParser.getFirstChildElement(PomStaxParser.getFirstChildElement(project, "profiles"), "profile").children*.name == ["id", "properties"]
+    }
+
+    def "uses qualified names of elements"() {
+        when:
+        def project = parse("""<pom:project xmlns:pom="http://maven.apache.org/POM/4.0.0"><pom:groupId>g</pom:groupId></pom:project>""")
+
+        then:
+        project.name == "pom:project"
+        project.children*.name == []
+    }
+
+    def "fails on malformed POM"() {
+        when:
+        parse("""
+<project>
+    <modelVersion
+</project>""")
+
+        then:
+        def e = thrown(XMLStreamException)
+        e.message.contains('"modelVersion"')
+    }
+
+    private static PomElement parse(String pom) {
+        return PomStaxParser.parse(new ByteArrayInputStream(pom.getBytes("UTF-8")), "file:/pom.xml")
+    }
+
+    private static Element parseToDom(String systemId) {
+        def builder = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+        builder.entityResolver = { String publicId, String entitySystemId ->
+            entitySystemId?.endsWith("m2-entities.ent") ? new InputSource(org.apache.ivy.plugins.parser.m2.PomReader.getResourceAsStream("m2-entities.ent")) : null
+        } as EntityResolver
+        return new URL(systemId).openStream().withStream {
+            builder.parse(new PomStaxParser.AddDTDFilterInputStream(it), systemId).documentElement
+        }
+    }
+
+    private static void assertSameElement(Element expected, PomElement actual, int depth) {
+        assert actual.name == expected.nodeName
+
+        def childElements = expected.childNodes.findAll { it instanceof Element }
+        def text = expected.childNodes.findAll { it.nodeType == Node.TEXT_NODE || it.nodeType == Node.CDATA_SECTION_NODE }*.nodeValue.join("")
+        if (!childElements.empty && text.trim().empty) {
+            text = ""
+        }
+        assert actual.textContent == text
+
+        def expectedChildren = childElements.findAll { PomStaxParser.isRelevant(actual, depth + 1, it.nodeName) }
+        assert actual.children.size() == expectedChildren.size()
+        expectedChildren.eachWithIndex { Element child, int i ->
+            assertSameElement(child, actual.children[i], depth + 1)
+        }
+    }
+}
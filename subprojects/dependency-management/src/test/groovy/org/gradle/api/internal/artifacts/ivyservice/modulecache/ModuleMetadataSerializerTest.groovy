@@ -35,9 +35,14 @@ import org.gradle.api.internal.artifacts.repositories.metadata.IvyMutableModuleM
 import org.gradle.api.internal.artifacts.repositories.metadata.MavenMutableModuleMetadataFactory
 import org.gradle.api.internal.file.TestFiles
 import org.gradle.api.internal.model.NamedObjectInstantiator
+import org.gradle.internal.component.external.descriptor.DefaultExclude
+import org.gradle.internal.component.external.descriptor.MavenScope
 import org.gradle.internal.component.external.model.DefaultModuleComponentIdentifier
+import org.gradle.internal.component.external.model.DefaultModuleComponentSelector
 import org.gradle.internal.component.external.model.MutableModuleComponentResolveMetadata
 import org.gradle.internal.component.external.model.ivy.MutableIvyModuleResolveMetadata
+import org.gradle.internal.component.external.model.maven.MavenDependencyDescriptor
+import org.gradle.internal.component.external.model.maven.MavenDependencyType
 import org.gradle.internal.component.external.model.maven.MutableMavenModuleResolveMetadata
 import org.gradle.internal.hash.HashUtil
 import org.gradle.internal.resource.local.FileResourceRepository
@@ -94,6 +99,26 @@ class ModuleMetadataSerializerTest extends Specification {
 
     }
 
+    def "shares identifiers and dependency descriptors between deserialized modules"() {
+        given:
+        def dependencies = (1..10).collect { mavenDependency("org.test", "dep$it", "1.$it") }
+        def serialized = (1..2000).collect {
+            serialize(mavenMetadataFactory.create(DefaultModuleComponentIdentifier.newId(DefaultModuleIdentifier.newId("org.test", "module$it"), "1.0"), dependencies))
+        }
+
+        when:
+        def modules = serialized.collect { (MutableMavenModuleResolveMetadata) deserialize(it) }
+
+        then:
+        def descriptors = modules.collectMany { it.dependencies }
+        descriptors.size() == 20000
+        identityCount(descriptors) == 10
+        identityCount(descriptors*.selector) == 10
+        identityCount(descriptors.collectMany { it.allExcludes }) == 1
+        identityCount(modules*.id) == 2000
+        deserialize(serialized[0]).id.is(modules[0].id)
+    }
+
     private MutableModuleComponentResolveMetadata deserialize(byte[] serializedForm) {
         serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(serializedForm)), moduleIdentifierFactory)
     }
@@ -144,6 +169,18 @@ class ModuleMetadataSerializerTest extends Specification {
         metadata
     }
 
+    private static MavenDependencyDescriptor mavenDependency(String group, String name, String version) {
+        def selector = DefaultModuleComponentSelector.newSelector(DefaultModuleIdentifier.newId(group, name), version)
+        def excludes = [new DefaultExclude(DefaultModuleIdentifier.newId("commons-logging", "commons-logging"))]
+        new MavenDependencyDescriptor(MavenScope.Compile, MavenDependencyType.DEPENDENCY, selector, null, excludes)
+    }
+
+    private static int identityCount(Collection<?> values) {
+        def identities = Collections.newSetFromMap(new IdentityHashMap())
+        identities.addAll(values)
+        identities.size()
+    }
+
     LocallyAvailableExternalResource resource(File testFile) {
         return new LocalFileStandInExternalResource(testFile, TestFiles.fileSystem())
     }
@@ -31,6 +31,7 @@ import org.gradle.api.internal.artifacts.configurations.ConfigurationInternal
 import org.gradle.api.internal.artifacts.dependencies.DefaultMutableVersionConstraint
 import org.gradle.api.internal.artifacts.dsl.ModuleReplacementsData
 import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DefaultDependencySubstitutionApplicator
+import org.gradle.api.internal.artifacts.ivyservice.dependencysubstitution.DependencySubstitutionApplicator
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionComparator
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.DefaultVersionSelectorScheme
 import org.gradle.api.internal.artifacts.ivyservice.ivyresolve.strategy.VersionParser
@@ -71,6 +72,8 @@ import org.gradle.internal.resolve.resolver.ResolveContextToComponentResolver
 import org.gradle.internal.resolve.result.BuildableComponentIdResolveResult
 import org.gradle.internal.resolve.result.BuildableComponentResolveResult
 import org.gradle.util.AttributeTestUtil
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Specification
 
 import static org.gradle.api.internal.artifacts.DefaultModuleVersionIdentifier.newId
@@ -78,6 +81,9 @@ import static org.gradle.internal.component.external.model.DefaultModuleComponen
 import static org.gradle.internal.component.local.model.TestComponentIdentifiers.newProjectId
 
 class DependencyGraphBuilderTest extends Specification {
+    @Rule
+    SetSystemProperties systemProperties = new SetSystemProperties()
+
     def configuration = Mock(ConfigurationInternal)
     def conflictResolver = Mock(ModuleConflictResolver)
     def idResolver = Mock(DependencyToComponentIdResolver)
@@ -149,6 +155,75 @@ class DependencyGraphBuilderTest extends Specification {
         result.components == ids(root, a, b, c)
     }
 
+    def "prefetches metadata of the transitive dependencies of a downloaded component when enabled"() {
+        given:
+        System.setProperty(DependencyGraphBuilder.PREFETCH_METADATA, "true")
+        def a = revision('a')
+        def b = revision('b')
+        def c = revision('c')
+        traverses root, a
+        def bDependency = dependsOn(a, b.moduleVersionId)
+        selectorResolvesTo(bDependency, b.id, b.moduleVersionId)
+        def cDependency = dependsOn(b, c.moduleVersionId)
+        selectorResolvesTo(cDependency, c.id, c.moduleVersionId)
+
+        when:
+        def result = resolve(prefetchingBuilder())
+        result.rethrowFailure()
+
+        then:
+        // Once when prefetched, and once when traversed
+        2 * metaDataResolver.resolve(b.id, _, _) >> { ComponentIdentifier id, ComponentOverrideMetadata requestMetaData, BuildableComponentResolveResult result ->
+            result.resolved(b)
+        }
+        2 * metaDataResolver.resolve(c.id, _, _) >> { ComponentIdentifier id, ComponentOverrideMetadata requestMetaData, BuildableComponentResolveResult result ->
+            result.resolved(c)
+        }
+        result.components == ids(root, a, b, c)
+    }
+
+    def "does not prefetch metadata of excluded dependencies"() {
+        given:
+        System.setProperty(DependencyGraphBuilder.PREFETCH_METADATA, "true")
+        def a = revision('a')
+        def b = revision('b')
+        def c = revision('c')
+        traverses root, a, exclude: c
+        def bDependency = dependsOn(a, b.moduleVersionId)
+        selectorResolvesTo(bDependency, b.id, b.moduleVersionId)
+        doesNotResolve b, c
+
+        when:
+        def result = resolve(prefetchingBuilder())
+        result.rethrowFailure()
+
+        then:
+        2 * metaDataResolver.resolve(b.id, _, _) >> { ComponentIdentifier id, ComponentOverrideMetadata requestMetaData, BuildableComponentResolveResult result ->
+            result.resolved(b)
+        }
+        result.components == ids(root, a, b)
+    }
+
+    def "does not prefetch metadata when there are dependency substitution rules"() {
+        given:
+        System.setProperty(DependencyGraphBuilder.PREFETCH_METADATA, "true")
+        def a = revision('a')
+        def b = revision('b')
+        traverses root, a
+        traverses a, b
+
+        when:
+        def result = resolve()
+        result.rethrowFailure()
+
+        then:
+        result.components == ids(root, a, b)
+    }
+
+    private DependencyGraphBuilder prefetchingBuilder() {
+        return new DependencyGraphBuilder(idResolver, metaDataResolver, moduleResolver, moduleConflictHandler, capabilitiesConflictHandler, Specs.satisfyAll(), attributesSchema, moduleExclusions, buildOperationProcessor, moduleReplacements, DependencySubstitutionApplicator.NO_OP, componentSelectorConverter, AttributeTestUtil.attributesFactory(), versionSelectorScheme, Stub(Comparator), new VersionParser())
+    }
+
     def "honors component replacements"() {
         given:
         def a = revision('a') // a->c
@@ -70,6 +70,30 @@ class DefaultBinaryStoreTest extends Specification {
 
     }
 
+    def "reads large data written after other data"() {
+        def store = new DefaultBinaryStore(temp.file("foo.bin"))
+        def count = 100000
+
+        when:
+        store.write({ it.writeString("first") } as BinaryStore.WriteAction)
+        def data1 = store.done()
+        store.write({ encoder -> count.times { encoder.writeSmallLong(it); encoder.writeString("value${it % 100}") } } as BinaryStore.WriteAction)
+        def data2 = store.done()
+        store.write({ it.writeString("last") } as BinaryStore.WriteAction)
+        def data3 = store.done()
+
+        then:
+        data2.read({ decoder -> (0..<count).every { decoder.readSmallLong() == it && decoder.readString() == "value${it % 100}" } } as BinaryStore.ReadAction)
+        data2.close()
+        data1.read({ it.readString() } as BinaryStore.ReadAction) == "first"
+        data1.close()
+        data3.read({ it.readString() } as BinaryStore.ReadAction) == "last"
+        data3.close()
+
+        cleanup:
+        store.close()
+    }
+
     class SomeException extends RuntimeException {}
 
     def "write action exception is propagated to the client"() {
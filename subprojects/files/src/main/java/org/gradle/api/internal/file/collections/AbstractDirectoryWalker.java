@@ -22,6 +22,7 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.DefaultFileVisitDetails;
+import org.gradle.api.internal.file.SubtreeSpecs;
 import org.gradle.api.specs.Spec;
 import org.gradle.internal.nativeintegration.filesystem.FileSystem;
 
@@ -65,12 +66,18 @@ public abstract class AbstractDirectoryWalker implements DirectoryWalker {
         // now handle dirs
         for (int i = 0; !stopFlag.get() && i < dirs.size(); i++) {
             FileVisitDetails dir = dirs.get(i);
+            // Skip the contents of the directory when nothing below it can be selected
+            boolean walkContents = SubtreeSpecs.mayBeSatisfiedBelow(spec, dir.getRelativePath());
             if (postfix) {
-                walkDir(dir.getFile(), dir.getRelativePath(), visitor, spec, stopFlag, postfix);
+                if (walkContents) {
+                    walkDir(dir.getFile(), dir.getRelativePath(), visitor, spec, stopFlag, postfix);
+                }
                 visitor.visitDir(dir);
             } else {
                 visitor.visitDir(dir);
-                walkDir(dir.getFile(), dir.getRelativePath(), visitor, spec, stopFlag, postfix);
+                if (walkContents) {
+                    walkDir(dir.getFile(), dir.getRelativePath(), visitor, spec, stopFlag, postfix);
+                }
             }
         }
     }
@@ -22,6 +22,7 @@ import org.gradle.api.file.FileVisitDetails;
 import org.gradle.api.file.FileVisitor;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.file.DefaultFileVisitDetails;
+import org.gradle.api.internal.file.SubtreeSpecs;
 import org.gradle.api.internal.file.UnauthorizedFileVisitDetails;
 import org.gradle.api.internal.file.collections.DirectoryWalker;
 import org.gradle.api.specs.Spec;
@@ -61,6 +62,11 @@ public class Jdk7DirectoryWalker implements DirectoryWalker {
                 public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
                     FileVisitDetails details = getFileVisitDetails(dir, attrs, true);
                     if (directoryDetailsHolder.size() == 0 || isAllowed(details, spec)) {
+                        if (directoryDetailsHolder.size() > 0 && !SubtreeSpecs.mayBeSatisfiedBelow(spec, details.getRelativePath())) {
+                            // Nothing below the directory can be selected, so visit the directory without walking its contents
+                            visitor.visitDir(details);
+                            return stopFlag.get() ? FileVisitResult.TERMINATE : FileVisitResult.SKIP_SUBTREE;
+                        }
                         directoryDetailsHolder.push(details);
                         if (directoryDetailsHolder.size() > 1 && !postfix) {
                             visitor.visitDir(details);
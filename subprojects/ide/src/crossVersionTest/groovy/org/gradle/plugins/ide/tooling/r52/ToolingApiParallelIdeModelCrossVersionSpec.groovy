@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.plugins.ide.tooling.r52
+
+import org.gradle.integtests.tooling.fixture.TargetGradleVersion
+import org.gradle.integtests.tooling.fixture.ToolingApiSpecification
+import org.gradle.test.fixtures.maven.MavenFileRepository
+import org.gradle.tooling.model.eclipse.EclipseProject
+import org.gradle.tooling.model.idea.IdeaModuleDependency
+import org.gradle.tooling.model.idea.IdeaProject
+import org.gradle.tooling.model.idea.IdeaSingleEntryLibraryDependency
+
+@TargetGradleVersion(">=5.2")
+class ToolingApiParallelIdeModelCrossVersionSpec extends ToolingApiSpecification {
+
+    def setup() {
+        def mavenRepo = new MavenFileRepository(file("maven-repo"))
+        mavenRepo.module('someGroup', 'someArtifact', '17.0').publish()
+        mavenRepo.module('someGroup', 'someArtifact', '16.0.1').publish()
+
+        settingsFile << """
+            rootProject.name = 'root'
+            include 'a', 'b', 'c'
+        """
+        buildFile << """
+            allprojects {
+                apply plugin: 'java'
+                apply plugin: 'idea'
+                apply plugin: 'eclipse'
+
+                repositories {
+                    maven { url "${mavenRepo.uri}" }
+                }
+            }
+
+            project(':a') {
+                dependencies {
+                    compile 'someGroup:someArtifact:17.0'
+                    compile project(':b')
+                }
+            }
+
+            project(':b') {
+                idea.module.name = 'b-renamed'
+                eclipse.project.name = 'b-renamed'
+                dependencies {
+                    compile project(':c')
+                }
+            }
+
+            project(':c') {
+                dependencies {
+                    compile 'someGroup:someArtifact:16.0.1'
+                }
+            }
+        """
+    }
+
+    def "builds the same IdeaProject model with and without parallel project execution"() {
+        when:
+        IdeaProject serial = withConnection { model(IdeaProject).get() }
+        IdeaProject parallel = withConnection { model(IdeaProject).withArguments('--parallel', '--max-workers=4').get() }
+
+        then:
+        def modules = describe(parallel)
+        modules == describe(serial)
+        modules['a'].contains('module b-renamed COMPILE')
+        modules['a'].contains('library someArtifact-17.0.jar COMPILE')
+        modules['b-renamed'].contains('module c COMPILE')
+    }
+
+    def "builds the same EclipseProject model with and without parallel project execution"() {
+        when:
+        EclipseProject serial = withConnection { model(EclipseProject).get() }
+        EclipseProject parallel = withConnection { model(EclipseProject).withArguments('--parallel', '--max-workers=4').get() }
+
+        then:
+        def projects = describe(parallel)
+        projects == describe(serial)
+        projects['a'].contains('project b-renamed')
+        projects['a'].contains('library someArtifact-17.0.jar')
+        projects['b-renamed'].contains('project c')
+    }
+
+    private static Map<String, List<String>> describe(IdeaProject project) {
+        return project.modules.collectEntries { module ->
+            [module.name, module.dependencies.collect { dependency ->
+                if (dependency instanceof IdeaModuleDependency) {
+                    return "module ${dependency.targetModuleName} ${dependency.scope.scope}".toString()
+                }
+                return "library ${((IdeaSingleEntryLibraryDependency) dependency).file.name} ${dependency.scope.scope}".toString()
+            }]
+        }
+    }
+
+    private static Map<String, List<String>> describe(EclipseProject project) {
+        def result = [(project.name): project.projectDependencies.collect { "project ${it.path}".toString() } + project.classpath.collect { "library ${it.file.name}".toString() }]
+        project.children.each { result.putAll(describe(it)) }
+        return result
+    }
+}
@@ -58,7 +58,7 @@ public class EclipseDependenciesCreator {
 
     public EclipseDependenciesCreator(EclipseClasspath classpath, IdeArtifactRegistry ideArtifactRegistry, ProjectStateRegistry projectRegistry) {
         this.classpath = classpath;
-        this.projectDependencyBuilder = new ProjectDependencyBuilder(ideArtifactRegistry);
+        this.projectDependencyBuilder = new ProjectDependencyBuilder(ideArtifactRegistry, projectRegistry);
         currentProjectId = projectRegistry.stateFor(classpath.getProject()).getComponentIdentifier();
     }
 
@@ -17,15 +17,19 @@
 package org.gradle.plugins.ide.eclipse.model.internal;
 
 import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
+import org.gradle.api.internal.project.ProjectStateRegistry;
+import org.gradle.internal.Factory;
 import org.gradle.plugins.ide.eclipse.internal.EclipseProjectMetadata;
 import org.gradle.plugins.ide.eclipse.model.ProjectDependency;
 import org.gradle.plugins.ide.internal.IdeArtifactRegistry;
 
 public class ProjectDependencyBuilder {
     private final IdeArtifactRegistry ideArtifactRegistry;
+    private final ProjectStateRegistry projectRegistry;
 
-    public ProjectDependencyBuilder(IdeArtifactRegistry ideArtifactRegistry) {
+    public ProjectDependencyBuilder(IdeArtifactRegistry ideArtifactRegistry, ProjectStateRegistry projectRegistry) {
         this.ideArtifactRegistry = ideArtifactRegistry;
+        this.projectRegistry = projectRegistry;
     }
 
     public ProjectDependency build(ProjectComponentIdentifier id) {
@@ -37,8 +41,17 @@ public class ProjectDependencyBuilder {
     }
 
     public String determineTargetProjectName(ProjectComponentIdentifier id) {
-        EclipseProjectMetadata eclipseProject = ideArtifactRegistry.getIdeProject(EclipseProjectMetadata.class, id);
-        return eclipseProject == null ? id.getProjectName() : eclipseProject.getName();
+        final EclipseProjectMetadata eclipseProject = ideArtifactRegistry.getIdeProject(EclipseProjectMetadata.class, id);
+        if (eclipseProject == null) {
+            return id.getProjectName();
+        }
+        // The name is calculated from the model of the target project
+        return projectRegistry.stateFor(id).withMutableState(new Factory<String>() {
+            @Override
+            public String create() {
+                return eclipseProject.getName();
+            }
+        });
     }
 
     private ProjectDependency buildProjectDependency(String path) {
@@ -45,7 +45,7 @@ public class WtpComponentFactory {
     private final ProjectComponentIdentifier currentProjectId;
 
     public WtpComponentFactory(Project project, IdeArtifactRegistry artifactRegistry, ProjectStateRegistry projectRegistry) {
-        projectDependencyBuilder = new ProjectDependencyBuilder(artifactRegistry);
+        projectDependencyBuilder = new ProjectDependencyBuilder(artifactRegistry, projectRegistry);
         currentProjectId = projectRegistry.stateFor(project).getComponentIdentifier();
     }
 
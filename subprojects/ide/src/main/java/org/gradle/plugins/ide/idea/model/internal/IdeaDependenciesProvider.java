@@ -58,7 +58,7 @@ public class IdeaDependenciesProvider {
     private final ProjectComponentIdentifier currentProjectId;
 
     public IdeaDependenciesProvider(Project project, IdeArtifactRegistry artifactRegistry, ProjectStateRegistry projectRegistry) {
-        moduleDependencyBuilder = new ModuleDependencyBuilder(artifactRegistry);
+        moduleDependencyBuilder = new ModuleDependencyBuilder(artifactRegistry, projectRegistry);
         currentProjectId = projectRegistry.stateFor(project).getComponentIdentifier();
         optimizer = new IdeaDependenciesOptimizer();
     }
@@ -17,15 +17,19 @@
 package org.gradle.plugins.ide.idea.model.internal;
 
 import org.gradle.api.artifacts.component.ProjectComponentIdentifier;
+import org.gradle.api.internal.project.ProjectStateRegistry;
+import org.gradle.internal.Factory;
 import org.gradle.plugins.ide.idea.internal.IdeaModuleMetadata;
 import org.gradle.plugins.ide.idea.model.ModuleDependency;
 import org.gradle.plugins.ide.internal.IdeArtifactRegistry;
 
 class ModuleDependencyBuilder {
     private final IdeArtifactRegistry ideArtifactRegistry;
+    private final ProjectStateRegistry projectRegistry;
 
-    public ModuleDependencyBuilder(IdeArtifactRegistry ideArtifactRegistry) {
+    public ModuleDependencyBuilder(IdeArtifactRegistry ideArtifactRegistry, ProjectStateRegistry projectRegistry) {
         this.ideArtifactRegistry = ideArtifactRegistry;
+        this.projectRegistry = projectRegistry;
     }
 
     public ModuleDependency create(ProjectComponentIdentifier id, String scope) {
@@ -33,7 +37,16 @@ class ModuleDependencyBuilder {
     }
 
     private String determineProjectName(ProjectComponentIdentifier id) {
-        IdeaModuleMetadata moduleMetadata = ideArtifactRegistry.getIdeProject(IdeaModuleMetadata.class, id);
-        return moduleMetadata == null ? id.getProjectName() : moduleMetadata.getName();
+        final IdeaModuleMetadata moduleMetadata = ideArtifactRegistry.getIdeProject(IdeaModuleMetadata.class, id);
+        if (moduleMetadata == null) {
+            return id.getProjectName();
+        }
+        // The name is calculated from the model of the target project
+        return projectRegistry.stateFor(id).withMutableState(new Factory<String>() {
+            @Override
+            public String create() {
+                return moduleMetadata.getName();
+            }
+        });
     }
 }
@@ -101,7 +101,16 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         tasksFactory.collectTasks(root);
         applyEclipsePlugin(root);
         buildHierarchy(root);
-        populate(root);
+        ProjectModelBuildQueue queue = new ProjectModelBuildQueue(root);
+        for (final Project p : root.getAllprojects()) {
+            queue.add(p, new Runnable() {
+                @Override
+                public void run() {
+                    populate(p);
+                }
+            });
+        }
+        queue.runAll();
         return result;
     }
 
@@ -216,10 +225,6 @@ public class EclipseModelBuilder implements ToolingModelBuilder {
         populateEclipseProjectTasks(eclipseProject, tasksFactory.getTasks(project));
         populateEclipseProject(eclipseProject, xmlProject);
         populateEclipseProjectJdt(eclipseProject, eclipseModel.getJdt());
-
-        for (Project childProject : project.getChildProjects().values()) {
-            populate(childProject);
-        }
     }
 
     private static void populateEclipseProjectTasks(DefaultEclipseProject eclipseProject, Iterable<Task> projectTasks) {
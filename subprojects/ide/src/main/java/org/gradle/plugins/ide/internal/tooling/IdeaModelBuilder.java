@@ -102,10 +102,21 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
                 .setTargetBytecodeVersion(projectTargetBytecodeLevel)
                 .setJdk(DefaultInstalledJdk.current()));
 
+        // The module settings can be calculated from the models of other projects, so are read on this thread.
+        // Only the dependencies of the modules are resolved concurrently
         List<DefaultIdeaModule> ideaModules = Lists.newArrayList();
-        for (IdeaModule module : projectModel.getModules()) {
-            ideaModules.add(createModule(module, out, rootGradleProject));
+        ProjectModelBuildQueue queue = new ProjectModelBuildQueue(project);
+        for (final IdeaModule module : projectModel.getModules()) {
+            final DefaultIdeaModule ideaModule = createModule(module, out, rootGradleProject);
+            ideaModules.add(ideaModule);
+            queue.add(module.getProject(), new Runnable() {
+                @Override
+                public void run() {
+                    buildDependencies(ideaModule, module);
+                }
+            });
         }
+        queue.runAll();
         out.setChildren(new LinkedList<DefaultIdeaModule>(ideaModules));
         return out;
     }
@@ -175,7 +186,6 @@ public class IdeaModelBuilder implements ToolingModelBuilder {
                 .setSourceLanguageLevel(moduleSourceLanguageLevel)
                 .setTargetBytecodeVersion(moduleTargetBytecodeVersion));
         }
-        buildDependencies(defaultIdeaModule, ideaModule);
 
         return defaultIdeaModule;
     }
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.plugins.ide.internal.tooling;
+
+import org.gradle.api.Action;
+import org.gradle.api.Project;
+import org.gradle.api.internal.project.ProjectInternal;
+import org.gradle.api.internal.project.ProjectStateRegistry;
+import org.gradle.internal.operations.BuildOperationContext;
+import org.gradle.internal.operations.BuildOperationDescriptor;
+import org.gradle.internal.operations.BuildOperationExecutor;
+import org.gradle.internal.operations.BuildOperationQueue;
+import org.gradle.internal.operations.RunnableBuildOperation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the parts of a tooling model that belong to individual projects, such as their resolved dependencies.
+ *
+ * <p>When parallel project execution is enabled, the actions for different projects are run concurrently as build operations,
+ * each holding the lock for its project. Otherwise, all projects share a single lock, so the actions are run one after another
+ * on the calling thread. Actions that read the state of other projects must do so while holding the lock of that project, using
+ * {@link org.gradle.api.internal.project.ProjectState#withMutableState(org.gradle.internal.Factory)}.</p>
+ */
+class ProjectModelBuildQueue {
+    private final Project rootProject;
+    private final List<ProjectModelAction> actions = new ArrayList<ProjectModelAction>();
+
+    ProjectModelBuildQueue(Project rootProject) {
+        this.rootProject = rootProject;
+    }
+
+    void add(Project project, Runnable action) {
+        actions.add(new ProjectModelAction(project, action));
+    }
+
+    void runAll() {
+        if (actions.size() < 2 || !rootProject.getGradle().getStartParameter().isParallelProjectExecutionEnabled()) {
+            for (ProjectModelAction action : actions) {
+                action.action.run();
+            }
+            return;
+        }
+
+        ProjectInternal project = (ProjectInternal) rootProject;
+        final ProjectStateRegistry projectStateRegistry = project.getServices().get(ProjectStateRegistry.class);
+        final BuildOperationExecutor buildOperationExecutor = project.getServices().get(BuildOperationExecutor.class);
+        // Tooling models are built with state locking disabled. Enable it again, as the calling thread also runs some of the actions
+        projectStateRegistry.withStrictState(new Runnable() {
+            @Override
+            public void run() {
+                buildOperationExecutor.runAll(new Action<BuildOperationQueue<RunnableBuildOperation>>() {
+                    @Override
+                    public void execute(BuildOperationQueue<RunnableBuildOperation> queue) {
+                        for (ProjectModelAction action : actions) {
+                            queue.add(new BuildProjectModel(action, projectStateRegistry));
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private static class ProjectModelAction {
+        final Project project;
+        final Runnable action;
+
+        ProjectModelAction(Project project, Runnable action) {
+            this.project = project;
+            this.action = action;
+        }
+    }
+
+    private static class BuildProjectModel implements RunnableBuildOperation {
+        private final ProjectModelAction action;
+        private final ProjectStateRegistry projectStateRegistry;
+
+        BuildProjectModel(ProjectModelAction action, ProjectStateRegistry projectStateRegistry) {
+            this.action = action;
+            this.projectStateRegistry = projectStateRegistry;
+        }
+
+        @Override
+        public void run(BuildOperationContext context) {
+            projectStateRegistry.withStrictState(new Runnable() {
+                @Override
+                public void run() {
+                    projectStateRegistry.stateFor(action.project).withMutableState(action.action);
+                }
+            });
+        }
+
+        @Override
+        public BuildOperationDescriptor.Builder description() {
+            return BuildOperationDescriptor.displayName("Build tooling model for " + action.project.getDisplayName());
+        }
+    }
+}
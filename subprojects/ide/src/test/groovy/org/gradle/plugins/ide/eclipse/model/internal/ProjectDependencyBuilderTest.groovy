@@ -15,6 +15,10 @@
  */
 package org.gradle.plugins.ide.eclipse.model.internal
 
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier
+import org.gradle.api.internal.project.ProjectState
+import org.gradle.api.internal.project.ProjectStateRegistry
+import org.gradle.internal.Factory
 import org.gradle.plugins.ide.eclipse.internal.EclipseProjectMetadata
 import org.gradle.plugins.ide.internal.IdeArtifactRegistry
 import org.gradle.test.fixtures.AbstractProjectBuilderSpec
@@ -24,7 +28,12 @@ import static org.gradle.internal.component.local.model.TestComponentIdentifiers
 class ProjectDependencyBuilderTest extends AbstractProjectBuilderSpec {
     def projectId = newProjectId(":nested:project-name")
     def artifactRegistry = Mock(IdeArtifactRegistry)
-    def builder = new ProjectDependencyBuilder(artifactRegistry)
+    def projectRegistry = Stub(ProjectStateRegistry) {
+        stateFor(_ as ProjectComponentIdentifier) >> Stub(ProjectState) {
+            withMutableState(_ as Factory) >> { Factory factory -> factory.create() }
+        }
+    }
+    def builder = new ProjectDependencyBuilder(artifactRegistry, projectRegistry)
 
     def "should create dependency using project name for project without eclipse plugin applied"() {
         when:
@@ -16,6 +16,10 @@
 
 package org.gradle.plugins.ide.idea.model.internal
 
+import org.gradle.api.artifacts.component.ProjectComponentIdentifier
+import org.gradle.api.internal.project.ProjectState
+import org.gradle.api.internal.project.ProjectStateRegistry
+import org.gradle.internal.Factory
 import org.gradle.plugins.ide.idea.internal.IdeaModuleMetadata
 import org.gradle.plugins.ide.internal.IdeArtifactRegistry
 import spock.lang.Specification
@@ -26,7 +30,12 @@ class ModuleDependencyBuilderTest extends Specification {
 
     def projectId = newProjectId(":nested:project-name")
     def artifactRegistry = Mock(IdeArtifactRegistry)
-    def builder = new ModuleDependencyBuilder(artifactRegistry)
+    def projectRegistry = Stub(ProjectStateRegistry) {
+        stateFor(_ as ProjectComponentIdentifier) >> Stub(ProjectState) {
+            withMutableState(_ as Factory) >> { Factory factory -> factory.create() }
+        }
+    }
+    def builder = new ModuleDependencyBuilder(artifactRegistry, projectRegistry)
 
     def "builds dependency for nonIdea project"() {
         when:
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.deps;
+
+import it.unimi.dsi.fastutil.ints.IntSets;
+import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.internal.serialize.InputStreamBackedDecoder;
+import org.gradle.internal.serialize.OutputStreamBackedEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+/**
+ * Calculates the classes to recompile for changes in a large module, where each class depends on a few other classes.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ClassSetAnalysisBenchmark {
+    private static final int PACKAGES = 200;
+    private static final int DEPENDENCIES_PER_CLASS = 5;
+
+    @Param("20000")
+    int classCount;
+
+    private final ClassSetAnalysisData.Serializer serializer = new ClassSetAnalysisData.Serializer(new StringInterner());
+    private ClassSetAnalysis analysis;
+    private byte[] serializedData;
+    private int nextClass;
+
+    @Setup
+    public void setup() throws Exception {
+        Random random = new Random(42);
+        ClassDependentsAccumulator accumulator = new ClassDependentsAccumulator();
+        for (int i = 0; i < classCount; i++) {
+            String[] dependencies = new String[DEPENDENCIES_PER_CLASS];
+            for (int j = 0; j < DEPENDENCIES_PER_CLASS; j++) {
+                // Depend mostly on classes with a lower number, as in a layered code base
+                dependencies[j] = className(random.nextInt(i + 1));
+            }
+            accumulator.addClass(className(i), false, Arrays.asList(dependencies), IntSets.EMPTY_SET, Collections.<String>emptySet());
+        }
+        for (int i = 0; i < PACKAGES; i++) {
+            accumulator.addClass(packageName(i) + "." + ClassSetAnalysisData.PACKAGE_INFO, false, Collections.<String>emptySet(), IntSets.EMPTY_SET, Collections.<String>emptySet());
+        }
+        ClassSetAnalysisData data = accumulator.getAnalysis();
+        analysis = new ClassSetAnalysis(data);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputStreamBackedEncoder encoder = new OutputStreamBackedEncoder(outputStream);
+        serializer.write(encoder, data);
+        encoder.flush();
+        serializedData = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public DependentsSet dependentsOfChangedClass() {
+        return analysis.getRelevantDependents(className(nextClass()), IntSets.EMPTY_SET);
+    }
+
+    @Benchmark
+    public DependentsSet dependentsOfChangedPackageInfo() {
+        return analysis.getRelevantDependents(packageName(nextClass() % PACKAGES) + "." + ClassSetAnalysisData.PACKAGE_INFO, IntSets.EMPTY_SET);
+    }
+
+    @Benchmark
+    public DependentsSet dependentsAfterLoadingAnalysis() throws Exception {
+        ClassSetAnalysisData data = serializer.read(new InputStreamBackedDecoder(new ByteArrayInputStream(serializedData)));
+        return new ClassSetAnalysis(data).getRelevantDependents(className(nextClass()), IntSets.EMPTY_SET);
+    }
+
+    private int nextClass() {
+        nextClass = (nextClass + 7919) % classCount;
+        return nextClass;
+    }
+
+    private static String className(int index) {
+        return packageName(index % PACKAGES) + ".Class" + index;
+    }
+
+    private static String packageName(int index) {
+        return "org.gradle.benchmark.p" + index;
+    }
+}
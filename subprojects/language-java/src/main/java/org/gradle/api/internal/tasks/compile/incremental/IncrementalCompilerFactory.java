@@ -22,10 +22,9 @@ import org.gradle.api.internal.file.FileOperations;
 import org.gradle.api.internal.file.FileTreeInternal;
 import org.gradle.api.internal.tasks.compile.CleaningJavaCompiler;
 import org.gradle.api.internal.tasks.compile.JavaCompileSpec;
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.CachingClassDependenciesAnalyzer;
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
 import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassDependenciesAnalyzer;
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.DefaultClassDependenciesAnalyzer;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassFileAnalysisIndex;
+import org.gradle.api.internal.tasks.compile.incremental.analyzer.IndexedClassDependenciesAnalyzer;
 import org.gradle.api.internal.tasks.compile.incremental.cache.GeneralCompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.cache.TaskScopedCompileCaches;
 import org.gradle.api.internal.tasks.compile.incremental.classpath.CachingClasspathEntrySnapshotter;
@@ -55,8 +54,9 @@ public class IncrementalCompilerFactory {
     private final StringInterner interner;
     private final FileSystemSnapshotter fileSystemSnapshotter;
     private final FileHasher fileHasher;
+    private final ClassFileAnalysisIndex classFileAnalysisIndex;
 
-    public IncrementalCompilerFactory(FileOperations fileOperations, StreamHasher streamHasher, GeneralCompileCaches generalCompileCaches, BuildOperationExecutor buildOperationExecutor, StringInterner interner, FileSystemSnapshotter fileSystemSnapshotter, FileHasher fileHasher) {
+    public IncrementalCompilerFactory(FileOperations fileOperations, StreamHasher streamHasher, GeneralCompileCaches generalCompileCaches, BuildOperationExecutor buildOperationExecutor, StringInterner interner, FileSystemSnapshotter fileSystemSnapshotter, FileHasher fileHasher, ClassFileAnalysisIndex classFileAnalysisIndex) {
         this.fileOperations = fileOperations;
         this.streamHasher = streamHasher;
         this.generalCompileCaches = generalCompileCaches;
@@ -64,12 +64,13 @@ public class IncrementalCompilerFactory {
         this.interner = interner;
         this.fileSystemSnapshotter = fileSystemSnapshotter;
         this.fileHasher = fileHasher;
+        this.classFileAnalysisIndex = classFileAnalysisIndex;
     }
 
     public Compiler<JavaCompileSpec> makeIncremental(CleaningJavaCompiler cleaningJavaCompiler, String taskPath, IncrementalTaskInputs inputs, FileTree sources) {
         TaskScopedCompileCaches compileCaches = createCompileCaches(taskPath);
         Compiler<JavaCompileSpec> rebuildAllCompiler = createRebuildAllCompiler(cleaningJavaCompiler, sources);
-        ClassDependenciesAnalyzer analyzer = new CachingClassDependenciesAnalyzer(new DefaultClassDependenciesAnalyzer(interner), compileCaches.getClassAnalysisCache());
+        ClassDependenciesAnalyzer analyzer = new IndexedClassDependenciesAnalyzer(classFileAnalysisIndex);
         ClasspathEntrySnapshotter classpathEntrySnapshotter = new CachingClasspathEntrySnapshotter(fileHasher, streamHasher, fileSystemSnapshotter, analyzer, compileCaches.getClasspathEntrySnapshotCache(), fileOperations);
         ClasspathSnapshotMaker classpathSnapshotMaker = new ClasspathSnapshotMaker(new ClasspathSnapshotFactory(classpathEntrySnapshotter, buildOperationExecutor));
         CompilationSourceDirs sourceDirs = new CompilationSourceDirs((FileTreeInternal) sources);
@@ -84,11 +85,6 @@ public class IncrementalCompilerFactory {
     private TaskScopedCompileCaches createCompileCaches(String path) {
         final PreviousCompilationStore previousCompilationStore = generalCompileCaches.createPreviousCompilationStore(path);
         return new TaskScopedCompileCaches() {
-            @Override
-            public ClassAnalysisCache getClassAnalysisCache() {
-                return generalCompileCaches.getClassAnalysisCache();
-            }
-
             @Override
             public ClasspathEntrySnapshotCache getClasspathEntrySnapshotCache() {
                 return generalCompileCaches.getClasspathEntrySnapshotCache();
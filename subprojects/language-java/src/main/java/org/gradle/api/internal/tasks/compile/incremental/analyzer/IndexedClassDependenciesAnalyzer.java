@@ -0,0 +1,63 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.compile.incremental.analyzer;
+
+import com.google.common.io.ByteStreams;
+import org.gradle.api.UncheckedIOException;
+import org.gradle.api.file.FileTreeElement;
+import org.gradle.api.internal.tasks.compile.incremental.deps.ClassAnalysis;
+import org.gradle.internal.Factory;
+import org.gradle.internal.hash.HashCode;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Looks up the analysis of class files in the shared {@link ClassFileAnalysisIndex}, so that class files that have already been analyzed for another
+ * project or build are not analyzed again.
+ */
+public class IndexedClassDependenciesAnalyzer implements ClassDependenciesAnalyzer {
+    private final ClassFileAnalysisIndex index;
+
+    public IndexedClassDependenciesAnalyzer(ClassFileAnalysisIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public ClassAnalysis getClassAnalysis(HashCode classFileHash, final FileTreeElement classFile) {
+        try {
+            return index.getClassAnalysis(classFileHash, new Factory<byte[]>() {
+                @Override
+                public byte[] create() {
+                    try {
+                        InputStream input = classFile.open();
+                        try {
+                            return ByteStreams.toByteArray(input);
+                        } finally {
+                            input.close();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("Problems loading class analysis for " + classFile.toString(), e);
+        }
+    }
+}
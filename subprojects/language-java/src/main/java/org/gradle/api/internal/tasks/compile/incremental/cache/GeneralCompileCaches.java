@@ -27,6 +27,10 @@ import org.gradle.api.internal.tasks.compile.incremental.recomp.PreviousCompilat
  * and some community plugins still depend on it in their byte code.
  */
 public interface GeneralCompileCaches {
+    /**
+     * No longer used by incremental compilation, which uses the shared class file analysis index instead. Retained for the same reason as this class,
+     * and does not cache anything.
+     */
     ClassAnalysisCache getClassAnalysisCache();
 
     ClasspathEntrySnapshotCache getClasspathEntrySnapshotCache();
@@ -16,13 +16,10 @@
 
 package org.gradle.api.internal.tasks.compile.incremental.cache;
 
-import org.gradle.api.internal.tasks.compile.incremental.analyzer.ClassAnalysisCache;
 import org.gradle.api.internal.tasks.compile.incremental.classpath.ClasspathEntrySnapshotCache;
 import org.gradle.api.internal.tasks.compile.incremental.recomp.PreviousCompilationStore;
 
 public interface TaskScopedCompileCaches {
-    ClassAnalysisCache getClassAnalysisCache();
-
     ClasspathEntrySnapshotCache getClasspathEntrySnapshotCache();
 
     PreviousCompilationStore getPreviousCompilationStore();
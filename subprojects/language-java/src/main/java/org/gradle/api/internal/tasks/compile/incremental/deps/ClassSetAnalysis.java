@@ -22,6 +22,8 @@ import com.google.common.collect.Sets;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import org.gradle.api.internal.tasks.compile.incremental.processing.AnnotationProcessingData;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -90,8 +92,7 @@ public class ClassSetAnalysis {
             return deps;
         }
         Set<String> result = new HashSet<String>();
-        recurseDependents(new HashSet<String>(), result, deps.getDependentClasses());
-        recurseDependents(new HashSet<String>(), result, dependingOnAllOthers);
+        new TransitiveDependentsCollector(result).collect(deps.getDependentClasses()).collect(dependingOnAllOthers);
         result.remove(className);
         return DependentsSet.dependents(result);
     }
@@ -104,21 +105,6 @@ public class ClassSetAnalysis {
         return classAnalysis.getDependents(className).isDependencyToAll();
     }
 
-    private void recurseDependents(Set<String> visited, Set<String> result, Iterable<String> dependentClasses) {
-        for (String d : dependentClasses) {
-            if (!visited.add(d)) {
-                continue;
-            }
-            if (!isNestedClass(d)) {
-                result.add(d);
-            }
-            DependentsSet currentDependents = getDependents(d);
-            if (!currentDependents.isDependencyToAll()) {
-                recurseDependents(visited, result, currentDependents.getDependentClasses());
-            }
-        }
-    }
-
     private DependentsSet getDependents(String className) {
         DependentsSet dependents = classAnalysis.getDependents(className);
         if (dependents.isDependencyToAll()) {
@@ -138,4 +124,75 @@ public class ClassSetAnalysis {
     public IntSet getConstants(String className) {
         return classAnalysis.getConstants(className);
     }
+
+    /**
+     * Walks the dependents of classes using the integer class ids of the analysis, falling back to class names only for classes that are known
+     * from annotation processing alone.
+     */
+    private class TransitiveDependentsCollector {
+        private final Set<String> result;
+        private final BitSet visited = new BitSet();
+        private final Set<String> visitedWithoutId = new HashSet<String>();
+        private int[] pending = new int[16];
+        private int pendingCount;
+
+        TransitiveDependentsCollector(Set<String> result) {
+            this.result = result;
+        }
+
+        TransitiveDependentsCollector collect(Iterable<String> dependentClasses) {
+            for (String dependentClass : dependentClasses) {
+                visit(dependentClass);
+            }
+            while (pendingCount > 0) {
+                int classId = pending[--pendingCount];
+                String className = classAnalysis.getClassName(classId);
+                addToResult(className);
+                if (classAnalysis.isDependencyToAll(classId)) {
+                    continue;
+                }
+                for (int dependentId : classAnalysis.getDependentIds(classId)) {
+                    visit(dependentId);
+                }
+                visitDependentsFromAnnotationProcessing(className);
+            }
+            return this;
+        }
+
+        private void visit(String className) {
+            int classId = classAnalysis.getClassId(className);
+            if (classId >= 0) {
+                visit(classId);
+            } else if (visitedWithoutId.add(className)) {
+                addToResult(className);
+                visitDependentsFromAnnotationProcessing(className);
+            }
+        }
+
+        private void visit(int classId) {
+            if (visited.get(classId)) {
+                return;
+            }
+            visited.set(classId);
+            if (pendingCount == pending.length) {
+                pending = Arrays.copyOf(pending, pendingCount * 2);
+            }
+            pending[pendingCount++] = classId;
+        }
+
+        private void visitDependentsFromAnnotationProcessing(String className) {
+            if (dependenciesFromAnnotationProcessing.isEmpty()) {
+                return;
+            }
+            for (String dependentClass : dependenciesFromAnnotationProcessing.get(className)) {
+                visit(dependentClass);
+            }
+        }
+
+        private void addToResult(String className) {
+            if (!isNestedClass(className)) {
+                result.add(className);
+            }
+        }
+    }
 }
@@ -18,10 +18,8 @@ package org.gradle.api.internal.tasks.compile.incremental.deps;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Sets;
 import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.ints.IntSets;
-import org.apache.commons.lang.StringUtils;
 import org.gradle.api.internal.cache.StringInterner;
 import org.gradle.internal.serialize.AbstractSerializer;
 import org.gradle.internal.serialize.Decoder;
@@ -29,8 +27,13 @@ import org.gradle.internal.serialize.Encoder;
 import org.gradle.internal.serialize.IntSetSerializer;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -42,6 +45,7 @@ public class ClassSetAnalysisData {
     private final Map<String, IntSet> classesToConstants;
     private final Map<String, Set<String>> classesToChildren;
     private final String fullRebuildCause;
+    private volatile Index index;
 
     public ClassSetAnalysisData(Set<String> classes, Map<String, DependentsSet> dependents, Map<String, IntSet> classesToConstants, Map<String, Set<String>> classesToChildren, String fullRebuildCause) {
         this.classes = classes;
@@ -56,22 +60,57 @@ public class ClassSetAnalysisData {
             return DependentsSet.dependencyToAll(fullRebuildCause);
         }
         if (className.endsWith(PACKAGE_INFO)) {
-            String packageName = className.equals(PACKAGE_INFO) ? null : StringUtils.removeEnd(className, "." + PACKAGE_INFO);
-            return getDependentsOfPackage(packageName);
+            return getDependentsOfPackage(packageNameOf(className));
         }
         DependentsSet dependentsSet = dependents.get(className);
         return dependentsSet == null ? DependentsSet.empty() : dependentsSet;
     }
 
     private DependentsSet getDependentsOfPackage(String packageName) {
-        Set<String> typesInPackage = Sets.newHashSet();
-        for (String type : classes) {
-            int i = type.lastIndexOf(".");
-            if (i < 0 && packageName == null || i > 0 && type.substring(0, i).equals(packageName)) {
-                typesInPackage.add(type);
+        DependentsSet typesInPackage = getIndex().typesByPackage.get(packageName);
+        return typesInPackage == null ? DependentsSet.empty() : typesInPackage;
+    }
+
+    /**
+     * Returns the id of the given class in this analysis, or -1 when the class is not known to this analysis.
+     */
+    int getClassId(String className) {
+        Integer id = getIndex().classIds.get(className);
+        return id == null ? -1 : id;
+    }
+
+    String getClassName(int classId) {
+        return getIndex().classNames[classId];
+    }
+
+    boolean isDependencyToAll(int classId) {
+        return getIndex().dependencyToAll.get(classId);
+    }
+
+    /**
+     * Returns the ids of the direct dependents of the given class, which must not be a dependency to all.
+     */
+    int[] getDependentIds(int classId) {
+        return getIndex().dependentIds[classId];
+    }
+
+    private Index getIndex() {
+        Index index = this.index;
+        if (index == null) {
+            synchronized (this) {
+                index = this.index;
+                if (index == null) {
+                    index = new Index();
+                    this.index = index;
+                }
             }
         }
-        return DependentsSet.dependents(typesInPackage);
+        return index;
+    }
+
+    private static String packageNameOf(String className) {
+        int i = className.lastIndexOf('.');
+        return i < 0 ? "" : className.substring(0, i);
     }
 
     public IntSet getConstants(String className) {
@@ -87,6 +126,83 @@ public class ClassSetAnalysisData {
         return children == null ? Collections.<String>emptySet() : children;
     }
 
+    /**
+     * Assigns an integer id to each class mentioned by this analysis, so that dependents can be walked using bit sets, and groups the classes by package.
+     */
+    private class Index {
+        private final Map<String, Integer> classIds = new HashMap<String, Integer>();
+        private final String[] classNames;
+        private final int[][] dependentIds;
+        private final BitSet dependencyToAll = new BitSet();
+        private final Map<String, DependentsSet> typesByPackage;
+
+        Index() {
+            List<String> names = new ArrayList<String>();
+            for (String className : classes) {
+                assignId(className, names);
+            }
+            for (Map.Entry<String, DependentsSet> entry : dependents.entrySet()) {
+                assignId(entry.getKey(), names);
+                if (!entry.getValue().isDependencyToAll()) {
+                    for (String dependent : entry.getValue().getDependentClasses()) {
+                        assignId(dependent, names);
+                    }
+                }
+            }
+            classNames = names.toArray(new String[0]);
+
+            Map<String, Set<String>> packages = new HashMap<String, Set<String>>();
+            for (String className : classes) {
+                String packageName = packageNameOf(className);
+                Set<String> typesInPackage = packages.get(packageName);
+                if (typesInPackage == null) {
+                    typesInPackage = new HashSet<String>();
+                    packages.put(packageName, typesInPackage);
+                }
+                typesInPackage.add(className);
+            }
+            ImmutableMap.Builder<String, DependentsSet> typesByPackage = ImmutableMap.builder();
+            for (Map.Entry<String, Set<String>> entry : packages.entrySet()) {
+                typesByPackage.put(entry.getKey(), DependentsSet.dependents(entry.getValue()));
+            }
+            this.typesByPackage = typesByPackage.build();
+
+            dependentIds = new int[classNames.length][];
+            for (int id = 0; id < classNames.length; id++) {
+                DependentsSet dependentsSet = getDirectDependents(classNames[id]);
+                if (dependentsSet.isDependencyToAll()) {
+                    dependencyToAll.set(id);
+                } else {
+                    dependentIds[id] = toIds(dependentsSet.getDependentClasses());
+                }
+            }
+        }
+
+        private DependentsSet getDirectDependents(String className) {
+            DependentsSet dependentsSet = className.endsWith(PACKAGE_INFO) ? typesByPackage.get(packageNameOf(className)) : dependents.get(className);
+            return dependentsSet == null ? DependentsSet.empty() : dependentsSet;
+        }
+
+        private void assignId(String className, List<String> names) {
+            if (!classIds.containsKey(className)) {
+                classIds.put(className, names.size());
+                names.add(className);
+            }
+        }
+
+        private int[] toIds(Set<String> names) {
+            int[] ids = new int[names.size()];
+            int i = 0;
+            for (String className : names) {
+                ids[i++] = classIds.get(className);
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Writes each class name once, in a table at the start of the data, and refers to classes by their index in the table everywhere else.
+     */
     public static class Serializer extends AbstractSerializer<ClassSetAnalysisData> {
 
         private final StringInterner interner;
@@ -97,26 +213,30 @@ public class ClassSetAnalysisData {
 
         @Override
         public ClassSetAnalysisData read(Decoder decoder) throws Exception {
-            Map<Integer, String> classNameMap = new HashMap<Integer, String>();
-
             int count = decoder.readSmallInt();
+            String[] classNames = new String[count];
+            for (int i = 0; i < count; i++) {
+                classNames[i] = interner.intern(decoder.readString());
+            }
+
+            count = decoder.readSmallInt();
             ImmutableSet.Builder<String> classes = ImmutableSet.builder();
             for (int i = 0; i < count; i++) {
-                classes.add(readClassName(decoder, classNameMap));
+                classes.add(readClassName(decoder, classNames));
             }
 
             count = decoder.readSmallInt();
             ImmutableMap.Builder<String, DependentsSet> dependentsBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
-                DependentsSet dependents = readDependentsSet(decoder, classNameMap);
+                String className = readClassName(decoder, classNames);
+                DependentsSet dependents = readDependentsSet(decoder, classNames);
                 dependentsBuilder.put(className, dependents);
             }
 
             count = decoder.readSmallInt();
             ImmutableMap.Builder<String, IntSet> classesToConstantsBuilder = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String className = readClassName(decoder, classNameMap);
+                String className = readClassName(decoder, classNames);
                 IntSet constants = IntSetSerializer.INSTANCE.read(decoder);
                 classesToConstantsBuilder.put(className, constants);
             }
@@ -124,13 +244,8 @@ public class ClassSetAnalysisData {
             count = decoder.readSmallInt();
             ImmutableMap.Builder<String, Set<String>> classNameToChildren = ImmutableMap.builder();
             for (int i = 0; i < count; i++) {
-                String parent = readClassName(decoder, classNameMap);
-                int nameCount = decoder.readSmallInt();
-                ImmutableSet.Builder<String> namesBuilder = ImmutableSet.builder();
-                for (int j = 0; j < nameCount; j++) {
-                    namesBuilder.add(readClassName(decoder, classNameMap));
-                }
-                classNameToChildren.put(parent, namesBuilder.build());
+                String parent = readClassName(decoder, classNames);
+                classNameToChildren.put(parent, readClassNames(decoder, classNames));
             }
 
             String fullRebuildCause = decoder.readNullableString();
@@ -140,84 +255,107 @@ public class ClassSetAnalysisData {
 
         @Override
         public void write(Encoder encoder, ClassSetAnalysisData value) throws Exception {
-            Map<String, Integer> classNameMap = new HashMap<String, Integer>();
+            Map<String, Integer> classIds = collectClassIds(value);
+            encoder.writeSmallInt(classIds.size());
+            for (String className : classIds.keySet()) {
+                encoder.writeString(className);
+            }
+
             encoder.writeSmallInt(value.classes.size());
             for (String clazz : value.classes) {
-                writeClassName(clazz, classNameMap, encoder);
+                writeClassName(clazz, classIds, encoder);
             }
 
             encoder.writeSmallInt(value.dependents.size());
             for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                writeDependentSet(entry.getValue(), classNameMap, encoder);
+                writeClassName(entry.getKey(), classIds, encoder);
+                writeDependentSet(entry.getValue(), classIds, encoder);
             }
 
             encoder.writeSmallInt(value.classesToConstants.size());
             for (Map.Entry<String, IntSet> entry : value.classesToConstants.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
+                writeClassName(entry.getKey(), classIds, encoder);
                 IntSetSerializer.INSTANCE.write(encoder, entry.getValue());
             }
 
             encoder.writeSmallInt(value.classesToChildren.size());
             for (Map.Entry<String, Set<String>> entry : value.classesToChildren.entrySet()) {
-                writeClassName(entry.getKey(), classNameMap, encoder);
-                encoder.writeSmallInt(entry.getValue().size());
-                for (String className : entry.getValue()) {
-                    writeClassName(className, classNameMap, encoder);
-                }
+                writeClassName(entry.getKey(), classIds, encoder);
+                writeClassNames(entry.getValue(), classIds, encoder);
             }
 
             encoder.writeNullableString(value.fullRebuildCause);
         }
 
-        private DependentsSet readDependentsSet(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
+        private static Map<String, Integer> collectClassIds(ClassSetAnalysisData value) {
+            Map<String, Integer> classIds = new LinkedHashMap<String, Integer>();
+            collectClassIds(value.classes, classIds);
+            for (Map.Entry<String, DependentsSet> entry : value.dependents.entrySet()) {
+                collectClassId(entry.getKey(), classIds);
+                if (!entry.getValue().isDependencyToAll()) {
+                    collectClassIds(entry.getValue().getDependentClasses(), classIds);
+                }
+            }
+            collectClassIds(value.classesToConstants.keySet(), classIds);
+            for (Map.Entry<String, Set<String>> entry : value.classesToChildren.entrySet()) {
+                collectClassId(entry.getKey(), classIds);
+                collectClassIds(entry.getValue(), classIds);
+            }
+            return classIds;
+        }
+
+        private static void collectClassIds(Iterable<String> classNames, Map<String, Integer> classIds) {
+            for (String className : classNames) {
+                collectClassId(className, classIds);
+            }
+        }
+
+        private static void collectClassId(String className, Map<String, Integer> classIds) {
+            if (!classIds.containsKey(className)) {
+                classIds.put(className, classIds.size());
+            }
+        }
+
+        private DependentsSet readDependentsSet(Decoder decoder, String[] classNames) throws IOException {
             byte b = decoder.readByte();
             if (b == 1) {
                 return DependentsSet.dependencyToAll(decoder.readNullableString());
             }
-            int count = decoder.readSmallInt();
-            ImmutableSet.Builder<String> builder = ImmutableSet.builder();
-            for (int i = 0; i < count; i++) {
-                builder.add(readClassName(decoder, classNameMap));
-            }
-            return DependentsSet.dependents(builder.build());
+            return DependentsSet.dependents(readClassNames(decoder, classNames));
         }
 
-        private void writeDependentSet(DependentsSet dependentsSet, Map<String, Integer> classNameMap, Encoder encoder) throws IOException {
+        private void writeDependentSet(DependentsSet dependentsSet, Map<String, Integer> classIds, Encoder encoder) throws IOException {
             if (dependentsSet.isDependencyToAll()) {
                 encoder.writeByte((byte) 1);
                 encoder.writeNullableString(dependentsSet.getDescription());
             } else {
                 encoder.writeByte((byte) 2);
-                encoder.writeSmallInt(dependentsSet.getDependentClasses().size());
-                for (String className : dependentsSet.getDependentClasses()) {
-                    writeClassName(className, classNameMap, encoder);
-                }
+                writeClassNames(dependentsSet.getDependentClasses(), classIds, encoder);
             }
         }
 
-        private String readClassName(Decoder decoder, Map<Integer, String> classNameMap) throws IOException {
-            int id = decoder.readSmallInt();
-            if (id == 0) {
-                id = decoder.readSmallInt();
-                String className = interner.intern(decoder.readString());
-                classNameMap.put(id, className);
-                return className;
+        private Set<String> readClassNames(Decoder decoder, String[] classNames) throws IOException {
+            int count = decoder.readSmallInt();
+            ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+            for (int i = 0; i < count; i++) {
+                builder.add(readClassName(decoder, classNames));
             }
-            return classNameMap.get(id);
+            return builder.build();
         }
 
-        private void writeClassName(String className, Map<String, Integer> classIdMap, Encoder encoder) throws IOException {
-            Integer id = classIdMap.get(className);
-            if (id == null) {
-                id = classIdMap.size() + 1;
-                classIdMap.put(className, id);
-                encoder.writeSmallInt(0);
-                encoder.writeSmallInt(id);
-                encoder.writeString(className);
-            } else {
-                encoder.writeSmallInt(id);
+        private void writeClassNames(Set<String> names, Map<String, Integer> classIds, Encoder encoder) throws IOException {
+            encoder.writeSmallInt(names.size());
+            for (String className : names) {
+                writeClassName(className, classIds, encoder);
             }
         }
+
+        private String readClassName(Decoder decoder, String[] classNames) throws IOException {
+            return classNames[decoder.readSmallInt()];
+        }
+
+        private void writeClassName(String className, Map<String, Integer> classIds, Encoder encoder) throws IOException {
+            encoder.writeSmallInt(classIds.get(className));
+        }
     }
 }
@@ -113,6 +113,35 @@ class ClassSetAnalysisTest extends Specification {
         deps.dependentClasses == ["Bar", "Baz"] as Set
     }
 
+    def "types in the package of a changed package-info are dependents"() {
+        def a = analysis([
+            "org.foo.package-info": dependents(),
+            "org.foo.A": dependents(),
+            "org.foo.B": dependents("org.bar.C"),
+            "org.bar.C": dependents(),
+            "org.foo.sub.D": dependents(),
+            "E": dependents(),
+        ])
+
+        expect:
+        a.getRelevantDependents("org.foo.package-info", IntSets.EMPTY_SET).dependentClasses == ["org.foo.A", "org.foo.B", "org.bar.C"] as Set
+        a.getRelevantDependents("package-info", IntSets.EMPTY_SET).dependentClasses == ["E"] as Set
+        a.getRelevantDependents("org.baz.package-info", IntSets.EMPTY_SET).dependentClasses == [] as Set
+    }
+
+    def "recurses through dependent package-info"() {
+        def a = analysis([
+            "org.foo.Annotation": dependents("org.foo.package-info"),
+            "org.foo.package-info": dependents(),
+            "org.foo.A": dependents("B"),
+            "B": dependents(),
+        ])
+        def deps = a.getRelevantDependents("org.foo.Annotation", IntSets.EMPTY_SET)
+
+        expect:
+        deps.dependentClasses == ["org.foo.package-info", "org.foo.A", "B"] as Set
+    }
+
     def "recurses but filters out inner classes"() {
         def a = analysis([
             "a": dependents('a$b', 'c'),
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.gradle.api.internal.file.FileCollectionInternal;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.hash.HashCode;
+import org.gradle.internal.hash.Hashing;
+import org.gradle.internal.snapshot.FileSystemLocationSnapshot;
+import org.gradle.internal.snapshot.FileSystemSnapshot;
+import org.gradle.internal.snapshot.FileSystemSnapshotter;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.CSourceParser;
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.RegexBackedCSourceParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Analyses the include file graphs of the sources of many compile tasks that share a deep hierarchy of headers, either with each task
+ * analysing the headers itself or sharing the analysis between the tasks. Headers are parsed once, as done by the persistent parser cache, and hashed once.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class IncludeAnalysisBenchmark {
+    private static final int TASKS = 20;
+    private static final int SOURCES_PER_TASK = 20;
+    private static final int LEVELS = 8;
+    private static final int HEADERS_PER_LEVEL = 20;
+
+    private final FileSystemSnapshotter fileSystemSnapshotter = new HashingFileSystemSnapshotter();
+    private final CSourceParser sourceParser = new ParsedOnceSourceParser();
+    private File rootDir;
+    private List<File> includePath;
+    private List<List<File>> sourcesPerTask;
+
+    @Setup
+    public void setup() throws IOException {
+        rootDir = Files.createTempDir();
+        File includeDir = new File(rootDir, "include");
+        // Each header includes all headers of the next level, so the graph is deep and shared by all sources
+        for (int level = 0; level < LEVELS; level++) {
+            for (int i = 0; i < HEADERS_PER_LEVEL; i++) {
+                StringBuilder content = new StringBuilder();
+                if (level < LEVELS - 1) {
+                    for (int j = 0; j < HEADERS_PER_LEVEL; j++) {
+                        content.append("#include <").append(header(level + 1, j)).append(">\n");
+                    }
+                }
+                write(new File(includeDir, header(level, i)), content.toString());
+            }
+        }
+        includePath = ImmutableList.of(includeDir);
+        sourcesPerTask = new ArrayList<List<File>>(TASKS);
+        for (int task = 0; task < TASKS; task++) {
+            List<File> sources = new ArrayList<File>(SOURCES_PER_TASK);
+            for (int i = 0; i < SOURCES_PER_TASK; i++) {
+                File source = new File(rootDir, "task" + task + "/src/source" + i + ".c");
+                write(source, "#include \"local.h\"\n#include <" + header(0, i % HEADERS_PER_LEVEL) + ">\n");
+                sources.add(source);
+            }
+            write(new File(rootDir, "task" + task + "/src/local.h"), "#include <" + header(0, task % HEADERS_PER_LEVEL) + ">\n");
+            sourcesPerTask.add(sources);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        deleteRecursively(rootDir);
+    }
+
+    @Benchmark
+    public int analyseEachTask() {
+        int headers = 0;
+        for (List<File> sources : sourcesPerTask) {
+            DefaultSourceIncludesResolver resolver = new DefaultSourceIncludesResolver(includePath, fileSystemSnapshotter);
+            IncrementalCompileFilesFactory factory = new IncrementalCompileFilesFactory(IncludeDirectives.EMPTY, new DefaultSourceIncludesParser(sourceParser, false), resolver, fileSystemSnapshotter);
+            headers += analyse(factory, sources);
+        }
+        return headers;
+    }
+
+    @Benchmark
+    public int analyseWithSharedCache() {
+        IncludeAnalysisCache cache = new IncludeAnalysisCache(fileSystemSnapshotter);
+        int headers = 0;
+        for (List<File> sources : sourcesPerTask) {
+            DefaultSourceIncludesResolver resolver = new DefaultSourceIncludesResolver(includePath, cache);
+            IncrementalCompileFilesFactory factory = new IncrementalCompileFilesFactory(IncludeDirectives.EMPTY, new DefaultSourceIncludesParser(sourceParser, false), resolver, fileSystemSnapshotter, cache.getVisitResults(includePath, false));
+            headers += analyse(factory, sources);
+        }
+        return headers;
+    }
+
+    private static int analyse(IncrementalCompileFilesFactory factory, List<File> sources) {
+        IncementalCompileSourceProcessor processor = factory.files(null);
+        for (File source : sources) {
+            processor.processSource(source);
+        }
+        return processor.getResult().getExistingHeaders().size();
+    }
+
+    private static String header(int level, int index) {
+        return "level" + level + "/header" + index + ".h";
+    }
+
+    private static void write(File file, String content) throws IOException {
+        Files.createParentDirs(file);
+        Files.write(content, file, Charset.forName("UTF-8"));
+    }
+
+    private static void deleteRecursively(File file) throws IOException {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        if (!file.delete()) {
+            throw new IOException("Could not delete " + file);
+        }
+    }
+
+    private static class ParsedOnceSourceParser implements CSourceParser {
+        private final CSourceParser delegate = new RegexBackedCSourceParser();
+        private final ConcurrentMap<File, IncludeDirectives> parsed = new ConcurrentHashMap<File, IncludeDirectives>();
+
+        @Override
+        public IncludeDirectives parseSource(File sourceFile) {
+            IncludeDirectives includeDirectives = parsed.get(sourceFile);
+            if (includeDirectives == null) {
+                includeDirectives = delegate.parseSource(sourceFile);
+                parsed.put(sourceFile, includeDirectives);
+            }
+            return includeDirectives;
+        }
+    }
+
+    /**
+     * Hashes each file once, as done by the file system mirror.
+     */
+    private static class HashingFileSystemSnapshotter implements FileSystemSnapshotter {
+        private final ConcurrentMap<File, Optional<HashCode>> hashes = new ConcurrentHashMap<File, Optional<HashCode>>();
+
+        @Nullable
+        @Override
+        public HashCode getRegularFileContentHash(File file) {
+            Optional<HashCode> hash = hashes.get(file);
+            if (hash == null) {
+                hash = Optional.fromNullable(file.isFile() ? hash(file) : null);
+                hashes.put(file, hash);
+            }
+            return hash.orNull();
+        }
+
+        private static HashCode hash(File file) {
+            try {
+                return Hashing.hashBytes(Files.toByteArray(file));
+            } catch (IOException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        @Override
+        public FileSystemLocationSnapshot snapshot(File file) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<FileSystemSnapshot> snapshot(FileCollectionInternal fileCollection) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
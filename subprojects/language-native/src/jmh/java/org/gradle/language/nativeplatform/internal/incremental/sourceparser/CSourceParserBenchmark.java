@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+import com.google.common.io.Files;
+import org.gradle.language.nativeplatform.internal.IncludeDirectives;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+
+/**
+ * Parses a large generated header, where few lines are directives, either by scanning for directive lines or by reading every line.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class CSourceParserBenchmark {
+    private static final int DECLARATIONS = 20000;
+
+    private final RegexBackedCSourceParser parser = new RegexBackedCSourceParser();
+    private File header;
+
+    @Setup
+    public void setup() throws IOException {
+        header = File.createTempFile("generated", ".h");
+        StringBuilder content = new StringBuilder();
+        content.append("#ifndef GENERATED_H\n#define GENERATED_H\n#include <stdint.h>\n#include \"base.h\"\n");
+        for (int i = 0; i < DECLARATIONS; i++) {
+            content.append("/**\n * Returns field ").append(i).append(" of the message.\n */\n");
+            content.append("inline int32_t message_field_").append(i).append("(const Message* message) { return message->field_").append(i).append("; }\n");
+            if (i % 1000 == 0) {
+                content.append("#define FIELD_").append(i).append("_NUMBER ").append(i).append('\n');
+            }
+        }
+        content.append("#endif\n");
+        Files.write(content, header, Charset.defaultCharset());
+    }
+
+    @TearDown
+    public void tearDown() {
+        header.delete();
+    }
+
+    @Benchmark
+    public IncludeDirectives scanDirectiveLines() {
+        return parser.parseSource(header);
+    }
+
+    @Benchmark
+    public IncludeDirectives readAllLines() throws IOException {
+        try (Reader reader = new FileReader(header)) {
+            return parser.parseSource(reader);
+        }
+    }
+}
@@ -82,7 +82,10 @@ public class CollectingMacroLookup implements MacroLookup {
         }
     }
 
-    private void collectAll() {
+    /**
+     * Collects the macros of all sources appended so far. Once this has been called, and no further sources are appended, this lookup is no longer modified when it is read.
+     */
+    void collectAll() {
         while (!uncollected.isEmpty()) {
             MacroSource source = uncollected.remove(0);
             source.collectInto(this);
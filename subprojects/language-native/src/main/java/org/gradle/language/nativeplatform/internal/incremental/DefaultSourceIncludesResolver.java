@@ -39,15 +39,20 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     private static final MissingIncludeFile MISSING_INCLUDE_FILE = new MissingIncludeFile();
-    private final FileSystemSnapshotter fileSystemSnapshotter;
-    private final Map<File, DirectoryContents> includeRoots = new HashMap<File, DirectoryContents>();
+    private final IncludeAnalysisCache includeAnalysisCache;
     private final FixedIncludePath includePath;
 
     public DefaultSourceIncludesResolver(List<File> includePaths, FileSystemSnapshotter fileSystemSnapshotter) {
-        this.fileSystemSnapshotter = fileSystemSnapshotter;
+        this(includePaths, new IncludeAnalysisCache(fileSystemSnapshotter));
+    }
+
+    public DefaultSourceIncludesResolver(List<File> includePaths, IncludeAnalysisCache includeAnalysisCache) {
+        this.includeAnalysisCache = includeAnalysisCache;
         List<DirectoryContents> includeDirs = new ArrayList<DirectoryContents>(includePaths.size());
         for (File includeDir : includePaths) {
             includeDirs.add(toDir(includeDir));
@@ -258,12 +263,7 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
     }
 
     private DirectoryContents toDir(File includeDir) {
-        DirectoryContents directoryContents = includeRoots.get(includeDir);
-        if (directoryContents == null) {
-            directoryContents = new DirectoryContents(includeDir);
-            includeRoots.put(includeDir, directoryContents);
-        }
-        return directoryContents;
+        return includeAnalysisCache.getDirectoryContents(includeDir);
     }
 
     private IncludePath prependSourceDir(File sourceFile, FixedIncludePath includePaths) {
@@ -335,12 +335,17 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
         }
     }
 
-    private class DirectoryContents {
+    /**
+     * The include files found in a directory. Instances are shared by all tasks of a build, so can be used concurrently.
+     */
+    static class DirectoryContents {
         private final File searchDir;
-        private final Map<String, CachedIncludeFile> contents = new HashMap<String, CachedIncludeFile>();
+        private final FileSystemSnapshotter fileSystemSnapshotter;
+        private final ConcurrentMap<String, CachedIncludeFile> contents = new ConcurrentHashMap<String, CachedIncludeFile>();
 
-        DirectoryContents(File searchDir) {
+        DirectoryContents(File searchDir, FileSystemSnapshotter fileSystemSnapshotter) {
             this.searchDir = searchDir;
+            this.fileSystemSnapshotter = fileSystemSnapshotter;
         }
 
         CachedIncludeFile get(String includePath) {
@@ -352,8 +357,8 @@ public class DefaultSourceIncludesResolver implements SourceIncludesResolver {
             File candidate = new File(searchDir, includePath);
             HashCode contentHash = fileSystemSnapshotter.getRegularFileContentHash(candidate);
             includeFile = contentHash != null ? new SystemIncludeFile(candidate, includePath, contentHash) : MISSING_INCLUDE_FILE;
-            contents.put(includePath, includeFile);
-            return includeFile;
+            CachedIncludeFile existing = contents.putIfAbsent(includePath, includeFile);
+            return existing != null ? existing : includeFile;
         }
     }
 
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental;
+
+import com.google.common.collect.ImmutableList;
+import org.gradle.internal.execution.OutputChangeListener;
+import org.gradle.internal.snapshot.FileSystemSnapshotter;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shares the results of include file analysis between the compile tasks of a build: the contents of the directories that include files are
+ * searched for, and the include file graphs of headers whose includes do not depend on macros.
+ *
+ * <p>Parsed include directives are already shared between tasks and builds by {@link org.gradle.language.nativeplatform.internal.incremental.sourceparser.CachingCSourceParser}.
+ * The results held here are invalidated when a task is about to change files in any of the directories that have been searched, for example
+ * when generating headers, and whenever a task is about to change outputs that are not known up-front.</p>
+ */
+public class IncludeAnalysisCache implements OutputChangeListener {
+    private final FileSystemSnapshotter fileSystemSnapshotter;
+    private final ConcurrentMap<File, DefaultSourceIncludesResolver.DirectoryContents> directories = new ConcurrentHashMap<File, DefaultSourceIncludesResolver.DirectoryContents>();
+    private final ConcurrentMap<List<Object>, ConcurrentMap<File, IncrementalCompileFilesFactory.FileVisitResult>> visitResults = new ConcurrentHashMap<List<Object>, ConcurrentMap<File, IncrementalCompileFilesFactory.FileVisitResult>>();
+
+    public IncludeAnalysisCache(FileSystemSnapshotter fileSystemSnapshotter) {
+        this.fileSystemSnapshotter = fileSystemSnapshotter;
+    }
+
+    DefaultSourceIncludesResolver.DirectoryContents getDirectoryContents(File searchDir) {
+        DefaultSourceIncludesResolver.DirectoryContents contents = directories.get(searchDir);
+        if (contents == null) {
+            contents = new DefaultSourceIncludesResolver.DirectoryContents(searchDir, fileSystemSnapshotter);
+            DefaultSourceIncludesResolver.DirectoryContents existing = directories.putIfAbsent(searchDir, contents);
+            if (existing != null) {
+                contents = existing;
+            }
+        }
+        return contents;
+    }
+
+    /**
+     * Returns the include file graphs that can be reused by tasks with the given include path and parser configuration.
+     */
+    ConcurrentMap<File, IncrementalCompileFilesFactory.FileVisitResult> getVisitResults(List<File> includePath, boolean importAware) {
+        List<Object> key = ImmutableList.<Object>of(includePath, importAware);
+        ConcurrentMap<File, IncrementalCompileFilesFactory.FileVisitResult> results = visitResults.get(key);
+        if (results == null) {
+            results = new ConcurrentHashMap<File, IncrementalCompileFilesFactory.FileVisitResult>();
+            ConcurrentMap<File, IncrementalCompileFilesFactory.FileVisitResult> existing = visitResults.putIfAbsent(key, results);
+            if (existing != null) {
+                results = existing;
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void beforeOutputChange() {
+        clear();
+    }
+
+    @Override
+    public void beforeOutputChange(Iterable<String> affectedOutputPaths) {
+        for (String outputPath : affectedOutputPaths) {
+            for (File searchDir : directories.keySet()) {
+                if (overlaps(searchDir.getPath(), outputPath)) {
+                    clear();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean overlaps(String searchDir, String outputPath) {
+        return isSameOrAncestor(searchDir, outputPath) || isSameOrAncestor(outputPath, searchDir);
+    }
+
+    private static boolean isSameOrAncestor(String ancestor, String path) {
+        return path.startsWith(ancestor) && (path.length() == ancestor.length() || path.charAt(ancestor.length()) == File.separatorChar);
+    }
+
+    private void clear() {
+        directories.clear();
+        visitResults.clear();
+    }
+}
@@ -36,6 +36,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 public class IncrementalCompileFilesFactory {
 
@@ -47,12 +48,23 @@ public class IncrementalCompileFilesFactory {
     private final SourceIncludesResolver sourceIncludesResolver;
     private final FileSystemSnapshotter fileSystemSnapshotter;
     private final boolean ignoreUnresolvedHeadersInDependencies;
+    // Results that can be reused by other tasks, when present
+    @Nullable
+    private final ConcurrentMap<File, FileVisitResult> sharedResults;
 
     public IncrementalCompileFilesFactory(IncludeDirectives initialIncludeDirectives, SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, FileSystemSnapshotter fileSystemSnapshotter) {
+        this(initialIncludeDirectives, sourceIncludesParser, sourceIncludesResolver, fileSystemSnapshotter, null);
+    }
+
+    /**
+     * @param sharedResults The include file graphs shared with other tasks that use the same include path and parser configuration, see {@link IncludeAnalysisCache}.
+     */
+    IncrementalCompileFilesFactory(IncludeDirectives initialIncludeDirectives, SourceIncludesParser sourceIncludesParser, SourceIncludesResolver sourceIncludesResolver, FileSystemSnapshotter fileSystemSnapshotter, @Nullable ConcurrentMap<File, FileVisitResult> sharedResults) {
         this.initialIncludeDirectives = initialIncludeDirectives;
         this.sourceIncludesParser = sourceIncludesParser;
         this.sourceIncludesResolver = sourceIncludesResolver;
         this.fileSystemSnapshotter = fileSystemSnapshotter;
+        this.sharedResults = sharedResults;
         this.ignoreUnresolvedHeadersInDependencies = Boolean.getBoolean(IGNORE_UNRESOLVED_HEADERS_IN_DEPENDENCIES_PROPERTY_NAME);
     }
 
@@ -114,7 +126,7 @@ public class IncrementalCompileFilesFactory {
             // Calculate the include file graph for the source file and mark for recompilation
 
             CollectingMacroLookup visibleMacros = new CollectingMacroLookup(initialIncludeDirectives);
-            FileVisitResult result = visitFile(sourceFile, fileContent, visibleMacros, new HashSet<HashCode>(), existingHeaders);
+            FileVisitResult result = visitFile(sourceFile, fileContent, visibleMacros, new HashMap<HashCode, Integer>(), existingHeaders);
             Set<IncludeFileEdge> includedFiles = new LinkedHashSet<IncludeFileEdge>();
             result.collectFilesInto(includedFiles, new HashSet<File>());
             SourceFileState newState = new SourceFileState(fileContent, result.result == IncludeFileResolutionResult.UnresolvedMacroIncludes, ImmutableSet.copyOf(includedFiles));
@@ -161,18 +173,34 @@ public class IncrementalCompileFilesFactory {
             return true;
         }
 
-        private FileVisitResult visitFile(File file, HashCode newHash, CollectingMacroLookup visibleMacros, Set<HashCode> visited, Set<File> existingHeaders) {
+        /**
+         * @param visited The files visited so far for the current source file, mapped to the order in which they were visited.
+         */
+        private FileVisitResult visitFile(File file, HashCode newHash, CollectingMacroLookup visibleMacros, Map<HashCode, Integer> visited, Set<File> existingHeaders) {
             FileDetails fileDetails = visitedFiles.get(file);
             if (fileDetails != null && fileDetails.results != null) {
                 // A file that we can safely reuse the result for
                 visibleMacros.append(fileDetails.results);
                 return fileDetails.results;
             }
+            if (fileDetails == null && sharedResults != null) {
+                FileVisitResult sharedResult = sharedResults.get(file);
+                if (sharedResult != null) {
+                    // A file whose include graph has already been calculated by another task
+                    visibleMacros.append(sharedResult);
+                    sharedResult.collectHeadersInto(existingHeaders, new HashSet<File>());
+                    visitedFiles.put(file, new FileDetails(sharedResult.includeDirectives, sharedResult));
+                    return sharedResult;
+                }
+            }
 
-            if (!visited.add(newHash)) {
-                // A cycle, treat as resolved here
-                return new FileVisitResult(file);
+            Integer previousVisit = visited.get(newHash);
+            if (previousVisit != null) {
+                // A cycle, or a file already visited elsewhere in the graph. Treat as resolved here, and remember that the result does not include this file
+                return new FileVisitResult(file, previousVisit);
             }
+            int visitIndex = visited.size();
+            visited.put(newHash, visitIndex);
 
             if (fileDetails == null) {
                 IncludeDirectives includeDirectives = sourceIncludesParser.parseIncludes(file);
@@ -187,10 +215,15 @@ public class IncrementalCompileFilesFactory {
             List<FileVisitResult> included = allIncludes.isEmpty() ? Collections.<FileVisitResult>emptyList() : new ArrayList<FileVisitResult>(allIncludes.size());
             List<IncludeFileEdge> edges = allIncludes.isEmpty() ? Collections.<IncludeFileEdge>emptyList() : new ArrayList<IncludeFileEdge>(allIncludes.size());
             IncludeFileResolutionResult result = IncludeFileResolutionResult.NoMacroIncludes;
+            boolean literalIncludes = true;
+            int incompleteFrom = Integer.MAX_VALUE;
             for (Include include : allIncludes) {
                 if (include.getType() == IncludeType.MACRO && result == IncludeFileResolutionResult.NoMacroIncludes) {
                     result = IncludeFileResolutionResult.HasMacroIncludes;
                 }
+                if (include.getType() != IncludeType.SYSTEM && include.getType() != IncludeType.QUOTED) {
+                    literalIncludes = false;
+                }
                 SourceIncludesResolver.IncludeResolutionResult resolutionResult = sourceIncludesResolver.resolveInclude(file, include, visibleMacros);
                 if (!resolutionResult.isComplete()) {
                     LOGGER.info("Cannot locate header file for '{}' in source file '{}'. Assuming changed.", include.getAsSourceText(), file.getName());
@@ -204,16 +237,30 @@ public class IncrementalCompileFilesFactory {
                     if (includeVisitResult.result.ordinal() > result.ordinal()) {
                         result = includeVisitResult.result;
                     }
+                    literalIncludes &= includeVisitResult.literalIncludes;
+                    incompleteFrom = Math.min(incompleteFrom, includeVisitResult.incompleteFrom);
                     includeVisitResult.collectDependencies(includedFileDirectives);
                     included.add(includeVisitResult);
                     edges.add(new IncludeFileEdge(includeFile.getPath(), includeFile.isQuotedInclude() ? newHash : null, includeFile.getContentHash()));
                 }
             }
 
-            FileVisitResult visitResult = new FileVisitResult(file, result, fileDetails.directives, included, edges, includedFileDirectives);
-            if (result == IncludeFileResolutionResult.NoMacroIncludes) {
+            if (incompleteFrom >= visitIndex) {
+                // Every file left out of the include graph of this file was visited as part of this file's graph, so the result is complete
+                incompleteFrom = Integer.MAX_VALUE;
+            }
+            FileVisitResult visitResult = new FileVisitResult(file, result, literalIncludes, fileDetails.directives, included, edges, includedFileDirectives, incompleteFrom);
+            // A result that leaves out files visited before this file, such as a file that is part of a cycle but not where the cycle was entered, depends on where
+            // this file was reached from, so cannot be reused
+            if (result == IncludeFileResolutionResult.NoMacroIncludes && incompleteFrom == Integer.MAX_VALUE) {
                 // No macro includes were seen in the include graph of this file, so the result can be reused if this file is seen again
                 fileDetails.results = visitResult;
+                if (sharedResults != null && literalIncludes) {
+                    // The include graph of this file does not depend on the macros defined for the task, so can be reused by other tasks.
+                    // Collect the macros now, so that the result is not modified when used by other tasks
+                    includedFileDirectives.collectAll();
+                    sharedResults.putIfAbsent(file, visitResult);
+                }
             }
             return visitResult;
         }
@@ -247,22 +294,33 @@ public class IncrementalCompileFilesFactory {
         FileDetails(IncludeDirectives directives) {
             this.directives = directives;
         }
+
+        FileDetails(IncludeDirectives directives, FileVisitResult results) {
+            this.directives = directives;
+            this.results = results;
+        }
     }
 
     /**
      * Details of a file included in a specific location in the file include graph.
      */
-    private static class FileVisitResult implements CollectingMacroLookup.MacroSource {
+    static class FileVisitResult implements CollectingMacroLookup.MacroSource {
         private final File file;
         private final IncludeFileResolutionResult result;
+        // True when all includes in the include graph of this file are literal paths
+        private final boolean literalIncludes;
+        // The visit index of the earliest file left out of the include graph of this file because it had already been visited, or Integer.MAX_VALUE when nothing was left out
+        private final int incompleteFrom;
         private final IncludeDirectives includeDirectives;
         private final List<FileVisitResult> included;
         private final List<IncludeFileEdge> edges;
         private final CollectingMacroLookup includeFileDirectives;
 
-        FileVisitResult(File file, IncludeFileResolutionResult result, IncludeDirectives includeDirectives, List<FileVisitResult> included, List<IncludeFileEdge> edges, CollectingMacroLookup dependentIncludeDirectives) {
+        FileVisitResult(File file, IncludeFileResolutionResult result, boolean literalIncludes, IncludeDirectives includeDirectives, List<FileVisitResult> included, List<IncludeFileEdge> edges, CollectingMacroLookup dependentIncludeDirectives, int incompleteFrom) {
             this.file = file;
             this.result = result;
+            this.literalIncludes = literalIncludes;
+            this.incompleteFrom = incompleteFrom;
             this.includeDirectives = includeDirectives;
             this.included = included;
             this.edges = edges;
@@ -270,8 +328,14 @@ public class IncrementalCompileFilesFactory {
         }
 
         FileVisitResult(File file) {
+            this(file, Integer.MAX_VALUE);
+        }
+
+        FileVisitResult(File file, int incompleteFrom) {
             this.file = file;
+            this.incompleteFrom = incompleteFrom;
             result = IncludeFileResolutionResult.NoMacroIncludes;
+            literalIncludes = true;
             includeDirectives = null;
             included = Collections.emptyList();
             edges = Collections.emptyList();
@@ -293,6 +357,15 @@ public class IncrementalCompileFilesFactory {
             }
         }
 
+        void collectHeadersInto(Set<File> headers, Set<File> seen) {
+            if (includeDirectives != null && seen.add(file)) {
+                for (FileVisitResult include : included) {
+                    headers.add(include.file);
+                    include.collectHeadersInto(headers, seen);
+                }
+            }
+        }
+
         @Override
         public void collectInto(CollectingMacroLookup lookup) {
             if (includeDirectives != null) {
@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
+
+/**
+ * Scans the content of a source file for preprocessor directive lines, applying the same filtering as {@link PreprocessingReader}:
+ * c-style comments are replaced with a single space, and line-continuation characters are removed. Lines whose first
+ * non-whitespace character is not {@code #} are skipped without being collected or decoded.
+ *
+ * <p>The content is expected to use an encoding where each ASCII character is encoded as a single byte, and where no other
+ * character is encoded using ASCII bytes, such as UTF-8 or ISO-8859-1. Only ASCII characters are collected: when a directive
+ * line contains some other character, or when a line starts with a character that may be whitespace once decoded, the scan
+ * stops and {@link #isComplete()} returns false, so that the content can be parsed after decoding it instead.</p>
+ */
+class DirectiveLineScanner {
+    private static final int EOF = -1;
+
+    private final byte[] content;
+    private int pos;
+    private boolean unsupportedContent;
+
+    /**
+     * The read-ahead characters, used for reading ahead up to 2 characters and pushing back into stream.
+     * A value of -1 indicates that no character is in the buffer.
+     */
+    private final int[] readAheadChars = new int[]{-1, -1};
+
+    /**
+     * Whether or not the scanner is currently in the middle of a string literal.
+     */
+    private boolean inString;
+
+    /**
+     * Whether or not the last char has been a backslash.
+     */
+    private boolean quoted;
+
+    DirectiveLineScanner(byte[] content) {
+        this.content = content;
+    }
+
+    /**
+     * Returns true if all of the content has been scanned, false if the scan stopped because the content contains characters that cannot be scanned.
+     */
+    boolean isComplete() {
+        return !unsupportedContent;
+    }
+
+    /**
+     * Collects the next directive line from the filtered content into the given buffer, starting at the {@code #}. Does not include the line separators.
+     *
+     * @return true if a directive line is available, false when the end of the content has been reached or the content cannot be scanned.
+     */
+    boolean readNextDirectiveLine(StringBuilder buffer) {
+        while (!unsupportedContent) {
+            int ch;
+            boolean leading = true;
+            boolean directive = false;
+            while ((ch = read()) != '\n') {
+                if (ch == EOF) {
+                    return directive;
+                }
+                if (ch == '\r') {
+                    int next = next();
+                    if (next != '\n') {
+                        pushBack(next);
+                    }
+                    break;
+                }
+                if (directive) {
+                    if (ch > 0x7f) {
+                        unsupportedContent = true;
+                        return false;
+                    }
+                    buffer.append((char) ch);
+                } else if (leading) {
+                    if (ch == '#') {
+                        directive = true;
+                        buffer.append('#');
+                    } else if (ch > 0x7f) {
+                        if (mayStartWhitespace(ch)) {
+                            unsupportedContent = true;
+                            return false;
+                        }
+                        leading = false;
+                    } else if (!Character.isWhitespace(ch) && ch != 0) {
+                        leading = false;
+                    }
+                }
+            }
+            if (directive) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the given byte may start a whitespace character. Only some UTF-8 lead bytes may do so: ISO-8859-1 does not define any whitespace above ASCII.
+     */
+    private static boolean mayStartWhitespace(int ch) {
+        return ch >= 0xe1 && ch <= 0xe3;
+    }
+
+    /**
+     * Returns the next character in the filtered content:
+     * <ul>
+     *     <li>Comments will be replaced by a single space</li>
+     *     <li>Line continuation (backslash-newline) will be removed</li>
+     * </ul>
+     */
+    private int read() {
+        int ch = next();
+
+        if (ch == '\\') {
+            if (discardNewLine()) {
+                return read();
+            }
+        }
+
+        if (ch == '"' && !quoted) {
+            inString = !inString;
+            quoted = false;
+        } else if (ch == '\\') {
+            quoted = !quoted;
+        } else {
+            quoted = false;
+            if (!inString) {
+                if (ch == '/') {
+                    ch = next();
+                    if (ch == '/') {
+                        while (ch != '\n' && ch != EOF && ch != '\r') {
+                            ch = next();
+                        }
+                    } else if (ch == '*') {
+                        while (ch != EOF) {
+                            ch = next();
+                            if (ch == '*') {
+                                ch = next();
+                                while (ch == '*') {
+                                    ch = next();
+                                }
+
+                                if (ch == '/') {
+                                    ch = ' ';
+                                    break;
+                                }
+                            }
+                        }
+                    } else {
+                        pushBack(ch);
+                        ch = '/';
+                    }
+                }
+            }
+        }
+
+        return ch;
+    }
+
+    private boolean discardNewLine() {
+        int nextChar = next();
+        if (nextChar == '\n') {
+            return true; // '\\\n' discarded from stream
+        } else if (nextChar == '\r') {
+            int followingChar = next();
+            if (followingChar == '\n') {
+                return true; // '\\\r\n' discarded from stream
+            }
+            pushBack(nextChar);
+            pushBack(followingChar);
+            return false;
+        } else {
+            pushBack(nextChar);
+            return false;
+        }
+    }
+
+    private int next() {
+        if (readAheadChars[0] != -1) {
+            int ch = readAheadChars[0];
+            readAheadChars[0] = readAheadChars[1];
+            readAheadChars[1] = -1;
+            return ch;
+        }
+        if (pos < content.length) {
+            return content[pos++] & 0xff;
+        }
+        return EOF;
+    }
+
+    private void pushBack(int ch) {
+        if (readAheadChars[1] != -1) {
+            throw new IllegalStateException();
+        }
+        if (readAheadChars[0] != -1) {
+            readAheadChars[1] = ch;
+        } else {
+            readAheadChars[0] = ch;
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.language.nativeplatform.internal.incremental.sourceparser;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import org.gradle.api.GradleException;
@@ -29,10 +30,14 @@ import org.gradle.language.nativeplatform.internal.MacroFunction;
 
 import javax.annotation.Nullable;
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -45,19 +50,56 @@ import java.util.Set;
  * used as the body of these directives.
  */
 public class RegexBackedCSourceParser implements CSourceParser {
+    /**
+     * Encodings of source files whose directive lines can be located without decoding the content, see {@link DirectiveLineScanner}.
+     */
+    private static final Set<String> ASCII_COMPATIBLE_ENCODINGS = ImmutableSet.of("UTF-8", "US-ASCII", "ISO-8859-1", "windows-1252");
+
     @Override
     public IncludeDirectives parseSource(File sourceFile) {
-        try (Reader fileReader = new FileReader(sourceFile)) {
-            return parseSource(fileReader);
+        try {
+            Charset charset = Charset.defaultCharset();
+            if (!ASCII_COMPATIBLE_ENCODINGS.contains(charset.name())) {
+                try (Reader fileReader = new FileReader(sourceFile)) {
+                    return parseSource(fileReader);
+                }
+            }
+            byte[] content = Files.readAllBytes(sourceFile.toPath());
+            IncludeDirectives includeDirectives = parseSource(content);
+            if (includeDirectives != null) {
+                return includeDirectives;
+            }
+            return parseSource(new InputStreamReader(new ByteArrayInputStream(content), charset));
         } catch (Exception e) {
             throw new GradleException(String.format("Could not extract includes from source file %s.", sourceFile), e);
         }
     }
 
+    /**
+     * Parses the given ASCII compatible content, skipping lines that are not directives without decoding them.
+     *
+     * @return the directives, or null when the content contains characters that need to be decoded to parse it.
+     */
+    @Nullable
+    private IncludeDirectives parseSource(byte[] content) {
+        Directives directives = new Directives();
+        DirectiveLineScanner scanner = new DirectiveLineScanner(content);
+        Buffer buffer = new Buffer();
+        while (true) {
+            buffer.reset();
+            if (!scanner.readNextDirectiveLine(buffer.value)) {
+                break;
+            }
+            parseLine(buffer, directives);
+        }
+        if (!scanner.isComplete()) {
+            return null;
+        }
+        return directives.toIncludeDirectives();
+    }
+
     protected IncludeDirectives parseSource(Reader sourceReader) throws IOException {
-        Set<Include> includes = Sets.newLinkedHashSet();
-        List<Macro> macros = Lists.newArrayList();
-        List<MacroFunction> macroFunctions = Lists.newArrayList();
+        Directives directives = new Directives();
         BufferedReader reader = new BufferedReader(sourceReader);
         PreprocessingReader lineReader = new PreprocessingReader(reader);
         Buffer buffer = new Buffer();
@@ -66,20 +108,24 @@ public class RegexBackedCSourceParser implements CSourceParser {
             if (!lineReader.readNextLine(buffer.value)) {
                 break;
             }
-            buffer.consumeWhitespace();
-            if (!buffer.consume('#')) {
-                continue;
-            }
-            buffer.consumeWhitespace();
-            if (buffer.consume("define")) {
-                parseDefineDirectiveBody(buffer, macros, macroFunctions);
-            } else if (buffer.consume("include")) {
-                parseIncludeOrImportDirectiveBody(buffer, false, includes);
-            } else if (buffer.consume("import")) {
-                parseIncludeOrImportDirectiveBody(buffer, true, includes);
-            }
+            parseLine(buffer, directives);
+        }
+        return directives.toIncludeDirectives();
+    }
+
+    private void parseLine(Buffer buffer, Directives directives) {
+        buffer.consumeWhitespace();
+        if (!buffer.consume('#')) {
+            return;
+        }
+        buffer.consumeWhitespace();
+        if (buffer.consume("define")) {
+            parseDefineDirectiveBody(buffer, directives.macros, directives.macroFunctions);
+        } else if (buffer.consume("include")) {
+            parseIncludeOrImportDirectiveBody(buffer, false, directives.includes);
+        } else if (buffer.consume("import")) {
+            parseIncludeOrImportDirectiveBody(buffer, true, directives.includes);
         }
-        return DefaultIncludeDirectives.of(ImmutableList.copyOf(includes), ImmutableList.copyOf(macros), ImmutableList.copyOf(macroFunctions));
     }
 
     /**
@@ -505,6 +551,16 @@ public class RegexBackedCSourceParser implements CSourceParser {
         return pos;
     }
 
+    private static class Directives {
+        final Set<Include> includes = Sets.newLinkedHashSet();
+        final List<Macro> macros = Lists.newArrayList();
+        final List<MacroFunction> macroFunctions = Lists.newArrayList();
+
+        IncludeDirectives toIncludeDirectives() {
+            return DefaultIncludeDirectives.of(ImmutableList.copyOf(includes), ImmutableList.copyOf(macros), ImmutableList.copyOf(macroFunctions));
+        }
+    }
+
     private static class Buffer {
         final StringBuilder value = new StringBuilder();
         int pos = 0;
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental
+
+import org.gradle.internal.snapshot.impl.TestFileSnapshotter
+import org.gradle.language.nativeplatform.internal.IncludeDirectives
+import org.gradle.language.nativeplatform.internal.incremental.sourceparser.TestIncludeParser
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+import java.util.concurrent.ConcurrentMap
+
+class IncludeAnalysisCacheTest extends Specification {
+    @Rule final TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+    def fileSystemSnapshotter = new TestFileSnapshotter()
+    def cache = new IncludeAnalysisCache(fileSystemSnapshotter)
+    def testDirectory = temporaryFolder.testDirectory
+    def includeDir = testDirectory.createDir("headers")
+    def includePaths = [includeDir]
+
+    def resolve(String path) {
+        return new DefaultSourceIncludesResolver(includePaths, cache).resolveInclude(null, path)
+    }
+
+    def "shares include file lookups between resolvers"() {
+        expect:
+        resolve("test.h") == null
+
+        when:
+        includeDir.createFile("test.h")
+
+        then:
+        resolve("test.h") == null
+    }
+
+    def "keeps include file lookups when outputs unrelated to the include path change"() {
+        given:
+        resolve("test.h")
+        includeDir.createFile("test.h")
+
+        when:
+        cache.beforeOutputChange([testDirectory.file("build/objs").absolutePath, testDirectory.file("headers-other").absolutePath])
+
+        then:
+        resolve("test.h") == null
+    }
+
+    def "discards include file lookups when outputs in the include path change"() {
+        given:
+        resolve("test.h")
+        def header = includeDir.createFile("test.h")
+
+        when:
+        cache.beforeOutputChange([testDirectory.file(outputPath).absolutePath])
+
+        then:
+        resolve("test.h").file == header
+
+        where:
+        outputPath << ["headers", "headers/test.h", "headers/generated"]
+    }
+
+    def "discards include file lookups when outputs containing the include path change"() {
+        given:
+        resolve("test.h")
+        def header = includeDir.createFile("test.h")
+
+        when:
+        cache.beforeOutputChange([testDirectory.absolutePath])
+
+        then:
+        resolve("test.h").file == header
+    }
+
+    def "discards include file lookups when unknown outputs change"() {
+        given:
+        resolve("test.h")
+        def header = includeDir.createFile("test.h")
+
+        when:
+        cache.beforeOutputChange()
+
+        then:
+        resolve("test.h").file == header
+    }
+
+    def "discards include file graphs when outputs in the include path change"() {
+        given:
+        def results = cache.getVisitResults(includePaths, false)
+        results.put(includeDir.file("test.h"), new IncrementalCompileFilesFactory.FileVisitResult(includeDir.file("test.h")))
+        resolve("test.h")
+
+        when:
+        cache.beforeOutputChange([includeDir.file("test.h").absolutePath])
+
+        then:
+        cache.getVisitResults(includePaths, false).isEmpty()
+    }
+
+    def "does not share include file graphs between different include paths or parser configurations"() {
+        given:
+        cache.getVisitResults(includePaths, false).put(includeDir.file("test.h"), new IncrementalCompileFilesFactory.FileVisitResult(includeDir.file("test.h")))
+
+        expect:
+        cache.getVisitResults(includePaths, false).size() == 1
+        cache.getVisitResults(includePaths, true).isEmpty()
+        cache.getVisitResults([], false).isEmpty()
+    }
+
+    def "tasks with the same include path reuse include file graphs and calculate the same result as unshared analysis"() {
+        def header1 = includeDir.createFile("header1.h") << "header1"
+        def header2 = includeDir.createFile("header2.h") << "header2"
+        def header3 = includeDir.createFile("header3.h") << "header3"
+        def source1 = testDirectory.createFile("src/source1.c") << "source1"
+        def source2 = testDirectory.createFile("src/source2.c") << "source2"
+        def graph = [(source1): ["header1.h"], (source2): ["header1.h", "header2.h"], (header1): ["header3.h"], (header2): [], (header3): []]
+        def parsed = []
+        def parser = { File file ->
+            parsed << file
+            TestIncludeParser.systemIncludes(graph[file])
+        } as SourceIncludesParser
+
+        when:
+        def first = compile(source1, parser, new DefaultSourceIncludesResolver(includePaths, cache), cache.getVisitResults(includePaths, false))
+
+        then:
+        parsed == [source1, header1, header3]
+
+        when:
+        parsed.clear()
+        def second = compile(source2, parser, new DefaultSourceIncludesResolver(includePaths, cache), cache.getVisitResults(includePaths, false))
+
+        then:
+        parsed == [source2, header2]
+
+        and:
+        assertSameResult(first, source1, compile(source1, parser, new DefaultSourceIncludesResolver(includePaths, fileSystemSnapshotter), null))
+        assertSameResult(second, source2, compile(source2, parser, new DefaultSourceIncludesResolver(includePaths, fileSystemSnapshotter), null))
+    }
+
+    def "does not share include file graphs of files in a cycle that were calculated from where the cycle was entered"() {
+        def headerA = includeDir.createFile("a.h") << "a"
+        def headerB = includeDir.createFile("b.h") << "b"
+        def headerC = includeDir.createFile("c.h") << "c"
+        def headerD = includeDir.createFile("d.h") << "d"
+        def source1 = testDirectory.createFile("src/source1.c") << "source1"
+        def source2 = testDirectory.createFile("src/source2.c") << "source2"
+        def graph = [(source1): ["a.h"], (source2): ["b.h"], (headerA): ["b.h", "d.h"], (headerB): ["c.h"], (headerC): ["a.h"], (headerD): []]
+        def parser = { File file -> TestIncludeParser.systemIncludes(graph[file]) } as SourceIncludesParser
+
+        when:
+        def first = compile(source1, parser, new DefaultSourceIncludesResolver(includePaths, cache), cache.getVisitResults(includePaths, false))
+        def second = compile(source2, parser, new DefaultSourceIncludesResolver(includePaths, cache), cache.getVisitResults(includePaths, false))
+
+        then:
+        first.existingHeaders == [headerA, headerB, headerC, headerD] as Set
+        second.existingHeaders == [headerA, headerB, headerC, headerD] as Set
+
+        and:
+        assertSameResult(first, source1, compile(source1, parser, new DefaultSourceIncludesResolver(includePaths, fileSystemSnapshotter), null))
+        assertSameResult(second, source2, compile(source2, parser, new DefaultSourceIncludesResolver(includePaths, fileSystemSnapshotter), null))
+    }
+
+    private IncrementalCompilation compile(File source, SourceIncludesParser parser, SourceIncludesResolver resolver, ConcurrentMap<File, IncrementalCompileFilesFactory.FileVisitResult> sharedResults) {
+        def processor = new IncrementalCompileFilesFactory(IncludeDirectives.EMPTY, parser, resolver, fileSystemSnapshotter, sharedResults).files(null)
+        processor.processSource(source)
+        return processor.result
+    }
+
+    private static void assertSameResult(IncrementalCompilation shared, File source, IncrementalCompilation unshared) {
+        assert shared.recompile == unshared.recompile
+        assert shared.existingHeaders == unshared.existingHeaders
+        assert shared.unresolvedHeaders == unshared.unresolvedHeaders
+        assert shared.finalState.getState(source).hash == unshared.finalState.getState(source).hash
+        assert shared.finalState.getState(source).edges == unshared.finalState.getState(source).edges
+    }
+}
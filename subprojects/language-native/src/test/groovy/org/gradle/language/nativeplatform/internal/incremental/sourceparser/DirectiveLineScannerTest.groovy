@@ -0,0 +1,114 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.language.nativeplatform.internal.incremental.sourceparser
+
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder
+import org.gradle.language.nativeplatform.internal.IncludeDirectives
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.charset.Charset
+
+class DirectiveLineScannerTest extends Specification {
+    static final List<String> CORPUS = [
+        "#include <a.h>", "#include \"b.h\"", "#import <c.h>", "  #  include MACRO", "#include FUNC(x, y)", "#include A ## B",
+        "#define A <d.h>", "#define F(x) #x", "#define G(x, y) x ## y", "#define EMPTY", "#define STR \"a/*b*/c\"",
+        "#define CONTINUED \\", "\\", "\\\r\n", "/*", "*/", "/* comment */", "// comment", "\"", "'\"'", "\\\"",
+        "int x = 1;", "char *s = \"#include <not.h>\";", "extern \"C\" {", "}", "\u00e9", "\u2003", "\u0000", "\t", " ",
+        "\n", "\r\n", "\r", "\n", "\n"
+    ]
+
+    @Rule
+    final TestNameTestDirectoryProvider temporaryFolder = new TestNameTestDirectoryProvider()
+    def parser = new RegexBackedCSourceParser()
+    def sourceFile = temporaryFolder.testDirectory.file("source.h")
+
+    def "scans the same directives as the source reader for a corpus of sources"() {
+        def random = new Random(1234)
+
+        expect:
+        1000.times {
+            def source = new StringBuilder()
+            random.nextInt(60).times {
+                source.append(CORPUS[random.nextInt(CORPUS.size())])
+            }
+            assertParsedSameAsReader(source.toString())
+        }
+    }
+
+    @Unroll
+    def "scans the same directives as the source reader for #description"() {
+        expect:
+        assertParsedSameAsReader(source)
+
+        where:
+        description                           | source
+        "directives after comments"           | "/* a\n#include <x.h>\n*/ #include <a.h>\n/**/#define X <b.h>"
+        "continued directives"                | "#def\\\nine X \\\r\n  <a.h>\n#include X"
+        "strings spanning lines"              | "char *s = \"\n#include <a.h>\n\";\n#include <b.h>"
+        "mixed line separators"               | "#include <a.h>\r#include <b.h>\r\n#include <c.h>\n"
+        "non-ASCII content outside directives" | "// \u00e9\u2003\nint \u00e9 = 1;\n#include <a.h>"
+        "non-ASCII content in directives"     | "#include \"\u00e9.h\"\n#define A \"\u00e9\""
+        "non-ASCII whitespace"                | "\u2003#include <a.h>\n\u00a0#include <b.h>"
+        "a byte order mark"                   | "\ufeff#include <a.h>\n#include <b.h>"
+        "unterminated comments"               | "#include <a.h> /* \n#include <b.h>"
+    }
+
+    def "skips lines that are not directives"() {
+        def scanner = new DirectiveLineScanner("int x;\n  # include <a.h> // comment\n#define A/**/1\nx # y".getBytes("US-ASCII"))
+        def lines = []
+
+        when:
+        def line = new StringBuilder()
+        while (scanner.readNextDirectiveLine(line)) {
+            lines << line.toString()
+            line.setLength(0)
+        }
+
+        then:
+        lines == ["# include <a.h> ", "#define A 1"]
+        scanner.complete
+    }
+
+    def "stops when a directive contains non-ASCII characters"() {
+        def scanner = new DirectiveLineScanner("#include <a.h>\n#include \"\u00e9.h\"\n#include <b.h>".getBytes("UTF-8"))
+        def line = new StringBuilder()
+
+        expect:
+        scanner.readNextDirectiveLine(line)
+        line.toString() == "#include <a.h>"
+        !scanner.readNextDirectiveLine(line)
+        !scanner.complete
+    }
+
+    void assertParsedSameAsReader(String source) {
+        sourceFile.text = source
+        def expected = parser.parseSource(new InputStreamReader(new ByteArrayInputStream(sourceFile.bytes), Charset.defaultCharset()))
+        def actual = parser.parseSource(sourceFile)
+        assert serialized(actual) == serialized(expected)
+    }
+
+    static byte[] serialized(IncludeDirectives directives) {
+        def outputStream = new ByteArrayOutputStream()
+        def encoder = new KryoBackedEncoder(outputStream)
+        IncludeDirectivesSerializer.INSTANCE.write(encoder, directives)
+        encoder.flush()
+        return outputStream.toByteArray()
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.launcher.daemon
+
+import org.gradle.integtests.fixtures.daemon.DaemonIntegrationSpec
+import org.gradle.tooling.internal.provider.NoOpBuildReplayingActionExecuter
+
+class NoOpBuildReplayIntegrationTest extends DaemonIntegrationSpec {
+    def setup() {
+        executer.beforeExecute {
+            executer.withArgument("-D${NoOpBuildReplayingActionExecuter.ENABLED_PROPERTY}=true")
+        }
+        file("input.txt").text = "input"
+        buildFile << """
+            println "configuring build"
+            task copy(type: Copy) {
+                from "input.txt"
+                into "build/output"
+            }
+        """
+    }
+
+    def "replays outcome of no-op build when nothing has changed"() {
+        when:
+        succeeds("copy")
+
+        then:
+        executedAndNotSkipped(":copy")
+
+        when:
+        succeeds("copy")
+
+        then:
+        skipped(":copy")
+
+        when:
+        succeeds("copy")
+
+        then:
+        !output.contains("configuring build")
+        output.contains("BUILD SUCCESSFUL")
+        output.contains("1 actionable task: 1 up-to-date")
+    }
+
+    def "runs build when an input file has changed"() {
+        given:
+        succeeds("copy")
+        succeeds("copy")
+
+        when:
+        file("input.txt").text = "changed"
+        succeeds("copy")
+
+        then:
+        output.contains("configuring build")
+        executedAndNotSkipped(":copy")
+        file("build/output/input.txt").text == "changed"
+    }
+
+    def "runs build when an output file has been removed"() {
+        given:
+        succeeds("copy")
+        succeeds("copy")
+
+        when:
+        file("build/output/input.txt").delete()
+        succeeds("copy")
+
+        then:
+        executedAndNotSkipped(":copy")
+        file("build/output/input.txt").text == "input"
+    }
+
+    def "runs build when the build script has changed"() {
+        given:
+        succeeds("copy")
+        succeeds("copy")
+
+        when:
+        buildFile << """
+            println "changed build"
+        """
+        succeeds("copy")
+
+        then:
+        output.contains("changed build")
+        skipped(":copy")
+    }
+
+    def "runs build when different tasks are requested"() {
+        given:
+        succeeds("copy")
+        succeeds("copy")
+
+        when:
+        succeeds("copy", "help")
+
+        then:
+        output.contains("configuring build")
+    }
+}
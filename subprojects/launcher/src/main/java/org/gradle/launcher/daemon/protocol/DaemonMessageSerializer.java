@@ -127,6 +127,8 @@ public class DaemonMessageSerializer {
                         encoder.writeByte((byte) 2);
                         payloadSerializer.write(encoder, result.getResult());
                     }
+                } else if (result.isResultStreamed()) {
+                    encoder.writeByte((byte) 6);
                 } else if (result.getFailure() != null){
                     encoder.writeByte((byte) 3);
                     encoder.writeBoolean(result.wasCancelled());
@@ -165,6 +167,8 @@ public class DaemonMessageSerializer {
                     return new Success(BuildActionResult.failed(wasCancelled, null, exception));
                 case 5:
                     return new Success(javaSerializer.read(decoder));
+                case 6:
+                    return new Success(BuildActionResult.streamed());
                 default:
                     throw new IllegalArgumentException("Unexpected payload type.");
             }
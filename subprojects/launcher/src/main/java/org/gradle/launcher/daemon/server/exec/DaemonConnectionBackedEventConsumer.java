@@ -17,18 +17,27 @@
 package org.gradle.launcher.daemon.server.exec;
 
 import org.gradle.initialization.BuildEventConsumer;
+import org.gradle.internal.UncheckedException;
 import org.gradle.launcher.daemon.server.api.DaemonCommandExecution;
+import org.gradle.tooling.internal.provider.serialization.StreamedPayloadChunk;
 
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 
 /**
  * An event consumer that asynchronously dispatches events to the client.
+ *
+ * <p>The chunks of a streamed result are large, so at most {@value #MAX_QUEUED_CHUNKS} of them are queued at any time. Dispatching a chunk blocks until
+ * earlier chunks have been sent to the client.</p>
  */
 class DaemonConnectionBackedEventConsumer implements BuildEventConsumer {
+    static final int MAX_QUEUED_CHUNKS = 4;
+
     private final DaemonCommandExecution execution;
     private final BlockingQueue<Object> queue = new LinkedBlockingQueue<Object>();
+    private final Semaphore chunkPermits = new Semaphore(MAX_QUEUED_CHUNKS);
     private final ForwardEvents forwarder = new ForwardEvents();
 
     public DaemonConnectionBackedEventConsumer(DaemonCommandExecution execution) {
@@ -38,16 +47,33 @@ class DaemonConnectionBackedEventConsumer implements BuildEventConsumer {
 
     @Override
     public void dispatch(Object event) {
+        if (event instanceof StreamedPayloadChunk && !acquireChunkPermit()) {
+            // The client is no longer receiving events, so discard the chunk
+            return;
+        }
         queue.offer(event);
     }
 
+    private boolean acquireChunkPermit() {
+        try {
+            while (!chunkPermits.tryAcquire(10, TimeUnit.MILLISECONDS)) {
+                if (!forwarder.ableToSend) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     public void waitForFinish() {
         forwarder.waitForFinish();
     }
 
     private class ForwardEvents extends Thread {
         private volatile boolean stopped;
-        private boolean ableToSend = true;
+        private volatile boolean ableToSend = true;
 
         @Override
         public void run() {
@@ -77,6 +103,10 @@ class DaemonConnectionBackedEventConsumer implements BuildEventConsumer {
                 execution.getConnection().event(event);
             } catch (RuntimeException e) {
                 ableToSend = false;
+            } finally {
+                if (event instanceof StreamedPayloadChunk) {
+                    chunkPermits.release();
+                }
             }
         }
 
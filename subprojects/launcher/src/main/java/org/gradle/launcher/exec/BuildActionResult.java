@@ -21,45 +21,54 @@ import org.gradle.tooling.internal.provider.serialization.SerializedPayload;
 import javax.annotation.Nullable;
 
 /**
- * Encapsulates either a result object, or a failure as an exception or a serialized exception.
+ * Encapsulates either a result object, a result object that has been streamed to the client, or a failure as an exception or a serialized exception.
  *
  * <p>Exceptions should always be serialized, but currently are not when the failure happens outside the context of a build invocation because the serialization infrastructure is currently tied to some build scoped services.</p>
  */
 public class BuildActionResult {
     private final SerializedPayload result;
+    private final boolean resultStreamed;
     private final SerializedPayload serializedFailure;
     private final RuntimeException failure;
     private final boolean wasCancelled;
 
-    private BuildActionResult(SerializedPayload result, SerializedPayload serializedFailure, RuntimeException failure, boolean wasCancelled) {
+    private BuildActionResult(SerializedPayload result, boolean resultStreamed, SerializedPayload serializedFailure, RuntimeException failure, boolean wasCancelled) {
         this.result = result;
+        this.resultStreamed = resultStreamed;
         this.serializedFailure = serializedFailure;
         this.failure = failure;
         this.wasCancelled = wasCancelled;
     }
 
     public static BuildActionResult of(@Nullable SerializedPayload result) {
-        return new BuildActionResult(result, null, null, false);
+        return new BuildActionResult(result, false, null, null, false);
+    }
+
+    /**
+     * A result object that has been sent to the client in chunks, as build events.
+     */
+    public static BuildActionResult streamed() {
+        return new BuildActionResult(null, true, null, null, false);
     }
 
     public static BuildActionResult failed(SerializedPayload failure) {
-        return new BuildActionResult(null, failure, null, false);
+        return new BuildActionResult(null, false, failure, null, false);
     }
 
     public static BuildActionResult failed(RuntimeException failure) {
-        return new BuildActionResult(null, null, failure, false);
+        return new BuildActionResult(null, false, null, failure, false);
     }
 
     public static BuildActionResult cancelled(SerializedPayload failure) {
-        return new BuildActionResult(null, failure, null, true);
+        return new BuildActionResult(null, false, failure, null, true);
     }
 
     public static BuildActionResult cancelled(RuntimeException failure) {
-        return new BuildActionResult(null, null, failure, true);
+        return new BuildActionResult(null, false, null, failure, true);
     }
 
     public static BuildActionResult failed(boolean wasCancelled, @Nullable SerializedPayload failure, @Nullable RuntimeException exception) {
-        return new BuildActionResult(null, failure, exception, wasCancelled);
+        return new BuildActionResult(null, false, failure, exception, wasCancelled);
     }
 
     /**
@@ -74,6 +83,10 @@ public class BuildActionResult {
         return result;
     }
 
+    public boolean isResultStreamed() {
+        return resultStreamed;
+    }
+
     @Nullable
     public SerializedPayload getFailure() {
         return serializedFailure;
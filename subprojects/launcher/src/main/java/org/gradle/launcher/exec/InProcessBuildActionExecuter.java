@@ -27,8 +27,11 @@ import org.gradle.internal.invocation.BuildController;
 import org.gradle.internal.operations.notify.BuildOperationNotificationValve;
 import org.gradle.internal.service.ServiceRegistry;
 import org.gradle.tooling.internal.provider.serialization.PayloadSerializer;
+import org.gradle.tooling.internal.provider.serialization.SerializedPayload;
 
 public class InProcessBuildActionExecuter implements BuildActionExecuter<BuildActionParameters> {
+    // Results larger than this are streamed to the client as build events while they are serialized, rather than held in memory
+    private static final int STREAMING_THRESHOLD = 16 * 1024 * 1024;
     private final BuildActionRunner buildActionRunner;
 
     public InProcessBuildActionExecuter(BuildActionRunner buildActionRunner) {
@@ -48,7 +51,8 @@ public class InProcessBuildActionExecuter implements BuildActionExecuter<BuildAc
                 public BuildActionResult transform(BuildController buildController) {
                     BuildActionRunner.Result result = buildActionRunner.run(action, buildController);
                     if (result.getBuildFailure() == null) {
-                        return BuildActionResult.of(payloadSerializer.serialize(result.getClientResult()));
+                        SerializedPayload serializedResult = payloadSerializer.serialize(result.getClientResult(), STREAMING_THRESHOLD, buildRequestContext.getEventConsumer());
+                        return serializedResult == null ? BuildActionResult.streamed() : BuildActionResult.of(serializedResult);
                     }
                     if (buildRequestContext.getCancellationToken().isCancellationRequested()) {
                         return BuildActionResult.cancelled(payloadSerializer.serialize(result.getBuildFailure()));
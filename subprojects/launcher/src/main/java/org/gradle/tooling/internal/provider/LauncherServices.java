@@ -71,6 +71,7 @@ public class LauncherServices extends AbstractPluginServiceRegistry {
                                           LoggingManagerInternal loggingManager,
                                           GradleUserHomeScopeServiceRegistry userHomeServiceRegistry,
                                           FileSystemChangeWaiterFactory fileSystemChangeWaiterFactory,
+                                          FileWatcherFactory fileWatcherFactory,
                                           ParallelismConfigurationManager parallelismConfigurationManager
         ) {
             return new SetupLoggingActionExecuter(
@@ -80,19 +81,22 @@ public class LauncherServices extends AbstractPluginServiceRegistry {
                             new GradleThreadBuildActionExecuter(
                                 new SessionScopeBuildActionExecuter(
                                     new SubscribableBuildActionExecuter(
-                                        new ContinuousBuildActionExecuter(
-                                            new BuildTreeScopeBuildActionExecuter(
-                                                new InProcessBuildActionExecuter(
-                                                    new RunAsBuildOperationBuildActionRunner(
-                                                        new BuildCompletionNotifyingBuildActionRunner(
-                                                            new ValidatingBuildActionRunner(
-                                                                new BuildOutcomeReportingBuildActionRunner(
-                                                                    new ChainingBuildActionRunner(buildActionRunners),
-                                                                    styledTextOutputFactory)))))),
-                                        fileSystemChangeWaiterFactory,
-                                        inputsListener,
-                                        styledTextOutputFactory,
-                                        executorFactory),
+                                        new NoOpBuildReplayingActionExecuter(
+                                            new ContinuousBuildActionExecuter(
+                                                new BuildTreeScopeBuildActionExecuter(
+                                                    new InProcessBuildActionExecuter(
+                                                        new RunAsBuildOperationBuildActionRunner(
+                                                            new BuildCompletionNotifyingBuildActionRunner(
+                                                                new ValidatingBuildActionRunner(
+                                                                    new BuildOutcomeReportingBuildActionRunner(
+                                                                        new ChainingBuildActionRunner(buildActionRunners),
+                                                                        styledTextOutputFactory)))))),
+                                            fileSystemChangeWaiterFactory,
+                                            inputsListener,
+                                            styledTextOutputFactory,
+                                            executorFactory),
+                                        fileWatcherFactory,
+                                        styledTextOutputFactory),
                                             listenerManager,
                                             buildOperationListenerManager,
                                             registrations),
@@ -0,0 +1,407 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.provider;
+
+import org.gradle.BuildResult;
+import org.gradle.StartParameter;
+import org.gradle.api.Action;
+import org.gradle.api.Task;
+import org.gradle.api.execution.TaskExecutionListener;
+import org.gradle.api.initialization.Settings;
+import org.gradle.api.internal.TaskInternal;
+import org.gradle.api.internal.file.FileCollectionInternal;
+import org.gradle.api.internal.file.FileSystemSubset;
+import org.gradle.api.internal.tasks.TaskExecutionOutcome;
+import org.gradle.api.internal.tasks.TaskStateInternal;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStatistics;
+import org.gradle.api.internal.tasks.execution.statistics.TaskExecutionStatisticsEventAdapter;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.api.tasks.TaskState;
+import org.gradle.api.tasks.util.PatternSet;
+import org.gradle.initialization.BuildRequestContext;
+import org.gradle.internal.InternalBuildAdapter;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.buildevents.BuildResultLogger;
+import org.gradle.internal.buildevents.BuildStartedTime;
+import org.gradle.internal.buildevents.TaskExecutionStatisticsReporter;
+import org.gradle.internal.event.ListenerManager;
+import org.gradle.internal.filewatch.FileWatcher;
+import org.gradle.internal.filewatch.FileWatcherEvent;
+import org.gradle.internal.filewatch.FileWatcherFactory;
+import org.gradle.internal.filewatch.FileWatcherListener;
+import org.gradle.internal.invocation.BuildAction;
+import org.gradle.internal.logging.format.TersePrettyDurationFormatter;
+import org.gradle.internal.logging.text.StyledTextOutputFactory;
+import org.gradle.internal.serialize.OutputStreamBackedEncoder;
+import org.gradle.internal.serialize.Serializer;
+import org.gradle.internal.service.ServiceRegistry;
+import org.gradle.internal.time.Clock;
+import org.gradle.launcher.cli.action.BuildActionSerializer;
+import org.gradle.launcher.cli.action.ExecuteBuildAction;
+import org.gradle.launcher.exec.BuildActionExecuter;
+import org.gradle.launcher.exec.BuildActionParameters;
+import org.gradle.launcher.exec.BuildActionResult;
+import org.gradle.util.GFileUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the outcome of the previous build, rather than running the build again, when the previous build did not execute any tasks, the same
+ * build is requested again and none of the files used by the previous build have changed since it started.
+ *
+ * <p>Files are watched using the same file watching as continuous build. While a build runs, the root directory of each build that it includes is
+ * watched, along with the files of the Gradle user home that configure a build and the input and output files of each task that is about to
+ * execute. Any change to these files, other than to the {@code .gradle} directories, means that the build cannot be replayed.</p>
+ *
+ * <p>The file watcher reports changes asynchronously. Before a build is replayed, a sentinel file is written to the {@code .gradle} directory of the
+ * root build, which is also watched, and the build is only replayed once the watcher has reported the sentinel file. As the watcher reports events
+ * in order, any change made before the build was requested has been reported by then. When the sentinel file is not reported in time, the build
+ * runs as usual.</p>
+ *
+ * <p>Inputs that are not files, such as dependencies resolved from remote repositories or values that build logic calculates from the
+ * environment, are not tracked. For this reason, replaying builds is only enabled when the {@value #ENABLED_PROPERTY} system property is set
+ * to {@code true}.</p>
+ */
+public class NoOpBuildReplayingActionExecuter implements BuildActionExecuter<BuildActionParameters> {
+    public static final String ENABLED_PROPERTY = "org.gradle.unsafe.replay-no-op-builds";
+    private static final Logger LOGGER = Logging.getLogger(NoOpBuildReplayingActionExecuter.class);
+    private static final long PENDING_CHANGES_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private final BuildActionExecuter<BuildActionParameters> delegate;
+    private final FileWatcherFactory fileWatcherFactory;
+    private final StyledTextOutputFactory styledTextOutputFactory;
+    private final long pendingChangesTimeoutMillis;
+    private final Serializer<BuildAction> actionSerializer = BuildActionSerializer.create();
+    private RecordedBuild previousBuild;
+
+    public NoOpBuildReplayingActionExecuter(BuildActionExecuter<BuildActionParameters> delegate, FileWatcherFactory fileWatcherFactory, StyledTextOutputFactory styledTextOutputFactory) {
+        this(delegate, fileWatcherFactory, styledTextOutputFactory, PENDING_CHANGES_TIMEOUT_MILLIS);
+    }
+
+    NoOpBuildReplayingActionExecuter(BuildActionExecuter<BuildActionParameters> delegate, FileWatcherFactory fileWatcherFactory, StyledTextOutputFactory styledTextOutputFactory, long pendingChangesTimeoutMillis) {
+        this.delegate = delegate;
+        this.fileWatcherFactory = fileWatcherFactory;
+        this.styledTextOutputFactory = styledTextOutputFactory;
+        this.pendingChangesTimeoutMillis = pendingChangesTimeoutMillis;
+    }
+
+    @Override
+    public BuildActionResult execute(BuildAction action, BuildRequestContext requestContext, BuildActionParameters actionParameters, ServiceRegistry buildSessionScopeServices) {
+        RecordedBuild previousBuild = takePreviousBuild();
+        if (!isReplayable(action, actionParameters)) {
+            discard(previousBuild);
+            return delegate.execute(action, requestContext, actionParameters, buildSessionScopeServices);
+        }
+
+        BuildRequest request = new BuildRequest(serialize(action), actionParameters);
+        if (previousBuild != null && previousBuild.canReplay(request, pendingChangesTimeoutMillis)) {
+            recordPreviousBuild(previousBuild);
+            return replay(previousBuild, buildSessionScopeServices);
+        }
+        discard(previousBuild);
+        return executeAndRecord(request, action, requestContext, actionParameters, buildSessionScopeServices);
+    }
+
+    private synchronized RecordedBuild takePreviousBuild() {
+        RecordedBuild build = previousBuild;
+        previousBuild = null;
+        return build;
+    }
+
+    private synchronized void recordPreviousBuild(RecordedBuild build) {
+        discard(previousBuild);
+        previousBuild = build;
+    }
+
+    private BuildActionResult executeAndRecord(BuildRequest request, BuildAction action, BuildRequestContext requestContext, BuildActionParameters actionParameters, ServiceRegistry buildSessionScopeServices) {
+        RecordedBuild build = new RecordedBuild(request);
+        build.startWatching(fileWatcherFactory, ((ExecuteBuildAction) action).getStartParameter().getCurrentDir());
+        ListenerManager listenerManager = buildSessionScopeServices.get(ListenerManager.class);
+        listenerManager.addListener(build);
+        boolean recorded = false;
+        try {
+            BuildActionResult result = delegate.execute(action, requestContext, actionParameters, buildSessionScopeServices);
+            if (!result.hasFailure() && build.isNoOp()) {
+                recordPreviousBuild(build);
+                recorded = true;
+            }
+            return result;
+        } finally {
+            listenerManager.removeListener(build);
+            if (!recorded) {
+                build.stopWatching();
+            }
+        }
+    }
+
+    private BuildActionResult replay(RecordedBuild build, ServiceRegistry buildSessionScopeServices) {
+        LOGGER.info("None of the files used by the previous build have changed, replaying its outcome.");
+        BuildStartedTime buildStartedTime = buildSessionScopeServices.get(BuildStartedTime.class);
+        Clock clock = buildSessionScopeServices.get(Clock.class);
+        new BuildResultLogger(styledTextOutputFactory, buildStartedTime, clock, new TersePrettyDurationFormatter()).buildFinished(new BuildResult(build.resultAction, null, null));
+        new TaskExecutionStatisticsReporter(styledTextOutputFactory).buildFinished(build.taskStatistics);
+        return BuildActionResult.of(null);
+    }
+
+    private static void discard(RecordedBuild build) {
+        if (build != null) {
+            build.stopWatching();
+        }
+    }
+
+    private static boolean isReplayable(BuildAction action, BuildActionParameters actionParameters) {
+        if (!(action instanceof ExecuteBuildAction) || actionParameters.isContinuous()) {
+            return false;
+        }
+        StartParameter startParameter = ((ExecuteBuildAction) action).getStartParameter();
+        if (!"true".equals(startParameter.getSystemPropertiesArgs().get(ENABLED_PROPERTY)) && !"true".equals(actionParameters.getSystemProperties().get(ENABLED_PROPERTY))) {
+            return false;
+        }
+        // These options ask for work to be done even when nothing has changed
+        return !startParameter.isRerunTasks() && !startParameter.isRefreshDependencies() && !startParameter.isProfile() && !startParameter.isBuildScan();
+    }
+
+    private byte[] serialize(BuildAction action) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        OutputStreamBackedEncoder encoder = new OutputStreamBackedEncoder(outputStream);
+        try {
+            actionSerializer.write(encoder, action);
+            encoder.flush();
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static class BuildRequest {
+        private final byte[] action;
+        private final BuildActionParameters parameters;
+
+        BuildRequest(byte[] action, BuildActionParameters parameters) {
+            this.action = action;
+            this.parameters = parameters;
+        }
+
+        boolean isSameAs(BuildRequest other) {
+            return Arrays.equals(action, other.action)
+                && parameters.getSystemProperties().equals(other.parameters.getSystemProperties())
+                && parameters.getEnvVariables().equals(other.parameters.getEnvVariables())
+                && parameters.getCurrentDir().equals(other.parameters.getCurrentDir())
+                && parameters.getLogLevel() == other.parameters.getLogLevel()
+                && parameters.getInjectedPluginClasspath().equals(other.parameters.getInjectedPluginClasspath());
+        }
+    }
+
+    /**
+     * Collects the details of a build that are needed to replay it, and watches the files that the build uses.
+     */
+    private static class RecordedBuild extends InternalBuildAdapter implements TaskExecutionListener {
+        private final BuildRequest request;
+        private final TaskExecutionStatisticsEventAdapter taskStatisticsCollector = new TaskExecutionStatisticsEventAdapter();
+        private final Object sentinelLock = new Object();
+        private volatile String changeDescription;
+        private volatile File sentinelDir;
+        private FileWatcher watcher;
+        private boolean executedTasks;
+        private String resultAction;
+        private TaskExecutionStatistics taskStatistics;
+        private File pendingSentinel;
+
+        RecordedBuild(BuildRequest request) {
+            this.request = request;
+        }
+
+        void startWatching(FileWatcherFactory fileWatcherFactory, File currentDir) {
+            watcher = fileWatcherFactory.watch(new Action<Throwable>() {
+                @Override
+                public void execute(Throwable failure) {
+                    watchingFailed(failure);
+                }
+            }, new FileWatcherListener() {
+                @Override
+                public void onChange(FileWatcher watcher, FileWatcherEvent event) {
+                    if (event.getType() == FileWatcherEvent.Type.UNDEFINED) {
+                        changed("files may have changed");
+                    } else if (isSentinel(event.getFile())) {
+                        sentinelReported(event.getFile());
+                    } else {
+                        changed(event.getFile() + " has changed");
+                    }
+                }
+            });
+            // Watch the requested directory until the root directory of the build is known
+            watch(FileSystemSubset.builder().add(currentDir, excludeGradleDirs()).build());
+        }
+
+        void stopWatching() {
+            watcher.stop();
+        }
+
+        synchronized boolean isNoOp() {
+            return !executedTasks && resultAction != null && changeDescription == null;
+        }
+
+        boolean canReplay(BuildRequest request, long pendingChangesTimeoutMillis) {
+            if (!this.request.isSameAs(request)) {
+                LOGGER.info("Not replaying the previous build, as a different build has been requested.");
+                return false;
+            }
+            if (!awaitPendingChanges(pendingChangesTimeoutMillis)) {
+                LOGGER.info("Not replaying the previous build, as the file watcher did not report pending changes in time.");
+                return false;
+            }
+            if (changeDescription != null) {
+                LOGGER.info("Not replaying the previous build, as {}.", changeDescription);
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Writes a new sentinel file and waits for the file watcher to report it, so that any change made before this method was called has been reported.
+         */
+        private boolean awaitPendingChanges(long timeoutMillis) {
+            File sentinelDir = this.sentinelDir;
+            if (sentinelDir == null) {
+                return false;
+            }
+            File sentinel = new File(sentinelDir, UUID.randomUUID().toString());
+            synchronized (sentinelLock) {
+                pendingSentinel = sentinel;
+            }
+            try {
+                GFileUtils.touch(sentinel);
+                long deadline = System.currentTimeMillis() + timeoutMillis;
+                synchronized (sentinelLock) {
+                    while (pendingSentinel != null) {
+                        long remaining = deadline - System.currentTimeMillis();
+                        if (remaining <= 0) {
+                            pendingSentinel = null;
+                            return false;
+                        }
+                        sentinelLock.wait(remaining);
+                    }
+                }
+                return true;
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            } catch (RuntimeException e) {
+                LOGGER.debug("Could not write the sentinel file for the file watcher.", e);
+                return false;
+            } finally {
+                GFileUtils.deleteQuietly(sentinel);
+            }
+        }
+
+        private boolean isSentinel(File file) {
+            File sentinelDir = this.sentinelDir;
+            return sentinelDir != null && (sentinelDir.equals(file) || sentinelDir.equals(file.getParentFile()));
+        }
+
+        private void sentinelReported(File file) {
+            synchronized (sentinelLock) {
+                if (file.equals(pendingSentinel)) {
+                    pendingSentinel = null;
+                    sentinelLock.notifyAll();
+                }
+            }
+        }
+
+        @Override
+        public void settingsEvaluated(Settings settings) {
+            StartParameter startParameter = settings.getStartParameter();
+            File gradleUserHomeDir = startParameter.getGradleUserHomeDir();
+            FileSystemSubset.Builder builder = FileSystemSubset.builder();
+            if (sentinelDir == null) {
+                // The root build is configured first
+                File dir = new File(settings.getRootDir(), ".gradle/no-op-build-replay");
+                GFileUtils.mkdirs(dir);
+                sentinelDir = dir;
+                builder.add(dir);
+            }
+            builder.add(settings.getRootDir(), excludeGradleDirs());
+            builder.add(new File(gradleUserHomeDir, "gradle.properties"));
+            builder.add(new File(gradleUserHomeDir, "init.gradle"));
+            builder.add(new File(gradleUserHomeDir, "init.gradle.kts"));
+            builder.add(new File(gradleUserHomeDir, "init.d"));
+            for (File initScript : startParameter.getInitScripts()) {
+                builder.add(initScript);
+            }
+            watch(builder.build());
+        }
+
+        @Override
+        public void beforeExecute(Task task) {
+            TaskInternal taskInternal = (TaskInternal) task;
+            FileSystemSubset.Builder builder = FileSystemSubset.builder();
+            ((FileCollectionInternal) taskInternal.getInputs().getFiles()).registerWatchPoints(builder);
+            ((FileCollectionInternal) taskInternal.getOutputs().getFiles()).registerWatchPoints(builder);
+            watch(builder.build());
+        }
+
+        @Override
+        public synchronized void afterExecute(Task task, TaskState state) {
+            TaskExecutionOutcome outcome = ((TaskStateInternal) state).getOutcome();
+            if (outcome != TaskExecutionOutcome.UP_TO_DATE && outcome != TaskExecutionOutcome.NO_SOURCE) {
+                executedTasks = true;
+            }
+            if (task.getProject().getGradle().getParent() == null) {
+                // Only the tasks of the root build are included in the statistics that are reported for a build
+                taskStatisticsCollector.afterExecute(task, state);
+            }
+        }
+
+        @Override
+        public synchronized void buildFinished(BuildResult result) {
+            if (result.getGradle() != null && result.getGradle().getParent() == null) {
+                resultAction = result.getAction();
+                taskStatistics = taskStatisticsCollector.getStatistics();
+            }
+        }
+
+        private static PatternSet excludeGradleDirs() {
+            // Gradle writes to these directories, even when no tasks are executed
+            return new PatternSet().exclude("**/.gradle", "**/.gradle/**");
+        }
+
+        private void watch(FileSystemSubset fileSystemSubset) {
+            try {
+                watcher.watch(fileSystemSubset);
+            } catch (IOException e) {
+                watchingFailed(e);
+            }
+        }
+
+        private void watchingFailed(Throwable failure) {
+            LOGGER.debug("Could not watch the files used by the build.", failure);
+            changed("the files used by the build could not be watched");
+        }
+
+        private void changed(String description) {
+            if (changeDescription == null) {
+                changeDescription = description;
+            }
+        }
+    }
+}
@@ -64,6 +64,7 @@ import org.gradle.tooling.internal.provider.connection.ProviderConnectionParamet
 import org.gradle.tooling.internal.provider.connection.ProviderOperationParameters;
 import org.gradle.tooling.internal.provider.serialization.PayloadSerializer;
 import org.gradle.tooling.internal.provider.serialization.SerializedPayload;
+import org.gradle.tooling.internal.provider.serialization.StreamedPayloadReceiver;
 import org.gradle.tooling.internal.provider.test.ProviderInternalTestExecutionRequest;
 import org.gradle.tooling.model.UnsupportedMethodException;
 import org.gradle.tooling.model.build.BuildEnvironment;
@@ -185,14 +186,20 @@ public class ProviderConnection {
                        BuildEventConsumer buildEventConsumer,
                        ProviderOperationParameters providerParameters,
                        Parameters parameters) {
+        StreamedPayloadReceiver resultReceiver = payloadSerializer.newStreamedPayloadReceiver();
         try {
             BuildActionExecuter<ProviderOperationParameters> executer = createExecuter(providerParameters, parameters);
             boolean interactive = providerParameters.getStandardInput() != null;
-            BuildRequestContext buildRequestContext = new DefaultBuildRequestContext(new DefaultBuildRequestMetaData(providerParameters.getStartTime(), interactive), cancellationToken, buildEventConsumer);
+            BuildEventConsumer eventConsumer = new StreamedResultEventConsumer(resultReceiver, buildEventConsumer);
+            BuildRequestContext buildRequestContext = new DefaultBuildRequestContext(new DefaultBuildRequestMetaData(providerParameters.getStartTime(), interactive), cancellationToken, eventConsumer);
             BuildActionResult result = executer.execute(action, buildRequestContext, providerParameters, sharedServices);
             throwFailure(result);
+            if (result.isResultStreamed()) {
+                return resultReceiver.complete();
+            }
             return payloadSerializer.deserialize(result.getResult());
         } finally {
+            resultReceiver.stop();
             progressListenerConfiguration.failsafeWrapper.rethrowErrors();
         }
     }
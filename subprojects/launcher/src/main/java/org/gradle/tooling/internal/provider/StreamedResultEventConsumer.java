@@ -0,0 +1,44 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.provider;
+
+import org.gradle.initialization.BuildEventConsumer;
+import org.gradle.tooling.internal.provider.serialization.StreamedPayloadChunk;
+import org.gradle.tooling.internal.provider.serialization.StreamedPayloadReceiver;
+
+/**
+ * Consumer of build events that passes the chunks of a streamed result to a receiver, which deserializes them while the remaining chunks are received.
+ */
+public class StreamedResultEventConsumer implements BuildEventConsumer {
+    private final StreamedPayloadReceiver resultReceiver;
+    private final BuildEventConsumer delegate;
+
+    StreamedResultEventConsumer(StreamedPayloadReceiver resultReceiver, BuildEventConsumer delegate) {
+        this.resultReceiver = resultReceiver;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void dispatch(Object event) {
+        if (event instanceof StreamedPayloadChunk) {
+            resultReceiver.receive((StreamedPayloadChunk) event);
+        } else {
+            delegate.dispatch(event);
+        }
+    }
+}
@@ -19,18 +19,25 @@ package org.gradle.tooling.internal.provider.serialization;
 import net.jcip.annotations.ThreadSafe;
 import org.gradle.internal.IoActions;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.dispatch.Dispatch;
 import org.gradle.internal.io.StreamByteBuffer;
 
 import javax.annotation.Nullable;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 @ThreadSafe
 public class PayloadSerializer {
+    private static final int STREAMED_CHUNK_SIZE = 1024 * 1024;
     private final PayloadClassLoaderRegistry classLoaderRegistry;
 
     public PayloadSerializer(PayloadClassLoaderRegistry registry) {
@@ -61,20 +68,151 @@ public class PayloadSerializer {
         }
     }
 
+    /**
+     * Serializes the given payload, sending the serialized form to the given consumer in chunks once it grows larger than the given threshold. The
+     * chunks can be deserialized using a {@link StreamedPayloadReceiver}.
+     *
+     * @return the serialized payload, or null when the serialized form was larger than the threshold and has been sent to the consumer.
+     */
+    @Nullable
+    public SerializedPayload serialize(@Nullable Object payload, int streamingThreshold, Dispatch<? super StreamedPayloadChunk> chunkConsumer) {
+        if (payload == null) {
+            return serialize(null);
+        }
+
+        final SerializeMap map = classLoaderRegistry.newSerializeSession();
+        try {
+            StreamingOutputStream outputStream = new StreamingOutputStream(map, streamingThreshold, chunkConsumer);
+            final ObjectOutputStream objectStream = new PayloadSerializerObjectOutputStream(outputStream, map);
+
+            try {
+                objectStream.writeObject(payload);
+                objectStream.flush();
+            } finally {
+                IoActions.closeQuietly(objectStream);
+            }
+
+            if (outputStream.isStreaming()) {
+                outputStream.sendChunk();
+                return null;
+            }
+            Map<Short, ClassLoaderDetails> classLoaders = new HashMap<Short, ClassLoaderDetails>();
+            map.collectClassLoaderDefinitions(classLoaders);
+            return new SerializedPayload(classLoaders, outputStream.buffer.readAsListOfByteArrays());
+        } catch (IOException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
     public @Nullable Object deserialize(SerializedPayload payload) {
         if (payload.getSerializedModel().isEmpty()) {
             return null;
         }
 
+        StreamByteBuffer buffer = StreamByteBuffer.of(payload.getSerializedModel());
+        return deserialize(buffer.getInputStream(), (Map<Short, ClassLoaderDetails>) payload.getHeader());
+    }
+
+    /**
+     * Creates a receiver for a payload that is sent in chunks by {@link #serialize(Object, int, Dispatch)}.
+     */
+    public StreamedPayloadReceiver newStreamedPayloadReceiver() {
+        return new StreamedPayloadReceiver(this);
+    }
+
+    Object deserialize(InputStream inputStream, Map<Short, ClassLoaderDetails> classLoaderDetails) {
         final DeserializeMap map = classLoaderRegistry.newDeserializeSession();
         try {
-            final Map<Short, ClassLoaderDetails> classLoaderDetails = (Map<Short, ClassLoaderDetails>) payload.getHeader();
-            StreamByteBuffer buffer = StreamByteBuffer.of(payload.getSerializedModel());
-            final ObjectInputStream objectStream = new PayloadSerializerObjectInputStream(buffer.getInputStream(), getClass().getClassLoader(), classLoaderDetails, map);
+            final ObjectInputStream objectStream = new PayloadSerializerObjectInputStream(inputStream, getClass().getClassLoader(), classLoaderDetails, map);
             return objectStream.readObject();
         } catch (Exception e) {
             throw UncheckedException.throwAsUncheckedException(e);
         }
     }
 
+    /**
+     * Buffers the serialized form until it reaches the threshold, then sends the buffered bytes and everything written after that as chunks.
+     */
+    private static class StreamingOutputStream extends OutputStream {
+        private final SerializeMap map;
+        private final int streamingThreshold;
+        private final Dispatch<? super StreamedPayloadChunk> chunkConsumer;
+        private final Set<Short> sentClassLoaders = new HashSet<Short>();
+        private StreamByteBuffer buffer = new StreamByteBuffer();
+        private OutputStream bufferStream = buffer.getOutputStream();
+        private int buffered;
+        private boolean streaming;
+        private byte[] chunk;
+        private int chunkLength;
+
+        StreamingOutputStream(SerializeMap map, int streamingThreshold, Dispatch<? super StreamedPayloadChunk> chunkConsumer) {
+            this.map = map;
+            this.streamingThreshold = streamingThreshold;
+            this.chunkConsumer = chunkConsumer;
+        }
+
+        boolean isStreaming() {
+            return streaming;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            if (!streaming) {
+                if (buffered + length <= streamingThreshold) {
+                    bufferStream.write(bytes, offset, length);
+                    buffered += length;
+                    return;
+                }
+                startStreaming();
+            }
+            writeToChunks(bytes, offset, length);
+        }
+
+        private void startStreaming() {
+            streaming = true;
+            for (byte[] bufferedBytes : buffer.readAsListOfByteArrays()) {
+                writeToChunks(bufferedBytes, 0, bufferedBytes.length);
+            }
+            buffer = null;
+            bufferStream = null;
+        }
+
+        private void writeToChunks(byte[] bytes, int offset, int length) {
+            while (length > 0) {
+                if (chunk == null) {
+                    chunk = new byte[STREAMED_CHUNK_SIZE];
+                }
+                int count = Math.min(length, chunk.length - chunkLength);
+                System.arraycopy(bytes, offset, chunk, chunkLength, count);
+                chunkLength += count;
+                offset += count;
+                length -= count;
+                if (chunkLength == chunk.length) {
+                    sendChunk();
+                }
+            }
+        }
+
+        void sendChunk() {
+            if (chunkLength == 0) {
+                return;
+            }
+            // Send the details of the ClassLoaders used so far before any bytes that refer to them
+            Map<Short, ClassLoaderDetails> classLoaders = new HashMap<Short, ClassLoaderDetails>();
+            map.collectClassLoaderDefinitions(classLoaders);
+            classLoaders.keySet().removeAll(sentClassLoaders);
+            sentClassLoaders.addAll(classLoaders.keySet());
+
+            byte[] bytes = chunkLength == chunk.length ? chunk : Arrays.copyOf(chunk, chunkLength);
+            chunk = null;
+            chunkLength = 0;
+            chunkConsumer.dispatch(new StreamedPayloadChunk(classLoaders, bytes));
+        }
+    }
+
 }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.provider.serialization;
+
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * A chunk of a serialized payload that is sent to the receiver while the payload is still being serialized.
+ */
+public class StreamedPayloadChunk implements Serializable {
+    private final Map<Short, ClassLoaderDetails> classLoaders;
+    private final byte[] bytes;
+
+    public StreamedPayloadChunk(Map<Short, ClassLoaderDetails> classLoaders, byte[] bytes) {
+        this.classLoaders = classLoaders;
+        this.bytes = bytes;
+    }
+
+    /**
+     * The ClassLoaders that are referenced by this chunk and that have not been sent with a previous chunk.
+     */
+    public Map<Short, ClassLoaderDetails> getClassLoaders() {
+        return classLoaders;
+    }
+
+    public byte[] getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.provider.serialization;
+
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.internal.UncheckedException;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserializes a payload from the chunks produced by {@link PayloadSerializer#serialize(Object, int, org.gradle.internal.dispatch.Dispatch)}, while
+ * the chunks are still being received.
+ *
+ * <p>Deserialization happens in a separate thread, which is started when the first chunk is received. At most a few chunks are held in memory, so
+ * that a receiver that is slower than the sender applies back pressure to the sender.</p>
+ */
+@ThreadSafe
+public class StreamedPayloadReceiver {
+    private static final int MAX_PENDING_CHUNKS = 8;
+    private static final byte[] END_OF_STREAM = new byte[0];
+
+    private final PayloadSerializer payloadSerializer;
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<byte[]>(MAX_PENDING_CHUNKS);
+    private final Map<Short, ClassLoaderDetails> classLoaderDetails = new ConcurrentHashMap<Short, ClassLoaderDetails>();
+    private DeserializerThread deserializer;
+
+    StreamedPayloadReceiver(PayloadSerializer payloadSerializer) {
+        this.payloadSerializer = payloadSerializer;
+    }
+
+    public void receive(StreamedPayloadChunk chunk) {
+        DeserializerThread deserializer = start();
+        // Make the ClassLoaders available before any bytes that refer to them
+        classLoaderDetails.putAll(chunk.getClassLoaders());
+        deserializer.offer(chunk.getBytes());
+    }
+
+    /**
+     * Waits for the payload to be deserialized once all chunks have been received.
+     */
+    @Nullable
+    public Object complete() {
+        DeserializerThread deserializer = start();
+        deserializer.offer(END_OF_STREAM);
+        return deserializer.waitForResult();
+    }
+
+    /**
+     * Discards any chunks that have been received, and stops deserializing them.
+     */
+    public void stop() {
+        DeserializerThread deserializer;
+        synchronized (this) {
+            deserializer = this.deserializer;
+        }
+        if (deserializer != null) {
+            deserializer.offer(END_OF_STREAM);
+            deserializer.waitForFinish();
+        }
+    }
+
+    private synchronized DeserializerThread start() {
+        if (deserializer == null) {
+            deserializer = new DeserializerThread();
+            deserializer.start();
+        }
+        return deserializer;
+    }
+
+    private class DeserializerThread extends Thread {
+        private volatile boolean finished;
+        private Object result;
+        private Throwable failure;
+
+        DeserializerThread() {
+            super("Payload deserializer");
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                result = payloadSerializer.deserialize(new ChunksInputStream(), classLoaderDetails);
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                finished = true;
+                // Discard anything left over, to unblock the sender
+                chunks.clear();
+            }
+        }
+
+        void offer(byte[] bytes) {
+            try {
+                while (!finished) {
+                    if (chunks.offer(bytes, 100, TimeUnit.MILLISECONDS)) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        void waitForFinish() {
+            try {
+                join();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+
+        Object waitForResult() {
+            waitForFinish();
+            if (failure != null) {
+                throw UncheckedException.throwAsUncheckedException(failure);
+            }
+            return result;
+        }
+    }
+
+    private class ChunksInputStream extends InputStream {
+        private byte[] current = new byte[0];
+        private int pos;
+
+        @Override
+        public int read() throws IOException {
+            if (!nextChunk()) {
+                return -1;
+            }
+            return current[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextChunk()) {
+                return -1;
+            }
+            int count = Math.min(length, current.length - pos);
+            System.arraycopy(current, pos, bytes, offset, count);
+            pos += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return current.length - pos;
+        }
+
+        private boolean nextChunk() throws IOException {
+            while (pos == current.length) {
+                if (current == END_OF_STREAM) {
+                    return false;
+                }
+                try {
+                    current = chunks.take();
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                pos = 0;
+            }
+            return true;
+        }
+    }
+}
@@ -121,6 +121,19 @@ class DaemonMessageSerializerTest extends SerializerSpec {
         result5.value.exception == null
     }
 
+    def "can serialize Success message with streamed BuildActionResult"() {
+        expect:
+        def message = new Success(BuildActionResult.streamed())
+        def result = serialize(message, serializer)
+        result instanceof Success
+        result.value instanceof BuildActionResult
+        result.value.resultStreamed
+        !result.value.wasCancelled()
+        result.value.result == null
+        result.value.failure == null
+        result.value.exception == null
+    }
+
     def "can serialize Failure messages"() {
         expect:
         def failure = new RuntimeException()
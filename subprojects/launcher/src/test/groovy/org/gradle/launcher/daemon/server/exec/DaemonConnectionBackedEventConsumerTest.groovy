@@ -0,0 +1,72 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.launcher.daemon.server.exec
+
+import org.gradle.launcher.daemon.server.api.DaemonCommandExecution
+import org.gradle.launcher.daemon.server.api.DaemonConnection
+import org.gradle.tooling.internal.provider.serialization.StreamedPayloadChunk
+import spock.lang.Specification
+
+import java.util.concurrent.atomic.AtomicInteger
+
+class DaemonConnectionBackedEventConsumerTest extends Specification {
+    private static final int CHUNK_SIZE = 1024 * 1024
+
+    def connection = Mock(DaemonConnection)
+    def execution = Stub(DaemonCommandExecution) {
+        getConnection() >> connection
+    }
+
+    def "holds a bounded number of result chunks while the client receives them"() {
+        def chunks = (0..<50).collect { new StreamedPayloadChunk([:], new byte[CHUNK_SIZE]) }
+        def received = []
+        def pendingBytes = new AtomicInteger()
+        def maxPendingBytes = 0
+        def consumer = new DaemonConnectionBackedEventConsumer(execution)
+
+        when:
+        chunks.each { chunk ->
+            pendingBytes.addAndGet(chunk.bytes.length)
+            consumer.dispatch(chunk)
+            maxPendingBytes = Math.max(maxPendingBytes, pendingBytes.get())
+        }
+        consumer.waitForFinish()
+
+        then:
+        _ * connection.event(_) >> { StreamedPayloadChunk chunk ->
+            // A client that receives events more slowly than they are produced
+            Thread.sleep(5)
+            received << chunk
+            pendingBytes.addAndGet(-chunk.bytes.length)
+        }
+        received == chunks
+        maxPendingBytes <= DaemonConnectionBackedEventConsumer.MAX_QUEUED_CHUNKS * CHUNK_SIZE
+    }
+
+    def "discards result chunks once the client can no longer receive events"() {
+        def consumer = new DaemonConnectionBackedEventConsumer(execution)
+
+        when:
+        consumer.dispatch("event")
+        (0..<20).each { consumer.dispatch(new StreamedPayloadChunk([:], new byte[CHUNK_SIZE])) }
+        consumer.waitForFinish()
+
+        then:
+        1 * connection.event("event") >> { throw new IllegalStateException("disconnected") }
+        0 * connection.event(_)
+    }
+}
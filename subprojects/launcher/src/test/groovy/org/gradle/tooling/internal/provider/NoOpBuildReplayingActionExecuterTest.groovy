@@ -0,0 +1,254 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.tooling.internal.provider
+
+import org.gradle.BuildResult
+import org.gradle.api.execution.TaskExecutionListener
+import org.gradle.api.initialization.Settings
+import org.gradle.api.internal.GradleInternal
+import org.gradle.api.internal.StartParameterInternal
+import org.gradle.api.internal.TaskInputsInternal
+import org.gradle.api.internal.TaskInternal
+import org.gradle.api.internal.TaskOutputsInternal
+import org.gradle.api.internal.file.FileCollectionInternal
+import org.gradle.api.internal.project.ProjectInternal
+import org.gradle.api.internal.tasks.TaskExecutionOutcome
+import org.gradle.api.internal.tasks.TaskStateInternal
+import org.gradle.api.logging.LogLevel
+import org.gradle.initialization.BuildRequestContext
+import org.gradle.internal.buildevents.BuildStartedTime
+import org.gradle.internal.classpath.ClassPath
+import org.gradle.internal.event.ListenerManager
+import org.gradle.internal.filewatch.FileWatcher
+import org.gradle.internal.filewatch.FileWatcherEvent
+import org.gradle.internal.filewatch.FileWatcherFactory
+import org.gradle.internal.filewatch.FileWatcherListener
+import org.gradle.internal.logging.text.TestStyledTextOutputFactory
+import org.gradle.internal.service.ServiceRegistry
+import org.gradle.internal.time.Clock
+import org.gradle.launcher.cli.action.ExecuteBuildAction
+import org.gradle.launcher.exec.BuildActionExecuter
+import org.gradle.launcher.exec.BuildActionResult
+import org.gradle.launcher.exec.DefaultBuildActionParameters
+import org.gradle.test.fixtures.file.TestFile
+import org.gradle.test.fixtures.file.TestNameTestDirectoryProvider
+import org.junit.Rule
+import spock.lang.Specification
+
+class NoOpBuildReplayingActionExecuterTest extends Specification {
+    @Rule
+    final TestNameTestDirectoryProvider tmpDir = new TestNameTestDirectoryProvider()
+    def delegate = Mock(BuildActionExecuter)
+    def watcher = Mock(FileWatcher)
+    def watcherFactory = Mock(FileWatcherFactory)
+    def textOutputFactory = new TestStyledTextOutputFactory()
+    def listenerManager = Mock(ListenerManager)
+    def buildSessionScopeServices = Stub(ServiceRegistry)
+    def requestContext = Stub(BuildRequestContext)
+    def rootBuild = Stub(GradleInternal)
+    def actionParameters = new DefaultBuildActionParameters([:], [:], new File("dir"), LogLevel.LIFECYCLE, true, false, ClassPath.EMPTY)
+    def executer = new NoOpBuildReplayingActionExecuter(delegate, watcherFactory, textOutputFactory)
+    def listener
+    FileWatcherListener watcherListener
+    TestFile rootDir
+    volatile boolean reportSentinelFiles = true
+    Thread sentinelReporter
+
+    def setup() {
+        buildSessionScopeServices.get(ListenerManager) >> listenerManager
+        buildSessionScopeServices.get(BuildStartedTime) >> BuildStartedTime.startingAt(0)
+        buildSessionScopeServices.get(Clock) >> Stub(Clock)
+        listenerManager.addListener(_) >> { listener = it[0] }
+        watcherFactory.watch(_, _) >> { watcherListener = it[1]; watcher }
+        rootDir = tmpDir.createDir("root")
+        sentinelReporter = Thread.start {
+            // Report the sentinel files written before a build is replayed, as the file watcher would
+            def sentinelDir = rootDir.file(".gradle/no-op-build-replay")
+            def reported = [] as Set
+            while (reportSentinelFiles) {
+                sentinelDir.listFiles()?.each {
+                    if (reported.add(it)) {
+                        watcherListener.onChange(watcher, FileWatcherEvent.create(it))
+                    }
+                }
+                Thread.sleep(10)
+            }
+        }
+    }
+
+    def cleanup() {
+        reportSentinelFiles = false
+        sentinelReporter.join()
+    }
+
+    def "replays no-op build when the same build is requested and no files have changed"() {
+        def action = action("build")
+
+        when:
+        executer.execute(action, requestContext, actionParameters, buildSessionScopeServices)
+
+        then:
+        1 * delegate.execute(action, requestContext, actionParameters, buildSessionScopeServices) >> { runBuild(TaskExecutionOutcome.UP_TO_DATE) }
+
+        when:
+        textOutputFactory.clear()
+        def result = executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+
+        then:
+        0 * delegate._
+        0 * watcher.stop()
+        !result.hasFailure()
+        textOutputFactory.toString().contains("{successheader}BUILD SUCCESSFUL{normal}")
+        textOutputFactory.toString().contains("1 actionable task: 1 up-to-date")
+    }
+
+    def "watches root directory of the build and files of the tasks"() {
+        when:
+        executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+
+        then:
+        1 * delegate.execute(_, _, _, _) >> { runBuild(TaskExecutionOutcome.UP_TO_DATE) }
+        1 * watcher.watch({ it.contains(new File("dir/build.gradle")) && !it.contains(new File("dir/.gradle/file")) })
+        1 * watcher.watch({ it.contains(rootDir.file("settings.gradle")) && !it.contains(rootDir.file(".gradle/file")) && it.contains(rootDir.file(".gradle/no-op-build-replay/sentinel")) })
+        1 * watcher.watch({ it.contains(new File("input")) && it.contains(new File("output")) })
+    }
+
+    def "runs build when the file watcher does not report pending changes in time"() {
+        def executer = new NoOpBuildReplayingActionExecuter(delegate, watcherFactory, textOutputFactory, 100)
+        reportSentinelFiles = false
+
+        when:
+        executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+        executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+
+        then:
+        2 * delegate.execute(_, _, _, _) >> { runBuild(TaskExecutionOutcome.UP_TO_DATE) }
+        1 * watcher.stop()
+        rootDir.file(".gradle/no-op-build-replay").list().length == 0
+    }
+
+    def "runs build when a file used by the previous build has changed"() {
+        when:
+        executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+        watcherListener.onChange(watcher, FileWatcherEvent.modify(new File("build.gradle")))
+        executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+
+        then:
+        2 * delegate.execute(_, _, _, _) >> { runBuild(TaskExecutionOutcome.UP_TO_DATE) }
+        1 * watcher.stop()
+    }
+
+    def "runs build when a different build is requested"() {
+        when:
+        executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+        executer.execute(action("test"), requestContext, actionParameters, buildSessionScopeServices)
+        executer.execute(action("test"), requestContext, new DefaultBuildActionParameters([:], [VAR: "value"], new File("dir"), LogLevel.LIFECYCLE, true, false, ClassPath.EMPTY), buildSessionScopeServices)
+
+        then:
+        3 * delegate.execute(_, _, _, _) >> { runBuild(TaskExecutionOutcome.UP_TO_DATE) }
+    }
+
+    def "runs build when the previous build executed tasks"() {
+        when:
+        executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+        executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+
+        then:
+        1 * delegate.execute(_, _, _, _) >> { runBuild(TaskExecutionOutcome.EXECUTED) }
+        1 * delegate.execute(_, _, _, _) >> { runBuild(TaskExecutionOutcome.UP_TO_DATE) }
+    }
+
+    def "runs build when the previous build failed"() {
+        when:
+        executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+        executer.execute(action("build"), requestContext, actionParameters, buildSessionScopeServices)
+
+        then:
+        1 * delegate.execute(_, _, _, _) >> {
+            runBuild(TaskExecutionOutcome.UP_TO_DATE)
+            BuildActionResult.failed(new RuntimeException())
+        }
+        1 * delegate.execute(_, _, _, _) >> { runBuild(TaskExecutionOutcome.UP_TO_DATE) }
+    }
+
+    def "does not replay builds when not enabled"() {
+        def action = new ExecuteBuildAction(new StartParameterInternal())
+
+        when:
+        executer.execute(action, requestContext, actionParameters, buildSessionScopeServices)
+        executer.execute(action, requestContext, actionParameters, buildSessionScopeServices)
+
+        then:
+        2 * delegate.execute(_, _, _, _) >> BuildActionResult.of(null)
+        0 * watcherFactory._
+    }
+
+    def "does not replay builds that are asked to rerun tasks"() {
+        def action = action("build")
+        action.startParameter.rerunTasks = true
+
+        when:
+        executer.execute(action, requestContext, actionParameters, buildSessionScopeServices)
+        executer.execute(action, requestContext, actionParameters, buildSessionScopeServices)
+
+        then:
+        2 * delegate.execute(_, _, _, _) >> BuildActionResult.of(null)
+        0 * watcherFactory._
+    }
+
+    private static ExecuteBuildAction action(String taskName) {
+        def startParameter = new StartParameterInternal()
+        startParameter.currentDir = new File("dir")
+        startParameter.taskNames = [taskName]
+        startParameter.systemPropertiesArgs = [(NoOpBuildReplayingActionExecuter.ENABLED_PROPERTY): "true"]
+        return new ExecuteBuildAction(startParameter)
+    }
+
+    private BuildActionResult runBuild(TaskExecutionOutcome outcome) {
+        def project = Stub(ProjectInternal) {
+            getGradle() >> rootBuild
+        }
+        def task = Stub(TaskInternal) {
+            getProject() >> project
+            getInputs() >> Stub(TaskInputsInternal) {
+                getFiles() >> files(new File("input"))
+            }
+            getOutputs() >> Stub(TaskOutputsInternal) {
+                getFiles() >> files(new File("output"))
+            }
+        }
+        def settings = Stub(Settings) {
+            getRootDir() >> rootDir
+            getStartParameter() >> new StartParameterInternal()
+        }
+        def state = new TaskStateInternal()
+        state.outcome = outcome
+        listener.settingsEvaluated(settings)
+        TaskExecutionListener taskListener = listener
+        taskListener.beforeExecute(task)
+        taskListener.afterExecute(task, state)
+        listener.buildFinished(new BuildResult("Build", rootBuild, null))
+        return BuildActionResult.of(null)
+    }
+
+    private FileCollectionInternal files(File file) {
+        return Stub(FileCollectionInternal) {
+            registerWatchPoints(_) >> { it[0].add(file) }
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.tooling.internal.provider.serialization
 
 import org.gradle.internal.classloader.FilteringClassLoader
+import org.gradle.internal.dispatch.Dispatch
 import org.gradle.tooling.internal.provider.AbstractClassGraphSpec
 import org.gradle.tooling.internal.provider.CustomPayload
 import org.gradle.tooling.internal.provider.PayloadInterface
@@ -176,6 +177,55 @@ class PayloadSerializerTest extends AbstractClassGraphSpec {
         reply2.payload.class == payloadClass
     }
 
+    def "streams object that is larger than threshold"() {
+        def cl = isolated(WrapperPayload, CustomPayload, PayloadInterface)
+        def wrapperClass = cl.loadClass(WrapperPayload.name)
+        def payloadClass = cl.loadClass(CustomPayload.name)
+        def original = wrapperClass.newInstance(payload: payloadClass.newInstance(value: 'x' * 3000000))
+        def streamedReceiver = receiver.newStreamedPayloadReceiver()
+        def chunks = []
+
+        when:
+        def serialized = originator.serialize(original, 1024, { StreamedPayloadChunk chunk ->
+            chunks << chunk
+            streamedReceiver.receive(chunk)
+        } as Dispatch)
+        def received = streamedReceiver.complete()
+
+        then:
+        serialized == null
+        chunks.size() > 1
+        !chunks[0].classLoaders.isEmpty()
+        chunks[1..-1].every { it.classLoaders.isEmpty() }
+        received.class.name == WrapperPayload.name
+        received.class != wrapperClass
+        received.payload.value == 'x' * 3000000
+    }
+
+    def "does not stream object that is smaller than threshold"() {
+        def consumer = Mock(Dispatch)
+
+        when:
+        def serialized = originator.serialize("value", 1024, consumer)
+
+        then:
+        receiver.deserialize(serialized) == "value"
+        0 * consumer._
+    }
+
+    def "receiver can be stopped before all chunks have been received"() {
+        def chunks = []
+        originator.serialize('x' * 3000000, 1024, { StreamedPayloadChunk chunk -> chunks << chunk } as Dispatch)
+        def streamedReceiver = receiver.newStreamedPayloadReceiver()
+
+        when:
+        streamedReceiver.receive(chunks[0])
+        streamedReceiver.stop()
+
+        then:
+        noExceptionThrown()
+    }
+
     void assertNotVisible(Class<?> from, Class<?> to) {
         try {
             from.classLoader.loadClass(to.name)
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.internal.remote.internal.hub;
+
+import org.gradle.api.Action;
+import org.gradle.internal.concurrent.CompositeStoppable;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.gradle.internal.id.UUIDGenerator;
+import org.gradle.internal.remote.ConnectionAcceptor;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.internal.remote.internal.inet.InetAddressFactory;
+import org.gradle.internal.remote.internal.inet.TcpIncomingConnector;
+import org.gradle.internal.remote.internal.inet.TcpOutgoingConnector;
+import org.gradle.internal.serialize.BaseSerializerFactory;
+import org.gradle.internal.serialize.DefaultSerializerRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Measures the throughput and round trip latency of small messages sent between two message hubs connected over a local TCP connection.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class MessageHubBenchmark {
+    private static final int MESSAGES = 10000;
+
+    private DefaultExecutorFactory executorFactory;
+    private ConnectionAcceptor acceptor;
+    private ObjectConnection serverConnection;
+    private ObjectConnection clientConnection;
+    private Receiver receiver;
+    private final Semaphore replies = new Semaphore(0);
+
+    @Setup(Level.Trial)
+    public void setup() throws InterruptedException {
+        executorFactory = new DefaultExecutorFactory();
+        MessageHubBackedServer server = new MessageHubBackedServer(new TcpIncomingConnector(executorFactory, new InetAddressFactory(), new UUIDGenerator()), executorFactory);
+        final CountDownLatch serverConnected = new CountDownLatch(1);
+        acceptor = server.accept(new Action<ObjectConnection>() {
+            @Override
+            public void execute(ObjectConnection connection) {
+                serverConnection = connection;
+                connection.useParameterSerializers(serializers());
+                connection.addIncoming(Receiver.class, new ReplyingReceiver(connection.addOutgoing(Replies.class)));
+                connection.connect();
+                serverConnected.countDown();
+            }
+        });
+
+        clientConnection = new MessageHubBackedClient(new TcpOutgoingConnector(), executorFactory).getConnection(acceptor.getAddress());
+        clientConnection.useParameterSerializers(serializers());
+        clientConnection.addIncoming(Replies.class, new Replies() {
+            @Override
+            public void done() {
+                replies.release();
+            }
+        });
+        receiver = clientConnection.addOutgoing(Receiver.class);
+        clientConnection.connect();
+        serverConnected.await();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        CompositeStoppable.stoppable(clientConnection, serverConnection, acceptor, executorFactory).stop();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public void throughput() throws InterruptedException {
+        for (int i = 0; i < MESSAGES; i++) {
+            receiver.message("message");
+        }
+        receiver.done();
+        replies.acquire();
+    }
+
+    @Benchmark
+    public void roundTrip() throws InterruptedException {
+        receiver.done();
+        replies.acquire();
+    }
+
+    private static DefaultSerializerRegistry serializers() {
+        DefaultSerializerRegistry registry = new DefaultSerializerRegistry();
+        registry.register(String.class, BaseSerializerFactory.STRING_SERIALIZER);
+        return registry;
+    }
+
+    public interface Receiver {
+        void message(String message);
+
+        void done();
+    }
+
+    public interface Replies {
+        void done();
+    }
+
+    private static class ReplyingReceiver implements Receiver {
+        private final Replies replies;
+
+        ReplyingReceiver(Replies replies) {
+            this.replies = replies;
+        }
+
+        @Override
+        public void message(String message) {
+        }
+
+        @Override
+        public void done() {
+            replies.done();
+        }
+    }
+}
@@ -46,6 +46,10 @@ public class MultiEndPointQueue implements Dispatch<InterHubMessage> {
         flush();
     }
 
+    void busy(EndPointQueue endPointQueue) {
+        waiting.remove(endPointQueue);
+    }
+
     void stopped(EndPointQueue queue) {
         waiting.remove(queue);
         endpoints.remove(queue);
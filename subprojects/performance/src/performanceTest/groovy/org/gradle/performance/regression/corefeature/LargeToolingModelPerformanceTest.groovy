@@ -0,0 +1,100 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.performance.regression.corefeature
+
+import org.gradle.internal.classloader.ClasspathUtil
+import org.gradle.performance.AbstractToolingApiCrossVersionPerformanceTest
+
+import java.lang.management.ManagementFactory
+
+class LargeToolingModelPerformanceTest extends AbstractToolingApiCrossVersionPerformanceTest {
+    private static final int MODEL_SIZE = 32000 * 16 * 1024
+    private static final int MEGABYTE = 1024 * 1024
+
+    def "get large custom model"() {
+        given:
+        experiment("largeToolingModel") {
+            minimumVersion = "5.1"
+            targetVersions = ["5.1-20181207101023+0000"]
+            invocationCount = 10
+            warmUpCount = 3
+            extraTestClassPath = [ClasspathUtil.getClasspathForClass(LargeToolingModel)]
+            action {
+                def clientHeap = new HeapSampler()
+                clientHeap.start()
+                def largeModel = model(tapiClass(LargeToolingModel)).setJvmArguments("-Xms2g", "-Xmx2g").get()
+                long contentSize = largeModel.modules.sum { it.content.length }
+                long clientPeakUsed = clientHeap.finish()
+                long daemonPeakUsed = model(tapiClass(DaemonHeapUsage)).setJvmArguments("-Xms2g", "-Xmx2g").get().peakUsed
+                assert contentSize == MODEL_SIZE
+                println "Peak heap usage: daemon ${daemonPeakUsed.intdiv(MEGABYTE)}MB, client ${clientPeakUsed.intdiv(MEGABYTE)}MB"
+            }
+        }
+
+        when:
+        def results = performMeasurements()
+
+        then:
+        results.assertCurrentVersionHasNotRegressed()
+    }
+
+    private static class HeapSampler extends Thread {
+        private final memoryBean = ManagementFactory.memoryMXBean
+        private volatile boolean sampling = true
+        private volatile long peakUsed
+
+        HeapSampler() {
+            super("heap sampler")
+            daemon = true
+            System.gc()
+        }
+
+        @Override
+        void run() {
+            while (sampling) {
+                peakUsed = Math.max(peakUsed, memoryBean.heapMemoryUsage.used)
+                sleep(1)
+            }
+        }
+
+        long finish() {
+            sampling = false
+            join()
+            return peakUsed
+        }
+    }
+}
+
+/**
+ * A model of about 500MB, built by the test project.
+ */
+interface LargeToolingModel {
+    List<Module> getModules()
+
+    interface Module {
+        String getName()
+
+        byte[] getContent()
+    }
+}
+
+/**
+ * The peak heap usage of the daemon while the last {@link LargeToolingModel} was built and sent to the client.
+ */
+interface DaemonHeapUsage {
+    long getPeakUsed()
+}
@@ -118,4 +118,26 @@ class JavaFirstUsePerformanceTest extends AbstractCrossVersionPerformanceTest {
         LARGE_JAVA_MULTI_PROJECT                 | _
         LARGE_JAVA_MULTI_PROJECT_KOTLIN_DSL      | _
     }
+
+    @Unroll
+    def "cold daemon configuration of #testProject"() {
+        given:
+        runner.testProject = testProject
+        runner.gradleOpts = ["-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}"]
+        runner.tasksToRun = ['help']
+        runner.useDaemon = false
+        runner.targetVersions = ["5.1-20181207101023+0000"]
+
+        when:
+        def result = runner.run()
+
+        then:
+        result.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject                              | _
+        LARGE_MONOLITHIC_JAVA_PROJECT            | _
+        LARGE_JAVA_MULTI_PROJECT                 | _
+        LARGE_JAVA_MULTI_PROJECT_KOTLIN_DSL      | _
+    }
 }
@@ -38,40 +38,7 @@ class JavaIDEModelPerformanceTest extends AbstractToolingApiCrossVersionPerforma
             action {
                 def model = model(tapiClass(EclipseProject)).setJvmArguments("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}").get()
                 // we must actually do something to highlight some performance issues
-                forEachEclipseProject(model) {
-                    buildCommands.each {
-                        it.name
-                        it.arguments
-                    }
-                    withGradleProject(gradleProject)
-                    classpath.collect {
-                        [it.exported, it.file, it.gradleModuleVersion.group, it.gradleModuleVersion.name, it.gradleModuleVersion.version, it.javadoc, it.source]
-                    }
-                    javaSourceSettings?.jdk?.javaHome
-                    withJava(javaSourceSettings?.jdk?.javaVersion)
-                    withJava(javaSourceSettings?.sourceLanguageLevel)
-                    withJava(javaSourceSettings?.targetBytecodeVersion)
-                    projectNatures.each {
-                        it.id
-                    }
-                    projectDependencies.each {
-                        it.exported
-                        it.path
-                    }
-                    description
-                    name
-                    linkedResources.each {
-                        it.name
-                        it.location
-                        it.locationUri
-                        it.type
-                    }
-                    projectDirectory
-                    sourceDirectories.each {
-                        it.path
-                        it.directory
-                    }
-                }
+                withEclipseProject(model)
             }
         }
 
@@ -98,37 +65,7 @@ class JavaIDEModelPerformanceTest extends AbstractToolingApiCrossVersionPerforma
             action {
                 def model = model(tapiClass(IdeaProject)).setJvmArguments("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}").get()
                 // we must actually do something to highlight some performance issues
-                model.with {
-                    name
-                    description
-                    jdkName
-                    languageLevel.level
-                    withJava(javaLanguageSettings.languageLevel)
-                    withJava(javaLanguageSettings.targetBytecodeVersion)
-                    withJava(javaLanguageSettings.jdk.javaVersion)
-                    javaLanguageSettings.jdk.javaHome
-                    modules.each {
-                        it.compilerOutput.inheritOutputDirs
-                        it.compilerOutput.outputDir
-                        it.compilerOutput.testOutputDir
-                        it.contentRoots.each {
-                            it.excludeDirectories
-                            withIdeaSources(it.generatedSourceDirectories)
-                            withIdeaSources(it.generatedTestDirectories)
-                            withIdeaSources(it.sourceDirectories)
-                            withIdeaSources(it.testDirectories)
-                        }
-                        it.dependencies.each {
-                            it.scope.scope
-                            if (tapiClass(ExternalDependency).isAssignableFrom(it.class)) {
-                                it.gradleModuleVersion.group
-                                it.gradleModuleVersion.name
-                                it.gradleModuleVersion.version
-                            }
-                        }
-                        withGradleProject(it.gradleProject)
-                    }
-                }
+                withIdeaProject(model)
             }
         }
 
@@ -144,6 +81,127 @@ class JavaIDEModelPerformanceTest extends AbstractToolingApiCrossVersionPerforma
         LARGE_JAVA_MULTI_PROJECT      | 40
     }
 
+    @Unroll
+    def "get IDE model on #testProject for Eclipse with parallel project execution"() {
+        given:
+        experiment(testProject.projectName) {
+            minimumVersion = "4.10"
+            targetVersions = ["5.1-20181207101023+0000"]
+            invocationCount = iterations
+            warmUpCount = iterations
+            action {
+                def model = model(tapiClass(EclipseProject)).setJvmArguments("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}").withArguments("--parallel").get()
+                withEclipseProject(model)
+            }
+        }
+
+        when:
+        def results = performMeasurements()
+
+        then:
+        results.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject              | iterations
+        LARGE_JAVA_MULTI_PROJECT | 40
+    }
+
+    @Unroll
+    def "get IDE model on #testProject for IDEA with parallel project execution"() {
+        given:
+        experiment(testProject.projectName) {
+            minimumVersion = "4.10"
+            targetVersions = ["5.1-20181207101023+0000"]
+            invocationCount = iterations
+            warmUpCount = iterations
+            action {
+                def model = model(tapiClass(IdeaProject)).setJvmArguments("-Xms${testProject.daemonMemory}", "-Xmx${testProject.daemonMemory}").withArguments("--parallel").get()
+                withIdeaProject(model)
+            }
+        }
+
+        when:
+        def results = performMeasurements()
+
+        then:
+        results.assertCurrentVersionHasNotRegressed()
+
+        where:
+        testProject              | iterations
+        LARGE_JAVA_MULTI_PROJECT | 40
+    }
+
+    private static void withEclipseProject(def model) {
+        forEachEclipseProject(model) {
+            buildCommands.each {
+                it.name
+                it.arguments
+            }
+            withGradleProject(gradleProject)
+            classpath.collect {
+                [it.exported, it.file, it.gradleModuleVersion.group, it.gradleModuleVersion.name, it.gradleModuleVersion.version, it.javadoc, it.source]
+            }
+            javaSourceSettings?.jdk?.javaHome
+            withJava(javaSourceSettings?.jdk?.javaVersion)
+            withJava(javaSourceSettings?.sourceLanguageLevel)
+            withJava(javaSourceSettings?.targetBytecodeVersion)
+            projectNatures.each {
+                it.id
+            }
+            projectDependencies.each {
+                it.exported
+                it.path
+            }
+            description
+            name
+            linkedResources.each {
+                it.name
+                it.location
+                it.locationUri
+                it.type
+            }
+            projectDirectory
+            sourceDirectories.each {
+                it.path
+                it.directory
+            }
+        }
+    }
+
+    private void withIdeaProject(def model) {
+        model.with {
+            name
+            description
+            jdkName
+            languageLevel.level
+            withJava(javaLanguageSettings.languageLevel)
+            withJava(javaLanguageSettings.targetBytecodeVersion)
+            withJava(javaLanguageSettings.jdk.javaVersion)
+            javaLanguageSettings.jdk.javaHome
+            modules.each {
+                it.compilerOutput.inheritOutputDirs
+                it.compilerOutput.outputDir
+                it.compilerOutput.testOutputDir
+                it.contentRoots.each {
+                    it.excludeDirectories
+                    withIdeaSources(it.generatedSourceDirectories)
+                    withIdeaSources(it.generatedTestDirectories)
+                    withIdeaSources(it.sourceDirectories)
+                    withIdeaSources(it.testDirectories)
+                }
+                it.dependencies.each {
+                    it.scope.scope
+                    if (tapiClass(ExternalDependency).isAssignableFrom(it.class)) {
+                        it.gradleModuleVersion.group
+                        it.gradleModuleVersion.name
+                        it.gradleModuleVersion.version
+                    }
+                }
+                withGradleProject(it.gradleProject)
+            }
+        }
+    }
+
     private static void forEachEclipseProject(def elm, @DelegatesTo(value=EclipseProject) Closure<?> action) {
         action.delegate = elm
         action.call()
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal;
+
+import com.google.common.io.Files;
+import org.apache.commons.io.FileUtils;
+import org.gradle.api.Action;
+import org.gradle.cache.AsyncCacheAccess;
+import org.gradle.cache.CacheDecorator;
+import org.gradle.cache.CrossProcessCacheAccess;
+import org.gradle.cache.FileLock;
+import org.gradle.cache.FileLockManager;
+import org.gradle.cache.FileLockReleasedSignal;
+import org.gradle.cache.MultiProcessSafePersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCache;
+import org.gradle.cache.PersistentIndexedCacheParameters;
+import org.gradle.cache.internal.filelock.LockOptionsBuilder;
+import org.gradle.cache.internal.locklistener.FileLockContentionHandler;
+import org.gradle.internal.concurrent.DefaultExecutorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Reads entries that are not held in memory from the indexed caches of a cache directory, using many threads, optionally while another thread updates
+ * one of the caches.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class CacheAccessContentionBenchmark {
+    private static final int KEYS = 10000;
+    private static final String VALUE = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final DefaultExecutorFactory executorFactory = new DefaultExecutorFactory();
+    private File cacheDir;
+    private DefaultCacheAccess cacheAccess;
+    private PersistentIndexedCache<String, String> fileHashes;
+    private PersistentIndexedCache<String, String> executionHistory;
+
+    @Setup
+    public void setup() {
+        cacheDir = Files.createTempDir();
+        DefaultCacheAccess initialAccess = openCacheAccess();
+        try {
+            PersistentIndexedCache<String, String> initialFileHashes = initialAccess.newCache(parameters("fileHashes"));
+            PersistentIndexedCache<String, String> initialExecutionHistory = initialAccess.newCache(parameters("executionHistory"));
+            for (int i = 0; i < KEYS; i++) {
+                initialFileHashes.put(key(i), VALUE);
+                initialExecutionHistory.put(key(i), VALUE);
+            }
+        } finally {
+            initialAccess.close();
+        }
+
+        // Reopen the caches, so that entries are read from the cache files
+        cacheAccess = openCacheAccess();
+        fileHashes = cacheAccess.newCache(parameters("fileHashes"));
+        executionHistory = cacheAccess.newCache(parameters("executionHistory"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        cacheAccess.close();
+        executorFactory.stop();
+        FileUtils.deleteDirectory(cacheDir);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public String readOneCache() {
+        return fileHashes.get(randomKey());
+    }
+
+    @Benchmark
+    @Threads(32)
+    public String readTwoCaches() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        PersistentIndexedCache<String, String> cache = random.nextBoolean() ? fileHashes : executionHistory;
+        return cache.get(key(random.nextInt(KEYS)));
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(31)
+    public String read() {
+        return fileHashes.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public void write() {
+        fileHashes.put(randomKey(), VALUE);
+    }
+
+    private static String randomKey() {
+        return key(ThreadLocalRandom.current().nextInt(KEYS));
+    }
+
+    private static String key(int index) {
+        return "key-" + index;
+    }
+
+    private DefaultCacheAccess openCacheAccess() {
+        File lockFile = new File(cacheDir, "benchmark.lock");
+        DefaultCacheAccess access = new DefaultCacheAccess("benchmark cache", lockFile, LockOptionsBuilder.mode(FileLockManager.LockMode.None), cacheDir, createLockManager(), new NoInitialization(), null, executorFactory);
+        access.open();
+        return access;
+    }
+
+    private static PersistentIndexedCacheParameters<String, String> parameters(String cacheName) {
+        return PersistentIndexedCacheParameters.of(cacheName, String.class, String.class).withCacheDecorator(new AsyncCacheDecorator());
+    }
+
+    private static FileLockManager createLockManager() {
+        return new DefaultFileLockManager(new ProcessMetaDataProvider() {
+            @Override
+            public String getProcessIdentifier() {
+                return "benchmark";
+            }
+
+            @Override
+            public String getProcessDisplayName() {
+                return "benchmark";
+            }
+        }, new FileLockContentionHandler() {
+            @Override
+            public void start(long lockId, Action<FileLockReleasedSignal> whenContended) {
+            }
+
+            @Override
+            public void stop(long lockId) {
+            }
+
+            @Override
+            public int reservePort() {
+                return -1;
+            }
+
+            @Override
+            public boolean maybePingOwner(int port, long lockId, String displayName, long timeElapsed, @Nullable FileLockReleasedSignal signal) {
+                return false;
+            }
+        });
+    }
+
+    private static class NoInitialization implements CacheInitializationAction {
+        @Override
+        public boolean requiresInitialization(FileLock fileLock) {
+            return false;
+        }
+
+        @Override
+        public void initialize(FileLock fileLock) {
+        }
+    }
+
+    /**
+     * Decorates the caches in the same way as the in-memory cache decorator, without keeping any entries in memory.
+     */
+    private static class AsyncCacheDecorator implements CacheDecorator {
+        @Override
+        public <K, V> MultiProcessSafePersistentIndexedCache<K, V> decorate(String cacheId, String cacheName, MultiProcessSafePersistentIndexedCache<K, V> persistentCache, CrossProcessCacheAccess crossProcessCacheAccess, AsyncCacheAccess asyncCacheAccess) {
+            return new CrossProcessSynchronizingCache<K, V>(new AsyncCacheAccessDecoratedCache<K, V>(asyncCacheAccess, persistentCache), crossProcessCacheAccess);
+        }
+    }
+}
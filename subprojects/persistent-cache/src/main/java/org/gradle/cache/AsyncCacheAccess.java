@@ -22,14 +22,14 @@ public interface AsyncCacheAccess {
     /**
      * Submits the given action for execution without waiting for the result.
      *
-     * An implementation may execute the action immediately or later. All actions submitted by this method must complete before any action submitted to {@link #read(Factory)} is executed. Actions submitted using this method must run in the order that they are submitted.
+     * An implementation may execute the action immediately or later. Actions submitted using this method must run in the order that they are submitted.
      */
     void enqueue(Runnable task);
 
     /**
      * Runs the given action, blocking until the result is available.
      *
-     * All actions submitted using {@link #enqueue(Runnable)} must complete before the action is executed.
+     * The action may run concurrently with other actions submitted to this method, and with actions submitted using {@link #enqueue(Runnable)} that have not completed yet. Callers that need to see the effect of actions they have submitted using {@link #enqueue(Runnable)} must keep track of them until they complete.
      */
     <T> T read(Factory<T> task);
 
@@ -23,10 +23,18 @@ import org.gradle.cache.MultiProcessSafePersistentIndexedCache;
 import org.gradle.internal.Factory;
 
 import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+/**
+ * Applies updates to a persistent cache asynchronously, while reading from the persistent cache on the calling thread.
+ *
+ * <p>Updates that have been submitted but not yet applied are kept in memory, so that a read always sees the most recent update for its key.</p>
+ */
 public class AsyncCacheAccessDecoratedCache<K, V> implements MultiProcessSafeAsyncPersistentIndexedCache<K, V> {
     private final AsyncCacheAccess asyncCacheAccess;
     private final MultiProcessSafePersistentIndexedCache<K, V> persistentCache;
+    private final ConcurrentMap<K, PendingUpdate<V>> pendingUpdates = new ConcurrentHashMap<K, PendingUpdate<V>>();
 
     public AsyncCacheAccessDecoratedCache(AsyncCacheAccess asyncCacheAccess, MultiProcessSafePersistentIndexedCache<K, V> persistentCache) {
         this.asyncCacheAccess = asyncCacheAccess;
@@ -41,6 +49,10 @@ public class AsyncCacheAccessDecoratedCache<K, V> implements MultiProcessSafeAsy
     @Nullable
     @Override
     public V get(final K key) {
+        PendingUpdate<V> pendingUpdate = pendingUpdates.get(key);
+        if (pendingUpdate != null) {
+            return pendingUpdate.value;
+        }
         return asyncCacheAccess.read(new Factory<V>() {
             @Override
             public V create() {
@@ -56,6 +68,8 @@ public class AsyncCacheAccessDecoratedCache<K, V> implements MultiProcessSafeAsy
 
     @Override
     public void putLater(final K key, final V value, final Runnable completion) {
+        final PendingUpdate<V> pendingUpdate = new PendingUpdate<V>(value);
+        pendingUpdates.put(key, pendingUpdate);
         try {
             asyncCacheAccess.enqueue(new Runnable() {
                 @Override
@@ -63,11 +77,13 @@ public class AsyncCacheAccessDecoratedCache<K, V> implements MultiProcessSafeAsy
                     try {
                         persistentCache.put(key, value);
                     } finally {
+                        pendingUpdates.remove(key, pendingUpdate);
                         completion.run();
                     }
                 }
             });
         } catch (RuntimeException e) {
+            pendingUpdates.remove(key, pendingUpdate);
             completion.run();
             throw e;
         }
@@ -75,6 +91,8 @@ public class AsyncCacheAccessDecoratedCache<K, V> implements MultiProcessSafeAsy
 
     @Override
     public void removeLater(final K key, final Runnable completion) {
+        final PendingUpdate<V> pendingUpdate = new PendingUpdate<V>(null);
+        pendingUpdates.put(key, pendingUpdate);
         try {
             asyncCacheAccess.enqueue(new Runnable() {
                 @Override
@@ -82,11 +100,13 @@ public class AsyncCacheAccessDecoratedCache<K, V> implements MultiProcessSafeAsy
                     try {
                         persistentCache.remove(key);
                     } finally {
+                        pendingUpdates.remove(key, pendingUpdate);
                         completion.run();
                     }
                 }
             });
         } catch (RuntimeException e) {
+            pendingUpdates.remove(key, pendingUpdate);
             completion.run();
             throw e;
         }
@@ -106,4 +126,17 @@ public class AsyncCacheAccessDecoratedCache<K, V> implements MultiProcessSafeAsy
     public void beforeLockRelease(FileLock.State currentCacheState) {
         persistentCache.beforeLockRelease(currentCacheState);
     }
+
+    /**
+     * An update that has not been applied to the persistent cache yet. Compared by identity, so that applying an update does not discard a later update
+     * with the same value.
+     */
+    private static class PendingUpdate<V> {
+        @Nullable
+        final V value;
+
+        PendingUpdate(@Nullable V value) {
+            this.value = value;
+        }
+    }
 }
@@ -29,10 +29,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
 
 class CacheAccessWorker implements Runnable, Stoppable, AsyncCacheAccess {
@@ -73,21 +70,16 @@ class CacheAccessWorker implements Runnable, Stoppable, AsyncCacheAccess {
         }
     }
 
-    public <T> T read(final Factory<T> task) {
-        FutureTask<T> futureTask = new FutureTask<T>(new Callable<T>() {
-            @Override
-            public T call() throws Exception {
-                return task.create();
-            }
-        });
-        addToQueue(futureTask);
-        try {
-            return futureTask.get();
-        } catch (ExecutionException e) {
-            throw UncheckedException.throwAsUncheckedException(e.getCause());
-        } catch (InterruptedException e) {
-            throw UncheckedException.throwAsUncheckedException(e);
+    /**
+     * Runs the given action on the calling thread while holding the file lock, rather than passing it to the worker thread. This allows reads to run
+     * concurrently with each other and with the writes that are queued or being applied.
+     */
+    @Override
+    public <T> T read(Factory<T> task) {
+        if (closed) {
+            throw new IllegalStateException("The worker has already been closed. Cannot read from the cache.");
         }
+        return cacheAccess.withFileLock(task);
     }
 
     @Override
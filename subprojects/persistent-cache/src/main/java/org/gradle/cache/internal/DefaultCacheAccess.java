@@ -51,7 +51,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static org.gradle.cache.FileLockManager.LockMode.Exclusive;
 
@@ -76,6 +78,10 @@ public class DefaultCacheAccess implements CacheCoordinator {
 
     private ManagedExecutor cacheUpdateExecutor;
     private CacheAccessWorker cacheAccessWorker;
+    // Threads running a file lock operation, which may access the cache files concurrently with the owner
+    private final ThreadLocal<Integer> fileLockOperations = new ThreadLocal<Integer>();
+    // Allows reads of the cache files to run concurrently, but not with writes
+    private final ReadWriteLock fileAccessLock = new ReentrantReadWriteLock();
     private final Lock stateLock = new ReentrantLock(); // protects the following state
     private final Condition condition = stateLock.newCondition();
 
@@ -190,13 +196,28 @@ public class DefaultCacheAccess implements CacheCoordinator {
     }
 
     @Override
-    public <T> T withFileLock(Factory<? extends T> action) {
-        return crossProcessCacheAccess.withFileLock(action);
+    public <T> T withFileLock(final Factory<? extends T> action) {
+        return crossProcessCacheAccess.withFileLock(new Factory<T>() {
+            @Override
+            public T create() {
+                Integer outerOperations = fileLockOperations.get();
+                fileLockOperations.set(outerOperations == null ? 1 : outerOperations + 1);
+                try {
+                    return action.create();
+                } finally {
+                    if (outerOperations == null) {
+                        fileLockOperations.remove();
+                    } else {
+                        fileLockOperations.set(outerOperations);
+                    }
+                }
+            }
+        });
     }
 
     @Override
     public void withFileLock(Runnable action) {
-        crossProcessCacheAccess.withFileLock(Factories.toFactory(action));
+        withFileLock(Factories.toFactory(action));
     }
 
     @Override
@@ -382,10 +403,13 @@ public class DefaultCacheAccess implements CacheCoordinator {
         return true;
     }
 
+    /**
+     * Returns the file lock, asserting that the current thread either owns the cache or runs a file lock operation.
+     */
     private FileLock getFileLock() {
         stateLock.lock();
         try {
-            if (Thread.currentThread() != owner) {
+            if (Thread.currentThread() != owner && fileLockOperations.get() == null) {
                 throw new IllegalStateException(String.format("The %s has not been locked for this thread. File lock: %s, owner: %s", cacheDisplayName, fileLock != null, owner));
             }
         } finally {
@@ -401,15 +425,33 @@ public class DefaultCacheAccess implements CacheCoordinator {
         }
 
         public <T> T readFile(Factory<? extends T> action) throws LockTimeoutException {
-            return getFileLock().readFile(action);
+            FileLock fileLock = getFileLock();
+            fileAccessLock.readLock().lock();
+            try {
+                return fileLock.readFile(action);
+            } finally {
+                fileAccessLock.readLock().unlock();
+            }
         }
 
         public void updateFile(Runnable action) throws LockTimeoutException {
-            getFileLock().updateFile(action);
+            FileLock fileLock = getFileLock();
+            fileAccessLock.writeLock().lock();
+            try {
+                fileLock.updateFile(action);
+            } finally {
+                fileAccessLock.writeLock().unlock();
+            }
         }
 
         public void writeFile(Runnable action) throws LockTimeoutException {
-            getFileLock().writeFile(action);
+            FileLock fileLock = getFileLock();
+            fileAccessLock.writeLock().lock();
+            try {
+                fileLock.writeFile(action);
+            } finally {
+                fileAccessLock.writeLock().unlock();
+            }
         }
     }
 
@@ -23,6 +23,10 @@ import org.gradle.cache.MultiProcessSafePersistentIndexedCache;
 import org.gradle.cache.internal.btree.BTreePersistentIndexedCache;
 import org.gradle.internal.Factory;
 
+/**
+ * Accesses a {@link BTreePersistentIndexedCache} under the given file access. Reads may be made by several threads at the same time, so access to the
+ * backing cache, which is not thread-safe, is synchronized.
+ */
 public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements MultiProcessSafePersistentIndexedCache<K, V> {
     private final FileAccess fileAccess;
     private final Factory<BTreePersistentIndexedCache<K, V>> factory;
@@ -39,7 +43,7 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
     }
 
     @Override
-    public V get(final K key) {
+    public synchronized V get(final K key) {
         final BTreePersistentIndexedCache<K, V> cache = getCache();
         try {
             return fileAccess.readFile(new Factory<V>() {
@@ -63,7 +67,7 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
     }
 
     @Override
-    public void put(final K key, final V value) {
+    public synchronized void put(final K key, final V value) {
         final BTreePersistentIndexedCache<K, V> cache = getCache();
         // Use writeFile because the cache can internally recover from datafile
         // corruption, so we don't care at this level if it's corrupt
@@ -75,7 +79,7 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
     }
 
     @Override
-    public void remove(final K key) {
+    public synchronized void remove(final K key) {
         final BTreePersistentIndexedCache<K, V> cache = getCache();
         // Use writeFile because the cache can internally recover from datafile
         // corruption, so we don't care at this level if it's corrupt
@@ -91,7 +95,7 @@ public class DefaultMultiProcessSafePersistentIndexedCache<K, V> implements Mult
     }
 
     @Override
-    public void finishWork() {
+    public synchronized void finishWork() {
         if (cache != null) {
             try {
                 fileAccess.writeFile(new Runnable() {
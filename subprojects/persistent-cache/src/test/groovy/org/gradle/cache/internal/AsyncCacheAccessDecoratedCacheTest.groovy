@@ -0,0 +1,144 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.cache.internal
+
+import org.gradle.cache.AsyncCacheAccess
+import org.gradle.cache.MultiProcessSafePersistentIndexedCache
+import org.gradle.internal.Factory
+import spock.lang.Specification
+
+class AsyncCacheAccessDecoratedCacheTest extends Specification {
+    def queue = []
+    def asyncCacheAccess = Stub(AsyncCacheAccess) {
+        enqueue(_) >> { Runnable action -> queue << action }
+        read(_) >> { Factory action -> action.create() }
+    }
+    def target = Mock(MultiProcessSafePersistentIndexedCache)
+    def cache = new AsyncCacheAccessDecoratedCache(asyncCacheAccess, target)
+
+    def "reads value from backing cache"() {
+        when:
+        def result = cache.get("key")
+
+        then:
+        result == "value"
+
+        and:
+        1 * target.get("key") >> "value"
+        0 * _
+    }
+
+    def "reads value that has not been written to backing cache yet"() {
+        def completion = Mock(Runnable)
+
+        when:
+        cache.putLater("key", "value", completion)
+        def result = cache.get("key")
+
+        then:
+        result == "value"
+
+        and:
+        0 * _
+
+        when:
+        queue.each { it.run() }
+        result = cache.get("key")
+
+        then:
+        result == "other"
+
+        and:
+        1 * target.put("key", "value")
+        1 * completion.run()
+        1 * target.get("key") >> "other"
+        0 * _
+    }
+
+    def "does not read value that has been removed but not from backing cache yet"() {
+        def completion = Mock(Runnable)
+
+        when:
+        cache.removeLater("key", completion)
+        def result = cache.get("key")
+
+        then:
+        result == null
+
+        and:
+        0 * _
+
+        when:
+        queue.each { it.run() }
+        cache.get("key")
+
+        then:
+        1 * target.remove("key")
+        1 * completion.run()
+        1 * target.get("key")
+        0 * _
+    }
+
+    def "reads most recent value while earlier updates are applied"() {
+        given:
+        cache.putLater("key", "value 1", Stub(Runnable))
+        cache.removeLater("key", Stub(Runnable))
+        cache.putLater("key", "value 1", Stub(Runnable))
+
+        expect:
+        cache.get("key") == "value 1"
+
+        when:
+        queue[0].run()
+        queue[1].run()
+
+        then:
+        cache.get("key") == "value 1"
+        0 * target.get(_)
+
+        when:
+        queue[2].run()
+        cache.get("key")
+
+        then:
+        1 * target.get("key")
+    }
+
+    def "discards update that cannot be queued"() {
+        def failure = new RuntimeException()
+        def asyncCacheAccess = Stub(AsyncCacheAccess) {
+            enqueue(_) >> { throw failure }
+            read(_) >> { Factory action -> action.create() }
+        }
+        def cache = new AsyncCacheAccessDecoratedCache(asyncCacheAccess, target)
+        def completion = Mock(Runnable)
+
+        when:
+        cache.putLater("key", "value", completion)
+
+        then:
+        def e = thrown(RuntimeException)
+        e == failure
+        1 * completion.run()
+
+        when:
+        cache.get("key")
+
+        then:
+        1 * target.get("key")
+    }
+}
@@ -17,6 +17,7 @@
 package org.gradle.cache.internal
 
 import org.gradle.cache.CacheAccess
+import org.gradle.internal.Factory
 import org.gradle.test.fixtures.concurrent.ConcurrentSpec
 
 class CacheAccessWorkerTest extends ConcurrentSpec {
@@ -26,27 +27,60 @@ class CacheAccessWorkerTest extends ConcurrentSpec {
     def setup() {
         cacheAccess = Stub(CacheAccess) {
             useCache(_) >> { Runnable action -> action.run() }
+            withFileLock(_ as Factory) >> { Factory action -> action.create() }
         }
         cacheAccessWorker = new CacheAccessWorker("<cache>", cacheAccess)
     }
 
-    def "read runs after queued writes are processed"() {
+    def "read runs on calling thread without waiting for queued writes"() {
         given:
-        def counter = 0
+        def readThread = null
         start(cacheAccessWorker)
 
         when:
-        cacheAccessWorker.enqueue { ++counter }
-        cacheAccessWorker.enqueue { ++counter }
-        def result = cacheAccessWorker.read { counter }
+        cacheAccessWorker.enqueue {
+            thread.blockUntil.read
+        }
+        def result = cacheAccessWorker.read {
+            readThread = Thread.currentThread()
+            instant.read
+            "result"
+        }
+        cacheAccessWorker.flush()
 
         then:
-        result == 2
+        result == "result"
+        readThread == Thread.currentThread()
 
         cleanup:
         cacheAccessWorker?.stop()
     }
 
+    def "read holds the file lock"() {
+        def cacheAccess = Mock(CacheAccess)
+        def cacheAccessWorker = new CacheAccessWorker("<cache>", cacheAccess)
+
+        when:
+        def result = cacheAccessWorker.read { "result" }
+
+        then:
+        result == "result"
+        1 * cacheAccess.withFileLock(_ as Factory) >> { Factory action -> action.create() }
+        0 * _
+    }
+
+    def "cannot read after stop"() {
+        given:
+        start(cacheAccessWorker)
+        cacheAccessWorker.stop()
+
+        when:
+        cacheAccessWorker.read { "result" }
+
+        then:
+        thrown(IllegalStateException)
+    }
+
     def "read propagates failure"() {
         given:
         def failure = new RuntimeException()
@@ -533,6 +533,56 @@ class DefaultCacheAccessTest extends ConcurrentSpec {
         mode << [Exclusive, None]
     }
 
+    def "file access is available for file lock operations"() {
+        def runnable = Mock(Runnable)
+        def action = Mock(Factory)
+        def access = newAccess(mode)
+
+        when:
+        access.open()
+        def result = access.withFileLock { access.fileAccess.readFile(action) }
+        access.withFileLock { access.fileAccess.updateFile(runnable) }
+
+        then:
+        1 * lockManager.lock(lockFile, mode(Exclusive), "<display-name>", "", _) >> lock
+        1 * lock.readFile(action) >> "result"
+        1 * lock.updateFile(runnable)
+        result == "result"
+
+        and:
+        !access.owner
+
+        where:
+        mode << [Exclusive, None]
+    }
+
+    def "file lock operation can read files while another thread owns the cache"() {
+        def action = Mock(Factory)
+        def access = newAccess(None)
+
+        given:
+        lockManager.lock(lockFile, mode(Exclusive), "<display-name>", "", _) >> lock
+        access.open()
+
+        when:
+        async {
+            start {
+                access.useCache {
+                    instant.owned
+                    thread.blockUntil.read
+                }
+            }
+            start {
+                thread.blockUntil.owned
+                access.withFileLock { access.fileAccess.readFile(action) }
+                instant.read
+            }
+        }
+
+        then:
+        1 * lock.readFile(action) >> "result"
+    }
+
     def "can close cache when the cache has not been used"() {
         def access = newAccess(None)
 
@@ -27,6 +27,7 @@ import org.gradle.api.GradleException;
 import org.gradle.api.file.FileTreeElement;
 import org.gradle.api.file.RelativePath;
 import org.gradle.api.internal.cache.StringInterner;
+import org.gradle.api.internal.file.SubtreeSpecs;
 import org.gradle.api.specs.Spec;
 import org.gradle.api.tasks.util.PatternSet;
 import org.gradle.internal.MutableBoolean;
@@ -46,6 +47,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
 import java.nio.file.FileSystemLoopException;
 import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
@@ -79,7 +81,19 @@ public class DirectorySnapshotter {
                 @Override
                 public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
                     String name = stringInterner.intern(dir.getFileName().toString());
-                    if (builder.isRoot() || isAllowed(dir, name, true, attrs, builder.getRelativePath())) {
+                    if (builder.isRoot()) {
+                        builder.preVisitDirectory(internedAbsolutePath(dir), name);
+                        return FileVisitResult.CONTINUE;
+                    } else if (isAllowed(dir, name, true, attrs, builder.getRelativePath())) {
+                        if (!mayIncludeContents(name)) {
+                            // Nothing below the directory can be included, so snapshot it as empty without walking its contents
+                            if (!isEmptyDirectory(dir)) {
+                                hasBeenFiltered.set(true);
+                            }
+                            builder.preVisitDirectory(internedAbsolutePath(dir), name);
+                            builder.postVisitDirectory();
+                            return FileVisitResult.SKIP_SUBTREE;
+                        }
                         builder.preVisitDirectory(internedAbsolutePath(dir), name);
                         return FileVisitResult.CONTINUE;
                     } else {
@@ -142,6 +156,23 @@ public class DirectorySnapshotter {
                     return stringInterner.intern(file.toString());
                 }
 
+                private boolean mayIncludeContents(String name) {
+                    if (spec == null) {
+                        return true;
+                    }
+                    List<String> segments = Lists.newArrayList(builder.getRelativePath());
+                    segments.add(name);
+                    return SubtreeSpecs.mayBeSatisfiedBelow(spec, new RelativePath(false, segments.toArray(new String[0])));
+                }
+
+                private boolean isEmptyDirectory(Path dir) {
+                    try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+                        return !entries.iterator().hasNext();
+                    } catch (IOException e) {
+                        return false;
+                    }
+                }
+
                 private boolean isAllowed(Path path, String name, boolean isDirectory, @Nullable BasicFileAttributes attrs, Iterable<String> relativePath) {
                     if (isDirectory) {
                         if (defaultExcludes.excludeDir(name)) {
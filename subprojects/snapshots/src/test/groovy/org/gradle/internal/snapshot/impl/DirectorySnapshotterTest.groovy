@@ -132,6 +132,42 @@ class DirectorySnapshotterTest extends Specification {
         ] as Set
     }
 
+    def "snapshots directories below which nothing is included as empty"() {
+        given:
+        def rootDir = tmpDir.createDir("root")
+        rootDir.file("a.txt").createFile()
+        rootDir.file("build/classes/A.class").createFile()
+        rootDir.file("src/main/A.java").createFile()
+        rootDir.file("src/test/ATest.java").createFile()
+        rootDir.createDir("empty")
+
+        def patterns = new PatternSet()
+        patterns.include("*", "src/main/**")
+
+        def relativePaths = []
+
+        def actuallyFiltered = new MutableBoolean(false)
+        when:
+        def snapshot = directorySnapshotter.snapshot(rootDir.absolutePath, patterns, actuallyFiltered)
+        snapshot.accept(new RelativePathTrackingVisitor() {
+            @Override
+            void visit(String absolutePath, Deque<String> relativePath) {
+                relativePaths << relativePath.join("/")
+            }
+        })
+
+        then:
+        actuallyFiltered.get()
+        relativePaths as Set == [
+            'root',
+            'root/a.txt',
+            'root/build',
+            'root/empty',
+            'root/src',
+            'root/src/main', 'root/src/main/A.java'
+        ] as Set
+    }
+
     def "default excludes are correctly parsed"() {
         def defaultExcludes = new DirectorySnapshotter.DefaultExcludes(DirectoryScanner.getDefaultExcludes())
 
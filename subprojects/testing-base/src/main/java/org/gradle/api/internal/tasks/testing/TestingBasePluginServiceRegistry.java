@@ -17,8 +17,11 @@
 package org.gradle.api.internal.tasks.testing;
 
 import org.gradle.api.internal.tasks.testing.operations.TestExecutionBuildOperationBuildSessionScopeServices;
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool;
 import org.gradle.internal.service.ServiceRegistration;
 import org.gradle.internal.service.scopes.AbstractPluginServiceRegistry;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.OsMemoryInfo;
 
 public class TestingBasePluginServiceRegistry extends AbstractPluginServiceRegistry {
 
@@ -27,4 +30,14 @@ public class TestingBasePluginServiceRegistry extends AbstractPluginServiceRegis
         registration.addProvider(new TestExecutionBuildOperationBuildSessionScopeServices());
     }
 
+    @Override
+    public void registerGradleUserHomeServices(ServiceRegistration registration) {
+        registration.addProvider(new GradleUserHomeServices());
+    }
+
+    private static class GradleUserHomeServices {
+        TestWorkerPool createTestWorkerPool(MemoryManager memoryManager, OsMemoryInfo memoryInfo) {
+            return new TestWorkerPool(memoryManager, memoryInfo);
+        }
+    }
 }
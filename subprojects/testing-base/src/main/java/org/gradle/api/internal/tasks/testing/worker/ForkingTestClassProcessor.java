@@ -16,6 +16,8 @@
 
 package org.gradle.api.internal.tasks.testing.worker;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import org.gradle.api.Action;
 import org.gradle.api.internal.DocumentationRegistry;
 import org.gradle.api.internal.classpath.ModuleRegistry;
@@ -32,8 +34,10 @@ import org.gradle.process.internal.worker.WorkerProcessBuilder;
 import org.gradle.process.internal.worker.WorkerProcessFactory;
 import org.gradle.util.CollectionUtils;
 
+import javax.annotation.Nullable;
 import java.io.File;
 import java.net.URL;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -46,15 +50,20 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     private final Iterable<File> classPath;
     private final Action<WorkerProcessBuilder> buildConfigAction;
     private final ModuleRegistry moduleRegistry;
+    private final TestWorkerPool workerPool;
     private final Lock lock = new ReentrantLock();
     private RemoteTestClassProcessor remoteProcessor;
     private WorkerProcess workerProcess;
+    private PooledTestWorker pooledWorker;
     private TestResultProcessor resultProcessor;
     private WorkerLeaseRegistry.WorkerLeaseCompletion completion;
     private DocumentationRegistry documentationRegistry;
     private boolean stoppedNow;
 
-    public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry) {
+    /**
+     * @param workerPool the pool to reserve a reusable worker from, or null to start a worker that is stopped along with this processor.
+     */
+    public ForkingTestClassProcessor(WorkerLeaseRegistry.WorkerLease parentWorkerLease, WorkerProcessFactory workerFactory, WorkerTestClassProcessorFactory processorFactory, JavaForkOptions options, Iterable<File> classPath, Action<WorkerProcessBuilder> buildConfigAction, ModuleRegistry moduleRegistry, DocumentationRegistry documentationRegistry, @Nullable TestWorkerPool workerPool) {
         this.currentWorkerLease = parentWorkerLease;
         this.workerFactory = workerFactory;
         this.processorFactory = processorFactory;
@@ -63,6 +72,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         this.buildConfigAction = buildConfigAction;
         this.moduleRegistry = moduleRegistry;
         this.documentationRegistry = documentationRegistry;
+        this.workerPool = workerPool;
     }
 
     @Override
@@ -81,7 +91,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
             if (remoteProcessor == null) {
                 completion = currentWorkerLease.startChild();
                 try {
-                    remoteProcessor = forkProcess();
+                    remoteProcessor = workerPool != null ? reserveWorker() : forkProcess();
                 } catch (RuntimeException e) {
                     completion.leaseFinish();
                     completion = null;
@@ -96,15 +106,7 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
     }
 
     RemoteTestClassProcessor forkProcess() {
-        WorkerProcessBuilder builder = workerFactory.create(new TestWorker(processorFactory));
-        builder.setBaseName("Gradle Test Executor");
-        builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
-        builder.applicationClasspath(classPath);
-        options.copyTo(builder.getJavaCommand());
-        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
-        buildConfigAction.execute(builder);
-
-        workerProcess = builder.build();
+        workerProcess = buildWorkerProcess(new TestWorker(processorFactory));
         workerProcess.start();
 
         ObjectConnection connection = workerProcess.getConnection();
@@ -116,6 +118,39 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         return remoteProcessor;
     }
 
+    private RemoteTestClassProcessor reserveWorker() {
+        TestWorkerPool.Key key = workerPool.key(options);
+        // The test classpath is loaded in the worker for each session, so a pooled worker is started without one
+        WorkerProcessBuilder builder = workerProcessBuilder(TestWorker.reusable(), Collections.<File>emptyList());
+        TestWorkerSession session = new TestWorkerSession(processorFactory, ImmutableList.copyOf(classPath), getTestWorkerImplementationClasspath(), ImmutableSet.copyOf(builder.getSharedPackages()));
+        pooledWorker = workerPool.reserveIdleWorker(key);
+        if (pooledWorker == null) {
+            // Used to expire idle workers when memory is low
+            builder.enableJvmMemoryInfoPublishing(true);
+            WorkerProcess newProcess = builder.build();
+            newProcess.start();
+            pooledWorker = new PooledTestWorker(key, newProcess);
+            workerPool.add(pooledWorker);
+        }
+        workerProcess = pooledWorker.getWorkerProcess();
+        return pooledWorker.startSession(session, resultProcessor);
+    }
+
+    private WorkerProcess buildWorkerProcess(TestWorker worker) {
+        return workerProcessBuilder(worker, classPath).build();
+    }
+
+    private WorkerProcessBuilder workerProcessBuilder(TestWorker worker, Iterable<File> applicationClasspath) {
+        WorkerProcessBuilder builder = workerFactory.create(worker);
+        builder.setBaseName("Gradle Test Executor");
+        builder.setImplementationClasspath(getTestWorkerImplementationClasspath());
+        builder.applicationClasspath(applicationClasspath);
+        options.copyTo(builder.getJavaCommand());
+        builder.getJavaCommand().jvmArgs("-Dorg.gradle.native=false");
+        buildConfigAction.execute(builder);
+        return builder;
+    }
+
     List<URL> getTestWorkerImplementationClasspath() {
         return CollectionUtils.flattenCollections(URL.class,
             moduleRegistry.getModule("gradle-core-api").getImplementationClasspath().getAsURLs(),
@@ -143,6 +178,10 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
 
     @Override
     public void stop() {
+        if (pooledWorker != null) {
+            stopPooledWorker();
+            return;
+        }
         try {
             if (remoteProcessor != null) {
                 lock.lock();
@@ -167,6 +206,32 @@ public class ForkingTestClassProcessor implements TestClassProcessor {
         }
     }
 
+    private void stopPooledWorker() {
+        try {
+            boolean reusable = false;
+            lock.lock();
+            try {
+                if (!stoppedNow) {
+                    reusable = pooledWorker.endSession();
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (reusable) {
+                workerPool.release(pooledWorker);
+            } else {
+                workerPool.discard(pooledWorker);
+                pooledWorker.getWorkerProcess().waitForStop();
+            }
+        } catch (ExecException e) {
+            if (!stoppedNow) {
+                throw e;
+            }
+        } finally {
+            completion.leaseFinish();
+        }
+    }
+
     @Override
     public void stopNow() {
         lock.lock();
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.TestCompleteEvent;
+import org.gradle.api.internal.tasks.testing.TestDescriptorInternal;
+import org.gradle.api.internal.tasks.testing.TestResultProcessor;
+import org.gradle.api.internal.tasks.testing.TestStartEvent;
+import org.gradle.api.tasks.testing.TestOutputEvent;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.dispatch.StreamCompletion;
+import org.gradle.internal.remote.ObjectConnection;
+import org.gradle.process.internal.worker.WorkerProcess;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * A test worker process that runs a {@link TestWorker#reusable() reusable} {@link TestWorker}, and so can run tests for multiple test executions, one after the other,
+ * each in a {@link TestWorkerSession} with its own test classpath.
+ *
+ * <p>The results of each session are forwarded to the result processor of the test execution that started the session.
+ * The end of a session is detected when the worker reports the completion of its worker suite, which is the last event of every session.</p>
+ */
+class PooledTestWorker implements Stoppable {
+    private final TestWorkerPool.Key key;
+    private final WorkerProcess workerProcess;
+    private final SessionResultProcessor sessionResultProcessor = new SessionResultProcessor();
+    private final RemoteTestClassProcessor remoteProcessor;
+    private int uses;
+
+    PooledTestWorker(TestWorkerPool.Key key, WorkerProcess workerProcess) {
+        this.key = key;
+        this.workerProcess = workerProcess;
+        ObjectConnection connection = workerProcess.getConnection();
+        connection.useParameterSerializers(TestEventSerializer.create());
+        connection.addIncoming(TestResultProcessor.class, sessionResultProcessor);
+        this.remoteProcessor = connection.addOutgoing(RemoteTestClassProcessor.class);
+        connection.connect();
+    }
+
+    TestWorkerPool.Key getKey() {
+        return key;
+    }
+
+    WorkerProcess getWorkerProcess() {
+        return workerProcess;
+    }
+
+    int getUses() {
+        return uses;
+    }
+
+    RemoteTestClassProcessor startSession(TestWorkerSession session, TestResultProcessor resultProcessor) {
+        uses++;
+        sessionResultProcessor.startSession(resultProcessor);
+        remoteProcessor.startSession(session);
+        return remoteProcessor;
+    }
+
+    /**
+     * Ends the current session and waits for the worker to report all of its results.
+     *
+     * @return true when the worker can be used for another session, false when the connection to the worker has been lost.
+     */
+    boolean endSession() {
+        remoteProcessor.endSession();
+        return sessionResultProcessor.awaitSessionCompletion();
+    }
+
+    @Override
+    public void stop() {
+        if (sessionResultProcessor.isConnected()) {
+            remoteProcessor.stop();
+        }
+        workerProcess.waitForStop();
+    }
+
+    private static class SessionResultProcessor implements TestResultProcessor, StreamCompletion {
+        private final Object lock = new Object();
+        private TestResultProcessor target;
+        private Object workerSuiteId;
+        private CountDownLatch sessionCompleted;
+        private boolean connected = true;
+
+        void startSession(TestResultProcessor target) {
+            synchronized (lock) {
+                this.target = target;
+                this.workerSuiteId = null;
+                this.sessionCompleted = new CountDownLatch(1);
+            }
+        }
+
+        boolean awaitSessionCompletion() {
+            CountDownLatch latch;
+            synchronized (lock) {
+                latch = sessionCompleted;
+            }
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+            return isConnected();
+        }
+
+        boolean isConnected() {
+            synchronized (lock) {
+                return connected;
+            }
+        }
+
+        @Override
+        public void started(TestDescriptorInternal test, TestStartEvent event) {
+            synchronized (lock) {
+                if (workerSuiteId == null && test instanceof WorkerTestClassProcessor.WorkerTestSuiteDescriptor) {
+                    workerSuiteId = test.getId();
+                }
+            }
+            target.started(test, event);
+        }
+
+        @Override
+        public void completed(Object testId, TestCompleteEvent event) {
+            target.completed(testId, event);
+            synchronized (lock) {
+                if (testId.equals(workerSuiteId)) {
+                    sessionCompleted.countDown();
+                }
+            }
+        }
+
+        @Override
+        public void output(Object testId, TestOutputEvent event) {
+            target.output(testId, event);
+        }
+
+        @Override
+        public void failure(Object testId, Throwable result) {
+            target.failure(testId, result);
+        }
+
+        @Override
+        public void endStream() {
+            // The worker has exited or the connection to it has been lost
+            synchronized (lock) {
+                connected = false;
+                if (sessionCompleted != null) {
+                    sessionCompleted.countDown();
+                }
+            }
+        }
+    }
+}
@@ -36,4 +36,14 @@ public interface RemoteTestClassProcessor {
      * Does not block.
      */
     void stop();
+
+    /**
+     * Starts a new session in a reusable worker, running the tests of the given session. Does not block.
+     */
+    void startSession(TestWorkerSession session);
+
+    /**
+     * Completes the current session in a reusable worker, leaving the worker running. Does not block.
+     */
+    void endSession();
 }
@@ -39,6 +39,7 @@ import org.gradle.process.internal.worker.WorkerProcessContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.security.AccessControlException;
 import java.util.concurrent.CountDownLatch;
@@ -50,22 +51,39 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     private CountDownLatch completed;
     private TestClassProcessor processor;
     private TestResultProcessor resultProcessor;
+    private transient TestWorkerSession session;
+    private transient WorkerProcessContext workerProcessContext;
+    private transient ServiceRegistry testServices;
+    private transient SecurityManager securityManager;
 
     public TestWorker(WorkerTestClassProcessorFactory factory) {
         this.factory = factory;
     }
 
+    private TestWorker() {
+        this.factory = null;
+    }
+
+    /**
+     * Creates a worker that runs tests in sessions until it is stopped. Each session loads its test classes and test framework as described by the {@link TestWorkerSession} passed to {@link #startSession(TestWorkerSession)}.
+     */
+    public static TestWorker reusable() {
+        return new TestWorker();
+    }
+
     @Override
     public void execute(final WorkerProcessContext workerProcessContext) {
         LOGGER.info("{} started executing tests.", workerProcessContext.getDisplayName());
 
-        SecurityManager securityManager = System.getSecurityManager();
+        this.workerProcessContext = workerProcessContext;
+        securityManager = System.getSecurityManager();
         completed = new CountDownLatch(1);
 
         System.setProperty(WORKER_ID_SYS_PROPERTY, workerProcessContext.getWorkerId().toString());
 
         DefaultServiceRegistry testServices = new TestFrameworkServiceRegistry(workerProcessContext);
-        startReceivingTests(workerProcessContext, testServices);
+        this.testServices = testServices;
+        startReceivingTests(workerProcessContext, factory);
 
         try {
             try {
@@ -76,27 +94,26 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         } finally {
             LOGGER.info("{} finished executing tests.", workerProcessContext.getDisplayName());
 
-            if (System.getSecurityManager() != securityManager) {
-                try {
-                    // Reset security manager the tests seem to have installed
-                    System.setSecurityManager(securityManager);
-                } catch (SecurityException e) {
-                    LOGGER.warn("Unable to reset SecurityManager. Continuing anyway...", e);
-                }
-            }
+            resetSecurityManager();
             testServices.close();
         }
     }
 
-    private void startReceivingTests(WorkerProcessContext workerProcessContext, ServiceRegistry testServices) {
-        TestClassProcessor targetProcessor = factory.create(testServices);
-        IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
+    private void resetSecurityManager() {
+        if (System.getSecurityManager() != securityManager) {
+            try {
+                // Reset security manager the tests seem to have installed
+                System.setSecurityManager(securityManager);
+            } catch (SecurityException e) {
+                LOGGER.warn("Unable to reset SecurityManager. Continuing anyway...", e);
+            }
+        }
+    }
 
-        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
-                workerProcessContext.getDisplayName(), testServices.get(Clock.class));
-        ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
-                TestClassProcessor.class, targetProcessor, workerProcessContext.getApplicationClassLoader());
-        processor = proxy.getSource();
+    private void startReceivingTests(WorkerProcessContext workerProcessContext, @Nullable WorkerTestClassProcessorFactory factory) {
+        if (factory != null) {
+            processor = createProcessor(factory, workerProcessContext.getApplicationClassLoader());
+        }
 
         ObjectConnection serverConnection = workerProcessContext.getServerConnection();
         serverConnection.useParameterSerializers(TestEventSerializer.create());
@@ -105,6 +122,17 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
         serverConnection.connect();
     }
 
+    private TestClassProcessor createProcessor(WorkerTestClassProcessorFactory factory, ClassLoader applicationClassLoader) {
+        TestClassProcessor targetProcessor = factory.create(testServices);
+        IdGenerator<Object> idGenerator = testServices.get(IdGenerator.class);
+
+        targetProcessor = new WorkerTestClassProcessor(targetProcessor, idGenerator.generateId(),
+                workerProcessContext.getDisplayName(), testServices.get(Clock.class));
+        ContextClassLoaderProxy<TestClassProcessor> proxy = new ContextClassLoaderProxy<TestClassProcessor>(
+                TestClassProcessor.class, targetProcessor, applicationClassLoader);
+        return proxy.getSource();
+    }
+
     @Override
     public void startProcessing() {
         Thread.currentThread().setName("Test worker");
@@ -126,11 +154,40 @@ public class TestWorker implements Action<WorkerProcessContext>, RemoteTestClass
     }
 
     @Override
-    public void stop() {
+    public void startSession(TestWorkerSession session) {
+        Thread.currentThread().setName("Test worker");
+        this.session = session;
+        WorkerTestClassProcessorFactory factory = session.load(getClass().getClassLoader());
+        processor = createProcessor(factory, session.getApplicationClassLoader());
+        processor.startProcessing(resultProcessor);
+    }
+
+    @Override
+    public void endSession() {
         Thread.currentThread().setName("Test worker");
         try {
             processor.stop();
         } finally {
+            processor = null;
+            session.close();
+            session = null;
+            resetSecurityManager();
+            // Clean the interrupted status
+            Thread.interrupted();
+        }
+    }
+
+    @Override
+    public void stop() {
+        Thread.currentThread().setName("Test worker");
+        try {
+            if (processor != null) {
+                processor.stop();
+            }
+        } finally {
+            if (session != null) {
+                session.close();
+            }
             completed.countDown();
             // Clean the interrupted status
             // because some test class processors do work here, e.g. JUnitPlatform
@@ -0,0 +1,265 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import org.gradle.api.logging.Logger;
+import org.gradle.api.logging.Logging;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.Stoppable;
+import org.gradle.internal.exceptions.DefaultMultiCauseException;
+import org.gradle.process.JavaForkOptions;
+import org.gradle.process.internal.health.memory.MaximumHeapHelper;
+import org.gradle.process.internal.health.memory.MemoryAmount;
+import org.gradle.process.internal.health.memory.MemoryHolder;
+import org.gradle.process.internal.health.memory.MemoryManager;
+import org.gradle.process.internal.health.memory.OsMemoryInfo;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps test worker processes running after a test execution has finished, so that a later test execution with the same JVM fork options,
+ * in the same build or in a later build run by the same daemon, can run its tests in the same JVM instead of starting a new one.
+ *
+ * <p>Reuse is opt-in, through the {@value #REUSE_TEST_WORKERS_PROPERTY_KEY} system property. A pooled worker is started without a test classpath,
+ * and loads the test classes and the test framework of each test execution in ClassLoaders that are discarded when the execution finishes,
+ * see {@link TestWorkerSession}. This means that a worker never runs stale classes and that static state does not leak from one execution into
+ * the next. Other JVM-wide state, such as system properties set by the tests, is not reset. Tests also cannot find their classes through
+ * the system ClassLoader or the {@code java.class.path} system property.</p>
+ *
+ * <p>Idle workers are stopped when the system runs low on memory, in the same way as idle worker daemons are, and when the daemon stops.</p>
+ */
+public class TestWorkerPool implements Stoppable {
+    public static final String REUSE_TEST_WORKERS_PROPERTY_KEY = "org.gradle.testing.reuse-test-workers";
+
+    private static final Logger LOGGER = Logging.getLogger(TestWorkerPool.class);
+
+    private final Object lock = new Object();
+    private final List<PooledTestWorker> allWorkers = new ArrayList<PooledTestWorker>();
+    private final List<PooledTestWorker> idleWorkers = new ArrayList<PooledTestWorker>();
+    private final MemoryManager memoryManager;
+    private final MemoryHolder expiration;
+    private final long osTotalMemory;
+
+    public TestWorkerPool(MemoryManager memoryManager, OsMemoryInfo memoryInfo) {
+        this.memoryManager = memoryManager;
+        this.osTotalMemory = getTotalPhysicalMemory(memoryInfo);
+        this.expiration = new IdleTestWorkerExpiration();
+        memoryManager.addMemoryHolder(expiration);
+    }
+
+    public boolean isEnabled() {
+        return Boolean.getBoolean(REUSE_TEST_WORKERS_PROPERTY_KEY);
+    }
+
+    public Key key(JavaForkOptions forkOptions) {
+        return new Key(forkOptions);
+    }
+
+    @Nullable
+    PooledTestWorker reserveIdleWorker(Key key) {
+        synchronized (lock) {
+            Iterator<PooledTestWorker> it = idleWorkers.iterator();
+            while (it.hasNext()) {
+                PooledTestWorker candidate = it.next();
+                if (candidate.getKey().equals(key)) {
+                    it.remove();
+                    return candidate;
+                }
+            }
+            return null;
+        }
+    }
+
+    void add(PooledTestWorker worker) {
+        synchronized (lock) {
+            allWorkers.add(worker);
+        }
+    }
+
+    void release(PooledTestWorker worker) {
+        synchronized (lock) {
+            if (allWorkers.contains(worker)) {
+                idleWorkers.add(worker);
+            }
+        }
+    }
+
+    /**
+     * Forgets about a worker that is broken or has been stopped by its user.
+     */
+    void discard(PooledTestWorker worker) {
+        synchronized (lock) {
+            allWorkers.remove(worker);
+            idleWorkers.remove(worker);
+        }
+    }
+
+    @Override
+    public void stop() {
+        synchronized (lock) {
+            try {
+                stopWorkers(new ArrayList<PooledTestWorker>(allWorkers));
+            } finally {
+                allWorkers.clear();
+                idleWorkers.clear();
+                memoryManager.removeMemoryHolder(expiration);
+            }
+        }
+    }
+
+    private void stopWorkers(List<PooledTestWorker> workersToStop) {
+        if (workersToStop.isEmpty()) {
+            return;
+        }
+        LOGGER.debug("Stopping {} test worker(s).", workersToStop.size());
+        List<Exception> failures = Lists.newArrayList();
+        for (PooledTestWorker worker : workersToStop) {
+            try {
+                worker.stop();
+            } catch (Exception e) {
+                failures.add(e);
+            }
+            idleWorkers.remove(worker);
+            allWorkers.remove(worker);
+        }
+        if (failures.size() == 1) {
+            throw UncheckedException.throwAsUncheckedException(failures.get(0));
+        } else if (!failures.isEmpty()) {
+            throw new DefaultMultiCauseException("Not all test worker(s) could be stopped.", failures);
+        }
+    }
+
+    private static long getTotalPhysicalMemory(OsMemoryInfo memoryInfo) {
+        try {
+            return memoryInfo.getOsSnapshot().getTotalPhysicalMemory();
+        } catch (UnsupportedOperationException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Stops the least used idle workers until the requested amount of memory has been released.
+     */
+    private class IdleTestWorkerExpiration implements MemoryHolder {
+        @Override
+        public long attemptToRelease(long memoryAmountBytes) throws IllegalArgumentException {
+            if (memoryAmountBytes < 0) {
+                throw new IllegalArgumentException("Negative memory amount");
+            }
+            synchronized (lock) {
+                List<PooledTestWorker> candidates = new ArrayList<PooledTestWorker>(idleWorkers);
+                Collections.sort(candidates, new Comparator<PooledTestWorker>() {
+                    @Override
+                    public int compare(PooledTestWorker o1, PooledTestWorker o2) {
+                        return Integer.compare(o1.getUses(), o2.getUses());
+                    }
+                });
+                long releasedBytes = 0;
+                List<PooledTestWorker> toExpire = new ArrayList<PooledTestWorker>();
+                for (PooledTestWorker candidate : candidates) {
+                    if (releasedBytes >= memoryAmountBytes) {
+                        break;
+                    }
+                    toExpire.add(candidate);
+                    releasedBytes += getMemoryUsage(candidate);
+                }
+                if (!toExpire.isEmpty()) {
+                    LOGGER.debug("Test worker(s) expired to free some system memory {}", toExpire.size());
+                    stopWorkers(toExpire);
+                }
+                return releasedBytes;
+            }
+        }
+
+        private long getMemoryUsage(PooledTestWorker worker) {
+            // prefer to use the actual memory usage reported by the worker
+            try {
+                return worker.getWorkerProcess().getJvmMemoryStatus().getCommittedMemory();
+            } catch (UnsupportedOperationException e) {
+                // This means the worker does not support reporting jvm memory info
+            } catch (IllegalStateException e) {
+                // This means the worker has not reported memory usage yet
+            }
+
+            long parsed = MemoryAmount.parseNotation(worker.getKey().maxHeapSize);
+            if (parsed != -1) {
+                return parsed;
+            }
+            if (osTotalMemory != -1) {
+                return new MaximumHeapHelper().getDefaultMaximumHeapSize(osTotalMemory);
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Identifies the test workers that can be reused for a test execution. Only includes the options of the worker JVM, as the test classpath and test framework are loaded for each test execution.
+     */
+    public static class Key {
+        private final String executable;
+        private final List<String> jvmArgs;
+        private final List<File> bootstrapClasspath;
+        private final ImmutableMap<String, String> environment;
+        private final File workingDir;
+        private final String maxHeapSize;
+
+        private Key(JavaForkOptions forkOptions) {
+            this.executable = forkOptions.getExecutable();
+            this.jvmArgs = ImmutableList.copyOf(forkOptions.getAllJvmArgs());
+            this.bootstrapClasspath = ImmutableList.copyOf(forkOptions.getBootstrapClasspath().getFiles());
+            ImmutableMap.Builder<String, String> environment = ImmutableMap.builder();
+            for (Map.Entry<String, Object> entry : forkOptions.getEnvironment().entrySet()) {
+                environment.put(entry.getKey(), String.valueOf(entry.getValue()));
+            }
+            this.environment = environment.build();
+            this.workingDir = forkOptions.getWorkingDir();
+            this.maxHeapSize = forkOptions.getMaxHeapSize();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equal(executable, key.executable)
+                && jvmArgs.equals(key.jvmArgs)
+                && bootstrapClasspath.equals(key.bootstrapClasspath)
+                && environment.equals(key.environment)
+                && Objects.equal(workingDir, key.workingDir);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(executable, jvmArgs, bootstrapClasspath, environment, workingDir);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker;
+
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory;
+import org.gradle.internal.UncheckedException;
+import org.gradle.internal.classloader.ClassLoaderUtils;
+import org.gradle.internal.classloader.FilteringClassLoader;
+import org.gradle.internal.classloader.MultiParentClassLoader;
+import org.gradle.internal.classloader.VisitableURLClassLoader;
+import org.gradle.internal.classpath.DefaultClassPath;
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The tests of one test execution that a {@link TestWorker#reusable() reusable} test worker runs, along with the test classpath and the test framework to run them with.
+ *
+ * <p>A reusable worker is started without a test classpath. Instead, each session loads the test classes and the test framework implementation in ClassLoaders that
+ * are created when the session starts and discarded when it ends, so that one worker JVM can run the tests of executions with different classpaths and test frameworks,
+ * and static state does not leak from one session into the next:</p>
+ *
+ * <pre>
+ *       worker ClassLoader               application ClassLoader
+ *      (Gradle classes, slf4j)            (test runtime classpath)
+ *                ^                                   ^
+ *                |                                   |
+ *     (all but the test framework          (shared packages of the
+ *          implementations)                    test framework)
+ *                |                                   |
+ *                +------- framework ClassLoader -----+
+ *           (test framework implementation classpath)
+ * </pre>
+ *
+ * <p>The processor factory is deserialized in the framework ClassLoader, so that the test framework sees the test framework classes from the test classpath.</p>
+ */
+public class TestWorkerSession implements Serializable {
+    private static final String[] FRAMEWORK_PACKAGES = {
+        "org.gradle.api.internal.tasks.testing.junit",
+        "org.gradle.api.internal.tasks.testing.junitplatform",
+        "org.gradle.api.internal.tasks.testing.testng"
+    };
+
+    private final transient WorkerTestClassProcessorFactory processorFactory;
+    private final List<File> applicationClasspath;
+    private final List<URL> implementationClasspath;
+    private final Set<String> sharedPackages;
+    private byte[] serializedProcessorFactory;
+    private transient ClassLoader applicationClassLoader;
+    private transient ClassLoader frameworkClassLoader;
+
+    public TestWorkerSession(WorkerTestClassProcessorFactory processorFactory, List<File> applicationClasspath, List<URL> implementationClasspath, Set<String> sharedPackages) {
+        this.processorFactory = processorFactory;
+        this.applicationClasspath = applicationClasspath;
+        this.implementationClasspath = implementationClasspath;
+        this.sharedPackages = sharedPackages;
+    }
+
+    public WorkerTestClassProcessorFactory getProcessorFactory() {
+        return processorFactory;
+    }
+
+    public List<File> getApplicationClasspath() {
+        return applicationClasspath;
+    }
+
+    public Set<String> getSharedPackages() {
+        return sharedPackages;
+    }
+
+    /**
+     * Creates the ClassLoaders for this session in the worker, and loads the processor factory from them.
+     */
+    WorkerTestClassProcessorFactory load(ClassLoader workerClassLoader) {
+        applicationClassLoader = new VisitableURLClassLoader("test-session-application", ClassLoaderUtils.getPlatformClassLoader(), DefaultClassPath.of(applicationClasspath));
+
+        FilteringClassLoader.Spec sharedFromApplication = new FilteringClassLoader.Spec();
+        for (String sharedPackage : sharedPackages) {
+            sharedFromApplication.allowPackage(sharedPackage);
+        }
+        FilteringClassLoader.Spec sharedFromWorker = new FilteringClassLoader.Spec();
+        sharedFromWorker.allowPackage("org.gradle");
+        sharedFromWorker.allowPackage("org.slf4j");
+        for (String frameworkPackage : FRAMEWORK_PACKAGES) {
+            sharedFromWorker.disallowPackage(frameworkPackage);
+        }
+        ClassLoader parent = new MultiParentClassLoader(new FilteringClassLoader(applicationClassLoader, sharedFromApplication), new FilteringClassLoader(workerClassLoader, sharedFromWorker));
+        frameworkClassLoader = new VisitableURLClassLoader("test-session-framework", parent, implementationClasspath);
+
+        try {
+            ObjectInputStream inputStream = new ClassLoaderObjectInputStream(new ByteArrayInputStream(serializedProcessorFactory), frameworkClassLoader);
+            try {
+                return (WorkerTestClassProcessorFactory) inputStream.readObject();
+            } finally {
+                inputStream.close();
+            }
+        } catch (Exception e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    /**
+     * The ClassLoader for the test classes of this session. Only available in the worker, after {@link #load(ClassLoader)}.
+     */
+    ClassLoader getApplicationClassLoader() {
+        return applicationClassLoader;
+    }
+
+    /**
+     * Discards the ClassLoaders of this session.
+     */
+    void close() {
+        ClassLoaderUtils.tryClose(frameworkClassLoader);
+        ClassLoaderUtils.tryClose(applicationClassLoader);
+        frameworkClassLoader = null;
+        applicationClassLoader = null;
+    }
+
+    private void writeObject(ObjectOutputStream outputStream) throws IOException {
+        // Serialize the factory separately, as the worker cannot load its classes until the ClassLoaders for the session have been created
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream factoryOutputStream = new ObjectOutputStream(bytes);
+        factoryOutputStream.writeObject(processorFactory);
+        factoryOutputStream.close();
+        serializedProcessorFactory = bytes.toByteArray();
+        outputStream.defaultWriteObject();
+    }
+}
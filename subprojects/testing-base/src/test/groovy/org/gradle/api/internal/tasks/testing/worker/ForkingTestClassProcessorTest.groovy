@@ -21,6 +21,7 @@ import org.gradle.api.internal.DocumentationRegistry
 import org.gradle.api.internal.classpath.Module
 import org.gradle.api.internal.classpath.ModuleRegistry
 import org.gradle.api.internal.tasks.testing.TestClassRunInfo
+import org.gradle.api.internal.tasks.testing.TestResultProcessor
 import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
 import org.gradle.internal.classpath.ClassPath
 import org.gradle.internal.remote.ObjectConnection
@@ -44,12 +45,13 @@ class ForkingTestClassProcessorTest extends Specification {
     JavaForkOptions options = Stub(JavaForkOptions)
 
     @Subject
-        processor = Spy(ForkingTestClassProcessor, constructorArgs: [workerLease, workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), moduleRegistry, documentationRegistry])
+        processor = Spy(ForkingTestClassProcessor, constructorArgs: [workerLease, workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), moduleRegistry, documentationRegistry, null])
 
     def setup() {
         workerProcessBuilder.build() >> workerProcess
         workerProcessFactory.create(_) >> workerProcessBuilder
         workerProcessBuilder.getJavaCommand() >> Stub (JavaExecHandleBuilder)
+        workerProcessBuilder.getSharedPackages() >> (["org.junit"] as Set)
     }
 
     def "acquires worker lease and starts worker process on first test"() {
@@ -93,7 +95,7 @@ class ForkingTestClassProcessorTest extends Specification {
     }
 
     def "stopNow propagates to worker process"() {
-        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry)
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry, null)
 
         setup:
         1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
@@ -107,7 +109,7 @@ class ForkingTestClassProcessorTest extends Specification {
     }
 
     def "no exception when stop after stopNow"() {
-        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry)
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), Stub(ModuleRegistry), documentationRegistry, null)
 
         setup:
         1 * workerProcess.getConnection() >> Stub(ObjectConnection) { addOutgoing(_) >> Stub(RemoteTestClassProcessor) }
@@ -123,6 +125,56 @@ class ForkingTestClassProcessorTest extends Specification {
         notThrown(ExecException)
     }
 
+    def "runs tests in a session of an idle pooled worker and releases it afterwards"() {
+        def pool = Mock(TestWorkerPool)
+        def pooledWorker = Mock(PooledTestWorker)
+        def remoteProcessor = Mock(RemoteTestClassProcessor)
+        def resultProcessor = Stub(TestResultProcessor)
+        def processorFactory = Mock(WorkerTestClassProcessorFactory)
+        def test = Mock(TestClassRunInfo)
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, processorFactory, options, [new File("classpath.jar")], Mock(Action), moduleRegistry, documentationRegistry, pool)
+        _ * moduleRegistry.getModule(_) >> { module(it[0]) }
+        _ * moduleRegistry.getExternalModule(_) >> { module(it[0]) }
+
+        when:
+        processor.startProcessing(resultProcessor)
+        processor.processTestClass(test)
+        processor.stop()
+
+        then:
+        1 * pool.reserveIdleWorker(_) >> pooledWorker
+        1 * workerProcessBuilder.applicationClasspath([])
+        0 * workerProcessBuilder.build()
+        1 * pooledWorker.startSession({ TestWorkerSession session ->
+            session.processorFactory == processorFactory && session.applicationClasspath == [new File("classpath.jar")]
+        }, resultProcessor) >> remoteProcessor
+        1 * remoteProcessor.processTestClass(test)
+        1 * pooledWorker.endSession() >> true
+        1 * pool.release(pooledWorker)
+        0 * pool.discard(_)
+    }
+
+    def "discards pooled worker when the connection to it is lost"() {
+        def pool = Mock(TestWorkerPool)
+        def pooledWorker = Mock(PooledTestWorker)
+        ForkingTestClassProcessor processor = new ForkingTestClassProcessor(Stub(WorkerLeaseRegistry.WorkerLease), workerProcessFactory, Mock(WorkerTestClassProcessorFactory), options, [new File("classpath.jar")], Mock(Action), moduleRegistry, documentationRegistry, pool)
+        _ * moduleRegistry.getModule(_) >> { module(it[0]) }
+        _ * moduleRegistry.getExternalModule(_) >> { module(it[0]) }
+
+        when:
+        processor.processTestClass(Mock(TestClassRunInfo))
+        processor.stop()
+
+        then:
+        1 * pool.reserveIdleWorker(_) >> pooledWorker
+        _ * pooledWorker.getWorkerProcess() >> workerProcess
+        1 * pooledWorker.startSession(_, _) >> Stub(RemoteTestClassProcessor)
+        1 * pooledWorker.endSession() >> false
+        1 * pool.discard(pooledWorker)
+        1 * workerProcess.waitForStop()
+        0 * pool.release(_)
+    }
+
     def module(String module) {
         return Stub(Module) {
             _ * getImplementationClasspath() >> {
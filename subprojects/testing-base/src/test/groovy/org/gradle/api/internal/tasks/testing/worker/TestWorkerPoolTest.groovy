@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.file.FileCollection
+import org.gradle.process.JavaForkOptions
+import org.gradle.process.internal.health.memory.MemoryHolder
+import org.gradle.process.internal.health.memory.MemoryManager
+import org.gradle.process.internal.health.memory.OsMemoryInfo
+import org.gradle.process.internal.worker.WorkerProcess
+import spock.lang.Specification
+
+class TestWorkerPoolTest extends Specification {
+    def memoryManager = Mock(MemoryManager)
+    def pool = new TestWorkerPool(memoryManager, Stub(OsMemoryInfo))
+
+    def "reserves released worker with the same key"() {
+        def worker = worker(key(["-Xmx1g"]))
+
+        when:
+        pool.add(worker)
+
+        then:
+        pool.reserveIdleWorker(key(["-Xmx1g"])) == null
+
+        when:
+        pool.release(worker)
+
+        then:
+        pool.reserveIdleWorker(key(["-Xmx1g"])) == worker
+        pool.reserveIdleWorker(key(["-Xmx1g"])) == null
+    }
+
+    def "does not reserve worker with different jvm options"() {
+        def worker = worker(key(["-Xmx1g"]))
+        pool.add(worker)
+        pool.release(worker)
+
+        expect:
+        pool.reserveIdleWorker(key(["-Xmx2g"])) == null
+        pool.reserveIdleWorker(key(["-Xmx1g", "-Dsome.property=value"])) == null
+        pool.reserveIdleWorker(key(["-Xmx1g"], "other-work")) == null
+        pool.reserveIdleWorker(key(["-Xmx1g"])) == worker
+    }
+
+    def "does not reuse discarded worker"() {
+        def worker = worker(key(["-Xmx1g"]))
+
+        when:
+        pool.add(worker)
+        pool.discard(worker)
+        pool.release(worker)
+
+        then:
+        pool.reserveIdleWorker(key(["-Xmx1g"])) == null
+    }
+
+    def "stops idle workers to release memory and all workers when stopped"() {
+        MemoryHolder expiration
+        def idle = worker(key(["-Xmx1g"]))
+        def busy = worker(key(["-Xmx1g"]))
+
+        when:
+        pool = new TestWorkerPool(memoryManager, Stub(OsMemoryInfo))
+
+        then:
+        1 * memoryManager.addMemoryHolder(_) >> { args -> expiration = args[0] }
+
+        when:
+        pool.add(idle)
+        pool.add(busy)
+        pool.release(idle)
+        expiration.attemptToRelease(1024)
+
+        then:
+        1 * idle.stop()
+        0 * busy.stop()
+
+        when:
+        pool.stop()
+
+        then:
+        1 * busy.stop()
+        0 * idle.stop()
+        1 * memoryManager.removeMemoryHolder(expiration)
+    }
+
+    def key(List<String> jvmArgs, String workingDir = "work") {
+        def options = Stub(JavaForkOptions) {
+            getExecutable() >> "java"
+            getAllJvmArgs() >> jvmArgs
+            getBootstrapClasspath() >> Stub(FileCollection) { getFiles() >> ([] as Set) }
+            getEnvironment() >> [:]
+            getWorkingDir() >> new File(workingDir)
+        }
+        return pool.key(options)
+    }
+
+    def worker(TestWorkerPool.Key key) {
+        return Mock(PooledTestWorker) {
+            _ * getKey() >> key
+            _ * getWorkerProcess() >> Stub(WorkerProcess)
+        }
+    }
+}
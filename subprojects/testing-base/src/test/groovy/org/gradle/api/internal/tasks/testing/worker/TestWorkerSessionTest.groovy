@@ -0,0 +1,73 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.api.internal.tasks.testing.worker
+
+import org.gradle.api.internal.tasks.testing.TestClassProcessor
+import org.gradle.api.internal.tasks.testing.WorkerTestClassProcessorFactory
+import org.gradle.internal.service.ServiceRegistry
+import spock.lang.Specification
+
+class TestWorkerSessionTest extends Specification {
+    def applicationClasspath = [new File(Specification.protectionDomain.codeSource.location.toURI())]
+
+    def "loads processor factory and test classes in the worker in ClassLoaders for the session"() {
+        def session = serialize(new TestWorkerSession(new SomeProcessorFactory(name: "factory"), applicationClasspath, [], ["spock.lang"] as Set))
+
+        when:
+        def factory = session.load(getClass().classLoader)
+
+        then:
+        factory instanceof SomeProcessorFactory
+        factory.name == "factory"
+
+        and:
+        def applicationClassLoader = session.applicationClassLoader
+        def testClass = applicationClassLoader.loadClass(Specification.name)
+        testClass != Specification
+        testClass.classLoader == applicationClassLoader
+
+        when:
+        applicationClassLoader.loadClass(TestWorkerSession.name)
+
+        then:
+        thrown(ClassNotFoundException)
+
+        when:
+        session.close()
+
+        then:
+        session.applicationClassLoader == null
+    }
+
+    def serialize(TestWorkerSession session) {
+        def bytes = new ByteArrayOutputStream()
+        def outputStream = new ObjectOutputStream(bytes)
+        outputStream.writeObject(session)
+        outputStream.close()
+        return new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject() as TestWorkerSession
+    }
+
+    static class SomeProcessorFactory implements WorkerTestClassProcessorFactory, Serializable {
+        String name
+
+        @Override
+        TestClassProcessor create(ServiceRegistry serviceRegistry) {
+            throw new UnsupportedOperationException()
+        }
+    }
+}
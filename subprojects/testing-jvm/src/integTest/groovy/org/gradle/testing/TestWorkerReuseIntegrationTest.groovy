@@ -0,0 +1,113 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.gradle.testing
+
+import org.gradle.api.internal.tasks.testing.worker.TestWorkerPool
+import org.gradle.integtests.fixtures.AbstractIntegrationSpec
+import org.gradle.integtests.fixtures.JUnitXmlTestExecutionResult
+
+class TestWorkerReuseIntegrationTest extends AbstractIntegrationSpec {
+    def setup() {
+        executer.requireDaemon().requireIsolatedDaemons()
+        executer.withBuildJvmOpts("-D${TestWorkerPool.REUSE_TEST_WORKERS_PROPERTY_KEY}=true")
+        buildFile << """
+            apply plugin: 'java'
+            ${mavenCentralRepository()}
+            dependencies { testCompile 'junit:junit:4.12' }
+        """
+    }
+
+    def "runs recompiled test classes in the same worker and does not leak static state when tests run again in a later build"() {
+        given:
+        writeTest("first")
+
+        when:
+        succeeds("test")
+
+        then:
+        new JUnitXmlTestExecutionResult(testDirectory).testClass("SomeTest").assertTestPassed("message")
+
+        when:
+        def worker = file("worker-test.txt").text
+        writeTest("second")
+        succeeds("test")
+
+        then:
+        executedAndNotSkipped(":compileTestJava", ":test")
+        new JUnitXmlTestExecutionResult(testDirectory).testClass("SomeTest").assertTestPassed("message")
+        file("worker-test.txt").text == worker
+    }
+
+    def "runs tests of test tasks with different classpaths in the same worker"() {
+        given:
+        buildFile << """
+            sourceSets {
+                otherTest {
+                    compileClasspath += sourceSets.test.compileClasspath
+                    runtimeClasspath += sourceSets.test.runtimeClasspath
+                }
+            }
+            task otherTest(type: Test) {
+                testClassesDirs = sourceSets.otherTest.output.classesDirs
+                classpath = sourceSets.otherTest.runtimeClasspath
+            }
+        """
+        writeTest("first")
+        file("src/otherTest/java/OtherTest.java").text = """
+            import org.junit.Test;
+            import static org.junit.Assert.*;
+
+            public class OtherTest {
+                @Test
+                public void worker() throws Exception {
+                    java.nio.file.Files.write(new java.io.File("${file("worker-other.txt").absolutePath.replace('\\', '/')}").toPath(), java.lang.management.ManagementFactory.getRuntimeMXBean().getName().getBytes());
+                }
+            }
+        """
+
+        when:
+        succeeds("test")
+        succeeds("otherTest")
+
+        then:
+        file("worker-other.txt").text == file("worker-test.txt").text
+    }
+
+    private void writeTest(String message) {
+        file("src/test/java/Message.java").text = """
+            public class Message {
+                public static String previous;
+                public static String get() { return "${message}"; }
+            }
+        """
+        file("src/test/java/SomeTest.java").text = """
+            import org.junit.Test;
+            import static org.junit.Assert.*;
+
+            public class SomeTest {
+                @Test
+                public void message() throws Exception {
+                    assertEquals("${message}", Message.get());
+                    assertNull(Message.previous);
+                    Message.previous = Message.get();
+                    java.nio.file.Files.write(new java.io.File("${file("worker-test.txt").absolutePath.replace('\\', '/')}").toPath(), java.lang.management.ManagementFactory.getRuntimeMXBean().getName().getBytes());
+                }
+            }
+        """
+    }
+}
@@ -20,6 +20,8 @@ import org.gradle.integtests.fixtures.AbstractIntegrationSpec
 import org.gradle.integtests.tooling.fixture.ToolingApiDistribution
 import org.gradle.integtests.tooling.fixture.ToolingApiDistributionResolver
 
+import java.util.jar.JarFile
+
 class ToolingApiClasspathIntegrationTest extends AbstractIntegrationSpec {
 
     def "tooling api classpath contains only tooling-api jar and slf4j"() {
@@ -30,7 +32,9 @@ class ToolingApiClasspathIntegrationTest extends AbstractIntegrationSpec {
         then:
         resolve.classpath.size() == 2
         resolve.classpath.any {it.name ==~ /slf4j-api-.*\.jar/}
-        resolve.classpath.find { it.name ==~ /gradle-tooling-api.*\.jar/ }.size() < 1.95 * 1024 * 1024
+        def toolingApiJar = resolve.classpath.find { it.name ==~ /gradle-tooling-api.*\.jar/ }
+        toolingApiJar.size() < 1.95 * 1024 * 1024
+        !new JarFile(toolingApiJar).withCloseable { jar -> jar.entries().toList()*.name.any { it.startsWith("org/objectweb/") } }
 
         cleanup:
         resolver.stop()
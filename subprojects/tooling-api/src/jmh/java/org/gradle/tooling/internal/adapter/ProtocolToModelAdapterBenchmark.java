@@ -0,0 +1,204 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.adapter;
+
+import org.gradle.tooling.model.DomainObjectSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Traverses a view of a model with 1000 modules, in the way that an IDE does when it imports a build.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ProtocolToModelAdapterBenchmark {
+    private static final int MODULES = 1000;
+    private static final int SOURCE_DIRECTORIES = 10;
+    private static final int DEPENDENCIES = 20;
+
+    private final ProtocolToModelAdapter adapter = new ProtocolToModelAdapter();
+    private DefaultProject source;
+    private Project view;
+
+    @Setup
+    public void setup() {
+        List<DefaultModule> modules = new ArrayList<DefaultModule>();
+        for (int i = 0; i < MODULES; i++) {
+            List<DefaultSourceDirectory> sourceDirectories = new ArrayList<DefaultSourceDirectory>();
+            for (int j = 0; j < SOURCE_DIRECTORIES; j++) {
+                sourceDirectories.add(new DefaultSourceDirectory(new File("module" + i + "/src/dir" + j), j % 2 == 0));
+            }
+            List<DefaultDependency> dependencies = new ArrayList<DefaultDependency>();
+            for (int j = 0; j < DEPENDENCIES; j++) {
+                dependencies.add(new DefaultDependency("module" + ((i + j + 1) % MODULES), j % 3 == 0 ? "TEST" : "COMPILE"));
+            }
+            modules.add(new DefaultModule("module" + i, ":module" + i, sourceDirectories, dependencies));
+        }
+        source = new DefaultProject("project", modules);
+        view = adapter.adapt(Project.class, source);
+    }
+
+    @Benchmark
+    public void adaptAndTraverse(Blackhole blackhole) {
+        traverse(adapter.adapt(Project.class, source), blackhole);
+    }
+
+    @Benchmark
+    public void traverseAdapted(Blackhole blackhole) {
+        traverse(view, blackhole);
+    }
+
+    private static void traverse(Project project, Blackhole blackhole) {
+        blackhole.consume(project.getName());
+        for (Module module : project.getModules()) {
+            blackhole.consume(module.getName());
+            blackhole.consume(module.getPath());
+            for (SourceDirectory sourceDirectory : module.getSourceDirectories()) {
+                blackhole.consume(sourceDirectory.getDirectory());
+                blackhole.consume(sourceDirectory.isGenerated());
+            }
+            for (Dependency dependency : module.getDependencies()) {
+                blackhole.consume(dependency.getTargetModuleName());
+                blackhole.consume(dependency.getScope());
+            }
+        }
+    }
+
+    public interface Project {
+        String getName();
+
+        DomainObjectSet<? extends Module> getModules();
+    }
+
+    public interface Module {
+        String getName();
+
+        String getPath();
+
+        DomainObjectSet<? extends SourceDirectory> getSourceDirectories();
+
+        List<? extends Dependency> getDependencies();
+    }
+
+    public interface SourceDirectory {
+        File getDirectory();
+
+        boolean isGenerated();
+    }
+
+    public interface Dependency {
+        String getTargetModuleName();
+
+        String getScope();
+    }
+
+    public static class DefaultProject {
+        private final String name;
+        private final List<DefaultModule> modules;
+
+        DefaultProject(String name, List<DefaultModule> modules) {
+            this.name = name;
+            this.modules = modules;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<DefaultModule> getModules() {
+            return modules;
+        }
+    }
+
+    public static class DefaultModule {
+        private final String name;
+        private final String path;
+        private final List<DefaultSourceDirectory> sourceDirectories;
+        private final List<DefaultDependency> dependencies;
+
+        DefaultModule(String name, String path, List<DefaultSourceDirectory> sourceDirectories, List<DefaultDependency> dependencies) {
+            this.name = name;
+            this.path = path;
+            this.sourceDirectories = sourceDirectories;
+            this.dependencies = dependencies;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public List<DefaultSourceDirectory> getSourceDirectories() {
+            return sourceDirectories;
+        }
+
+        public List<DefaultDependency> getDependencies() {
+            return dependencies;
+        }
+    }
+
+    public static class DefaultSourceDirectory {
+        private final File directory;
+        private final boolean generated;
+
+        DefaultSourceDirectory(File directory, boolean generated) {
+            this.directory = directory;
+            this.generated = generated;
+        }
+
+        public File getDirectory() {
+            return directory;
+        }
+
+        public boolean isGenerated() {
+            return generated;
+        }
+    }
+
+    public static class DefaultDependency {
+        private final String targetModuleName;
+        private final String scope;
+
+        DefaultDependency(String targetModuleName, String scope) {
+            this.targetModuleName = targetModuleName;
+            this.scope = scope;
+        }
+
+        public String getTargetModuleName() {
+            return targetModuleName;
+        }
+
+        public String getScope() {
+            return scope;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.adapter;
+
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.lang.reflect.UndeclaredThrowableException;
+
+/**
+ * The base class of the view classes generated by {@link ViewClassGenerator}. Each method of a generated view class calls {@link #invokeViewMethod(int, Object[])}
+ * with the index of the method.
+ *
+ * <p>This type is public so that it can be used by generated classes, which are defined in a different class loader.</p>
+ */
+public abstract class GeneratedView implements Serializable {
+    private final Handler handler;
+
+    protected GeneratedView(Handler handler) {
+        this.handler = handler;
+    }
+
+    Handler getHandler() {
+        return handler;
+    }
+
+    protected final Object invokeViewMethod(int methodIndex, Object[] parameters) throws Throwable {
+        return handler.invoke(this, methodIndex, parameters);
+    }
+
+    protected final Object writeReplace() throws ObjectStreamException {
+        return handler.replaceForSerialization(this);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return (Boolean) invokeObjectMethod(ViewClassGenerator.EQUALS_METHOD_INDEX, new Object[]{obj});
+    }
+
+    @Override
+    public int hashCode() {
+        return (Integer) invokeObjectMethod(ViewClassGenerator.HASHCODE_METHOD_INDEX, null);
+    }
+
+    @Override
+    public String toString() {
+        return (String) invokeObjectMethod(ViewClassGenerator.TO_STRING_METHOD_INDEX, null);
+    }
+
+    private Object invokeObjectMethod(int methodIndex, Object[] parameters) {
+        try {
+            return handler.invoke(this, methodIndex, parameters);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new UndeclaredThrowableException(throwable);
+        }
+    }
+
+    /**
+     * Implements the methods of a generated view.
+     */
+    public interface Handler {
+        /**
+         * Invokes the method with the given index in the view type of the given view. Throws the same exceptions that a {@link java.lang.reflect.Proxy} would.
+         */
+        Object invoke(GeneratedView view, int methodIndex, Object[] parameters) throws Throwable;
+
+        /**
+         * Returns the object to serialize in place of the given view.
+         */
+        Object replaceForSerialization(GeneratedView view);
+    }
+}
@@ -16,6 +16,7 @@
 
 package org.gradle.tooling.internal.adapter;
 
+import javax.annotation.Nullable;
 import java.lang.reflect.Type;
 
 class MethodInvocation {
@@ -27,11 +28,24 @@ class MethodInvocation {
     private final Object view;
     private final Class<?> viewType;
     private final Object delegate;
+    @Nullable
+    private final ViewMethod viewMethod;
 
     private Object result;
     private boolean found;
 
     MethodInvocation(String name, Class returnType, Type genericReturnType, Class<?>[] parameterTypes, Object view, Class<?> viewType, Object delegate, Object[] parameters) {
+        this(name, returnType, genericReturnType, parameterTypes, view, viewType, delegate, parameters, null);
+    }
+
+    /**
+     * Creates an invocation of the given method of a generated view class on the source object of the view.
+     */
+    MethodInvocation(ViewMethod viewMethod, Object view, Class<?> viewType, Object delegate, Object[] parameters) {
+        this(viewMethod.getName(), viewMethod.getReturnType(), viewMethod.getGenericReturnType(), viewMethod.getParameterTypes(), view, viewType, delegate, parameters, viewMethod);
+    }
+
+    private MethodInvocation(String name, Class returnType, Type genericReturnType, Class<?>[] parameterTypes, Object view, Class<?> viewType, Object delegate, Object[] parameters, @Nullable ViewMethod viewMethod) {
         this.name = name;
         this.returnType = returnType;
         this.genericReturnType = genericReturnType;
@@ -40,14 +54,23 @@ class MethodInvocation {
         this.viewType = viewType;
         this.delegate = delegate;
         this.parameters = parameters;
+        this.viewMethod = viewMethod;
+    }
+
+    static boolean isGetter(String name, Class<?>[] parameterTypes) {
+        return parameterTypes.length == 0 && isIsOrGet(name);
+    }
+
+    static boolean isIsOrGet(String name) {
+        return (name.startsWith("get") && name.length() > 3) || (name.startsWith("is") && name.length() > 2);
     }
 
     public boolean isGetter() {
-        return parameterTypes.length == 0 && isIsOrGet();
+        return isGetter(name, parameterTypes);
     }
 
     public boolean isIsOrGet() {
-        return (name.startsWith("get") && name.length() > 3) || (name.startsWith("is") && name.length() > 2);
+        return isIsOrGet(name);
     }
 
     public Object[] getParameters() {
@@ -97,4 +120,12 @@ class MethodInvocation {
     public Object getDelegate() {
         return delegate;
     }
+
+    /**
+     * Returns the method of the generated view class that is being invoked on its source object, or null when this is not such an invocation.
+     */
+    @Nullable
+    public ViewMethod getViewMethod() {
+        return viewMethod;
+    }
 }
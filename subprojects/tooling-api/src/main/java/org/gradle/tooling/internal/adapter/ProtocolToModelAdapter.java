@@ -38,6 +38,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Proxy;
 import java.lang.reflect.Type;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -62,6 +63,7 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
     };
     private static final ReflectionMethodInvoker REFLECTION_METHOD_INVOKER = new ReflectionMethodInvoker();
     private static final TypeInspector TYPE_INSPECTOR = new TypeInspector();
+    private static final ViewClassGenerator VIEW_CLASS_GENERATOR = new ViewClassGenerator();
     private static final CollectionMapper COLLECTION_MAPPER = new CollectionMapper();
     private static final Object[] EMPTY = new Object[0];
     private static final Class[] EMPTY_CLASS_ARRAY = new Class[0];
@@ -152,12 +154,9 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
             return targetType.cast(view);
         }
 
-        // Create a proxy
+        // Create an instance of the generated class for the view type, or a proxy when the view type cannot be implemented by a generated class
         InvocationHandlerImpl handler = new InvocationHandlerImpl(targetType, sourceObject, decorationsForThisType, graphDetails);
-        Object proxy = Proxy.newProxyInstance(viewType.getClassLoader(), new Class<?>[]{viewType}, handler);
-        handler.attachProxy(proxy);
-
-        return viewType.cast(proxy);
+        return viewType.cast(handler.attachView(viewType));
     }
 
     private static <T, S> T adaptToEnum(Class<T> targetType, S sourceObject) {
@@ -241,13 +240,24 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
      * Unpacks the source object from a given view object.
      */
     public Object unpack(Object viewObject) {
-        if (!Proxy.isProxyClass(viewObject.getClass()) || !(Proxy.getInvocationHandler(viewObject) instanceof InvocationHandlerImpl)) {
+        InvocationHandlerImpl handler = handlerOf(viewObject);
+        if (handler == null) {
             throw new IllegalArgumentException("The given object is not a view object");
         }
-        InvocationHandlerImpl handler = (InvocationHandlerImpl) Proxy.getInvocationHandler(viewObject);
         return handler.sourceObject;
     }
 
+    @Nullable
+    private static InvocationHandlerImpl handlerOf(@Nullable Object viewObject) {
+        Object handler = null;
+        if (viewObject instanceof GeneratedView) {
+            handler = ((GeneratedView) viewObject).getHandler();
+        } else if (viewObject != null && Proxy.isProxyClass(viewObject.getClass())) {
+            handler = Proxy.getInvocationHandler(viewObject);
+        }
+        return handler instanceof InvocationHandlerImpl ? (InvocationHandlerImpl) handler : null;
+    }
+
     private static class ViewGraphDetails implements Serializable {
         // Transient, don't serialize all the views that happen to have been visited, recreate them when visited via the deserialized view
         private transient Map<ViewKey, Object> views = new HashMap<ViewKey, Object>();
@@ -286,14 +296,17 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
         }
     }
 
-    private static class InvocationHandlerImpl implements InvocationHandler, Serializable {
+    private static class InvocationHandlerImpl implements InvocationHandler, GeneratedView.Handler, Serializable {
         private final Class<?> targetType;
         private final Object sourceObject;
         private final ViewDecoration decoration;
         private final ViewGraphDetails graphDetails;
-        private Object proxy;
+        private Object view;
         // Recreate the invoker when deserialized, rather than serialize all its state
         private transient MethodInvoker invoker;
+        // The following are used only when the view is an instance of a generated class
+        private transient ViewClassGenerator.ViewClass viewClass;
+        private transient SerializedView serializedView;
 
         InvocationHandlerImpl(Class<?> targetType, Object sourceObject, ViewDecoration decoration, ViewGraphDetails graphDetails) {
             this.targetType = targetType;
@@ -306,7 +319,10 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
         private void readObject(java.io.ObjectInputStream in) throws IOException, ClassNotFoundException {
             in.defaultReadObject();
             setup();
-            graphDetails.views.put(new ViewKey(targetType, sourceObject, decoration), proxy);
+            if (!(view instanceof SerializedView)) {
+                graphDetails.views.put(new ViewKey(targetType, sourceObject, decoration), view);
+            }
+            // Otherwise, the view is a generated view that is attached when it has been deserialized
         }
 
         private void setup() {
@@ -343,12 +359,7 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
 
         public Object invoke(Object target, Method method, Object[] params) throws Throwable {
             if (EQUALS_METHOD.equals(method)) {
-                Object param = params[0];
-                if (param == null || !Proxy.isProxyClass(param.getClass())) {
-                    return false;
-                }
-                InvocationHandler other = Proxy.getInvocationHandler(param);
-                return equals(other);
+                return viewEquals(params[0]);
             } else if (HASHCODE_METHOD.equals(method)) {
                 return hashCode();
             }
@@ -362,9 +373,76 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
             return invocation.getResult();
         }
 
-        void attachProxy(Object proxy) {
-            this.proxy = proxy;
-            graphDetails.views.put(new ViewKey(targetType, sourceObject, decoration), proxy);
+        @Override
+        public Object invoke(GeneratedView target, int methodIndex, Object[] params) throws Throwable {
+            if (methodIndex == ViewClassGenerator.EQUALS_METHOD_INDEX) {
+                return viewEquals(params[0]);
+            } else if (methodIndex == ViewClassGenerator.HASHCODE_METHOD_INDEX) {
+                return hashCode();
+            }
+
+            ViewMethod method = viewClass.getMethod(methodIndex);
+            try {
+                return invoke(target, method, params);
+            } catch (Throwable throwable) {
+                // Match the behaviour of a proxy
+                if (method.isDeclared(throwable)) {
+                    throw throwable;
+                }
+                throw new UndeclaredThrowableException(throwable);
+            }
+        }
+
+        private Object invoke(GeneratedView target, ViewMethod method, Object[] params) throws Throwable {
+            MethodInvocation invocation = new MethodInvocation(method, target, targetType, sourceObject, params);
+            invoker.invoke(invocation);
+            if (!invocation.found()) {
+                throw Exceptions.unsupportedMethod(method.getDisplayName());
+            }
+            return invocation.getResult();
+        }
+
+        private boolean viewEquals(@Nullable Object other) {
+            InvocationHandlerImpl otherHandler = handlerOf(other);
+            return otherHandler != null && equals(otherHandler);
+        }
+
+        @Override
+        public Object replaceForSerialization(GeneratedView view) {
+            if (serializedView == null) {
+                serializedView = new SerializedView(this, viewClass.getViewType());
+            }
+            return serializedView;
+        }
+
+        Object attachView(Class<?> viewType) {
+            viewClass = VIEW_CLASS_GENERATOR.generate(viewType);
+            Object view;
+            if (viewClass != null) {
+                view = viewClass.newInstance(this);
+            } else {
+                view = Proxy.newProxyInstance(viewType.getClassLoader(), new Class<?>[]{viewType}, this);
+            }
+            this.view = view;
+            graphDetails.views.put(new ViewKey(targetType, sourceObject, decoration), view);
+            return view;
+        }
+    }
+
+    /**
+     * The serialized form of a generated view. Generated classes are not serialized, so a new instance of the generated class for the view type is created on deserialization.
+     */
+    private static class SerializedView implements Serializable {
+        private final InvocationHandlerImpl handler;
+        private final Class<?> viewType;
+
+        SerializedView(InvocationHandlerImpl handler, Class<?> viewType) {
+            this.handler = handler;
+            this.viewType = viewType;
+        }
+
+        private Object readResolve() {
+            return handler.attachView(viewType);
         }
     }
 
@@ -599,7 +677,17 @@ public class ProtocolToModelAdapter implements ObjectGraphAdapter {
         }
 
         private Method locateMethod(MethodInvocation invocation) {
-            return lookupCache.get(invocation);
+            ViewMethod viewMethod = invocation.getViewMethod();
+            if (viewMethod == null) {
+                return lookupCache.get(invocation);
+            }
+            // Generated views remember the method found for the most recently used source type, which is nearly always the same type
+            Class<?> sourceType = invocation.getDelegate().getClass();
+            ViewMethod.SourceMethod sourceMethod = viewMethod.getSourceMethod(sourceType);
+            if (sourceMethod == null) {
+                sourceMethod = viewMethod.setSourceMethod(sourceType, lookupCache.get(invocation));
+            }
+            return sourceMethod.getMethod();
         }
     }
 
@@ -0,0 +1,311 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.adapter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Primitives;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import net.jcip.annotations.ThreadSafe;
+import org.gradle.internal.UncheckedException;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import javax.annotation.Nullable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Generates classes that implement view types, as a faster replacement for {@link java.lang.reflect.Proxy}. Each method of a generated class passes its index
+ * and parameters to the {@link GeneratedView.Handler} of the view, which looks up the details of the method in the {@link ViewClass}.
+ *
+ * <p>Generated classes are defined in their own class loader, which sees the class loader of the view type and {@link GeneratedView}. As the generated class
+ * lives in a different package, only public interfaces whose methods use public types in their signatures can be implemented this way.</p>
+ */
+@ThreadSafe
+class ViewClassGenerator implements Opcodes {
+    static final int EQUALS_METHOD_INDEX = 0;
+    static final int HASHCODE_METHOD_INDEX = 1;
+    static final int TO_STRING_METHOD_INDEX = 2;
+
+    private static final List<Method> OBJECT_METHODS = new ArrayList<Method>();
+    private static final String GENERATED_VIEW_TYPE = Type.getInternalName(GeneratedView.class);
+    private static final String OBJECT_TYPE = Type.getInternalName(Object.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = Type.getMethodDescriptor(Type.VOID_TYPE, Type.getType(GeneratedView.Handler.class));
+    private static final String INVOKE_METHOD_DESCRIPTOR = Type.getMethodDescriptor(Type.getType(Object.class), Type.INT_TYPE, Type.getType(Object[].class));
+    private static final String GENERATED_CLASS_PACKAGE = GeneratedView.class.getPackage().getName() + ".generated.";
+
+    static {
+        try {
+            OBJECT_METHODS.add(Object.class.getMethod("equals", Object.class));
+            OBJECT_METHODS.add(Object.class.getMethod("hashCode"));
+            OBJECT_METHODS.add(Object.class.getMethod("toString"));
+        } catch (NoSuchMethodException e) {
+            throw UncheckedException.throwAsUncheckedException(e);
+        }
+    }
+
+    // A generated class references its view type, so use soft values to allow the view type to be collected
+    private final Cache<Class<?>, ViewClass> viewClasses = CacheBuilder.newBuilder().weakKeys().softValues().build();
+    private final Cache<Class<?>, Boolean> failedTypes = CacheBuilder.newBuilder().weakKeys().build();
+
+    /**
+     * Returns the generated class for the given view type, or null when the view type cannot be implemented by a generated class.
+     */
+    @Nullable
+    public ViewClass generate(final Class<?> viewType) {
+        ViewClass viewClass = viewClasses.getIfPresent(viewType);
+        if (viewClass != null) {
+            return viewClass;
+        }
+        if (!canImplement(viewType) || failedTypes.getIfPresent(viewType) != null) {
+            return null;
+        }
+        try {
+            return viewClasses.get(viewType, new Callable<ViewClass>() {
+                @Override
+                public ViewClass call() throws Exception {
+                    return generateClass(viewType);
+                }
+            });
+        } catch (ExecutionException e) {
+            return failed(viewType);
+        } catch (UncheckedExecutionException e) {
+            return failed(viewType);
+        } catch (ExecutionError e) {
+            return failed(viewType);
+        }
+    }
+
+    @Nullable
+    private ViewClass failed(Class<?> viewType) {
+        // Use a proxy for the view type instead
+        failedTypes.put(viewType, Boolean.TRUE);
+        return null;
+    }
+
+    private static boolean canImplement(Class<?> viewType) {
+        if (!viewType.isInterface() || !isAccessible(viewType)) {
+            return false;
+        }
+        for (Method method : viewType.getMethods()) {
+            if (!isAccessible(method.getReturnType())) {
+                return false;
+            }
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                if (!isAccessible(parameterType)) {
+                    return false;
+                }
+            }
+            for (Class<?> exceptionType : method.getExceptionTypes()) {
+                if (!isAccessible(exceptionType)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true when the given type can be referenced from a generated class, which is the case when the type and all of its enclosing classes are public.
+     */
+    private static boolean isAccessible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+            if (!Modifier.isPublic(current.getModifiers())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ViewClass generateClass(Class<?> viewType) throws Exception {
+        List<Method> methods = new ArrayList<Method>(OBJECT_METHODS);
+        Set<String> signatures = new HashSet<String>();
+        for (Method method : OBJECT_METHODS) {
+            signatures.add(method.getName() + Type.getMethodDescriptor(method));
+        }
+        for (Method method : viewType.getMethods()) {
+            if (!Modifier.isStatic(method.getModifiers()) && signatures.add(method.getName() + Type.getMethodDescriptor(method))) {
+                methods.add(method);
+            }
+        }
+
+        String className = GENERATED_CLASS_PACKAGE + viewType.getName().replace('.', '_') + "_View";
+        ClassWriter visitor = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        visitor.visit(V1_5, ACC_PUBLIC | ACC_FINAL | ACC_SYNTHETIC, className.replace('.', '/'), null, GENERATED_VIEW_TYPE, new String[]{Type.getInternalName(viewType)});
+        addConstructor(visitor);
+        // The methods of Object are implemented by GeneratedView
+        for (int i = OBJECT_METHODS.size(); i < methods.size(); i++) {
+            addMethod(visitor, methods.get(i), i);
+        }
+        visitor.visitEnd();
+
+        ViewClassLoader classLoader = new ViewClassLoader(viewType.getClassLoader(), className, visitor.toByteArray());
+        // Initialize the class, so that any problem with the generated class is found here
+        Class<? extends GeneratedView> generatedClass = Class.forName(className, true, classLoader).asSubclass(GeneratedView.class);
+
+        ViewMethod[] viewMethods = new ViewMethod[methods.size()];
+        for (int i = 0; i < viewMethods.length; i++) {
+            viewMethods[i] = new ViewMethod(methods.get(i));
+        }
+        return new ViewClass(viewType, generatedClass.getConstructor(GeneratedView.Handler.class), viewMethods);
+    }
+
+    private static void addConstructor(ClassWriter visitor) {
+        MethodVisitor methodVisitor = visitor.visitMethod(ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR, null, null);
+        methodVisitor.visitCode();
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitVarInsn(ALOAD, 1);
+        methodVisitor.visitMethodInsn(INVOKESPECIAL, GENERATED_VIEW_TYPE, "<init>", CONSTRUCTOR_DESCRIPTOR, false);
+        methodVisitor.visitInsn(RETURN);
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+
+    private static void addMethod(ClassWriter visitor, Method method, int methodIndex) {
+        Class<?>[] exceptionTypes = method.getExceptionTypes();
+        String[] exceptions = new String[exceptionTypes.length];
+        for (int i = 0; i < exceptionTypes.length; i++) {
+            exceptions[i] = Type.getInternalName(exceptionTypes[i]);
+        }
+        MethodVisitor methodVisitor = visitor.visitMethod(ACC_PUBLIC, method.getName(), Type.getMethodDescriptor(method), null, exceptions);
+        methodVisitor.visitCode();
+
+        // this.invokeViewMethod(methodIndex, new Object[]{params...}) or with null when there are no parameters, as a proxy does
+        methodVisitor.visitVarInsn(ALOAD, 0);
+        methodVisitor.visitLdcInsn(methodIndex);
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        if (parameterTypes.length == 0) {
+            methodVisitor.visitInsn(ACONST_NULL);
+        } else {
+            methodVisitor.visitLdcInsn(parameterTypes.length);
+            methodVisitor.visitTypeInsn(ANEWARRAY, OBJECT_TYPE);
+            int slot = 1;
+            for (int i = 0; i < parameterTypes.length; i++) {
+                Type parameterType = Type.getType(parameterTypes[i]);
+                methodVisitor.visitInsn(DUP);
+                methodVisitor.visitLdcInsn(i);
+                methodVisitor.visitVarInsn(parameterType.getOpcode(ILOAD), slot);
+                if (parameterTypes[i].isPrimitive()) {
+                    Type boxedType = Type.getType(Primitives.wrap(parameterTypes[i]));
+                    methodVisitor.visitMethodInsn(INVOKESTATIC, boxedType.getInternalName(), "valueOf", Type.getMethodDescriptor(boxedType, parameterType), false);
+                }
+                methodVisitor.visitInsn(AASTORE);
+                slot += parameterType.getSize();
+            }
+        }
+        methodVisitor.visitMethodInsn(INVOKEVIRTUAL, GENERATED_VIEW_TYPE, "invokeViewMethod", INVOKE_METHOD_DESCRIPTOR, false);
+
+        Class<?> returnType = method.getReturnType();
+        Type returnAsmType = Type.getType(returnType);
+        if (returnType == void.class) {
+            methodVisitor.visitInsn(POP);
+        } else if (returnType.isPrimitive()) {
+            Type boxedType = Type.getType(Primitives.wrap(returnType));
+            methodVisitor.visitTypeInsn(CHECKCAST, boxedType.getInternalName());
+            methodVisitor.visitMethodInsn(INVOKEVIRTUAL, boxedType.getInternalName(), returnType.getName() + "Value", Type.getMethodDescriptor(returnAsmType), false);
+        } else {
+            methodVisitor.visitTypeInsn(CHECKCAST, returnAsmType.getInternalName());
+        }
+        methodVisitor.visitInsn(returnAsmType.getOpcode(IRETURN));
+        methodVisitor.visitMaxs(0, 0);
+        methodVisitor.visitEnd();
+    }
+
+    /**
+     * A generated class for a view type, along with the methods of the view type in the order of their indices.
+     */
+    static class ViewClass {
+        private final Class<?> viewType;
+        private final Constructor<? extends GeneratedView> constructor;
+        private final ViewMethod[] methods;
+
+        private ViewClass(Class<?> viewType, Constructor<? extends GeneratedView> constructor, ViewMethod[] methods) {
+            this.viewType = viewType;
+            this.constructor = constructor;
+            this.methods = methods;
+        }
+
+        public Class<?> getViewType() {
+            return viewType;
+        }
+
+        public ViewMethod getMethod(int methodIndex) {
+            return methods[methodIndex];
+        }
+
+        public GeneratedView newInstance(GeneratedView.Handler handler) {
+            try {
+                return constructor.newInstance(handler);
+            } catch (InvocationTargetException e) {
+                throw UncheckedException.throwAsUncheckedException(e.getCause());
+            } catch (Exception e) {
+                throw UncheckedException.throwAsUncheckedException(e);
+            }
+        }
+    }
+
+    /**
+     * Defines a single generated class. Loads {@link GeneratedView} from the class loader of this generator and everything else from the class loader of the view type.
+     */
+    private static class ViewClassLoader extends ClassLoader {
+        private final String className;
+        private final byte[] bytecode;
+
+        ViewClassLoader(@Nullable ClassLoader parent, String className, byte[] bytecode) {
+            super(parent);
+            this.className = className;
+            this.bytecode = bytecode;
+        }
+
+        @Override
+        protected synchronized Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(GeneratedView.class.getName())) {
+                return GeneratedView.class;
+            }
+            if (name.equals(GeneratedView.Handler.class.getName())) {
+                return GeneratedView.Handler.class;
+            }
+            return super.loadClass(name, resolve);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (name.equals(className)) {
+                return defineClass(name, bytecode, 0, bytecode.length);
+            }
+            throw new ClassNotFoundException(name);
+        }
+    }
+}
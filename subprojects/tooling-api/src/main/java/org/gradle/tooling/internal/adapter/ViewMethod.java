@@ -0,0 +1,124 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.tooling.internal.adapter;
+
+import javax.annotation.Nullable;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+
+/**
+ * A method of a view type that is implemented by a generated view class. Holds the details of the method that are needed to invoke it, so that they are calculated
+ * only once for each view type.
+ */
+class ViewMethod {
+    private final Method method;
+    private final String name;
+    private final Class<?> returnType;
+    private final Type genericReturnType;
+    private final Class<?>[] parameterTypes;
+    private final Class<?>[] exceptionTypes;
+    private final boolean getter;
+    // The method most recently invoked for this view method, cleared when memory runs low so that source classes can be unloaded
+    private volatile SoftReference<SourceMethod> sourceMethod;
+
+    ViewMethod(Method method) {
+        this.method = method;
+        this.name = method.getName();
+        this.returnType = method.getReturnType();
+        this.genericReturnType = method.getGenericReturnType();
+        this.parameterTypes = method.getParameterTypes();
+        this.exceptionTypes = method.getExceptionTypes();
+        this.getter = MethodInvocation.isGetter(name, parameterTypes);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getReturnType() {
+        return returnType;
+    }
+
+    public Type getGenericReturnType() {
+        return genericReturnType;
+    }
+
+    public Class<?>[] getParameterTypes() {
+        return parameterTypes;
+    }
+
+    public boolean isGetter() {
+        return getter;
+    }
+
+    public String getDisplayName() {
+        return method.getDeclaringClass().getSimpleName() + "." + name + "()";
+    }
+
+    /**
+     * Returns true if the given exception can be thrown by this method without being wrapped.
+     */
+    public boolean isDeclared(Throwable throwable) {
+        if (throwable instanceof RuntimeException || throwable instanceof Error) {
+            return true;
+        }
+        for (Class<?> exceptionType : exceptionTypes) {
+            if (exceptionType.isInstance(throwable)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the method found for this view method on the given source type, if known.
+     */
+    @Nullable
+    public SourceMethod getSourceMethod(Class<?> sourceType) {
+        SoftReference<SourceMethod> reference = sourceMethod;
+        if (reference == null) {
+            return null;
+        }
+        SourceMethod candidate = reference.get();
+        return candidate != null && candidate.sourceType == sourceType ? candidate : null;
+    }
+
+    public SourceMethod setSourceMethod(Class<?> sourceType, @Nullable Method method) {
+        SourceMethod candidate = new SourceMethod(sourceType, method);
+        sourceMethod = new SoftReference<SourceMethod>(candidate);
+        return candidate;
+    }
+
+    static class SourceMethod {
+        private final Class<?> sourceType;
+        private final Method method;
+
+        private SourceMethod(Class<?> sourceType, @Nullable Method method) {
+            this.sourceType = sourceType;
+            this.method = method;
+        }
+
+        /**
+         * Returns the method to invoke, or null when the source type does not have the method.
+         */
+        @Nullable
+        public Method getMethod() {
+            return method;
+        }
+    }
+}
@@ -594,6 +594,106 @@ class ProtocolToModelAdapterTest extends Specification {
         then:
         thrown(IllegalArgumentException)
     }
+
+    def "uses generated class for public view type"() {
+        TestProtocolModel protocolModel = Mock()
+        _ * protocolModel.getName() >> 'name'
+
+        when:
+        def model = adapter.adapt(TestModel.class, protocolModel)
+        def other = adapter.adapt(TestModel.class, Mock(TestProtocolModel))
+
+        then:
+        model instanceof GeneratedView
+        other.getClass() == model.getClass()
+        model.name == 'name'
+        adapter.unpack(model).is(protocolModel)
+    }
+
+    def "uses proxy for view type that cannot be implemented by a generated class"() {
+        def source = new TestProtocolProjectImpl()
+
+        when:
+        def view = adapter.adapt(PackagePrivateView.class, source)
+
+        then:
+        java.lang.reflect.Proxy.isProxyClass(view.getClass())
+        view.name == 'name'
+        adapter.unpack(view).is(source)
+    }
+
+    def "uses proxy for public view type whose signatures use types that are not accessible"() {
+        def source = new TestProtocolProjectImpl()
+
+        when:
+        def view = adapter.adapt(viewType, source)
+
+        then:
+        java.lang.reflect.Proxy.isProxyClass(view.getClass())
+        view.name == 'name'
+
+        where:
+        viewType << [ViewWithPackagePrivateTypes.WithParameter, ViewWithPackagePrivateTypes.WithException, PackagePrivateOuter.NestedView]
+    }
+
+    def "generated view is equal to proxy view of the same source object"() {
+        def source = new TestProtocolProjectImpl()
+
+        when:
+        def view = adapter.adapt(TestProject.class, source)
+        def proxy = adapter.adapt(PackagePrivateView.class, source)
+
+        then:
+        view instanceof GeneratedView
+        view.equals(proxy)
+        proxy.equals(view)
+    }
+
+    def "generated view caches property values"() {
+        TestProtocolModel protocolModel = Mock()
+
+        when:
+        def model = adapter.adapt(TestModel.class, protocolModel)
+        model.name
+        model.name
+        def project1 = model.project
+        def project2 = model.project
+
+        then:
+        1 * protocolModel.getName() >> 'name'
+        1 * protocolModel.getProject() >> Mock(TestProtocolProject)
+        project1.is(project2)
+    }
+
+    def "generated view rethrows exceptions in the same way as a proxy"() {
+        def source = new FailingProtocolModel(failure: failure)
+
+        when:
+        adapter.adapt(FailingModel.class, source)."$method"()
+
+        then:
+        def e = thrown(Exception)
+        e.class == expectedType
+        e == failure || e.cause == failure
+
+        where:
+        method                 | failure                     | expectedType
+        "getName"              | new IOException()           | java.lang.reflect.UndeclaredThrowableException
+        "getDeclaredFailure"   | new IOException()           | IOException
+        "getName"              | new IllegalStateException() | IllegalStateException
+    }
+
+    def "generated view adapts primitive values"() {
+        def source = new PrimitiveProtocolModel()
+
+        when:
+        def model = adapter.adapt(PrimitiveModel.class, source)
+
+        then:
+        model.count == 3
+        model.enabled
+        model.add(1L, 2) == 3L
+    }
 }
 
 interface TestModel {
@@ -696,6 +796,46 @@ class TestProtocolProjectWithEquality implements TestProtocolProject, Serializab
     }
 }
 
+interface FailingModel {
+    String getName()
+
+    String getDeclaredFailure() throws IOException
+}
+
+class FailingProtocolModel {
+    Exception failure
+
+    String getName() {
+        throw failure
+    }
+
+    String getDeclaredFailure() {
+        throw failure
+    }
+}
+
+interface PrimitiveModel {
+    int getCount()
+
+    boolean isEnabled()
+
+    long add(long a, int b)
+}
+
+class PrimitiveProtocolModel {
+    int getCount() {
+        return 3
+    }
+
+    boolean isEnabled() {
+        return true
+    }
+
+    long add(long a, int b) {
+        return a + b
+    }
+}
+
 class ConfigMixin {
     TestModel model
 
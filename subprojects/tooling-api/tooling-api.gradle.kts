@@ -47,6 +47,8 @@ dependencies {
     compile(project(":baseServices"))
     publishCompile(library("slf4j_api")) { version { prefer(libraryVersion("slf4j_api")) } }
     compile(library("jcip"))
+    // Relocated into the shaded jar, which keeps only the ASM classes used to generate model views
+    implementation(library("asm"))
 
     testFixturesApi(project(":baseServicesGroovy"))
     testFixturesApi(project(":internalIntegTesting"))
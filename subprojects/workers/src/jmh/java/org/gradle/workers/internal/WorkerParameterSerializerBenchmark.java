@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serializes and deserializes the parameters of 10k small work items, as happens when a task submits a work item per file.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class WorkerParameterSerializerBenchmark {
+    private static final int WORK_ITEMS = 10000;
+
+    private final ClassLoader classLoader = getClass().getClassLoader();
+    private List<Object[]> workItems;
+
+    @Setup
+    public void setup() {
+        workItems = new ArrayList<Object[]>(WORK_ITEMS);
+        for (int i = 0; i < WORK_ITEMS; i++) {
+            List<String> args = new ArrayList<String>();
+            args.add("--item");
+            args.add(String.valueOf(i));
+            workItems.add(new Object[]{new File("src/main/resources/file" + i + ".txt"), new File("build/out/file" + i + ".txt"), i, true, args});
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORK_ITEMS)
+    public void javaSerialization(Blackhole bh) throws IOException, ClassNotFoundException {
+        for (Object[] params : workItems) {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            ObjectOutputStream oos = new ObjectOutputStream(bos);
+            oos.writeObject(params);
+            oos.close();
+            ObjectInputStream ois = new ClassLoaderObjectInputStream(new ByteArrayInputStream(bos.toByteArray()), classLoader);
+            bh.consume(ois.readObject());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORK_ITEMS)
+    public void workerParameterSerializer(Blackhole bh) {
+        for (Object[] params : workItems) {
+            WorkerParameterSerializer.SerializedParameters serialized = WorkerParameterSerializer.serialize(params);
+            bh.consume(WorkerParameterSerializer.deserialize(serialized, classLoader));
+        }
+    }
+}
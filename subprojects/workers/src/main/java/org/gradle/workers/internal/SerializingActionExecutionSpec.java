@@ -17,13 +17,6 @@
 package org.gradle.workers.internal;
 
 import org.gradle.internal.exceptions.Contextual;
-import org.gradle.internal.io.ClassLoaderObjectInputStream;
-
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 
 /**
  * Represents an {@link ActionExecutionSpec} that contains constructor parameters.
@@ -31,12 +24,12 @@ import java.io.ObjectOutputStream;
 public class SerializingActionExecutionSpec implements ActionExecutionSpec {
     private final String displayName;
     private final Class<? extends Runnable> implementationClass;
-    private final byte[] params;
+    private final WorkerParameterSerializer.SerializedParameters params;
 
     public SerializingActionExecutionSpec(Class<? extends Runnable> implementationClass, String displayName, Object[] params) {
         this.implementationClass = implementationClass;
         this.displayName = displayName;
-        this.params = serialize(params);
+        this.params = WorkerParameterSerializer.serialize(params);
     }
 
     @Override
@@ -51,30 +44,7 @@ public class SerializingActionExecutionSpec implements ActionExecutionSpec {
 
     @Override
     public Object[] getParams(ClassLoader classLoader) {
-        return deserialize(classLoader);
-    }
-
-    private byte[] serialize(Object[] params) {
-        ByteArrayOutputStream bos = new ByteArrayOutputStream();
-        try {
-            ObjectOutputStream oos = new ObjectOutputStream(bos);
-            oos.writeObject(params);
-        } catch (IOException e) {
-            throw new ParameterSerializationException("Could not serialize parameters", e);
-        }
-        return bos.toByteArray();
-    }
-
-    private Object[] deserialize(ClassLoader classLoader) {
-        ByteArrayInputStream bis = new ByteArrayInputStream(params);
-        try {
-            ObjectInputStream ois = new ClassLoaderObjectInputStream(bis, classLoader);
-            return (Object[])ois.readObject();
-        } catch (IOException e) {
-            throw new ParameterSerializationException("Could not deserialize parameters", e);
-        } catch (ClassNotFoundException e) {
-            throw new ParameterSerializationException("Could not deserialize parameters", e);
-        }
+        return WorkerParameterSerializer.deserialize(params, classLoader);
     }
 
     @Contextual
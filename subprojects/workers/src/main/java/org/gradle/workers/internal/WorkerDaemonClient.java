@@ -27,7 +27,7 @@ class WorkerDaemonClient implements Worker, Stoppable {
     private final DaemonForkOptions forkOptions;
     private final WorkerDaemonProcess workerDaemonProcess;
     private final WorkerProcess workerProcess;
-    private final LogLevel logLevel;
+    private LogLevel logLevel;
     private int uses;
     private boolean failed;
     private boolean cannotBeExpired = Boolean.getBoolean(DISABLE_EXPIRATION_PROPERTY_KEY);
@@ -79,6 +79,11 @@ class WorkerDaemonClient implements Worker, Stoppable {
         return logLevel;
     }
 
+    public void setLogLevel(LogLevel logLevel) {
+        workerDaemonProcess.setLogLevel(logLevel);
+        this.logLevel = logLevel;
+    }
+
     public boolean isProcess(WorkerProcess workerProcess) {
         return this.workerProcess.equals(workerProcess);
     }
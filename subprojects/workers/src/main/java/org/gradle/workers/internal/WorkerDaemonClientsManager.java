@@ -25,6 +25,8 @@ import org.gradle.api.logging.Logging;
 import org.gradle.api.specs.Spec;
 import org.gradle.initialization.SessionLifecycleListener;
 import org.gradle.internal.UncheckedException;
+import org.gradle.internal.concurrent.ExecutorFactory;
+import org.gradle.internal.concurrent.ManagedExecutor;
 import org.gradle.internal.concurrent.Stoppable;
 import org.gradle.internal.event.ListenerManager;
 import org.gradle.internal.exceptions.DefaultMultiCauseException;
@@ -39,16 +41,23 @@ import org.gradle.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class WorkerDaemonClientsManager implements Stoppable {
+    public static final String PREWARM_DAEMONS_PROPERTY_KEY = "org.gradle.workers.internal.prewarm-daemons";
 
     private static final Logger LOGGER = Logging.getLogger(WorkerDaemonClientsManager.class);
 
     private final Object lock = new Object();
     private final List<WorkerDaemonClient> allClients = new ArrayList<WorkerDaemonClient>();
     private final List<WorkerDaemonClient> idleClients = new ArrayList<WorkerDaemonClient>();
+    private final Map<WorkerDaemonClient, DaemonSpec> sessionScopedClientSpecs = new HashMap<WorkerDaemonClient, DaemonSpec>();
+    private final Map<WorkerDaemonClient, DaemonSpec> sessionScopedClientsUsed = new LinkedHashMap<WorkerDaemonClient, DaemonSpec>();
+    private final List<DaemonSpec> daemonsToPrewarm = new ArrayList<DaemonSpec>();
     private final Action<WorkerProcess> workerProcessCleanupAction = new WorkerProcessCleanupAction();
 
     private final WorkerDaemonStarter workerDaemonStarter;
@@ -59,9 +68,10 @@ public class WorkerDaemonClientsManager implements Stoppable {
     private final OutputEventListener logLevelChangeEventListener;
     private final WorkerDaemonExpiration workerDaemonExpiration;
     private final MemoryManager memoryManager;
+    private final ManagedExecutor prewarmExecutor;
     private volatile LogLevel currentLogLevel;
 
-    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo) {
+    public WorkerDaemonClientsManager(WorkerDaemonStarter workerDaemonStarter, ListenerManager listenerManager, LoggingManagerInternal loggingManager, MemoryManager memoryManager, OsMemoryInfo memoryInfo, ExecutorFactory executorFactory) {
         this.workerDaemonStarter = workerDaemonStarter;
         this.listenerManager = listenerManager;
         this.loggingManager = loggingManager;
@@ -74,6 +84,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
         this.memoryManager = memoryManager;
         this.workerDaemonExpiration = new WorkerDaemonExpiration(this, getTotalPhysicalMemory());
         memoryManager.addMemoryHolder(workerDaemonExpiration);
+        this.prewarmExecutor = executorFactory.create("Worker daemon pre-warming");
     }
 
     // TODO - should supply and check for the same parameters as passed to reserveNewClient()
@@ -82,19 +93,40 @@ public class WorkerDaemonClientsManager implements Stoppable {
     }
 
     WorkerDaemonClient reserveIdleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
+        while (true) {
+            WorkerDaemonClient candidate = takeCompatibleClient(forkOptions, clients);
+            if (candidate == null) {
+                return null;
+            }
+            // Do not hold the lock while changing the log level, as this waits for the worker daemon
+            if (candidate.getLogLevel() != currentLogLevel) {
+                try {
+                    candidate.setLogLevel(currentLogLevel);
+                } catch (Exception e) {
+                    LOGGER.info("Could not change log level of idle worker daemon, stopping worker daemon with out-of-date log level.", e);
+                    synchronized (lock) {
+                        allClients.remove(candidate);
+                        sessionScopedClientSpecs.remove(candidate);
+                    }
+                    candidate.stop();
+                    continue;
+                }
+            }
+            synchronized (lock) {
+                recordUsed(candidate);
+            }
+            return candidate;
+        }
+    }
+
+    private WorkerDaemonClient takeCompatibleClient(DaemonForkOptions forkOptions, List<WorkerDaemonClient> clients) {
         synchronized (lock) {
             Iterator<WorkerDaemonClient> it = clients.iterator();
             while (it.hasNext()) {
                 WorkerDaemonClient candidate = it.next();
                 if (candidate.isCompatibleWith(forkOptions)) {
                     it.remove();
-                    if (candidate.getLogLevel() != currentLogLevel) {
-                        // TODO: Send a message to workers to change their log level rather than stopping
-                        LOGGER.info("Log level has changed, stopping idle worker daemon with out-of-date log level.");
-                        candidate.stop();
-                    } else {
-                        return candidate;
-                    }
+                    return candidate;
                 }
             }
             return null;
@@ -102,14 +134,36 @@ public class WorkerDaemonClientsManager implements Stoppable {
     }
 
     public WorkerDaemonClient reserveNewClient(Class<? extends WorkerProtocol> workerProtocolImplementationClass, DaemonForkOptions forkOptions) {
+        WorkerDaemonClient client = startClient(new DaemonSpec(workerProtocolImplementationClass, forkOptions));
+        synchronized (lock) {
+            recordUsed(client);
+        }
+        return client;
+    }
+
+    private WorkerDaemonClient startClient(DaemonSpec daemonSpec) {
         //allow the daemon to be started concurrently
-        WorkerDaemonClient client = workerDaemonStarter.startDaemon(workerProtocolImplementationClass, forkOptions, workerProcessCleanupAction);
+        WorkerDaemonClient client = workerDaemonStarter.startDaemon(daemonSpec.workerProtocolImplementationClass, daemonSpec.forkOptions, workerProcessCleanupAction);
         synchronized (lock) {
             allClients.add(client);
+            if (daemonSpec.forkOptions.getKeepAliveMode() == KeepAliveMode.SESSION) {
+                sessionScopedClientSpecs.put(client, daemonSpec);
+            }
         }
         return client;
     }
 
+    /**
+     * Records that a session-scoped client was used by the current session, so that a daemon is pre-warmed for it in the next session.
+     * Pre-warmed daemons that are never reserved are not recorded, so they are not pre-warmed again.
+     */
+    private void recordUsed(WorkerDaemonClient client) {
+        DaemonSpec daemonSpec = sessionScopedClientSpecs.get(client);
+        if (daemonSpec != null) {
+            sessionScopedClientsUsed.put(client, daemonSpec);
+        }
+    }
+
     public void release(WorkerDaemonClient client) {
         synchronized (lock) {
             if (!client.isFailed()) {
@@ -120,10 +174,14 @@ public class WorkerDaemonClientsManager implements Stoppable {
 
     @Override
     public void stop() {
+        // Wait for any daemons still being pre-warmed, so that they are stopped below
+        prewarmExecutor.stop();
         synchronized (lock) {
             stopWorkers(allClients);
             allClients.clear();
             idleClients.clear();
+            sessionScopedClientSpecs.clear();
+            sessionScopedClientsUsed.clear();
             listenerManager.removeListener(stopSessionScopeWorkers);
             memoryManager.removeMemoryHolder(workerDaemonExpiration);
         }
@@ -173,6 +231,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
             }
             idleClients.removeAll(clientsToStop);
             allClients.removeAll(clientsToStop);
+            sessionScopedClientSpecs.keySet().removeAll(clientsToStop);
             if (!failures.isEmpty()) {
                 if (failures.size() == 1) {
                     throw UncheckedException.throwAsUncheckedException(failures.get(0));
@@ -185,13 +244,58 @@ public class WorkerDaemonClientsManager implements Stoppable {
         }
     }
 
+    private void prewarmDaemons() {
+        List<DaemonSpec> daemonsToStart;
+        synchronized (lock) {
+            daemonsToStart = new ArrayList<DaemonSpec>(daemonsToPrewarm);
+            daemonsToPrewarm.clear();
+        }
+        if (!daemonsToStart.isEmpty()) {
+            LOGGER.debug("Pre-warming {} worker daemon(s).", daemonsToStart.size());
+        }
+        for (final DaemonSpec daemonSpec : daemonsToStart) {
+            prewarmExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        release(startClient(daemonSpec));
+                    } catch (Exception e) {
+                        // The daemon will be started on demand instead
+                        LOGGER.info("Could not pre-warm worker daemon.", e);
+                    }
+                }
+            });
+        }
+    }
+
+    private static class DaemonSpec {
+        private final Class<? extends WorkerProtocol> workerProtocolImplementationClass;
+        private final DaemonForkOptions forkOptions;
+
+        DaemonSpec(Class<? extends WorkerProtocol> workerProtocolImplementationClass, DaemonForkOptions forkOptions) {
+            this.workerProtocolImplementationClass = workerProtocolImplementationClass;
+            this.forkOptions = forkOptions;
+        }
+    }
+
+    /**
+     * Stops the session-scoped workers at the end of a session. When pre-warming is enabled, the session-scoped workers used by a session are
+     * started again in the background at the start of the next session, so that builds do not have to wait for them to start.
+     */
     private class StopSessionScopedWorkers implements SessionLifecycleListener {
         @Override
-        public void afterStart() { }
+        public void afterStart() {
+            if (Boolean.getBoolean(PREWARM_DAEMONS_PROPERTY_KEY)) {
+                prewarmDaemons();
+            }
+        }
 
         @Override
         public void beforeComplete() {
             synchronized (lock) {
+                daemonsToPrewarm.clear();
+                daemonsToPrewarm.addAll(sessionScopedClientsUsed.values());
+                sessionScopedClientsUsed.clear();
                 List<WorkerDaemonClient> sessionScopedClients = CollectionUtils.filter(allClients, new Spec<WorkerDaemonClient>() {
                     @Override
                     public boolean isSatisfiedBy(WorkerDaemonClient client) {
@@ -223,6 +327,7 @@ public class WorkerDaemonClientsManager implements Stoppable {
                     if (client.isProcess(workerProcess)) {
                         client.setFailed(true);
                         iterator.remove();
+                        sessionScopedClientSpecs.remove(client);
                     }
                 }
             }
@@ -19,15 +19,23 @@ package org.gradle.workers.internal;
 import org.gradle.api.internal.AsmBackedClassGenerator;
 import org.gradle.api.internal.DefaultInstantiatorFactory;
 import org.gradle.api.internal.InstantiatorFactory;
+import org.gradle.api.logging.LogLevel;
 import org.gradle.cache.internal.DefaultCrossBuildInMemoryCacheFactory;
 import org.gradle.internal.event.DefaultListenerManager;
+import org.gradle.internal.logging.LoggingManagerInternal;
+
+import javax.inject.Inject;
 
 public class WorkerDaemonServer extends DefaultWorkerServer {
     // Services for this process. They shouldn't be static, make them injectable instead
     private static final InstantiatorFactory INSTANTIATOR_FACTORY = new DefaultInstantiatorFactory(new AsmBackedClassGenerator(), new DefaultCrossBuildInMemoryCacheFactory(new DefaultListenerManager()));
 
-    public WorkerDaemonServer() {
+    private final LoggingManagerInternal loggingManager;
+
+    @Inject
+    public WorkerDaemonServer(LoggingManagerInternal loggingManager) {
         super(INSTANTIATOR_FACTORY.inject());
+        this.loggingManager = loggingManager;
     }
 
     @Override
@@ -39,6 +47,10 @@ public class WorkerDaemonServer extends DefaultWorkerServer {
         }
     }
 
+    public void setLogLevel(LogLevel logLevel) {
+        loggingManager.setLevelInternal(logLevel);
+    }
+
     @Override
     public String toString() {
         return "WorkerDaemonServer{}";
@@ -0,0 +1,335 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal;
+
+import org.gradle.internal.io.ClassLoaderObjectInputStream;
+import org.gradle.internal.serialize.Decoder;
+import org.gradle.internal.serialize.Encoder;
+import org.gradle.internal.serialize.kryo.KryoBackedDecoder;
+import org.gradle.internal.serialize.kryo.KryoBackedEncoder;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes the parameters of a work item.
+ *
+ * <p>When the parameters are made up only of strings, boxed primitives, files, byte arrays, enums and the common JDK collections of these,
+ * they are written using a Gradle {@link Encoder}, which is much cheaper than Java serialization. Otherwise, all of the parameters are written
+ * using a single {@link ObjectOutputStream}, so that an object that is referenced from more than one place in the parameters is still a single
+ * object after deserialization.</p>
+ */
+class WorkerParameterSerializer {
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte INTEGER = 3;
+    private static final byte LONG = 4;
+    private static final byte SHORT = 5;
+    private static final byte BYTE = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte FILE = 9;
+    private static final byte BYTE_ARRAY = 10;
+    private static final byte ENUM = 11;
+    private static final byte ARRAY_LIST = 12;
+    private static final byte HASH_SET = 13;
+    private static final byte LINKED_HASH_SET = 14;
+    private static final byte HASH_MAP = 15;
+    private static final byte LINKED_HASH_MAP = 16;
+    private static final byte COLLECTION_REFERENCE = 17;
+
+    private WorkerParameterSerializer() {
+    }
+
+    static SerializedParameters serialize(Object[] params) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        KryoBackedEncoder encoder = new KryoBackedEncoder(bos);
+        Writer writer = new Writer(encoder);
+        try {
+            encoder.writeSmallInt(params.length);
+            for (Object param : params) {
+                if (!writer.write(param)) {
+                    return new SerializedParameters(null, javaSerialize(params));
+                }
+            }
+            encoder.flush();
+        } catch (IOException e) {
+            throw new SerializingActionExecutionSpec.ParameterSerializationException("Could not serialize parameters", e);
+        }
+        return new SerializedParameters(bos.toByteArray(), null);
+    }
+
+    static Object[] deserialize(SerializedParameters serialized, ClassLoader classLoader) {
+        try {
+            if (serialized.encoded == null) {
+                return javaDeserialize(serialized.javaSerialized, classLoader);
+            }
+            Reader reader = new Reader(new KryoBackedDecoder(new ByteArrayInputStream(serialized.encoded)), classLoader);
+            int count = reader.decoder.readSmallInt();
+            Object[] params = new Object[count];
+            for (int i = 0; i < count; i++) {
+                params[i] = reader.read();
+            }
+            return params;
+        } catch (IOException e) {
+            throw new SerializingActionExecutionSpec.ParameterSerializationException("Could not deserialize parameters", e);
+        } catch (ClassNotFoundException e) {
+            throw new SerializingActionExecutionSpec.ParameterSerializationException("Could not deserialize parameters", e);
+        }
+    }
+
+    private static byte[] javaSerialize(Object[] values) {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try {
+            ObjectOutputStream oos = new ObjectOutputStream(bos);
+            oos.writeObject(values);
+            oos.close();
+        } catch (IOException e) {
+            throw new SerializingActionExecutionSpec.ParameterSerializationException("Could not serialize parameters", e);
+        }
+        return bos.toByteArray();
+    }
+
+    private static Object[] javaDeserialize(byte[] bytes, ClassLoader classLoader) throws IOException, ClassNotFoundException {
+        ObjectInputStream ois = new ClassLoaderObjectInputStream(new ByteArrayInputStream(bytes), classLoader);
+        return (Object[]) ois.readObject();
+    }
+
+    /**
+     * Writes values, keeping track of the collections already written so that a collection that is referenced more than once, possibly
+     * from within itself, is written once and then referred to by its index, in the same way as Java serialization does.
+     */
+    private static class Writer {
+        private final Encoder encoder;
+        private final Map<Object, Integer> collections = new IdentityHashMap<Object, Integer>();
+
+        Writer(Encoder encoder) {
+            this.encoder = encoder;
+        }
+
+        /**
+         * Writes the given value.
+         *
+         * @return false when the value is or contains a value of a type that this writer cannot write, in which case the output is incomplete.
+         */
+        boolean write(@Nullable Object value) throws IOException {
+            if (value == null) {
+                encoder.writeByte(NULL);
+                return true;
+            }
+            Class<?> type = value.getClass();
+            if (type == String.class) {
+                encoder.writeByte(STRING);
+                encoder.writeString((String) value);
+            } else if (type == Boolean.class) {
+                encoder.writeByte(BOOLEAN);
+                encoder.writeBoolean((Boolean) value);
+            } else if (type == Integer.class) {
+                encoder.writeByte(INTEGER);
+                encoder.writeInt((Integer) value);
+            } else if (type == Long.class) {
+                encoder.writeByte(LONG);
+                encoder.writeLong((Long) value);
+            } else if (type == Short.class) {
+                encoder.writeByte(SHORT);
+                encoder.writeInt((Short) value);
+            } else if (type == Byte.class) {
+                encoder.writeByte(BYTE);
+                encoder.writeByte((Byte) value);
+            } else if (type == Float.class) {
+                encoder.writeByte(FLOAT);
+                encoder.writeInt(Float.floatToRawIntBits((Float) value));
+            } else if (type == Double.class) {
+                encoder.writeByte(DOUBLE);
+                encoder.writeLong(Double.doubleToRawLongBits((Double) value));
+            } else if (type == File.class) {
+                encoder.writeByte(FILE);
+                encoder.writeString(((File) value).getPath());
+            } else if (type == byte[].class) {
+                encoder.writeByte(BYTE_ARRAY);
+                encoder.writeBinary((byte[]) value);
+            } else if (value instanceof Enum) {
+                encoder.writeByte(ENUM);
+                Enum<?> enumValue = (Enum<?>) value;
+                encoder.writeString(enumValue.getDeclaringClass().getName());
+                encoder.writeString(enumValue.name());
+            } else if (type == ArrayList.class || type == HashSet.class || type == LinkedHashSet.class || type == HashMap.class || type == LinkedHashMap.class) {
+                return writeCollection(value, type);
+            } else {
+                return false;
+            }
+            return true;
+        }
+
+        private boolean writeCollection(Object value, Class<?> type) throws IOException {
+            Integer index = collections.get(value);
+            if (index != null) {
+                encoder.writeByte(COLLECTION_REFERENCE);
+                encoder.writeSmallInt(index);
+                return true;
+            }
+            // Register the collection before writing its contents, so that the contents can refer to it
+            collections.put(value, collections.size());
+            if (type == ArrayList.class) {
+                encoder.writeByte(ARRAY_LIST);
+                return writeElements((Collection<?>) value);
+            } else if (type == HashSet.class) {
+                encoder.writeByte(HASH_SET);
+                return writeElements((Collection<?>) value);
+            } else if (type == LinkedHashSet.class) {
+                encoder.writeByte(LINKED_HASH_SET);
+                return writeElements((Collection<?>) value);
+            } else if (type == HashMap.class) {
+                encoder.writeByte(HASH_MAP);
+                return writeEntries((Map<?, ?>) value);
+            } else {
+                encoder.writeByte(LINKED_HASH_MAP);
+                return writeEntries((Map<?, ?>) value);
+            }
+        }
+
+        private boolean writeElements(Collection<?> elements) throws IOException {
+            encoder.writeSmallInt(elements.size());
+            for (Object element : elements) {
+                if (!write(element)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean writeEntries(Map<?, ?> entries) throws IOException {
+            encoder.writeSmallInt(entries.size());
+            for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                if (!write(entry.getKey()) || !write(entry.getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class Reader {
+        private final Decoder decoder;
+        private final ClassLoader classLoader;
+        private final List<Object> collections = new ArrayList<Object>();
+
+        Reader(Decoder decoder, ClassLoader classLoader) {
+            this.decoder = decoder;
+            this.classLoader = classLoader;
+        }
+
+        @Nullable
+        Object read() throws IOException, ClassNotFoundException {
+            byte tag = decoder.readByte();
+            switch (tag) {
+                case NULL:
+                    return null;
+                case STRING:
+                    return decoder.readString();
+                case BOOLEAN:
+                    return decoder.readBoolean();
+                case INTEGER:
+                    return decoder.readInt();
+                case LONG:
+                    return decoder.readLong();
+                case SHORT:
+                    return (short) decoder.readInt();
+                case BYTE:
+                    return decoder.readByte();
+                case FLOAT:
+                    return Float.intBitsToFloat(decoder.readInt());
+                case DOUBLE:
+                    return Double.longBitsToDouble(decoder.readLong());
+                case FILE:
+                    return new File(decoder.readString());
+                case BYTE_ARRAY:
+                    return decoder.readBinary();
+                case ENUM:
+                    return readEnum();
+                case ARRAY_LIST:
+                    return readElements(new ArrayList<Object>());
+                case HASH_SET:
+                    return readElements(new HashSet<Object>());
+                case LINKED_HASH_SET:
+                    return readElements(new LinkedHashSet<Object>());
+                case HASH_MAP:
+                    return readEntries(new HashMap<Object, Object>());
+                case LINKED_HASH_MAP:
+                    return readEntries(new LinkedHashMap<Object, Object>());
+                case COLLECTION_REFERENCE:
+                    return collections.get(decoder.readSmallInt());
+                default:
+                    throw new IOException("Unexpected parameter type tag " + tag);
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private Object readEnum() throws IOException, ClassNotFoundException {
+            Class<? extends Enum> type = Class.forName(decoder.readString(), false, classLoader).asSubclass(Enum.class);
+            return Enum.valueOf(type, decoder.readString());
+        }
+
+        private Collection<Object> readElements(Collection<Object> elements) throws IOException, ClassNotFoundException {
+            collections.add(elements);
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                elements.add(read());
+            }
+            return elements;
+        }
+
+        private Map<Object, Object> readEntries(Map<Object, Object> entries) throws IOException, ClassNotFoundException {
+            collections.add(entries);
+            int count = decoder.readSmallInt();
+            for (int i = 0; i < count; i++) {
+                Object key = read();
+                entries.put(key, read());
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * The serialized form of a set of parameters. Exactly one of the encoded and the Java serialized forms is present.
+     */
+    static class SerializedParameters implements Serializable {
+        private final byte[] encoded;
+        private final byte[] javaSerialized;
+
+        SerializedParameters(@Nullable byte[] encoded, @Nullable byte[] javaSerialized) {
+            this.encoded = encoded;
+            this.javaSerialized = javaSerialized;
+        }
+    }
+}
@@ -52,6 +52,35 @@ class WorkerDaemonClientTest extends Specification {
         client.uses == 5
     }
 
+    def "changes log level of underlying worker"() {
+        def workerDaemonProcess = Mock(WorkerDaemonProcess)
+
+        given:
+        client = client(workerDaemonProcess)
+
+        when:
+        client.setLogLevel(LogLevel.DEBUG)
+
+        then:
+        1 * workerDaemonProcess.setLogLevel(LogLevel.DEBUG)
+        client.logLevel == LogLevel.DEBUG
+    }
+
+    def "keeps log level when underlying worker cannot change it"() {
+        def workerDaemonProcess = Mock(WorkerDaemonProcess)
+
+        given:
+        client = client(workerDaemonProcess)
+
+        when:
+        client.setLogLevel(LogLevel.DEBUG)
+
+        then:
+        1 * workerDaemonProcess.setLogLevel(LogLevel.DEBUG) >> { throw new RuntimeException("broken") }
+        thrown(RuntimeException)
+        client.logLevel == LogLevel.INFO
+    }
+
     WorkerDaemonClient client() {
         return client(Mock(WorkerDaemonProcess))
     }
@@ -19,6 +19,8 @@ package org.gradle.workers.internal
 import org.gradle.api.Transformer
 import org.gradle.api.logging.LogLevel
 import org.gradle.initialization.SessionLifecycleListener
+import org.gradle.internal.concurrent.ExecutorFactory
+import org.gradle.internal.concurrent.ManagedExecutor
 import org.gradle.internal.event.DefaultListenerManager
 import org.gradle.internal.event.ListenerManager
 import org.gradle.internal.exceptions.DefaultMultiCauseException
@@ -29,9 +31,12 @@ import org.gradle.process.internal.ExecException
 import org.gradle.process.internal.health.memory.MBeanOsMemoryInfo
 import org.gradle.process.internal.health.memory.MemoryManager
 import org.gradle.util.ConcurrentSpecification
+import org.gradle.util.SetSystemProperties
+import org.junit.Rule
 import spock.lang.Subject
 
 class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
+    @Rule SetSystemProperties systemProperties = new SetSystemProperties()
 
     def workingDir = new File("some-dir")
 
@@ -41,8 +46,13 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
     def listenerManager = Stub(ListenerManager)
     def loggingManager = Stub(LoggingManagerInternal)
     def memoryManager = Mock(MemoryManager)
+    def executorFactory = Stub(ExecutorFactory) {
+        create(_) >> Stub(ManagedExecutor) {
+            execute(_) >> { Runnable action -> action.run() }
+        }
+    }
 
-    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+    @Subject manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
 
     def "does not reserve idle client when no clients"() {
         expect:
@@ -151,7 +161,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "can stop session-scoped clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options, _) >>> [client1, client2]
@@ -170,7 +180,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
     def "Stopping session-scoped clients does not stop other clients"() {
         listenerManager = new DefaultListenerManager()
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
         def client1 = Mock(WorkerDaemonClient)
         def client2 = Mock(WorkerDaemonClient)
         starter.startDaemon(serverImpl.class, options, _) >>> [client1, client2]
@@ -207,7 +217,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         manager.reserveIdleClient(options) == client
     }
 
-    def "clients are discarded when log level changes"() {
+    def "log level of idle clients is updated when log level changes"() {
         OutputEventListener listener
         def client = Mock(WorkerDaemonClient) {
             isCompatibleWith(_) >> true
@@ -218,7 +228,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         loggingManager.getLevel() >> LogLevel.INFO
 
         when:
-        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
 
         then:
         listener != null
@@ -231,13 +241,116 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
 
         when:
         listener.onOutput(Stub(LogLevelChangeEvent) { getNewLogLevel() >> LogLevel.QUIET })
+        def reserved = manager.reserveIdleClient(options)
+
+        then:
+        1 * client.setLogLevel(LogLevel.QUIET)
+        0 * client.stop()
+        reserved == client
+    }
+
+    def "clients are discarded when log level cannot be updated"() {
+        OutputEventListener listener
+        def client = Mock(WorkerDaemonClient) {
+            isCompatibleWith(_) >> true
+            getLogLevel() >> LogLevel.INFO
+        }
+        starter.startDaemon(serverImpl.class, options, _) >> client
+        loggingManager.addOutputEventListener(_) >> { args  -> listener = args[0] }
+        loggingManager.getLevel() >> LogLevel.INFO
+
+        when:
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
+        manager.reserveNewClient(serverImpl.class, options)
+        manager.release(client)
+        listener.onOutput(Stub(LogLevelChangeEvent) { getNewLogLevel() >> LogLevel.QUIET })
         def shouldBeNull = manager.reserveIdleClient(options)
 
         then:
+        1 * client.setLogLevel(LogLevel.QUIET) >> { throw new RuntimeException("broken") }
         1 * client.stop()
         shouldBeNull == null
     }
 
+    def "pre-warms session-scoped clients used by the previous session when enabled"() {
+        System.setProperty(WorkerDaemonClientsManager.PREWARM_DAEMONS_PROPERTY_KEY, "true")
+        listenerManager = new DefaultListenerManager()
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
+        def sessionOptions = Stub(DaemonForkOptions) { getKeepAliveMode() >> KeepAliveMode.SESSION }
+        def client1 = Mock(WorkerDaemonClient) { getKeepAliveMode() >> KeepAliveMode.SESSION }
+        def client2 = Mock(WorkerDaemonClient) { getKeepAliveMode() >> KeepAliveMode.SESSION }
+        def prewarmed1 = Mock(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        def prewarmed2 = Mock(WorkerDaemonClient) { isCompatibleWith(_) >> true }
+        starter.startDaemon(serverImpl.class, sessionOptions, _) >>> [client1, client2, prewarmed1, prewarmed2]
+
+        when:
+        manager.reserveNewClient(serverImpl.class, sessionOptions)
+        manager.reserveNewClient(serverImpl.class, sessionOptions)
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+        listenerManager.getBroadcaster(SessionLifecycleListener).afterStart()
+
+        then:
+        1 * client1.stop()
+        1 * client2.stop()
+
+        and:
+        manager.reserveIdleClient(sessionOptions) == prewarmed1
+        manager.reserveIdleClient(sessionOptions) == prewarmed2
+        manager.reserveIdleClient(sessionOptions) == null
+    }
+
+    def "does not pre-warm again clients that were pre-warmed but not used by the previous session"() {
+        System.setProperty(WorkerDaemonClientsManager.PREWARM_DAEMONS_PROPERTY_KEY, "true")
+        listenerManager = new DefaultListenerManager()
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
+        def sessionOptions = Stub(DaemonForkOptions) { getKeepAliveMode() >> KeepAliveMode.SESSION }
+        def client1 = Mock(WorkerDaemonClient) { getKeepAliveMode() >> KeepAliveMode.SESSION }
+        def client2 = Mock(WorkerDaemonClient) { getKeepAliveMode() >> KeepAliveMode.SESSION }
+        def prewarmed1 = Mock(WorkerDaemonClient) { isCompatibleWith(_) >> true; getKeepAliveMode() >> KeepAliveMode.SESSION }
+        def prewarmed2 = Mock(WorkerDaemonClient) { isCompatibleWith(_) >> true; getKeepAliveMode() >> KeepAliveMode.SESSION }
+        def prewarmed3 = Mock(WorkerDaemonClient) { isCompatibleWith(_) >> true; getKeepAliveMode() >> KeepAliveMode.SESSION }
+        starter.startDaemon(serverImpl.class, sessionOptions, _) >>> [client1, client2, prewarmed1, prewarmed2, prewarmed3]
+        def sessionListener = listenerManager.getBroadcaster(SessionLifecycleListener)
+
+        when:
+        manager.reserveNewClient(serverImpl.class, sessionOptions)
+        manager.reserveNewClient(serverImpl.class, sessionOptions)
+        sessionListener.beforeComplete()
+        sessionListener.afterStart()
+        def reserved = manager.reserveIdleClient(sessionOptions)
+        manager.release(reserved)
+        sessionListener.beforeComplete()
+        sessionListener.afterStart()
+
+        then:
+        reserved == prewarmed1
+        1 * prewarmed1.stop()
+        1 * prewarmed2.stop()
+
+        and:
+        manager.reserveIdleClient(sessionOptions) == prewarmed3
+        manager.reserveIdleClient(sessionOptions) == null
+    }
+
+    def "does not pre-warm clients by default"() {
+        listenerManager = new DefaultListenerManager()
+        manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
+        def sessionOptions = Stub(DaemonForkOptions) { getKeepAliveMode() >> KeepAliveMode.SESSION }
+        def client = Mock(WorkerDaemonClient) { getKeepAliveMode() >> KeepAliveMode.SESSION }
+        starter.startDaemon(serverImpl.class, sessionOptions, _) >> client
+
+        when:
+        manager.reserveNewClient(serverImpl.class, sessionOptions)
+        listenerManager.getBroadcaster(SessionLifecycleListener).beforeComplete()
+        listenerManager.getBroadcaster(SessionLifecycleListener).afterStart()
+
+        then:
+        1 * client.stop()
+
+        and:
+        manager.reserveIdleClient(sessionOptions) == null
+    }
+
     def "prefers to stop less frequently used idle clients when releasing memory"() {
         def client1 = Mock(WorkerDaemonClient) { _ * getUses() >> 5 }
         def client2 = Mock(WorkerDaemonClient) { _ * getUses() >> 1 }
@@ -295,7 +408,7 @@ class WorkerDaemonClientsManagerTest extends ConcurrentSpecification {
         WorkerDaemonExpiration workerDaemonExpiration
 
         when:
-        def manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo())
+        def manager = new WorkerDaemonClientsManager(starter, listenerManager, loggingManager, memoryManager, new MBeanOsMemoryInfo(), executorFactory)
 
         then:
         1 * memoryManager.addMemoryHolder(_) >> { args -> workerDaemonExpiration = args[0] }
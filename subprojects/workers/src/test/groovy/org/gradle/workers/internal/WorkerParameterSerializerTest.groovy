@@ -0,0 +1,163 @@
+/*
+ * Copyright 2018 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.gradle.workers.internal
+
+import org.gradle.workers.IsolationMode
+import spock.lang.Specification
+
+class WorkerParameterSerializerTest extends Specification {
+    def "can serialize and deserialize parameters"() {
+        def params = [
+            null,
+            "string",
+            true,
+            123,
+            123L,
+            (short) 12,
+            (byte) 1,
+            1.5f,
+            2.5d,
+            new File("some/file"),
+            [1, 2, 3] as byte[],
+            IsolationMode.PROCESS,
+            ["a", null, new File("b")],
+            ["a", "b"] as HashSet,
+            ["a", "b"] as LinkedHashSet,
+            [a: 1, b: [2, 3]],
+            new HashMap([a: new File("c")]),
+            new BigDecimal("12.5"),
+            new SerializableBean(name: "bean")
+        ] as Object[]
+
+        when:
+        def result = roundTrip(params)
+
+        then:
+        result.length == params.length
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] instanceof byte[]) {
+                assert Arrays.equals(result[i] as byte[], params[i] as byte[])
+            } else {
+                assert result[i] == params[i]
+                assert result[i]?.getClass() == params[i]?.getClass()
+            }
+        }
+    }
+
+    def "serializes values of unknown type using Java serialization"() {
+        def params = [new SerializableBean(name: "one"), [new SerializableBean(name: "two")]] as Object[]
+
+        when:
+        def result = roundTrip(params)
+
+        then:
+        result[0] == params[0]
+        !result[0].is(params[0])
+        result[1] == params[1]
+    }
+
+    def "preserves objects that are referenced both from values of known type and values of unknown type"() {
+        def shared = ["a", "b"]
+        def bean = new SerializableBean(name: "bean", value: shared)
+        def params = [shared, bean, [bean]] as Object[]
+
+        when:
+        def serialized = WorkerParameterSerializer.serialize(params)
+        def result = WorkerParameterSerializer.deserialize(serialized, getClass().classLoader)
+
+        then:
+        serialized.encoded == null
+        result[0] == shared
+        result[1].value.is(result[0])
+        result[2][0].is(result[1])
+    }
+
+    def "preserves collections that are referenced more than once"() {
+        def shared = ["a", "b"]
+        def map = [first: shared, second: shared]
+        def params = [shared, map, [shared] as HashSet] as Object[]
+
+        when:
+        def result = roundTrip(params)
+
+        then:
+        result[0] == shared
+        result[1].first.is(result[0])
+        result[1].second.is(result[0])
+        result[2].iterator().next().is(result[0])
+    }
+
+    def "can serialize collections that contain themselves"() {
+        def list = new ArrayList<Object>()
+        def map = new HashMap<String, Object>()
+        list.add("a")
+        list.add(list)
+        list.add(map)
+        map.put("list", list)
+        map.put("self", map)
+
+        when:
+        def result = roundTrip([list] as Object[])
+
+        then:
+        def resultList = result[0] as List
+        resultList.size() == 3
+        resultList[0] == "a"
+        resultList[1].is(resultList)
+        def resultMap = resultList[2] as Map
+        resultMap.size() == 2
+        resultMap.list.is(resultList)
+        resultMap.self.is(resultMap)
+    }
+
+    def "does not use Java serialization when all values are of a known type"() {
+        when:
+        def serialized = WorkerParameterSerializer.serialize(["a", 1, new File("b")] as Object[])
+
+        then:
+        serialized.javaSerialized == null
+    }
+
+    def "fails to serialize parameters that are not serializable"() {
+        when:
+        WorkerParameterSerializer.serialize(["a", [new Object()]] as Object[])
+
+        then:
+        def e = thrown(SerializingActionExecutionSpec.ParameterSerializationException)
+        e.message == "Could not serialize parameters"
+        e.cause instanceof NotSerializableException
+    }
+
+    def roundTrip(Object[] params) {
+        return WorkerParameterSerializer.deserialize(WorkerParameterSerializer.serialize(params), getClass().classLoader)
+    }
+
+    static class SerializableBean implements Serializable {
+        String name
+        Object value
+
+        @Override
+        boolean equals(Object o) {
+            return o instanceof SerializableBean && o.name == name
+        }
+
+        @Override
+        int hashCode() {
+            return name.hashCode()
+        }
+    }
+}